@@ -7,11 +7,19 @@
  */
 package org.opensearch.search.relevance;
 
+import org.opensearch.action.ActionRequest;
 import org.opensearch.action.support.ActionFilter;
 import org.opensearch.client.Client;
 import org.opensearch.cluster.metadata.IndexNameExpressionResolver;
+import org.opensearch.cluster.node.DiscoveryNodes;
 import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.IndexScopedSettings;
 import org.opensearch.common.settings.Setting;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.settings.SettingsFilter;
+import org.opensearch.common.util.concurrent.OpenSearchExecutors;
+import org.opensearch.core.action.ActionResponse;
 import org.opensearch.core.common.io.stream.NamedWriteableRegistry;
 import org.opensearch.core.xcontent.NamedXContentRegistry;
 import org.opensearch.env.Environment;
@@ -21,20 +29,37 @@ import org.opensearch.plugins.Plugin;
 import org.opensearch.plugins.SearchPipelinePlugin;
 import org.opensearch.plugins.SearchPlugin;
 import org.opensearch.repositories.RepositoriesService;
+import org.opensearch.rest.RestController;
+import org.opensearch.rest.RestHandler;
 import org.opensearch.script.ScriptService;
 import org.opensearch.search.pipeline.Processor;
 import org.opensearch.search.pipeline.SearchResponseProcessor;
 import org.opensearch.search.relevance.actionfilter.SearchActionFilter;
 import org.opensearch.search.relevance.client.OpenSearchClient;
+import org.opensearch.search.relevance.configuration.IndexConfigurationCache;
 import org.opensearch.search.relevance.configuration.ResultTransformerConfigurationFactory;
 import org.opensearch.search.relevance.configuration.SearchConfigurationExtBuilder;
+import org.opensearch.search.relevance.stats.RestSearchRelevanceStatsAction;
+import org.opensearch.search.relevance.stats.SearchRelevanceStats;
 import org.opensearch.search.relevance.transformer.ResultTransformer;
+import org.opensearch.search.relevance.transformer.ResultTransformerResponseExtBuilder;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.KendraIntelligentRanker;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.cache.PassageCache;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.cache.RescoreResultCache;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraClientSettings;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraHttpClient;
+import org.opensearch.search.relevance.client.LatencyBudget;
+import org.opensearch.search.relevance.client.RateLimiter;
+import org.opensearch.search.relevance.client.RemoteCallGuard;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.RescoreRequestCoalescer;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.RescoreRequestHedger;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankingConfigurationFactory;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.pipeline.KendraRankingResponseProcessor;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.stats.KendraIntelligentRankingStatsAction;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.stats.TransportKendraIntelligentRankingStatsAction;
+import org.opensearch.threadpool.ExecutorBuilder;
+import org.opensearch.threadpool.FixedExecutorBuilder;
 import org.opensearch.threadpool.ThreadPool;
 import org.opensearch.watcher.ResourceWatcherService;
 
@@ -43,15 +68,31 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class AmazonKendraIntelligentRankingPlugin extends Plugin implements ActionPlugin, SearchPlugin, SearchPipelinePlugin {
 
     private OpenSearchClient openSearchClient;
+    private IndexConfigurationCache indexConfigurationCache;
+    private ClusterService clusterService;
+    private IndexNameExpressionResolver indexNameExpressionResolver;
     private KendraHttpClient kendraClient;
     private KendraIntelligentRanker kendraIntelligentRanker;
     private KendraClientSettings kendraClientSettings;
+    private RescoreResultCache rescoreResultCache;
+    private PassageCache passageCache;
+    private RescoreRequestCoalescer rescoreCoalescer;
+    private LatencyBudget latencyBudget;
+    private RemoteCallGuard callGuard;
+    private RateLimiter rateLimiter;
+    private RescoreRequestHedger requestHedger;
+    private SearchRelevanceStats stats;
+    private Function<KendraHttpClient, KendraIntelligentRanker> rankerFactory;
+    private KendraRankingResponseProcessor.Factory responseProcessorFactory;
+    private ThreadPool threadPool;
 
     private Collection<ResultTransformer> getAllResultTransformers() {
         // Initialize and add other transformers here
@@ -64,7 +105,31 @@ public class AmazonKendraIntelligentRankingPlugin extends Plugin implements Acti
 
     @Override
     public List<ActionFilter> getActionFilters() {
-        return Arrays.asList(new SearchActionFilter(getAllResultTransformers(), openSearchClient));
+        return Arrays.asList(SearchActionFilter.builder(getAllResultTransformers(), openSearchClient)
+                .indexConfigurationCache(indexConfigurationCache)
+                .indexResolution(clusterService, indexNameExpressionResolver)
+                .stats(stats)
+                .build());
+    }
+
+    @Override
+    public List<ActionHandler<? extends ActionRequest, ? extends ActionResponse>> getActions() {
+        return List.of(new ActionHandler<>(KendraIntelligentRankingStatsAction.INSTANCE,
+                TransportKendraIntelligentRankingStatsAction.class));
+    }
+
+    @Override
+    public List<RestHandler> getRestHandlers(
+            Settings settings,
+            RestController restController,
+            ClusterSettings clusterSettings,
+            IndexScopedSettings indexScopedSettings,
+            SettingsFilter settingsFilter,
+            IndexNameExpressionResolver indexNameExpressionResolver,
+            Supplier<DiscoveryNodes> nodesInCluster
+    ) {
+        return List.of(new RestSearchRelevanceStatsAction("kendra_intelligent_ranking",
+                KendraIntelligentRankingStatsAction.INSTANCE));
     }
 
     @Override
@@ -76,6 +141,14 @@ public class AmazonKendraIntelligentRankingPlugin extends Plugin implements Acti
         return allTransformerSettings;
     }
 
+    @Override
+    public List<ExecutorBuilder<?>> getExecutorBuilders(Settings settings) {
+        final int allocatedProcessors = OpenSearchExecutors.allocatedProcessors(settings);
+        return List.of(new FixedExecutorBuilder(settings, KendraIntelligentRanker.PREPROCESS_THREAD_POOL_NAME,
+                Math.max(1, Math.min(4, allocatedProcessors / 2)), 1000,
+                KendraIntelligentRankerSettings.PREPROCESS_THREAD_POOL_SETTING_PREFIX));
+    }
+
     @Override
     public Collection<Object> createComponents(
             Client client,
@@ -91,16 +164,86 @@ public class AmazonKendraIntelligentRankingPlugin extends Plugin implements Acti
             Supplier<RepositoriesService> repositoriesServiceSupplier
     ) {
         this.openSearchClient = new OpenSearchClient(client);
+        this.indexConfigurationCache = new IndexConfigurationCache();
+        clusterService.addListener(this.indexConfigurationCache);
+        this.clusterService = clusterService;
+        this.threadPool = threadPool;
+        this.indexNameExpressionResolver = indexNameExpressionResolver;
         this.kendraClientSettings = KendraClientSettings.getClientSettings(environment.settings());
-        this.kendraClient = new KendraHttpClient(this.kendraClientSettings);
-        this.kendraIntelligentRanker = new KendraIntelligentRanker(this.kendraClient);
+        this.callGuard = KendraIntelligentRankerSettings.createCallGuard(environment.settings());
+        this.rateLimiter = KendraIntelligentRankerSettings.createRateLimiter(environment.settings());
+        this.requestHedger = RescoreRequestHedger.create(environment.settings(), threadPool);
+        this.stats = new SearchRelevanceStats();
+        this.kendraClient = KendraHttpClient.builder(this.kendraClientSettings)
+                .callGuard(this.callGuard)
+                .rateLimiter(this.rateLimiter)
+                .requestHedger(this.requestHedger)
+                .threadPool(threadPool)
+                .metrics(this.stats.getTransformerMetrics(KendraIntelligentRanker.NAME))
+                .build();
+        final int prewarmConnections = this.kendraClientSettings.getConnectionSettings().getPrewarmConnections();
+        if (this.kendraClient.isValid() && prewarmConnections > 0) {
+            threadPool.generic().execute(() -> this.kendraClient.prewarm(prewarmConnections));
+        }
+        this.rescoreResultCache = RescoreResultCache.create(environment.settings());
+        this.passageCache = PassageCache.create(environment.settings());
+        final ExecutorService preprocessExecutor = KendraIntelligentRankerSettings.PREPROCESS_PARALLEL_ENABLED_SETTING.get(environment.settings())
+                ? threadPool.executor(KendraIntelligentRanker.PREPROCESS_THREAD_POOL_NAME) : null;
+        final int parallelThreshold = KendraIntelligentRankerSettings.PREPROCESS_PARALLEL_THRESHOLD_SETTING.get(environment.settings());
+        final int maxBodyLengthInChars = KendraIntelligentRankerSettings.PREPROCESS_BODY_MAX_CHARS_SETTING.get(environment.settings());
+        final int maxBodyLengthInTokens = KendraIntelligentRankerSettings.PREPROCESS_BODY_MAX_TOKENS_SETTING.get(environment.settings());
+        final boolean fetchRequiredFieldsOnly = KendraIntelligentRankerSettings.PREPROCESS_FETCH_REQUIRED_FIELDS_ONLY_SETTING.get(environment.settings());
+        this.rescoreCoalescer = KendraIntelligentRankerSettings.RESCORE_COALESCING_ENABLED_SETTING.get(environment.settings())
+                ? new RescoreRequestCoalescer() : null;
+        this.latencyBudget = new LatencyBudget(threadPool,
+                KendraIntelligentRankerSettings.RESCORE_LATENCY_BUDGET_SETTING.get(environment.settings()));
+        this.rankerFactory = kendraClient -> KendraIntelligentRanker.builder(kendraClient)
+                .rescoreResultCache(this.rescoreResultCache)
+                .passageCache(this.passageCache)
+                .preprocessExecutor(preprocessExecutor, parallelThreshold)
+                .maxBodyLength(maxBodyLengthInChars, maxBodyLengthInTokens)
+                .fetchRequiredFieldsOnly(fetchRequiredFieldsOnly)
+                .rescoreCoalescer(this.rescoreCoalescer)
+                .latencyBudget(this.latencyBudget)
+                .metrics(kendraClient.getMetrics())
+                .build();
+        this.kendraIntelligentRanker = this.rankerFactory.apply(this.kendraClient);
 
-        return Arrays.asList(
+        List<Object> components = new ArrayList<>(Arrays.asList(
                 this.openSearchClient,
+                this.indexConfigurationCache,
                 this.kendraClientSettings,
                 this.kendraClient,
-                this.kendraIntelligentRanker
-        );
+                this.kendraIntelligentRanker,
+                this.latencyBudget,
+                this.stats
+        ));
+        this.stats.addComponent(this.latencyBudget::getStats);
+        if (this.rescoreResultCache != null) {
+            components.add(this.rescoreResultCache);
+            this.stats.addComponent(this.rescoreResultCache::getStats);
+        }
+        if (this.passageCache != null) {
+            components.add(this.passageCache);
+            this.stats.addComponent(this.passageCache::getStats);
+        }
+        if (this.rescoreCoalescer != null) {
+            components.add(this.rescoreCoalescer);
+            this.stats.addComponent(this.rescoreCoalescer::getStats);
+        }
+        if (this.callGuard != null) {
+            components.add(this.callGuard);
+            this.stats.addComponent(this.callGuard::getStats);
+        }
+        if (this.rateLimiter != null) {
+            components.add(this.rateLimiter);
+            this.stats.addComponent(this.rateLimiter::getStats);
+        }
+        if (this.requestHedger != null) {
+            components.add(this.requestHedger);
+            this.stats.addComponent(this.requestHedger::getStats);
+        }
+        return components;
     }
 
     @Override
@@ -109,11 +252,33 @@ public class AmazonKendraIntelligentRankingPlugin extends Plugin implements Acti
                 .collect(Collectors.toMap(ResultTransformerConfigurationFactory::getName, i -> i));
         return List.of(new SearchExtSpec<>(SearchConfigurationExtBuilder.NAME,
                         input -> new SearchConfigurationExtBuilder(input, resultTransformerMap),
-                        parser -> SearchConfigurationExtBuilder.parse(parser, resultTransformerMap)));
+                        parser -> SearchConfigurationExtBuilder.parse(parser, resultTransformerMap)),
+                new SearchExtSpec<>(ResultTransformerResponseExtBuilder.NAME,
+                        ResultTransformerResponseExtBuilder::new,
+                        ResultTransformerResponseExtBuilder::parse));
     }
 
     @Override
     public Map<String, Processor.Factory<SearchResponseProcessor>> getResponseProcessors(Parameters parameters) {
-        return Map.of(KendraRankingResponseProcessor.TYPE, new KendraRankingResponseProcessor.Factory(this.kendraClientSettings));
+        this.responseProcessorFactory = KendraRankingResponseProcessor.Factory.builder(this.kendraClientSettings)
+                .callGuard(this.callGuard)
+                .rateLimiter(this.rateLimiter)
+                .requestHedger(this.requestHedger)
+                .threadPool(this.threadPool)
+                .stats(this.stats)
+                .rankerFactory(this.rankerFactory)
+                .build();
+        return Map.of(KendraRankingResponseProcessor.TYPE, this.responseProcessorFactory);
+    }
+
+    @Override
+    public void close() {
+        // The kendra clients own HTTP connection pools and I/O reactor threads
+        if (this.responseProcessorFactory != null) {
+            this.responseProcessorFactory.close();
+        }
+        if (this.kendraClient != null) {
+            this.kendraClient.close();
+        }
     }
 }
\ No newline at end of file
@@ -17,12 +17,12 @@ import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.search.SearchResponseSections;
 import org.opensearch.action.support.ActionFilter;
 import org.opensearch.action.support.ActionFilterChain;
-import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.cluster.ClusterState;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.cluster.metadata.IndexNameExpressionResolver;
+import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.core.action.ActionListener;
 import org.opensearch.core.action.ActionResponse;
-import org.opensearch.core.common.io.stream.NamedWriteableAwareStreamInput;
-import org.opensearch.core.common.io.stream.NamedWriteableRegistry;
-import org.opensearch.core.common.io.stream.StreamInput;
 import org.opensearch.common.settings.Setting;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.search.SearchHit;
@@ -34,14 +34,22 @@ import org.opensearch.search.internal.InternalSearchResponse;
 import org.opensearch.search.profile.SearchProfileShardResults;
 import org.opensearch.search.relevance.client.OpenSearchClient;
 import org.opensearch.search.relevance.configuration.ConfigurationUtils;
+import org.opensearch.search.relevance.configuration.IndexConfigurationCache;
 import org.opensearch.search.relevance.configuration.ResultTransformerConfiguration;
+import org.opensearch.search.relevance.stats.RerankerMetrics;
+import org.opensearch.search.relevance.stats.SearchRelevanceStats;
 import org.opensearch.search.relevance.transformer.ResultTransformer;
+import org.opensearch.search.relevance.transformer.ResultTransformerContext;
+import org.opensearch.search.relevance.transformer.ResultTransformerProfile;
+import org.opensearch.search.relevance.transformer.ResultTransformerResponseExtBuilder;
 import org.opensearch.tasks.Task;
+import org.opensearch.transport.RemoteClusterAware;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -53,17 +61,82 @@ public class SearchActionFilter implements ActionFilter {
 
     private final int order;
 
-    private final NamedWriteableRegistry namedWriteableRegistry;
     private final Map<String, ResultTransformer> resultTransformerMap;
     private final OpenSearchClient openSearchClient;
+    private final IndexConfigurationCache indexConfigurationCache;
+    private final ClusterService clusterService;
+    private final IndexNameExpressionResolver indexNameExpressionResolver;
+    private final SearchRelevanceStats stats;
 
-    public SearchActionFilter(Collection<ResultTransformer> supportedResultTransformers,
-                              OpenSearchClient openSearchClient) {
+    private SearchActionFilter(Builder builder) {
         order = 10; // TODO: Finalize this value
-        namedWriteableRegistry = new NamedWriteableRegistry(Collections.emptyList());
-        resultTransformerMap = supportedResultTransformers.stream()
+        resultTransformerMap = builder.supportedResultTransformers.stream()
                 .collect(Collectors.toMap(t -> t.getConfigurationFactory().getName(), t -> t));
-        this.openSearchClient = openSearchClient;
+        this.openSearchClient = builder.openSearchClient;
+        this.indexConfigurationCache = builder.indexConfigurationCache;
+        this.clusterService = builder.clusterService;
+        this.indexNameExpressionResolver = builder.indexNameExpressionResolver;
+        this.stats = builder.stats;
+    }
+
+    /**
+     * @param supportedResultTransformers result transformers that can be configured on indices or requests
+     * @param openSearchClient            client used to read index settings when index expressions cannot be resolved
+     *                                    locally
+     * @return builder of a filter supporting searches on a single index, reading index settings on every search request
+     */
+    public static Builder builder(Collection<ResultTransformer> supportedResultTransformers, OpenSearchClient openSearchClient) {
+        return new Builder(supportedResultTransformers, openSearchClient);
+    }
+
+    /**
+     * Builder of {@link SearchActionFilter}. Every optional dependency defaults to disabled.
+     */
+    public static final class Builder {
+        private final Collection<ResultTransformer> supportedResultTransformers;
+        private final OpenSearchClient openSearchClient;
+        private IndexConfigurationCache indexConfigurationCache;
+        private ClusterService clusterService;
+        private IndexNameExpressionResolver indexNameExpressionResolver;
+        private SearchRelevanceStats stats;
+
+        private Builder(Collection<ResultTransformer> supportedResultTransformers, OpenSearchClient openSearchClient) {
+            this.supportedResultTransformers = supportedResultTransformers;
+            this.openSearchClient = openSearchClient;
+        }
+
+        /**
+         * @param indexConfigurationCache node-local cache of configurations parsed from index settings, or null to read
+         *                                index settings on every search request
+         */
+        public Builder indexConfigurationCache(IndexConfigurationCache indexConfigurationCache) {
+            this.indexConfigurationCache = indexConfigurationCache;
+            return this;
+        }
+
+        /**
+         * @param clusterService              cluster service providing the index settings of the current cluster
+         *                                    state, or null to only support searches on a single index
+         * @param indexNameExpressionResolver resolver of the aliases and wildcards of search requests to concrete
+         *                                    indices, or null to only support searches on a single index
+         */
+        public Builder indexResolution(ClusterService clusterService, IndexNameExpressionResolver indexNameExpressionResolver) {
+            this.clusterService = clusterService;
+            this.indexNameExpressionResolver = indexNameExpressionResolver;
+            return this;
+        }
+
+        /**
+         * @param stats node-level registry of the metrics of result transformers, or null to not report them
+         */
+        public Builder stats(SearchRelevanceStats stats) {
+            this.stats = stats;
+            return this;
+        }
+
+        public SearchActionFilter build() {
+            return new SearchActionFilter(this);
+        }
     }
 
     @Override
@@ -104,8 +177,8 @@ public class SearchActionFilter implements ActionFilter {
         }
 
         final String[] indices = searchRequest.indices();
-        // Skip if no, or more than 1, index is specified.
-        if (indices == null || indices.length != 1) {
+        // Skip if no index is specified, or if several are and they cannot be resolved on this node.
+        if (indices == null || indices.length == 0 || (indices.length > 1 && !canResolveIndices(indices))) {
             chain.proceed(task, action, request, listener);
             return;
         }
@@ -124,28 +197,44 @@ public class SearchActionFilter implements ActionFilter {
             }
 
             if (!orderedTransformersAndConfigs.isEmpty()) {
+                final long configResolutionNanos = System.nanoTime() - startTime;
                 final ActionListener<Response> searchResponseListener = createSearchResponseListener(
-                        listener, startTime, orderedTransformersAndConfigs, transformedRequest, originalSearchSource);
+                        listener, startTime, configResolutionNanos, orderedTransformersAndConfigs, transformedRequest,
+                        originalSearchSource);
                 chain.proceed(task, action, request, searchResponseListener);
                 return;
             }
             chain.proceed(task, action, request, listener);
         }, listener::onFailure);
 
-        getResultTransformerConfigurations(indices[0], searchRequest, resultTransformerConfigsListener);
+        getResultTransformerConfigurations(searchRequest, resultTransformerConfigsListener);
+    }
+
+    /**
+     * @param indices index expressions of a search request
+     * @return true if the expressions can be resolved to concrete indices of the local cluster
+     */
+    private boolean canResolveIndices(final String[] indices) {
+        if (clusterService == null || indexNameExpressionResolver == null) {
+            return false;
+        }
+        for (String index : indices) {
+            if (index.indexOf(RemoteClusterAware.REMOTE_CLUSTER_INDEX_SEPARATOR) >= 0) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
      * Parse and return a list of result transformers from request and index level configurations
      * Request level configuration takes precedence over index level
      *
-     * @param indexName     name of the OpenSearch index
      * @param searchRequest input request
      * @return ordered and validated list of result transformers, empty list if not specified at
      * either request or index level
      */
     private void getResultTransformerConfigurations(
-            final String indexName,
             final SearchRequest searchRequest,
             ActionListener<List<ResultTransformerConfiguration>> resultTransformerConfigListener) {
 
@@ -158,6 +247,29 @@ public class SearchActionFilter implements ActionFilter {
             return;
         }
 
+        if (canResolveIndices(searchRequest.indices())) {
+            final List<ResultTransformerConfiguration> indexConfigs;
+            try {
+                indexConfigs = getResultTransformersFromIndicesConfiguration(searchRequest);
+            } catch (final Exception e) {
+                resultTransformerConfigListener.onFailure(e);
+                return;
+            }
+            resultTransformerConfigListener.onResponse(indexConfigs);
+            return;
+        }
+
+        final String indexName = searchRequest.indices()[0];
+        final IndexConfigurationCache configurationCache = IndexConfigurationCache.isCacheable(indexName)
+                ? indexConfigurationCache : null;
+        if (configurationCache != null) {
+            List<ResultTransformerConfiguration> cachedConfigs = configurationCache.get(indexName);
+            if (cachedConfigs != null) {
+                resultTransformerConfigListener.onResponse(cachedConfigs);
+                return;
+            }
+        }
+
         // Fetch all index settings for this plugin
         String[] settingNames = resultTransformerMap.values()
                 .stream()
@@ -167,17 +279,73 @@ public class SearchActionFilter implements ActionFilter {
                 .toArray(String[]::new);
 
 
-        ActionListener<Settings> settingsListener = ActionListener.map(resultTransformerConfigListener,
-                s -> ConfigurationUtils.getResultTransformersFromIndexConfiguration(s, resultTransformerMap));
+        final long cacheGeneration = configurationCache == null ? 0 : configurationCache.getGeneration();
+        ActionListener<Settings> settingsListener = ActionListener.map(resultTransformerConfigListener, s -> {
+            List<ResultTransformerConfiguration> indexConfigs =
+                    ConfigurationUtils.getResultTransformersFromIndexConfiguration(s, resultTransformerMap);
+            if (configurationCache != null) {
+                configurationCache.put(indexName, cacheGeneration, indexConfigs);
+            }
+            return indexConfigs;
+        });
         openSearchClient.getIndexSettings(indexName, settingNames, settingsListener);
     }
 
+    /**
+     * Resolve the index expressions of a search request to concrete indices from the local cluster state, and return
+     * the result transformer configurations they share. Results are cached per index expression until index settings
+     * or aliases change, except for date math expressions.
+     *
+     * @param searchRequest input request
+     * @return ordered and validated list of result transformers, empty list if the indices are not all configured with
+     * the same result transformers
+     */
+    private List<ResultTransformerConfiguration> getResultTransformersFromIndicesConfiguration(final SearchRequest searchRequest) {
+        final String cacheKey = String.join(",", searchRequest.indices()) + "|" + searchRequest.indicesOptions();
+        final IndexConfigurationCache configurationCache = IndexConfigurationCache.isCacheable(searchRequest.indices())
+                ? indexConfigurationCache : null;
+        // Read the generation before the cluster state, so that configurations of an outdated state are not cached
+        final long cacheGeneration = configurationCache == null ? 0 : configurationCache.getGeneration();
+        if (configurationCache != null) {
+            List<ResultTransformerConfiguration> cachedConfigs = configurationCache.get(cacheKey);
+            if (cachedConfigs != null) {
+                return cachedConfigs;
+            }
+        }
+
+        final ClusterState clusterState = clusterService.state();
+        List<ResultTransformerConfiguration> configs = null;
+        for (String concreteIndex : indexNameExpressionResolver.concreteIndexNames(clusterState, searchRequest)) {
+            IndexMetadata indexMetadata = clusterState.metadata().index(concreteIndex);
+            List<ResultTransformerConfiguration> indexConfigs = ConfigurationUtils.getResultTransformersFromIndexConfiguration(
+                    indexMetadata == null ? null : indexMetadata.getSettings(), resultTransformerMap);
+            if (configs == null) {
+                configs = indexConfigs;
+            } else if (!configs.equals(indexConfigs)) {
+                // Hits of all indices are reranked together, which requires a single configuration
+                logger.warn("Indices [{}] are configured with different result transformers. Skipping result transformers.",
+                        cacheKey);
+                configs = Collections.emptyList();
+                break;
+            }
+        }
+        if (configs == null) {
+            configs = Collections.emptyList();
+        }
+        if (configurationCache != null) {
+            configurationCache.put(cacheKey, cacheGeneration, configs);
+        }
+        return configs;
+    }
+
     /**
      * Create a Listener that, during the OpenSearch response chain,
      * calls external service Kendra Ranking to rerank OpenSearch hits
      *
      * @param listener                      default listened
      * @param startTime                     time when request was received, used to calculate latency added by reranking
+     * @param configResolutionNanos         time spent resolving the configurations of the transformers, reported if
+     *                                      the search is profiled
      * @param searchRequest                 input search request
      * @param orderedTransformersAndConfigs transformers to apply, with their corresponding configurations
      * @param originalSearchSource          original search source without any modifications made by transformers
@@ -187,6 +355,7 @@ public class SearchActionFilter implements ActionFilter {
     private <Response extends ActionResponse> ActionListener<Response> createSearchResponseListener(
             final ActionListener<Response> listener,
             final long startTime,
+            final long configResolutionNanos,
             final LinkedHashMap<ResultTransformer, ResultTransformerConfiguration> orderedTransformersAndConfigs,
             final SearchRequest searchRequest,
             final SearchSourceBuilder originalSearchSource) {
@@ -203,61 +372,45 @@ public class SearchActionFilter implements ActionFilter {
                 }
 
                 logger.debug("Starting re-ranking for search response: {}", searchResponse);
-                try {
-
-                    // Clone search hits (by serializing + deserializing) before transforming
-                    final BytesStreamOutput out = new BytesStreamOutput();
-                    searchResponse.getHits().writeTo(out);
-                    final StreamInput in = new NamedWriteableAwareStreamInput(out.bytes().streamInput(),
-                            namedWriteableRegistry);
-                    SearchHits hits = new SearchHits(in);
-
-                    for (Map.Entry<ResultTransformer, ResultTransformerConfiguration> entry : orderedTransformersAndConfigs.entrySet()) {
-                        long startTime = System.nanoTime();
-                        hits = entry.getKey().transform(hits, searchRequest, entry.getValue());
-                        long timeTookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
-                        logger.info(entry.getValue().getTransformerName() + ": took " + timeTookMillis + " ms");
-                    }
-
-                    List<SearchHit> searchHitsList = Arrays.asList(hits.getHits());
-                    if (originalSearchSource != null) {
-                        if (originalSearchSource.fetchSource() != null &&
-                                !originalSearchSource.fetchSource().fetchSource()) {
-                            searchHitsList = searchHitsList.stream()
-                                    .map(hit -> hit.sourceRef(null))
-                                    .collect(Collectors.toList());
-                        }
-                        if (originalSearchSource.from() >= 0 && originalSearchSource.size() >= 0) {
-                            final int lastHitIndex = Math.min(searchHitsList.size(),
-                                    (originalSearchSource.from() + originalSearchSource.size()));
-                            if (originalSearchSource.from() > lastHitIndex) {
-                                searchHitsList = Collections.emptyList();
-                            } else {
-                                searchHitsList = searchHitsList.subList(originalSearchSource.from(), lastHitIndex);
-                            }
-                        }
-                    }
-
-                    hits = new SearchHits(
-                            searchHitsList.toArray(new SearchHit[0]),
-                            hits.getTotalHits(),
-                            hits.getMaxScore());
-
-                    final SearchResponseSections internalResponse = new InternalSearchResponse(hits,
-                            (InternalAggregations) searchResponse.getAggregations(), searchResponse.getSuggest(),
-                            new SearchProfileShardResults(searchResponse.getProfileResults()), searchResponse.isTimedOut(),
-                            searchResponse.isTerminatedEarly(), searchResponse.getNumReducePhases());
-
-                    final long tookInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
-                    final SearchResponse newResponse = new SearchResponse(internalResponse, searchResponse.getScrollId(),
-                            searchResponse.getTotalShards(), searchResponse.getSuccessfulShards(),
-                            searchResponse.getSkippedShards(), tookInMillis, searchResponse.getShardFailures(),
-                            searchResponse.getClusters());
-                    listener.onResponse((Response) newResponse);
-                } catch (final Exception e) {
-                    logger.error("Result transformer operations failed.", e);
-                    throw new OpenSearchException("Result transformer operations failed.", e);
+                final boolean profile = searchRequest.source() != null && searchRequest.source().profile();
+                final ResultTransformerContext context = new ResultTransformerContext(startTime, profile);
+                final long copyStartTime = System.nanoTime();
+                final SearchHits hits = copyHits(searchResponse.getHits());
+                // Phases shared by the transformers of the search are reported on the first one
+                final ResultTransformerProfile transformerProfile = context.getProfile(
+                        orderedTransformersAndConfigs.values().iterator().next().getTransformerName());
+                if (transformerProfile != null) {
+                    final long hitCloningNanos = System.nanoTime() - copyStartTime;
+                    transformerProfile.addPhaseTime(ResultTransformerProfile.Phase.CONFIG_RESOLUTION, configResolutionNanos);
+                    transformerProfile.addPhaseTime(ResultTransformerProfile.Phase.HIT_CLONING, hitCloningNanos);
+                    transformerProfile.addTime(configResolutionNanos + hitCloningNanos);
                 }
+
+                applyTransformers(hits, orderedTransformersAndConfigs.entrySet().iterator(), searchRequest, context,
+                        new ActionListener<SearchHits>() {
+                            @Override
+                            public void onResponse(final SearchHits transformedHits) {
+                                final SearchResponse newResponse;
+                                try {
+                                    newResponse = buildSearchResponse(searchResponse, transformedHits,
+                                            originalSearchSource, context, startTime);
+                                } catch (final Exception e) {
+                                    onTransformFailure(e);
+                                    return;
+                                }
+                                listener.onResponse((Response) newResponse);
+                            }
+
+                            @Override
+                            public void onFailure(final Exception e) {
+                                onTransformFailure(e);
+                            }
+                        });
+            }
+
+            private void onTransformFailure(final Exception e) {
+                logger.error("Result transformer operations failed.", e);
+                listener.onFailure(new OpenSearchException("Result transformer operations failed.", e));
             }
 
             @Override
@@ -266,4 +419,114 @@ public class SearchActionFilter implements ActionFilter {
             }
         };
     }
+
+    /**
+     * Copy the search hits before transforming them. Transformers only reorder hits and change their scores, and the
+     * search response returned by OpenSearch is discarded once the transformed response is built, so the hit objects,
+     * including their _source, are shared rather than deep-copied. Only the array that holds the hit order is copied.
+     *
+     * @param hits search hits returned by OpenSearch
+     * @return search hits backed by a copy of the hit array
+     */
+    static SearchHits copyHits(final SearchHits hits) {
+        return new SearchHits(hits.getHits().clone(), hits.getTotalHits(), hits.getMaxScore(), hits.getSortFields(),
+                hits.getCollapseField(), hits.getCollapseValues());
+    }
+
+    /**
+     * Apply the remaining transformers one after another, without blocking while a transformer waits on an
+     * external service.
+     *
+     * @param hits          search hits produced by the previous transformer
+     * @param transformers  iterator over the remaining transformers and their configurations
+     * @param searchRequest input search request
+     * @param context       state of the search shared by the transformers
+     * @param listener      listener notified with the hits produced by the last transformer
+     */
+    private void applyTransformers(
+            final SearchHits hits,
+            final Iterator<Map.Entry<ResultTransformer, ResultTransformerConfiguration>> transformers,
+            final SearchRequest searchRequest,
+            final ResultTransformerContext context,
+            final ActionListener<SearchHits> listener) {
+        if (!transformers.hasNext()) {
+            listener.onResponse(hits);
+            return;
+        }
+        final Map.Entry<ResultTransformer, ResultTransformerConfiguration> entry = transformers.next();
+        final RerankerMetrics metrics = stats == null ? null : stats.getTransformerMetrics(entry.getValue().getTransformerName());
+        final long startTime = System.nanoTime();
+        entry.getKey().transformAsync(hits, searchRequest, entry.getValue(), context, ActionListener.wrap(transformedHits -> {
+            long timeTookNanos = System.nanoTime() - startTime;
+            if (metrics != null) {
+                metrics.onRequest(timeTookNanos);
+            }
+            final ResultTransformerProfile profile = context.getProfile(entry.getValue().getTransformerName());
+            if (profile != null) {
+                profile.addTime(timeTookNanos);
+            }
+            logger.info(entry.getValue().getTransformerName() + ": took " + TimeUnit.NANOSECONDS.toMillis(timeTookNanos) + " ms");
+            applyTransformers(transformedHits, transformers, searchRequest, context, listener);
+        }, e -> {
+            if (metrics != null) {
+                metrics.onRequest(System.nanoTime() - startTime);
+                metrics.onError();
+            }
+            listener.onFailure(e);
+        }));
+    }
+
+    /**
+     * Build the search response returned to the caller from transformed hits, restoring the pagination and
+     * source fetching requested originally.
+     *
+     * @param searchResponse       search response returned by OpenSearch
+     * @param hits                 transformed search hits
+     * @param originalSearchSource original search source without any modifications made by transformers
+     * @param context              state of the search shared by the transformers, reported in the response
+     * @param startTime            time when request was received, used to calculate latency added by reranking
+     * @return new search response with the transformed hits
+     */
+    private static SearchResponse buildSearchResponse(
+            final SearchResponse searchResponse,
+            final SearchHits hits,
+            final SearchSourceBuilder originalSearchSource,
+            final ResultTransformerContext context,
+            final long startTime) {
+        List<SearchHit> searchHitsList = Arrays.asList(hits.getHits());
+        if (originalSearchSource != null) {
+            if (originalSearchSource.fetchSource() != null &&
+                    !originalSearchSource.fetchSource().fetchSource()) {
+                searchHitsList = searchHitsList.stream()
+                        .map(hit -> hit.sourceRef(null))
+                        .collect(Collectors.toList());
+            }
+            if (originalSearchSource.from() >= 0 && originalSearchSource.size() >= 0) {
+                final int lastHitIndex = Math.min(searchHitsList.size(),
+                        (originalSearchSource.from() + originalSearchSource.size()));
+                if (originalSearchSource.from() > lastHitIndex) {
+                    searchHitsList = Collections.emptyList();
+                } else {
+                    searchHitsList = searchHitsList.subList(originalSearchSource.from(), lastHitIndex);
+                }
+            }
+        }
+
+        final SearchHits responseHits = new SearchHits(
+                searchHitsList.toArray(new SearchHit[0]),
+                hits.getTotalHits(),
+                hits.getMaxScore());
+
+        final SearchResponseSections internalResponse = new InternalSearchResponse(responseHits,
+                (InternalAggregations) searchResponse.getAggregations(), searchResponse.getSuggest(),
+                new SearchProfileShardResults(searchResponse.getProfileResults()), searchResponse.isTimedOut(),
+                searchResponse.isTerminatedEarly(), searchResponse.getNumReducePhases(),
+                ResultTransformerResponseExtBuilder.addFallbacks(searchResponse.getInternalResponse().getSearchExtBuilders(), context));
+
+        final long tookInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        return new SearchResponse(internalResponse, searchResponse.getScrollId(),
+                searchResponse.getTotalShards(), searchResponse.getSuccessfulShards(),
+                searchResponse.getSkippedShards(), tookInMillis, searchResponse.getShardFailures(),
+                searchResponse.getClusters());
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.configuration;
+
+import org.opensearch.cluster.ClusterChangedEvent;
+import org.opensearch.cluster.ClusterStateListener;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.cluster.metadata.Metadata;
+import org.opensearch.common.cache.Cache;
+import org.opensearch.common.cache.CacheBuilder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-local cache of the result transformer configurations parsed from index settings, keyed by the index names or
+ * expressions used in search requests. The number of entries is bounded, least recently used entries are evicted
+ * first. Entries do not expire: the whole cache is invalidated when the cluster state shows that index settings or
+ * aliases changed, or that an index was created or deleted. Date math expressions are not cached, since the indices
+ * they resolve to change with time rather than with the cluster state.
+ */
+public class IndexConfigurationCache implements ClusterStateListener {
+    static final int DEFAULT_MAXIMUM_ENTRIES = 1000;
+
+    private final Cache<String, List<ResultTransformerConfiguration>> configurations;
+    // Incremented on every invalidation, so that configurations read from settings older than the invalidation are dropped
+    private final AtomicLong generation = new AtomicLong();
+
+    public IndexConfigurationCache() {
+        this(DEFAULT_MAXIMUM_ENTRIES);
+    }
+
+    /**
+     * @param maximumEntries maximum number of index names or expressions with cached configurations
+     */
+    public IndexConfigurationCache(final int maximumEntries) {
+        this.configurations = CacheBuilder.<String, List<ResultTransformerConfiguration>>builder()
+                .setMaximumWeight(maximumEntries)
+                .build();
+    }
+
+    /**
+     * @param expressions index names or expressions of a search request
+     * @return whether configurations of the indices can be cached under the expressions, which is not the case of
+     * date math expressions
+     */
+    public static boolean isCacheable(final String... expressions) {
+        for (String expression : expressions) {
+            if (expression.startsWith("<") && expression.endsWith(">")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param indexName name or expression of the indices in the search request
+     * @return cached configurations of the index, or null if they have not been cached
+     */
+    public List<ResultTransformerConfiguration> get(final String indexName) {
+        return configurations.get(indexName);
+    }
+
+    /**
+     * @return current generation of the cache, to read before fetching the settings passed to
+     * {@link #put(String, long, List)}
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Cache the configurations of an index, unless the cache was invalidated since they were fetched
+     *
+     * @param indexName          name or expression of the indices in the search request
+     * @param expectedGeneration generation of the cache when index settings were fetched
+     * @param configs            configurations parsed from the index settings
+     */
+    public void put(final String indexName, final long expectedGeneration, final List<ResultTransformerConfiguration> configs) {
+        if (generation.get() != expectedGeneration) {
+            return;
+        }
+        final List<ResultTransformerConfiguration> cachedConfigs = List.copyOf(configs);
+        configurations.put(indexName, cachedConfigs);
+        if (generation.get() != expectedGeneration) {
+            // Invalidated concurrently, the entry may have been added after the cache was cleared
+            configurations.invalidate(indexName, cachedConfigs);
+        }
+    }
+
+    /**
+     * Drop all cached configurations
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        configurations.invalidateAll();
+    }
+
+    /**
+     * @return number of indices with cached configurations
+     */
+    public int size() {
+        return configurations.count();
+    }
+
+    @Override
+    public void clusterChanged(final ClusterChangedEvent event) {
+        if (!event.metadataChanged()) {
+            return;
+        }
+        if (!event.indicesDeleted().isEmpty() || indexSettingsOrAliasesChanged(event.previousState().metadata(),
+                event.state().metadata())) {
+            invalidate();
+        }
+    }
+
+    private static boolean indexSettingsOrAliasesChanged(final Metadata previousMetadata, final Metadata metadata) {
+        for (IndexMetadata indexMetadata : metadata.indices().values()) {
+            IndexMetadata previousIndexMetadata = previousMetadata.index(indexMetadata.getIndex());
+            if (previousIndexMetadata == null ||
+                    previousIndexMetadata.getSettingsVersion() != indexMetadata.getSettingsVersion() ||
+                    previousIndexMetadata.getAliasesVersion() != indexMetadata.getAliasesVersion()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
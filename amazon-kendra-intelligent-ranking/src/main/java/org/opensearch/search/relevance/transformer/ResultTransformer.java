@@ -9,6 +9,7 @@ package org.opensearch.search.relevance.transformer;
 
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.common.settings.Setting;
+import org.opensearch.core.action.ActionListener;
 import org.opensearch.search.SearchHits;
 import org.opensearch.search.relevance.configuration.ResultTransformerConfiguration;
 import org.opensearch.search.relevance.configuration.ResultTransformerConfigurationFactory;
@@ -54,4 +55,43 @@ public interface ResultTransformer {
   SearchHits transform(final SearchHits hits,
       final SearchRequest request,
       final ResultTransformerConfiguration configuration);
+
+  /**
+   * Rank hits based on the provided query, completing the listener once ranking is done. Transformers that call
+   * remote services should override this to avoid blocking the calling thread while waiting for a response.
+   * @param hits hits to be re-ranked
+   * @param request Search request
+   * @param configuration Configuration parameters for the transformer
+   * @param listener listener notified with the SearchHits ordered by score generated by ranker
+   */
+  default void transformAsync(final SearchHits hits,
+      final SearchRequest request,
+      final ResultTransformerConfiguration configuration,
+      final ActionListener<SearchHits> listener) {
+    final SearchHits transformedHits;
+    try {
+      transformedHits = transform(hits, request, configuration);
+    } catch (Exception e) {
+      listener.onFailure(e);
+      return;
+    }
+    listener.onResponse(transformedHits);
+  }
+
+  /**
+   * Same as {@link #transformAsync(SearchHits, SearchRequest, ResultTransformerConfiguration, ActionListener)}, for
+   * transformers that bound the time they add to the search or report that they returned the hits unchanged.
+   * @param hits hits to be re-ranked
+   * @param request Search request
+   * @param configuration Configuration parameters for the transformer
+   * @param context state of the search shared by the transformers applied to its hits
+   * @param listener listener notified with the SearchHits ordered by score generated by ranker
+   */
+  default void transformAsync(final SearchHits hits,
+      final SearchRequest request,
+      final ResultTransformerConfiguration configuration,
+      final ResultTransformerContext context,
+      final ActionListener<SearchHits> listener) {
+    transformAsync(hits, request, configuration, listener);
+  }
 }
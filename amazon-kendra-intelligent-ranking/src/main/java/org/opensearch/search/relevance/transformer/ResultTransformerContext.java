@@ -0,0 +1,90 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * State of a search shared by the result transformers applied to its hits: the time already spent on the search, the
+ * transformers that returned the hits they received instead of transforming them, and the time each transformer spent
+ * on each phase of reranking if the search is profiled.
+ */
+public class ResultTransformerContext {
+  private final long startTimeNanos;
+  private final boolean profile;
+  private final Set<String> fallbackTransformers = ConcurrentHashMap.newKeySet();
+  private final Map<String, ResultTransformerProfile> profiles = new LinkedHashMap<>();
+
+  /**
+   * @param startTimeNanos value of {@link System#nanoTime()} when the search started
+   */
+  public ResultTransformerContext(final long startTimeNanos) {
+    this(startTimeNanos, false);
+  }
+
+  /**
+   * @param startTimeNanos value of {@link System#nanoTime()} when the search started
+   * @param profile        whether to record the time transformers spend on each phase of reranking
+   */
+  public ResultTransformerContext(final long startTimeNanos, final boolean profile) {
+    this.startTimeNanos = startTimeNanos;
+    this.profile = profile;
+  }
+
+  /**
+   * @return time spent on the search so far, in milliseconds
+   */
+  public long getElapsedMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeNanos);
+  }
+
+  /**
+   * Record that a transformer gave up and returned the hits it received unchanged
+   * @param transformerName name of the transformer
+   */
+  public void addFallback(final String transformerName) {
+    fallbackTransformers.add(transformerName);
+  }
+
+  /**
+   * @return names of the transformers that returned the hits they received unchanged
+   */
+  public Set<String> getFallbackTransformers() {
+    return fallbackTransformers;
+  }
+
+  /**
+   * @param transformerName name of the transformer
+   * @return profile the transformer records the time spent on each phase of reranking in, or null if the search is
+   * not profiled
+   */
+  public ResultTransformerProfile getProfile(final String transformerName) {
+    if (!profile) {
+      return null;
+    }
+    synchronized (profiles) {
+      return profiles.computeIfAbsent(transformerName, ResultTransformerProfile::new);
+    }
+  }
+
+  /**
+   * @return profiles of the transformers applied to the hits, in the order they were applied, or an empty list if the
+   * search is not profiled
+   */
+  public List<ResultTransformerProfile> getProfiles() {
+    synchronized (profiles) {
+      return new ArrayList<>(profiles.values());
+    }
+  }
+}
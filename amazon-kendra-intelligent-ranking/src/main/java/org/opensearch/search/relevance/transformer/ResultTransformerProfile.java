@@ -0,0 +1,164 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer;
+
+import org.opensearch.core.ParseField;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.common.io.stream.Writeable;
+import org.opensearch.core.xcontent.ToXContentObject;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.core.xcontent.XContentParser;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Time a result transformer spent on each phase of reranking the hits of one search, reported in the search response
+ * when the search request enables profiling. Hits may be preprocessed concurrently, in which case the phases add up
+ * the time spent on each hit, and the breakdown may add up to more than the total time.
+ */
+public class ResultTransformerProfile implements Writeable, ToXContentObject {
+  private static final ParseField NAME = new ParseField("name");
+  private static final ParseField TIME_IN_NANOS = new ParseField("time_in_nanos");
+  private static final ParseField BREAKDOWN = new ParseField("breakdown");
+
+  /**
+   * Phases of reranking, in the order they run.
+   */
+  public enum Phase {
+    CONFIG_RESOLUTION,
+    HIT_CLONING,
+    SOURCE_PARSING,
+    TOKENIZATION,
+    PASSAGE_GENERATION,
+    BM25_SCORING,
+    REQUEST_SERIALIZATION,
+    NETWORK_WAIT,
+    RESPONSE_MERGE;
+
+    public String getName() {
+      return name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  private final String name;
+  private final AtomicLong timeInNanos = new AtomicLong();
+  private final AtomicLongArray breakdown = new AtomicLongArray(Phase.values().length);
+
+  /**
+   * @param name name of the result transformer or search pipeline processor
+   */
+  public ResultTransformerProfile(final String name) {
+    this.name = name;
+  }
+
+  public ResultTransformerProfile(StreamInput input) throws IOException {
+    this.name = input.readString();
+    this.timeInNanos.set(input.readVLong());
+    final long[] phaseTimes = input.readVLongArray();
+    for (int i = 0; i < Math.min(phaseTimes.length, breakdown.length()); i++) {
+      breakdown.set(i, phaseTimes[i]);
+    }
+  }
+
+  @Override
+  public void writeTo(StreamOutput out) throws IOException {
+    out.writeString(name);
+    out.writeVLong(timeInNanos.get());
+    out.writeVLongArray(getBreakdown());
+  }
+
+  /**
+   * Record time spent on a phase. May be called concurrently.
+   * @param phase phase of reranking
+   * @param nanos time spent on the phase, in nanoseconds
+   */
+  public void addPhaseTime(final Phase phase, final long nanos) {
+    breakdown.addAndGet(phase.ordinal(), Math.max(0, nanos));
+  }
+
+  /**
+   * @param nanos time spent reranking, in nanoseconds
+   */
+  public void addTime(final long nanos) {
+    timeInNanos.addAndGet(Math.max(0, nanos));
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getTimeInNanos() {
+    return timeInNanos.get();
+  }
+
+  public long getPhaseTime(final Phase phase) {
+    return breakdown.get(phase.ordinal());
+  }
+
+  private long[] getBreakdown() {
+    final long[] phaseTimes = new long[breakdown.length()];
+    for (int i = 0; i < phaseTimes.length; i++) {
+      phaseTimes[i] = breakdown.get(i);
+    }
+    return phaseTimes;
+  }
+
+  @Override
+  public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+    builder.startObject();
+    builder.field(NAME.getPreferredName(), name);
+    builder.field(TIME_IN_NANOS.getPreferredName(), timeInNanos.get());
+    builder.startObject(BREAKDOWN.getPreferredName());
+    for (Phase phase : Phase.values()) {
+      builder.field(phase.getName(), getPhaseTime(phase));
+    }
+    builder.endObject();
+    return builder.endObject();
+  }
+
+  @SuppressWarnings("unchecked")
+  public static ResultTransformerProfile parse(XContentParser parser) throws IOException {
+    final Map<String, Object> map = parser.map();
+    final ResultTransformerProfile profile = new ResultTransformerProfile((String) map.get(NAME.getPreferredName()));
+    final Object time = map.get(TIME_IN_NANOS.getPreferredName());
+    if (time != null) {
+      profile.addTime(((Number) time).longValue());
+    }
+    final Map<String, Object> phaseTimes = (Map<String, Object>) map.get(BREAKDOWN.getPreferredName());
+    if (phaseTimes != null) {
+      for (Phase phase : Phase.values()) {
+        final Object phaseTime = phaseTimes.get(phase.getName());
+        if (phaseTime != null) {
+          profile.addPhaseTime(phase, ((Number) phaseTime).longValue());
+        }
+      }
+    }
+    return profile;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    ResultTransformerProfile other = (ResultTransformerProfile) o;
+    return Objects.equals(name, other.name) && timeInNanos.get() == other.timeInNanos.get()
+        && Arrays.equals(getBreakdown(), other.getBreakdown());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(name, timeInNanos.get(), Arrays.hashCode(getBreakdown()));
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer;
+
+import org.opensearch.core.ParseField;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.xcontent.ObjectParser;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.core.xcontent.XContentParser;
+import org.opensearch.search.SearchExtBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Search response extension reporting the result transformers that returned the original ranking instead of
+ * reranking hits, for example because their latency budget was spent, and the time each transformer spent on each
+ * phase of reranking when the search request enables profiling.
+ */
+public class ResultTransformerResponseExtBuilder extends SearchExtBuilder {
+  public static final String NAME = "result_transformer";
+
+  private static final ParseField FALLBACK = new ParseField("fallback");
+  private static final ParseField PROFILE = new ParseField("profile");
+
+  private static final ObjectParser<ResultTransformerResponseExtBuilder, Void> PARSER;
+
+  static {
+    PARSER = new ObjectParser<>(NAME, ResultTransformerResponseExtBuilder::new);
+    PARSER.declareStringArray(ResultTransformerResponseExtBuilder::setFallbackTransformers, FALLBACK);
+    PARSER.declareObjectArray(ResultTransformerResponseExtBuilder::setProfiles, (p, c) -> ResultTransformerProfile.parse(p),
+        PROFILE);
+  }
+
+  private List<String> fallbackTransformers = new ArrayList<>();
+  private List<ResultTransformerProfile> profiles = new ArrayList<>();
+
+  public ResultTransformerResponseExtBuilder() {
+  }
+
+  public ResultTransformerResponseExtBuilder(final Collection<String> fallbackTransformers) {
+    this(fallbackTransformers, List.of());
+  }
+
+  /**
+   * @param fallbackTransformers names of the transformers that returned the original ranking
+   * @param profiles             time each transformer spent on each phase of reranking, empty if the search is not
+   *                             profiled
+   */
+  public ResultTransformerResponseExtBuilder(final Collection<String> fallbackTransformers,
+      final Collection<ResultTransformerProfile> profiles) {
+    this.fallbackTransformers = new ArrayList<>(fallbackTransformers);
+    this.profiles = new ArrayList<>(profiles);
+  }
+
+  public ResultTransformerResponseExtBuilder(StreamInput input) throws IOException {
+    this.fallbackTransformers = input.readStringList();
+    this.profiles = input.readList(ResultTransformerProfile::new);
+  }
+
+  @Override
+  public void writeTo(StreamOutput out) throws IOException {
+    out.writeStringCollection(fallbackTransformers);
+    out.writeList(profiles);
+  }
+
+  @Override
+  public String getWriteableName() {
+    return NAME;
+  }
+
+  /**
+   * @param searchExtBuilders extensions of the search response whose hits were transformed, or null
+   * @param context           state of the search shared by the transformers applied to its hits
+   * @return the extensions, with one reporting the transformers that returned the original ranking and the profiles
+   * of the transformers if there are any. An extension added by transformers applied earlier, such as another search
+   * pipeline processor, is merged with the new one.
+   */
+  public static List<SearchExtBuilder> addFallbacks(final List<SearchExtBuilder> searchExtBuilders,
+      final ResultTransformerContext context) {
+    final List<SearchExtBuilder> extBuilders = searchExtBuilders == null ? new ArrayList<>() : new ArrayList<>(searchExtBuilders);
+    final List<ResultTransformerProfile> profiles = context.getProfiles();
+    if (context.getFallbackTransformers().isEmpty() && profiles.isEmpty()) {
+      return extBuilders;
+    }
+    final TreeSet<String> fallbackTransformers = new TreeSet<>(context.getFallbackTransformers());
+    final List<ResultTransformerProfile> allProfiles = new ArrayList<>();
+    for (int i = 0; i < extBuilders.size(); i++) {
+      if (extBuilders.get(i) instanceof ResultTransformerResponseExtBuilder) {
+        final ResultTransformerResponseExtBuilder previous = (ResultTransformerResponseExtBuilder) extBuilders.remove(i);
+        fallbackTransformers.addAll(previous.getFallbackTransformers());
+        allProfiles.addAll(previous.getProfiles());
+        break;
+      }
+    }
+    allProfiles.addAll(profiles);
+    extBuilders.add(new ResultTransformerResponseExtBuilder(fallbackTransformers, allProfiles));
+    return extBuilders;
+  }
+
+  public static ResultTransformerResponseExtBuilder parse(XContentParser parser) throws IOException {
+    return PARSER.parse(parser, null);
+  }
+
+  @Override
+  public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+    builder.startObject(NAME);
+    builder.field(FALLBACK.getPreferredName(), fallbackTransformers);
+    if (!profiles.isEmpty()) {
+      builder.field(PROFILE.getPreferredName(), profiles);
+    }
+    return builder.endObject();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    ResultTransformerResponseExtBuilder other = (ResultTransformerResponseExtBuilder) o;
+    return fallbackTransformers.equals(other.fallbackTransformers) && profiles.equals(other.profiles);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getClass(), fallbackTransformers, profiles);
+  }
+
+  /**
+   * @return names of the result transformers that returned the original ranking
+   */
+  public List<String> getFallbackTransformers() {
+    return fallbackTransformers;
+  }
+
+  public void setFallbackTransformers(final List<String> fallbackTransformers) {
+    this.fallbackTransformers = fallbackTransformers;
+  }
+
+  /**
+   * @return time each transformer spent on each phase of reranking, empty if the search was not profiled
+   */
+  public List<ResultTransformerProfile> getProfiles() {
+    return profiles;
+  }
+
+  public void setProfiles(final List<ResultTransformerProfile> profiles) {
+    this.profiles = profiles;
+  }
+}
@@ -10,43 +10,58 @@ package org.opensearch.search.relevance.transformer.kendraintelligentranking;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opensearch.action.search.SearchRequest;
+import org.opensearch.common.lease.Releasable;
 import org.opensearch.common.settings.Setting;
+import org.opensearch.core.action.ActionListener;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.SearchHits;
 import org.opensearch.search.SearchService;
+import org.opensearch.search.fetch.subphase.FetchSourceContext;
 import org.opensearch.search.relevance.configuration.ResultTransformerConfiguration;
 import org.opensearch.search.relevance.configuration.ResultTransformerConfigurationFactory;
+import org.opensearch.search.relevance.stats.RerankerMetrics;
 import org.opensearch.search.relevance.transformer.ResultTransformer;
+import org.opensearch.search.relevance.transformer.ResultTransformerContext;
+import org.opensearch.search.relevance.transformer.ResultTransformerProfile;
+import org.opensearch.search.relevance.transformer.ResultTransformerProfile.Phase;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.cache.PassageCache;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.cache.RescoreResultCache;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraHttpClient;
+import org.opensearch.search.relevance.client.LatencyBudget;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.RescoreRequestCoalescer;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankingConfiguration;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankingConfigurationFactory;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.KendraIntelligentRankingException;
-import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.PassageScore;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.Document;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreRequest;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResultItem;
-import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.BM25Scorer;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.PassageGenerator;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.QueryParser;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.QueryParser.QueryParserResult;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.SourceFieldExtractor;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.TermIdBM25Scorer;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess.TextTokenizer;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.Constants.BODY_FIELD;
 
 public class KendraIntelligentRanker implements ResultTransformer {
     public static final String NAME = "kendra_intelligent_ranking";
+    public static final String PREPROCESS_THREAD_POOL_NAME = "kendra_intelligent_ranking_preprocess";
     private static final int MAX_SENTENCE_LENGTH_IN_TOKENS = 35;
     private static final int MIN_PASSAGE_LENGTH_IN_TOKENS = 100;
     private static final int MAX_PASSAGE_COUNT = 10;
@@ -59,15 +74,145 @@ public class KendraIntelligentRanker implements ResultTransformer {
     private static final Logger logger = LogManager.getLogger(KendraIntelligentRanker.class);
 
     private final KendraHttpClient kendraClient;
+    private final RescoreResultCache rescoreResultCache;
+    private final PassageCache passageCache;
+    private final PassageGenerator passageGenerator;
+    private final Executor preprocessExecutor;
+    private final int parallelThreshold;
+    private final int maxBodyLengthInChars;
+    private final int maxBodyLengthInTokens;
+    private final boolean fetchRequiredFieldsOnly;
+    private final RescoreRequestCoalescer rescoreCoalescer;
+    private final LatencyBudget latencyBudget;
+    private final RerankerMetrics metrics;
     private final TextTokenizer textTokenizer;
     private final QueryParser queryParser;
 
-    public KendraIntelligentRanker(KendraHttpClient kendraClient) {
-        this.kendraClient = kendraClient;
+    private KendraIntelligentRanker(Builder builder) {
+        this.kendraClient = builder.kendraClient;
+        this.rescoreResultCache = builder.rescoreResultCache;
+        this.passageCache = builder.passageCache;
+        this.preprocessExecutor = builder.preprocessExecutor;
+        this.parallelThreshold = builder.parallelThreshold;
+        this.maxBodyLengthInChars = builder.maxBodyLengthInChars;
+        this.maxBodyLengthInTokens = builder.maxBodyLengthInTokens;
+        this.fetchRequiredFieldsOnly = builder.fetchRequiredFieldsOnly;
+        this.rescoreCoalescer = builder.rescoreCoalescer;
+        this.latencyBudget = builder.latencyBudget;
+        this.metrics = builder.metrics == null ? new RerankerMetrics() : builder.metrics;
+        this.passageGenerator = new PassageGenerator();
         this.textTokenizer = new TextTokenizer();
         this.queryParser = new QueryParser();
     }
 
+    /**
+     * @param kendraClient client used to call Kendra Intelligent Ranking
+     * @return builder of a ranker without caching, parallel preprocessing, body limits, coalescing or latency budget
+     */
+    public static Builder builder(KendraHttpClient kendraClient) {
+        return new Builder(kendraClient);
+    }
+
+    /**
+     * Builder of {@link KendraIntelligentRanker}. Every optional dependency defaults to disabled.
+     */
+    public static final class Builder {
+        private final KendraHttpClient kendraClient;
+        private RescoreResultCache rescoreResultCache;
+        private PassageCache passageCache;
+        private Executor preprocessExecutor;
+        private int parallelThreshold = Integer.MAX_VALUE;
+        private int maxBodyLengthInChars = -1;
+        private int maxBodyLengthInTokens = -1;
+        private boolean fetchRequiredFieldsOnly;
+        private RescoreRequestCoalescer rescoreCoalescer;
+        private LatencyBudget latencyBudget;
+        private RerankerMetrics metrics;
+
+        private Builder(KendraHttpClient kendraClient) {
+            this.kendraClient = kendraClient;
+        }
+
+        /**
+         * @param rescoreResultCache node-level cache of rescore results, or null to always call Kendra Intelligent Ranking
+         */
+        public Builder rescoreResultCache(RescoreResultCache rescoreResultCache) {
+            this.rescoreResultCache = rescoreResultCache;
+            return this;
+        }
+
+        /**
+         * @param passageCache node-level cache of tokenized document passages, or null to always generate passages
+         */
+        public Builder passageCache(PassageCache passageCache) {
+            this.passageCache = passageCache;
+            return this;
+        }
+
+        /**
+         * @param preprocessExecutor executor used to preprocess search hits concurrently, or null to preprocess them on
+         *                           the calling thread
+         * @param parallelThreshold  minimum number of hits to rerank for preprocessing to use the executor
+         */
+        public Builder preprocessExecutor(Executor preprocessExecutor, int parallelThreshold) {
+            this.preprocessExecutor = preprocessExecutor;
+            this.parallelThreshold = parallelThreshold;
+            return this;
+        }
+
+        /**
+         * @param maxBodyLengthInChars  maximum number of characters of a document body used to generate passages, or -1
+         *                              for no limit
+         * @param maxBodyLengthInTokens maximum number of tokens of a document body used to generate passages, or -1 for
+         *                              no limit
+         */
+        public Builder maxBodyLength(int maxBodyLengthInChars, int maxBodyLengthInTokens) {
+            this.maxBodyLengthInChars = maxBodyLengthInChars;
+            this.maxBodyLengthInTokens = maxBodyLengthInTokens;
+            return this;
+        }
+
+        /**
+         * @param fetchRequiredFieldsOnly whether to fetch only the body and title fields of documents when the search
+         *                                request disables source, instead of the whole source
+         */
+        public Builder fetchRequiredFieldsOnly(boolean fetchRequiredFieldsOnly) {
+            this.fetchRequiredFieldsOnly = fetchRequiredFieldsOnly;
+            return this;
+        }
+
+        /**
+         * @param rescoreCoalescer node-level deduplication of concurrent identical rescore calls, or null to always
+         *                         call Kendra Intelligent Ranking
+         */
+        public Builder rescoreCoalescer(RescoreRequestCoalescer rescoreCoalescer) {
+            this.rescoreCoalescer = rescoreCoalescer;
+            return this;
+        }
+
+        /**
+         * @param latencyBudget node-level enforcement of the time reranking may add to a search, or null to wait for
+         *                      Kendra Intelligent Ranking however long it takes
+         */
+        public Builder latencyBudget(LatencyBudget latencyBudget) {
+            this.latencyBudget = latencyBudget;
+            return this;
+        }
+
+        /**
+         * @param metrics metrics recording the time spent on each phase of reranking, with errors and fallbacks, or null
+         *                to not report them
+         */
+        public Builder metrics(RerankerMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public KendraIntelligentRanker build() {
+            return new KendraIntelligentRanker(this);
+        }
+    }
+
     @Override
     public List<Setting<?>> getTransformerSettings() {
         return KendraIntelligentRankerSettings.getAllSettings();
@@ -108,23 +253,42 @@ public class KendraIntelligentRanker implements ResultTransformer {
 
     @Override
     public SearchRequest preprocessRequest(final SearchRequest request, final ResultTransformerConfiguration configuration) {
+        KendraIntelligentRankingConfiguration kendraConfiguration = (KendraIntelligentRankingConfiguration) configuration;
         // Source is returned in response hits by default. If disabled by the user, overwrite and enable
         // in order to access document contents for reranking, then suppress at response time.
         if (request.source() != null && request.source().fetchSource() != null &&
                 !request.source().fetchSource().fetchSource()) {
-            request.source().fetchSource(true);
+            if (fetchRequiredFieldsOnly) {
+                request.source().fetchSource(new FetchSourceContext(true, getRequiredFields(kendraConfiguration), null));
+            } else {
+                request.source().fetchSource(true);
+            }
         }
 
         int from = request.source().from() == -1 ? SearchService.DEFAULT_FROM : request.source().from();
         int size = request.source().size() == -1 ? SearchService.DEFAULT_SIZE : request.source().size();
 
-        KendraIntelligentRankingConfiguration kendraConfiguration = (KendraIntelligentRankingConfiguration) configuration;
         int sizeOverride = Math.max(kendraConfiguration.getProperties().getDocLimit(), from + size);
         request.source().from(SearchService.DEFAULT_FROM);
         request.source().size(sizeOverride);
         return request;
     }
 
+    /**
+     * @param kendraConfiguration configuration of the ranker for the searched index
+     * @return source fields read from documents for reranking
+     */
+    private static String[] getRequiredFields(final KendraIntelligentRankingConfiguration kendraConfiguration) {
+        List<String> requiredFields = new ArrayList<>();
+        if (kendraConfiguration.getProperties().getBodyFields() != null) {
+            requiredFields.addAll(kendraConfiguration.getProperties().getBodyFields());
+        }
+        if (kendraConfiguration.getProperties().getTitleFields() != null) {
+            requiredFields.addAll(kendraConfiguration.getProperties().getTitleFields());
+        }
+        return requiredFields.toArray(new String[0]);
+    }
+
     /**
      * @param hits    Search hits to rerank with respect to query
      * @param request Search request
@@ -134,114 +298,510 @@ public class KendraIntelligentRanker implements ResultTransformer {
     public SearchHits transform(final SearchHits hits,
                                 final SearchRequest request,
                                 final ResultTransformerConfiguration configuration) {
+        return transform(hits, request, configuration, null);
+    }
+
+    /**
+     * Same as {@link #transform(SearchHits, SearchRequest, ResultTransformerConfiguration)}, recording the time spent
+     * on each phase of reranking in the context if the search is profiled. The blocking call serializes the rescore
+     * request while sending it, so its serialization is reported as part of the network wait.
+     *
+     * @param hits    Search hits to rerank with respect to query
+     * @param request Search request
+     * @param context state of the search, or null if the search is not profiled
+     * @return SearchHits reranked search hits
+     */
+    public SearchHits transform(final SearchHits hits,
+                                final SearchRequest request,
+                                final ResultTransformerConfiguration configuration,
+                                final ResultTransformerContext context) {
         if (hits.getHits().length == 0) {
             // Avoid call to rerank empty results
             return hits;
         }
+        final long startNanos = System.nanoTime();
+        final ResultTransformerProfile profile = context == null ? null : context.getProfile(NAME);
         KendraIntelligentRankingConfiguration kendraConfig = (KendraIntelligentRankingConfiguration) configuration;
         QueryParserResult queryParserResult = queryParser.parse(
                 request.source().query(),
                 kendraConfig.getProperties().getBodyFields(),
                 kendraConfig.getProperties().getTitleFields());
+        recordPhase(profile, Phase.CONFIG_RESOLUTION, startNanos);
         if (queryParserResult == null) {
             // Unknown query type or query does not reference body field
             return hits;
         }
-        KendraIntelligentRankingConfiguration kendraConfiguration = (KendraIntelligentRankingConfiguration) configuration;
+        float[] originalScores = null;
         try {
-            List<SearchHit> originalHits = Arrays.asList(hits.getHits());
-            final int numberOfHitsToRerank = Math.min(originalHits.size(), kendraConfiguration.getProperties().getDocLimit());
-            List<Document> originalHitsAsDocuments = new ArrayList<>();
-            Map<String, SearchHit> idToSearchHitMap = new HashMap<>();
-            for (int j = 0; j < numberOfHitsToRerank; ++j) {
-                Map<String, Object> docSourceMap = originalHits.get(j).getSourceAsMap();
-                PassageGenerator passageGenerator = new PassageGenerator();
-                String bodyFieldName = queryParserResult.getBodyFieldName();
-                String titleFieldName = queryParserResult.getTitleFieldName();
-                if (docSourceMap.get(bodyFieldName) == null) {
-                    String errorMessage = String.format(Locale.ENGLISH,
-                            "Kendra Intelligent Ranking cannot be applied when documents are missing %s [%s]. Document ID [%s].",
-                            BODY_FIELD, bodyFieldName, originalHits.get(j).getId());
-                    logger.error(errorMessage);
-                    throw new KendraIntelligentRankingException(errorMessage);
-                }
-                List<List<String>> passages = passageGenerator.generatePassages(docSourceMap.get(bodyFieldName).toString(),
-                        MAX_SENTENCE_LENGTH_IN_TOKENS, MIN_PASSAGE_LENGTH_IN_TOKENS, MAX_PASSAGE_COUNT);
-                List<List<String>> topPassages = getTopPassages(queryParserResult.getQueryText(), passages);
-                List<String> tokenizedTitle = null;
-                if (titleFieldName != null && docSourceMap.get(titleFieldName) != null) {
-                    tokenizedTitle = textTokenizer.tokenize(docSourceMap.get(queryParserResult.getTitleFieldName()).toString());
-                    // If tokens list is empty, use null
-                    if (tokenizedTitle.isEmpty()) {
-                        tokenizedTitle = null;
-                    } else if (tokenizedTitle.size() > TITLE_TOKENS_TRIMMED) {
-                        tokenizedTitle = tokenizedTitle.subList(0, TITLE_TOKENS_TRIMMED);
+            final int numberOfHitsToRerank = Math.min(hits.getHits().length, kendraConfig.getProperties().getDocLimit());
+            final RescoreRequest rescoreRequest = buildRescoreRequest(hits, numberOfHitsToRerank, queryParserResult, profile);
+            final RescoreResultCache.Key cacheKey = getCacheKey(rescoreRequest, kendraConfig);
+            final RescoreResult cachedRescoreResult = cacheKey == null ? null : rescoreResultCache.get(cacheKey);
+            long phaseStartNanos = System.nanoTime();
+            metrics.recordPreprocessing(phaseStartNanos - startNanos);
+            final RescoreResult rescoreResult;
+            if (cachedRescoreResult != null) {
+                rescoreResult = cachedRescoreResult;
+            } else {
+                rescoreResult = rescoreCoalescer == null ? kendraClient.rescore(rescoreRequest)
+                        : rescoreCoalescer.rescore(kendraClient, rescoreRequest);
+                final long remoteCallEndNanos = recordPhase(profile, Phase.NETWORK_WAIT, phaseStartNanos);
+                metrics.recordRemoteCall(remoteCallEndNanos - phaseStartNanos);
+                phaseStartNanos = remoteCallEndNanos;
+            }
+            originalScores = getScores(hits, numberOfHitsToRerank);
+            final SearchHits rerankedHits = applyRescoreResult(hits, numberOfHitsToRerank, rescoreResult);
+            if (cacheKey != null && cachedRescoreResult == null) {
+                rescoreResultCache.put(cacheKey, rescoreResult);
+            }
+            metrics.recordPostprocessing(recordPhase(profile, Phase.RESPONSE_MERGE, phaseStartNanos) - phaseStartNanos);
+            return rerankedHits;
+        } catch (RejectedExecutionException ex) {
+            logger.debug("Rescore call rejected: {}. Returning original search results without rescore.", ex.getMessage());
+            metrics.onFallback();
+            return hits;
+        } catch (Exception ex) {
+            logger.error("Failed to rescore. Returning original search results without rescore.", ex);
+            restoreScores(hits, originalScores);
+            metrics.onError();
+            return hits;
+        }
+    }
+
+    /**
+     * Same as {@link #transform(SearchHits, SearchRequest, ResultTransformerConfiguration)}, but calls Kendra
+     * Intelligent Ranking without blocking the calling thread. The listener is completed on the thread that receives
+     * the rescore response.
+     *
+     * @param hits     Search hits to rerank with respect to query
+     * @param request  Search request
+     * @param listener listener notified with the reranked search hits, or the original hits if rescoring failed
+     */
+    @Override
+    public void transformAsync(final SearchHits hits,
+                               final SearchRequest request,
+                               final ResultTransformerConfiguration configuration,
+                               final ActionListener<SearchHits> listener) {
+        transformAsync(hits, request, configuration, new ResultTransformerContext(System.nanoTime()), listener);
+    }
+
+    /**
+     * Same as {@link #transformAsync(SearchHits, SearchRequest, ResultTransformerConfiguration, ActionListener)}, but
+     * gives up on Kendra Intelligent Ranking once the latency budget left for the search is spent, or when the call is
+     * rejected by the circuit breaker or bulkhead, in which case the original hits are returned and the fallback is
+     * recorded in the context.
+     *
+     * @param hits     Search hits to rerank with respect to query
+     * @param request  Search request
+     * @param context  state of the search, providing the time already spent on it
+     * @param listener listener notified with the reranked search hits, or the original hits if rescoring failed
+     */
+    @Override
+    public void transformAsync(final SearchHits hits,
+                               final SearchRequest request,
+                               final ResultTransformerConfiguration configuration,
+                               final ResultTransformerContext context,
+                               final ActionListener<SearchHits> listener) {
+        if (hits.getHits().length == 0) {
+            // Avoid call to rerank empty results
+            listener.onResponse(hits);
+            return;
+        }
+        final long startNanos = System.nanoTime();
+        final ResultTransformerProfile profile = context.getProfile(NAME);
+        final KendraIntelligentRankingConfiguration kendraConfig = (KendraIntelligentRankingConfiguration) configuration;
+        final int numberOfHitsToRerank = Math.min(hits.getHits().length, kendraConfig.getProperties().getDocLimit());
+        final RescoreRequest rescoreRequest;
+        final RescoreResultCache.Key cacheKey;
+        SearchHits cachedHits = null;
+        final float[] originalScores = getScores(hits, numberOfHitsToRerank);
+        try {
+            QueryParserResult queryParserResult = queryParser.parse(
+                    request.source().query(),
+                    kendraConfig.getProperties().getBodyFields(),
+                    kendraConfig.getProperties().getTitleFields());
+            recordPhase(profile, Phase.CONFIG_RESOLUTION, startNanos);
+            if (queryParserResult == null) {
+                // Unknown query type or query does not reference body field
+                listener.onResponse(hits);
+                return;
+            }
+            rescoreRequest = buildRescoreRequest(hits, numberOfHitsToRerank, queryParserResult, profile);
+            cacheKey = getCacheKey(rescoreRequest, kendraConfig);
+            final RescoreResult cachedRescoreResult = cacheKey == null ? null : rescoreResultCache.get(cacheKey);
+            final long preprocessedNanos = System.nanoTime();
+            metrics.recordPreprocessing(preprocessedNanos - startNanos);
+            if (cachedRescoreResult != null) {
+                cachedHits = applyRescoreResult(hits, numberOfHitsToRerank, cachedRescoreResult);
+                metrics.recordPostprocessing(recordPhase(profile, Phase.RESPONSE_MERGE, preprocessedNanos) - preprocessedNanos);
+            }
+        } catch (Exception ex) {
+            logger.error("Failed to rescore. Returning original search results without rescore.", ex);
+            restoreScores(hits, originalScores);
+            metrics.onError();
+            listener.onResponse(hits);
+            return;
+        }
+        if (cachedHits != null) {
+            listener.onResponse(cachedHits);
+            return;
+        }
+
+        final long remoteCallStartNanos = System.nanoTime();
+        // Time the request was sent at, once it is serialized and handed over to the HTTP client
+        final AtomicLong sentNanos = new AtomicLong(remoteCallStartNanos);
+        final ActionListener<RescoreResult> rescoreListener = new ActionListener<RescoreResult>() {
+            @Override
+            public void onResponse(RescoreResult rescoreResult) {
+                final long remoteCallEndNanos = recordPhase(profile, Phase.NETWORK_WAIT, sentNanos.get());
+                metrics.recordRemoteCall(remoteCallEndNanos - remoteCallStartNanos);
+                SearchHits rerankedHits;
+                try {
+                    rerankedHits = applyRescoreResult(hits, numberOfHitsToRerank, rescoreResult);
+                    if (cacheKey != null) {
+                        rescoreResultCache.put(cacheKey, rescoreResult);
                     }
+                    metrics.recordPostprocessing(recordPhase(profile, Phase.RESPONSE_MERGE, remoteCallEndNanos) - remoteCallEndNanos);
+                } catch (Exception ex) {
+                    logger.error("Failed to rescore. Returning original search results without rescore.", ex);
+                    restoreScores(hits, originalScores);
+                    metrics.onError();
+                    rerankedHits = hits;
                 }
-                for (int i = 0; i < topPassages.size(); ++i) {
-                    List<String> passageTokens = topPassages.get(i);
-                    if (passageTokens != null && !passageTokens.isEmpty() && passageTokens.size() > BODY_PASSAGE_TRIMMED) {
-                        passageTokens = passageTokens.subList(0, BODY_PASSAGE_TRIMMED);
-                    }
-                    originalHitsAsDocuments.add(new Document(
-                            originalHits.get(j).getId() + "@" + (i + 1),
-                            originalHits.get(j).getId(),
-                            tokenizedTitle,
-                            passageTokens,
-                            originalHits.get(j).getScore()));
+                listener.onResponse(rerankedHits);
+            }
+
+            @Override
+            public void onFailure(Exception ex) {
+                if (ex instanceof RejectedExecutionException) {
+                    // Circuit breaker open or too many calls in flight
+                    logger.debug("Rescore call rejected: {}. Returning original search results without rescore.", ex.getMessage());
+                    context.addFallback(NAME);
+                    metrics.onFallback();
+                } else {
+                    logger.error("Failed to rescore. Returning original search results without rescore.", ex);
+                    recordPhase(profile, Phase.NETWORK_WAIT, sentNanos.get());
+                    metrics.recordRemoteCall(System.nanoTime() - remoteCallStartNanos);
+                    metrics.onError();
                 }
-                // Map search hits by their ID in order to map Kendra response documents back to hits later
-                idToSearchHitMap.put(originalHits.get(j).getId(), originalHits.get(j));
-            }
-
-            final RescoreRequest rescoreRequest = new RescoreRequest(queryParserResult.getQueryText(), originalHitsAsDocuments);
-            final RescoreResult rescoreResult = kendraClient.rescore(rescoreRequest);
-
-            List<SearchHit> newSearchHits = new ArrayList<>();
-            float maxScore = 0;
-            for (RescoreResultItem rescoreResultItem : rescoreResult.getResultItems()) {
-                SearchHit searchHit = idToSearchHitMap.get(rescoreResultItem.getDocumentId());
-                if (searchHit == null) {
-                    String errorMessage = String.format(Locale.ENGLISH,
-                            "Response from Kendra Intelligent Ranking service references document ID [%s], which does not exist in original results",
-                            rescoreResultItem.getDocumentId());
-                    logger.error(errorMessage);
-                    throw new KendraIntelligentRankingException(errorMessage);
+                listener.onResponse(hits);
+            }
+        };
+        if (latencyBudget == null) {
+            sendRescore(rescoreRequest, rescoreListener, profile, sentNanos);
+            return;
+        }
+        final long budgetMillis = latencyBudget.getRemainingMillis(kendraConfig.getProperties().getLatencyBudget(), request,
+                context.getElapsedMillis());
+        latencyBudget.execute(budgetMillis, l -> sendRescore(rescoreRequest, l, profile, sentNanos), rescoreListener, () -> {
+            logger.warn("Latency budget of {} ms spent. Returning original search results without rescore.", budgetMillis);
+            recordPhase(profile, Phase.NETWORK_WAIT, sentNanos.get());
+            context.addFallback(NAME);
+            metrics.onFallback();
+            listener.onResponse(hits);
+        });
+    }
+
+    /**
+     * Send the rescore request, recording the time spent serializing and handing it over to the HTTP client
+     *
+     * @param rescoreRequest rescore request to send
+     * @param listener       listener notified with the rescore result
+     * @param profile        profile of the search, or null if the search is not profiled
+     * @param sentNanos      set to the time the request was sent at
+     * @return releasable that cancels the call if it is still in flight
+     */
+    private Releasable sendRescore(final RescoreRequest rescoreRequest, final ActionListener<RescoreResult> listener,
+                                   final ResultTransformerProfile profile, final AtomicLong sentNanos) {
+        final long startNanos = System.nanoTime();
+        final Releasable cancel = rescoreAsync(rescoreRequest, listener);
+        sentNanos.set(recordPhase(profile, Phase.REQUEST_SERIALIZATION, startNanos));
+        return cancel;
+    }
+
+    private Releasable rescoreAsync(final RescoreRequest rescoreRequest, final ActionListener<RescoreResult> listener) {
+        if (rescoreCoalescer == null) {
+            return kendraClient.rescoreAsync(rescoreRequest, listener);
+        }
+        return rescoreCoalescer.rescoreAsync(kendraClient, rescoreRequest, listener);
+    }
+
+    /**
+     * @param rescoreRequest rescore request about to be sent to Kendra Intelligent Ranking
+     * @param configuration  transformer configuration for this search
+     * @return key of the rescore result in the node-level cache, or null if the cache does not apply
+     */
+    private RescoreResultCache.Key getCacheKey(final RescoreRequest rescoreRequest,
+                                               final KendraIntelligentRankingConfiguration configuration) {
+        if (rescoreResultCache == null || !configuration.getProperties().isCacheEnabled()) {
+            return null;
+        }
+        return RescoreResultCache.createKey(kendraClient.getExecutionPlanId(), rescoreRequest);
+    }
+
+    /**
+     * Convert the top search hits into the documents sent to Kendra Intelligent Ranking. When a preprocessing executor
+     * is available and there are at least {@code parallelThreshold} hits to rerank, hits are converted concurrently;
+     * documents are always added to the request in hit order.
+     *
+     * @param hits                 search hits to rerank
+     * @param numberOfHitsToRerank number of top hits to include in the request
+     * @param queryParserResult    query text and fields resolved from the search request
+     * @param profile              profile of the search, or null if the search is not profiled
+     * @return rescore request for the top hits
+     */
+    private RescoreRequest buildRescoreRequest(final SearchHits hits,
+                                               final int numberOfHitsToRerank,
+                                               final QueryParserResult queryParserResult,
+                                               final ResultTransformerProfile profile) {
+        SearchHit[] originalHits = hits.getHits();
+        final long startNanos = System.nanoTime();
+        List<String> queryTokens = textTokenizer.tokenize(queryParserResult.getQueryText());
+        recordPhase(profile, Phase.TOKENIZATION, startNanos);
+        // Only the prefix of the body used to generate passages is read from the source
+        SourceFieldExtractor sourceFields = new SourceFieldExtractor(
+                Arrays.asList(queryParserResult.getBodyFieldName(), queryParserResult.getTitleFieldName()),
+                maxBodyLengthInChars < 0 || queryParserResult.getBodyFieldName() == null ? Collections.emptyMap()
+                        : Collections.singletonMap(queryParserResult.getBodyFieldName(), maxBodyLengthInChars));
+        List<Document> originalHitsAsDocuments = new ArrayList<>();
+        if (preprocessExecutor == null || numberOfHitsToRerank < parallelThreshold) {
+            for (int j = 0; j < numberOfHitsToRerank; ++j) {
+                originalHitsAsDocuments.addAll(buildDocuments(originalHits[j], queryParserResult, queryTokens, sourceFields, profile));
+            }
+            return new RescoreRequest(queryParserResult.getQueryText(), originalHitsAsDocuments);
+        }
+
+        List<FutureTask<List<Document>>> tasks = new ArrayList<>(numberOfHitsToRerank);
+        try {
+            for (int j = 0; j < numberOfHitsToRerank; ++j) {
+                final SearchHit hit = originalHits[j];
+                FutureTask<List<Document>> task = new FutureTask<>(() -> buildDocuments(hit, queryParserResult, queryTokens, sourceFields, profile));
+                tasks.add(task);
+                try {
+                    preprocessExecutor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    // Preprocessing pool is saturated, convert this hit on the calling thread instead
+                    task.run();
                 }
-                searchHit.score(rescoreResultItem.getScore());
-                maxScore = Math.max(maxScore, rescoreResultItem.getScore());
-                newSearchHits.add(searchHit);
             }
-            // Add remaining hits to response, which are already sorted by OpenSearch score
-            for (int i = numberOfHitsToRerank; i < originalHits.size(); ++i) {
-                newSearchHits.add(originalHits.get(i));
+            for (FutureTask<List<Document>> task : tasks) {
+                originalHitsAsDocuments.addAll(getDocuments(task));
+            }
+        } finally {
+            for (FutureTask<List<Document>> task : tasks) {
+                task.cancel(false);
             }
-            return new SearchHits(newSearchHits.toArray(new SearchHit[0]), hits.getTotalHits(), maxScore);
-        } catch (Exception ex) {
-            logger.error("Failed to rescore. Returning original search results without rescore.", ex);
-            return hits;
         }
+        return new RescoreRequest(queryParserResult.getQueryText(), originalHitsAsDocuments);
     }
 
-    private List<List<String>> getTopPassages(final String queryText, final List<List<String>> passages) {
-        List<String> query = textTokenizer.tokenize(queryText);
-        BM25Scorer bm25Scorer = new BM25Scorer(BM25_B_VALUE, BM25_K1_VALUE, passages);
-        PriorityQueue<PassageScore> pq = new PriorityQueue<>(Comparator.comparingDouble(PassageScore::getScore));
+    private static List<Document> getDocuments(final FutureTask<List<Document>> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KendraIntelligentRankingException("Interrupted while preprocessing search hits");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
 
-        for (int i = 0; i < passages.size(); i++) {
-            double score = bm25Scorer.score(query, passages.get(i));
-            pq.offer(new PassageScore(score, i));
-            if (pq.size() > TOP_K_PASSAGES) {
-                // Maintain heap of top K passages
-                pq.poll();
+    /**
+     * Convert a search hit into one document per top passage of its body
+     *
+     * @param hit               search hit to convert
+     * @param queryParserResult query text and fields resolved from the search request
+     * @param queryTokens       tokenized query text
+     * @param sourceFields      extractor of the body and title fields from the hit source
+     * @param profile           profile of the search, or null if the search is not profiled
+     * @return documents for the top passages of the hit, in descending order of passage score
+     */
+    private List<Document> buildDocuments(final SearchHit hit, final QueryParserResult queryParserResult,
+                                          final List<String> queryTokens, final SourceFieldExtractor sourceFields,
+                                          final ResultTransformerProfile profile) {
+        String bodyFieldName = queryParserResult.getBodyFieldName();
+        String titleFieldName = queryParserResult.getTitleFieldName();
+        long phaseStartNanos = System.nanoTime();
+        Map<String, Object> docSourceMap = sourceFields.extract(hit);
+        phaseStartNanos = recordPhase(profile, Phase.SOURCE_PARSING, phaseStartNanos);
+        if (docSourceMap.get(bodyFieldName) == null) {
+            String errorMessage = String.format(Locale.ENGLISH,
+                    "Kendra Intelligent Ranking cannot be applied when documents are missing %s [%s]. Document ID [%s].",
+                    BODY_FIELD, bodyFieldName, hit.getId());
+            logger.error(errorMessage);
+            throw new KendraIntelligentRankingException(errorMessage);
+        }
+        List<List<String>> passages = getPassages(hit, bodyFieldName, truncateBody(docSourceMap.get(bodyFieldName).toString()));
+        phaseStartNanos = recordPhase(profile, Phase.PASSAGE_GENERATION, phaseStartNanos);
+        List<List<String>> topPassages = getTopPassages(queryTokens, passages);
+        phaseStartNanos = recordPhase(profile, Phase.BM25_SCORING, phaseStartNanos);
+        List<String> tokenizedTitle = null;
+        if (titleFieldName != null && docSourceMap.get(titleFieldName) != null) {
+            tokenizedTitle = textTokenizer.tokenize(docSourceMap.get(queryParserResult.getTitleFieldName()).toString());
+            recordPhase(profile, Phase.TOKENIZATION, phaseStartNanos);
+            // If tokens list is empty, use null
+            if (tokenizedTitle.isEmpty()) {
+                tokenizedTitle = null;
+            } else if (tokenizedTitle.size() > TITLE_TOKENS_TRIMMED) {
+                tokenizedTitle = tokenizedTitle.subList(0, TITLE_TOKENS_TRIMMED);
+            }
+        }
+        List<Document> documents = new ArrayList<>(topPassages.size());
+        for (int i = 0; i < topPassages.size(); ++i) {
+            List<String> passageTokens = topPassages.get(i);
+            if (passageTokens != null && !passageTokens.isEmpty() && passageTokens.size() > BODY_PASSAGE_TRIMMED) {
+                passageTokens = passageTokens.subList(0, BODY_PASSAGE_TRIMMED);
             }
+            documents.add(new Document(
+                    hit.getId() + "@" + (i + 1),
+                    hit.getId(),
+                    tokenizedTitle,
+                    passageTokens,
+                    hit.getScore()));
         }
+        return documents;
+    }
 
-        List<List<String>> topPassages = new ArrayList<>();
-        while (!pq.isEmpty()) {
-            topPassages.add(passages.get(pq.poll().getIndex()));
+    /**
+     * @return the prefix of the body text used to generate passages, which does not end with half a surrogate pair.
+     * String bodies are already cut while the source is read, only other values are cut here.
+     */
+    private String truncateBody(final String bodyText) {
+        if (maxBodyLengthInChars < 0 || bodyText.length() <= maxBodyLengthInChars) {
+            return bodyText;
+        }
+        int end = maxBodyLengthInChars;
+        if (end > 0 && Character.isHighSurrogate(bodyText.charAt(end - 1))) {
+            end--;
+        }
+        return bodyText.substring(0, end);
+    }
+
+    /**
+     * Generate the passages of a document body, reusing passages cached for the same document version if available
+     *
+     * @param hit           search hit the body belongs to
+     * @param bodyFieldName name of the body field
+     * @param bodyText      contents of the body field
+     * @return passages, each a list of tokens
+     */
+    private List<List<String>> getPassages(final SearchHit hit, final String bodyFieldName, final String bodyText) {
+        if (passageCache == null) {
+            return passageGenerator.generatePassages(bodyText,
+                    MAX_SENTENCE_LENGTH_IN_TOKENS, MIN_PASSAGE_LENGTH_IN_TOKENS, MAX_PASSAGE_COUNT, maxBodyLengthInTokens);
+        }
+        final String indexUuid = hit.getShard() == null ? null : hit.getShard().getShardId().getIndex().getUUID();
+        PassageCache.Key key = PassageCache.createKey(hit.getIndex(), indexUuid, hit.getId(), bodyFieldName,
+                hit.getSeqNo(), hit.getPrimaryTerm(), bodyText);
+        return passageCache.getOrGenerate(key, () -> passageGenerator.generatePassages(bodyText,
+                MAX_SENTENCE_LENGTH_IN_TOKENS, MIN_PASSAGE_LENGTH_IN_TOKENS, MAX_PASSAGE_COUNT, maxBodyLengthInTokens));
+    }
+
+    /**
+     * Reorder the top search hits according to the scores returned by Kendra Intelligent Ranking
+     *
+     * @param hits                 original search hits
+     * @param numberOfHitsToRerank number of top hits that were sent for rescoring
+     * @param rescoreResult        response from Kendra Intelligent Ranking
+     * @return reranked hits, followed by the remaining hits in their original order
+     */
+    private SearchHits applyRescoreResult(final SearchHits hits,
+                                          final int numberOfHitsToRerank,
+                                          final RescoreResult rescoreResult) {
+        List<SearchHit> originalHits = Arrays.asList(hits.getHits());
+        // Map search hits by their ID in order to map Kendra response documents back to hits
+        Map<String, SearchHit> idToSearchHitMap = new HashMap<>();
+        for (int j = 0; j < numberOfHitsToRerank; ++j) {
+            idToSearchHitMap.put(originalHits.get(j).getId(), originalHits.get(j));
+        }
+
+        List<SearchHit> newSearchHits = new ArrayList<>();
+        for (RescoreResultItem rescoreResultItem : rescoreResult.getResultItems()) {
+            SearchHit searchHit = idToSearchHitMap.get(rescoreResultItem.getDocumentId());
+            if (searchHit == null) {
+                String errorMessage = String.format(Locale.ENGLISH,
+                        "Response from Kendra Intelligent Ranking service references document ID [%s], which does not exist in original results",
+                        rescoreResultItem.getDocumentId());
+                logger.error(errorMessage);
+                throw new KendraIntelligentRankingException(errorMessage);
+            }
+            newSearchHits.add(searchHit);
+        }
+        // Hits are shared with the original results, so only update scores once all documents are resolved
+        float maxScore = 0;
+        for (int i = 0; i < newSearchHits.size(); ++i) {
+            float score = rescoreResult.getResultItems().get(i).getScore();
+            newSearchHits.get(i).score(score);
+            maxScore = Math.max(maxScore, score);
+        }
+        // Add remaining hits to response, which are already sorted by OpenSearch score
+        for (int i = numberOfHitsToRerank; i < originalHits.size(); ++i) {
+            newSearchHits.add(originalHits.get(i));
+        }
+        return new SearchHits(newSearchHits.toArray(new SearchHit[0]), hits.getTotalHits(), maxScore);
+    }
+
+    /**
+     * Scores of the top hits, to put back if reranking fails once they are updated. Hits are shared with the search
+     * response, so the original results returned on failure must not carry the scores of a failed rerank.
+     *
+     * @param hits         search hits to rerank
+     * @param numberOfHits number of top hits whose scores may be updated
+     * @return scores of the top hits
+     */
+    private static float[] getScores(final SearchHits hits, final int numberOfHits) {
+        final float[] scores = new float[numberOfHits];
+        for (int i = 0; i < numberOfHits; ++i) {
+            scores[i] = hits.getHits()[i].getScore();
+        }
+        return scores;
+    }
+
+    /**
+     * Put back the scores of the top hits taken before reranking
+     *
+     * @param hits   search hits that were reranked
+     * @param scores scores returned by {@link #getScores(SearchHits, int)}, or null if no score was updated
+     */
+    private static void restoreScores(final SearchHits hits, final float[] scores) {
+        if (scores == null) {
+            return;
+        }
+        for (int i = 0; i < scores.length; ++i) {
+            hits.getHits()[i].score(scores[i]);
+        }
+    }
+
+    private List<List<String>> getTopPassages(final List<String> queryTokens, final List<List<String>> passages) {
+        TermIdBM25Scorer bm25Scorer = new TermIdBM25Scorer(BM25_B_VALUE, BM25_K1_VALUE, passages);
+        // Ordered from highest to lowest score
+        int[] topPassageIndices = bm25Scorer.topDocuments(queryTokens, TOP_K_PASSAGES);
+        List<List<String>> topPassages = new ArrayList<>(topPassageIndices.length);
+        for (int passageIndex : topPassageIndices) {
+            topPassages.add(passages.get(passageIndex));
         }
-        Collections.reverse(topPassages); // reverse to order from highest to lowest score
         return topPassages;
     }
+
+    /**
+     * Record the time spent on a phase of reranking if the search is profiled
+     *
+     * @param profile    profile of the search, or null if the search is not profiled
+     * @param phase      phase of reranking
+     * @param startNanos value of {@link System#nanoTime()} when the phase started
+     * @return value of {@link System#nanoTime()} when the phase ended, which the next phase can start from
+     */
+    private static long recordPhase(final ResultTransformerProfile profile, final Phase phase, final long startNanos) {
+        final long endNanos = System.nanoTime();
+        if (profile != null) {
+            profile.addPhaseTime(phase, endNanos - startNanos);
+        }
+        return endNanos;
+    }
 }
@@ -0,0 +1,76 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.cache;
+
+import org.opensearch.common.cache.Cache;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+import java.io.IOException;
+
+/**
+ * Point-in-time statistics of one of the plugin caches
+ */
+public final class CacheStats implements ToXContentFragment {
+    private final String name;
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long entryCount;
+    private final long memorySizeInBytes;
+
+    public CacheStats(String name, long hitCount, long missCount, long evictionCount, long entryCount, long memorySizeInBytes) {
+        this.name = name;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.entryCount = entryCount;
+        this.memorySizeInBytes = memorySizeInBytes;
+    }
+
+    static CacheStats of(String name, Cache<?, ?> cache) {
+        Cache.CacheStats cacheStats = cache.stats();
+        return new CacheStats(name, cacheStats.getHits(), cacheStats.getMisses(), cacheStats.getEvictions(),
+                cache.count(), cache.weight());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    public long getMemorySizeInBytes() {
+        return memorySizeInBytes;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(name);
+        builder.field("hit_count", hitCount);
+        builder.field("miss_count", missCount);
+        builder.field("eviction_count", evictionCount);
+        builder.field("entry_count", entryCount);
+        builder.field("memory_size_in_bytes", memorySizeInBytes);
+        return builder.endObject();
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.cache;
+
+import org.apache.lucene.util.RamUsageEstimator;
+import org.opensearch.common.cache.Cache;
+import org.opensearch.common.cache.CacheBuilder;
+import org.opensearch.common.hash.MurmurHash3;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.common.unit.ByteSizeValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import static org.opensearch.index.seqno.SequenceNumbers.UNASSIGNED_PRIMARY_TERM;
+import static org.opensearch.index.seqno.SequenceNumbers.UNASSIGNED_SEQ_NO;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.PASSAGE_CACHE_ENABLED_SETTING;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.PASSAGE_CACHE_EXPIRE_AFTER_ACCESS_SETTING;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.PASSAGE_CACHE_SIZE_SETTING;
+
+/**
+ * Node-level cache of the tokenized passages generated from a document body. Passages only depend on the document
+ * contents, so they are reused across queries; only the query-dependent passage selection runs per request.
+ * Entries are keyed by index, document ID and body field, plus either the document sequence number and primary term
+ * when they are returned with the hit, or a hash of the body text otherwise.
+ */
+public class PassageCache {
+    private static final long LIST_BYTES = RamUsageEstimator.shallowSizeOfInstance(ArrayList.class)
+            + RamUsageEstimator.NUM_BYTES_ARRAY_HEADER;
+
+    private final Cache<Key, List<List<String>>> cache;
+
+    /**
+     * @param maximumSize       upper bound on the estimated memory used by cached entries
+     * @param expireAfterAccess time after which an entry that has not been read is dropped
+     */
+    public PassageCache(final ByteSizeValue maximumSize, final TimeValue expireAfterAccess) {
+        this.cache = CacheBuilder.<Key, List<List<String>>>builder()
+                .setMaximumWeight(maximumSize.getBytes())
+                .setExpireAfterAccess(expireAfterAccess)
+                .weigher((key, passages) -> key.ramBytesUsed() + ramBytesUsed(passages))
+                .build();
+    }
+
+    /**
+     * Create the node-level cache from node settings
+     *
+     * @param settings node settings
+     * @return passage cache, or null if the cache is disabled
+     */
+    public static PassageCache create(final Settings settings) {
+        if (!PASSAGE_CACHE_ENABLED_SETTING.get(settings)) {
+            return null;
+        }
+        return new PassageCache(PASSAGE_CACHE_SIZE_SETTING.get(settings), PASSAGE_CACHE_EXPIRE_AFTER_ACCESS_SETTING.get(settings));
+    }
+
+    /**
+     * Return the cached passages for a document, generating and caching them on a miss
+     *
+     * @param key       cache key built with {@link #createKey(String, String, String, String, long, long, String)}
+     * @param generator generates the passages from the document body
+     * @return unmodifiable list of passages, each a list of tokens
+     */
+    public List<List<String>> getOrGenerate(final Key key, final Supplier<List<List<String>>> generator) {
+        List<List<String>> passages = cache.get(key);
+        if (passages == null) {
+            passages = Collections.unmodifiableList(generator.get());
+            cache.put(key, passages);
+        }
+        return passages;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats getStats() {
+        return CacheStats.of("passage_cache", cache);
+    }
+
+    /**
+     * Build the cache key for the passages of a document. The sequence number and primary term identify a version of
+     * the document only within one incarnation of its index: an index deleted and re-created with the same name starts
+     * over from the same sequence numbers. They are therefore only used along with the UUID of the index, and the
+     * contents of the body are hashed otherwise.
+     *
+     * @param indexName   name of the index the document belongs to
+     * @param indexUuid   UUID of the index the document belongs to, or null if the hit does not carry its shard
+     * @param id          document ID
+     * @param bodyField   name of the field the passages are generated from
+     * @param seqNo       sequence number of the document, or {@code UNASSIGNED_SEQ_NO} if not returned with the hit
+     * @param primaryTerm primary term of the document, or {@code UNASSIGNED_PRIMARY_TERM} if not returned with the hit
+     * @param bodyText    contents of the body field, hashed when the document version cannot be identified
+     * @return cache key
+     */
+    public static Key createKey(final String indexName, final String indexUuid, final String id, final String bodyField,
+                                final long seqNo, final long primaryTerm, final String bodyText) {
+        if (indexUuid != null && seqNo != UNASSIGNED_SEQ_NO && primaryTerm != UNASSIGNED_PRIMARY_TERM) {
+            return new Key(indexUuid, id, bodyField, seqNo, primaryTerm, 0L, 0L);
+        }
+        final byte[] bytes = bodyText.getBytes(StandardCharsets.UTF_8);
+        final MurmurHash3.Hash128 hash = MurmurHash3.hash128(bytes, 0, bytes.length, 0, new MurmurHash3.Hash128());
+        return new Key(indexName, id, bodyField, UNASSIGNED_SEQ_NO, UNASSIGNED_PRIMARY_TERM, hash.h1, hash.h2);
+    }
+
+    private static long ramBytesUsed(final List<List<String>> passages) {
+        long bytes = LIST_BYTES;
+        for (List<String> passage : passages) {
+            bytes += LIST_BYTES + (long) passage.size() * RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+            for (String token : passage) {
+                bytes += RamUsageEstimator.sizeOf(token);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Key of cached document passages
+     */
+    public static final class Key {
+        private static final long BASE_BYTES = RamUsageEstimator.shallowSizeOfInstance(Key.class);
+
+        // UUID of the index along with a document version, or its name along with a content hash
+        private final String index;
+        private final String id;
+        private final String bodyField;
+        private final long seqNo;
+        private final long primaryTerm;
+        private final long contentHash1;
+        private final long contentHash2;
+
+        Key(final String index, final String id, final String bodyField, final long seqNo, final long primaryTerm,
+            final long contentHash1, final long contentHash2) {
+            this.index = index;
+            this.id = id;
+            this.bodyField = bodyField;
+            this.seqNo = seqNo;
+            this.primaryTerm = primaryTerm;
+            this.contentHash1 = contentHash1;
+            this.contentHash2 = contentHash2;
+        }
+
+        long ramBytesUsed() {
+            return BASE_BYTES + RamUsageEstimator.sizeOf(index) + RamUsageEstimator.sizeOf(id) + RamUsageEstimator.sizeOf(bodyField);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return seqNo == key.seqNo && primaryTerm == key.primaryTerm && contentHash1 == key.contentHash1 &&
+                    contentHash2 == key.contentHash2 && Objects.equals(index, key.index) && Objects.equals(id, key.id) &&
+                    Objects.equals(bodyField, key.bodyField);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(index, id, bodyField, seqNo, primaryTerm, contentHash1, contentHash2);
+        }
+    }
+}
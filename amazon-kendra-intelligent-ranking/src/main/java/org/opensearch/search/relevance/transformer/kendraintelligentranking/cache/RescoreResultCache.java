@@ -0,0 +1,208 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.cache;
+
+import org.apache.lucene.util.RamUsageEstimator;
+import org.opensearch.common.cache.Cache;
+import org.opensearch.common.cache.CacheBuilder;
+import org.opensearch.common.hash.MessageDigests;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.common.unit.ByteSizeValue;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.Document;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreRequest;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResultItem;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.RESCORE_CACHE_ENABLED_SETTING;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.RESCORE_CACHE_EXPIRE_AFTER_WRITE_SETTING;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.RESCORE_CACHE_SIZE_SETTING;
+
+/**
+ * Node-level cache of Kendra Intelligent Ranking rescore results, bounded by estimated memory use and time since write.
+ * Entries are keyed by execution plan ID, normalized query text and an order-independent digest of the documents
+ * sent for rescoring.
+ */
+public class RescoreResultCache {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final long ITEM_BYTES = RamUsageEstimator.shallowSizeOfInstance(RescoreResultItem.class)
+            + RamUsageEstimator.shallowSizeOfInstance(Float.class) + RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+
+    private final Cache<Key, RescoreResult> cache;
+
+    /**
+     * @param maximumSize      upper bound on the estimated memory used by cached entries
+     * @param expireAfterWrite time after which an entry is no longer served
+     */
+    public RescoreResultCache(final ByteSizeValue maximumSize, final TimeValue expireAfterWrite) {
+        this.cache = CacheBuilder.<Key, RescoreResult>builder()
+                .setMaximumWeight(maximumSize.getBytes())
+                .setExpireAfterWrite(expireAfterWrite)
+                .weigher((key, result) -> key.ramBytesUsed() + ramBytesUsed(result))
+                .build();
+    }
+
+    /**
+     * Create the node-level cache from node settings
+     *
+     * @param settings node settings
+     * @return rescore result cache, or null if the cache is disabled
+     */
+    public static RescoreResultCache create(final Settings settings) {
+        if (!RESCORE_CACHE_ENABLED_SETTING.get(settings)) {
+            return null;
+        }
+        return new RescoreResultCache(RESCORE_CACHE_SIZE_SETTING.get(settings), RESCORE_CACHE_EXPIRE_AFTER_WRITE_SETTING.get(settings));
+    }
+
+    /**
+     * @param key cache key built with {@link #createKey(String, RescoreRequest)}
+     * @return cached rescore result, or null on a miss
+     */
+    public RescoreResult get(final Key key) {
+        return cache.get(key);
+    }
+
+    /**
+     * @param key    cache key built with {@link #createKey(String, RescoreRequest)}
+     * @param result rescore result returned by Kendra Intelligent Ranking for the request the key was built from
+     */
+    public void put(final Key key, final RescoreResult result) {
+        if (result == null || result.getResultItems() == null) {
+            return;
+        }
+        cache.put(key, result);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats getStats() {
+        return CacheStats.of("rescore_cache", cache);
+    }
+
+    /**
+     * Build the cache key for a rescore request. The documents digest does not depend on the order of the documents
+     * in the request.
+     *
+     * @param executionPlanId Kendra Intelligent Ranking execution plan the request is sent to
+     * @param rescoreRequest  rescore request
+     * @return cache key
+     */
+    public static Key createKey(final String executionPlanId, final RescoreRequest rescoreRequest) {
+        List<String> documentDigests = new ArrayList<>();
+        if (rescoreRequest.getDocuments() != null) {
+            for (Document document : rescoreRequest.getDocuments()) {
+                MessageDigest digest = MessageDigests.sha256();
+                update(digest, document.getId());
+                update(digest, document.getGroupId());
+                update(digest, document.getTokenizedTitle());
+                update(digest, document.getTokenizedBody());
+                update(digest, document.getOriginalScore() == null ? null : Float.toString(document.getOriginalScore()));
+                documentDigests.add(MessageDigests.toHexString(digest.digest()));
+            }
+        }
+        Collections.sort(documentDigests);
+        MessageDigest digest = MessageDigests.sha256();
+        for (String documentDigest : documentDigests) {
+            digest.update(documentDigest.getBytes(StandardCharsets.UTF_8));
+        }
+        return new Key(executionPlanId, normalizeQueryText(rescoreRequest.getSearchQuery()),
+                MessageDigests.toHexString(digest.digest()));
+    }
+
+    /**
+     * Collapse runs of whitespace and trim, so that queries differing only in spacing share an entry.
+     * Case is preserved since it is visible to the ranking model.
+     */
+    static String normalizeQueryText(final String queryText) {
+        if (queryText == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(queryText.trim()).replaceAll(" ");
+    }
+
+    private static void update(final MessageDigest digest, final List<String> tokens) {
+        if (tokens == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        digest.update((byte) 1);
+        for (String token : tokens) {
+            update(digest, token);
+        }
+        digest.update((byte) 0);
+    }
+
+    private static void update(final MessageDigest digest, final String value) {
+        if (value == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) 1);
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+
+    private static long ramBytesUsed(final RescoreResult result) {
+        long bytes = RamUsageEstimator.shallowSizeOfInstance(RescoreResult.class) + RamUsageEstimator.sizeOf(result.getRescoreId());
+        for (RescoreResultItem item : result.getResultItems()) {
+            bytes += ITEM_BYTES + RamUsageEstimator.sizeOf(item.getDocumentId());
+        }
+        return bytes;
+    }
+
+    /**
+     * Key of a cached rescore result
+     */
+    public static final class Key {
+        private static final long BASE_BYTES = RamUsageEstimator.shallowSizeOfInstance(Key.class);
+
+        private final String executionPlanId;
+        private final String queryText;
+        private final String documentsDigest;
+
+        Key(final String executionPlanId, final String queryText, final String documentsDigest) {
+            this.executionPlanId = executionPlanId;
+            this.queryText = queryText;
+            this.documentsDigest = documentsDigest;
+        }
+
+        long ramBytesUsed() {
+            return BASE_BYTES + RamUsageEstimator.sizeOf(executionPlanId) + RamUsageEstimator.sizeOf(queryText)
+                    + RamUsageEstimator.sizeOf(documentsDigest);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return Objects.equals(executionPlanId, key.executionPlanId) && queryText.equals(key.queryText) &&
+                    documentsDigest.equals(key.documentsDigest);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(executionPlanId, queryText, documentsDigest);
+        }
+    }
+}
@@ -40,13 +40,21 @@ public final class KendraClientSettings {
   private final String serviceRegion;
   private final String executionPlanId;
   private final String assumeRoleArn;
+  private final KendraConnectionSettings connectionSettings;
 
   protected KendraClientSettings(AWSCredentials credentials, String serviceEndpoint, String serviceRegion, String executionPlanId, String assumeRoleArn) {
+    this(credentials, serviceEndpoint, serviceRegion, executionPlanId, assumeRoleArn,
+        KendraConnectionSettings.getConnectionSettings(Settings.EMPTY));
+  }
+
+  protected KendraClientSettings(AWSCredentials credentials, String serviceEndpoint, String serviceRegion, String executionPlanId, String assumeRoleArn,
+                                 KendraConnectionSettings connectionSettings) {
     this.credentials = credentials;
     this.serviceEndpoint = serviceEndpoint;
     this.serviceRegion = serviceRegion;
     this.executionPlanId = executionPlanId;
     this.assumeRoleArn = assumeRoleArn;
+    this.connectionSettings = connectionSettings;
   }
 
   public AWSCredentials getCredentials() {
@@ -69,6 +77,10 @@ public final class KendraClientSettings {
     return assumeRoleArn;
   }
 
+  public KendraConnectionSettings getConnectionSettings() {
+    return connectionSettings;
+  }
+
   static AWSCredentials loadCredentials(Settings settings) {
     try (SecureString key = ACCESS_KEY_SETTING.get(settings);
         SecureString secret = SECRET_KEY_SETTING.get(settings);
@@ -101,7 +113,7 @@ public final class KendraClientSettings {
   /**
    * Parse settings for a single client.
    * @param settings a {@link Settings} instance from which to derive the endpoint settings
-   * @return KendraClientSettings comprising credentials and endpoint settings
+   * @return KendraClientSettings comprising credentials, endpoint and connection settings
    */
   public static KendraClientSettings getClientSettings(Settings settings) {
     final AWSCredentials credentials = loadCredentials(settings);
@@ -110,7 +122,8 @@ public final class KendraClientSettings {
         SERVICE_ENDPOINT_SETTING.get(settings),
         SERVICE_REGION_SETTING.get(settings),
         EXECUTION_PLAN_ID_SETTING.get(settings),
-        ASSUME_ROLE_ARN_SETTING.get(settings)
+        ASSUME_ROLE_ARN_SETTING.get(settings),
+        KendraConnectionSettings.getConnectionSettings(settings)
     );
   }
 
@@ -0,0 +1,162 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.client;
+
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.CLIENT_COMPRESSION_ENABLED_SETTING;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.CLIENT_CONNECTION_MAX_IDLE_SETTING;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.CLIENT_CONNECTION_TIMEOUT_SETTING;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.CLIENT_CONNECTION_TTL_SETTING;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.CLIENT_MAX_CONNECTIONS_SETTING;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.CLIENT_MAX_RETRIES_SETTING;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.CLIENT_PREWARM_CONNECTIONS_SETTING;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.CLIENT_SOCKET_TIMEOUT_SETTING;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.CLIENT_TCP_KEEP_ALIVE_SETTING;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.retry.PredefinedRetryPolicies;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+
+/**
+ * Connection pool, timeout and retry settings of the HTTP clients calling the Kendra Intelligent Ranking service.
+ */
+public final class KendraConnectionSettings {
+
+  private final int maxConnections;
+  private final TimeValue connectionTimeout;
+  private final TimeValue socketTimeout;
+  private final TimeValue connectionTtl;
+  private final TimeValue connectionMaxIdle;
+  private final boolean tcpKeepAlive;
+  private final boolean compressionEnabled;
+  private final int maxRetries;
+  private final int prewarmConnections;
+
+  KendraConnectionSettings(int maxConnections, TimeValue connectionTimeout, TimeValue socketTimeout, TimeValue connectionTtl,
+                           TimeValue connectionMaxIdle, boolean tcpKeepAlive, boolean compressionEnabled, int maxRetries,
+                           int prewarmConnections) {
+    this.maxConnections = maxConnections;
+    this.connectionTimeout = connectionTimeout;
+    this.socketTimeout = socketTimeout;
+    this.connectionTtl = connectionTtl;
+    this.connectionMaxIdle = connectionMaxIdle;
+    this.tcpKeepAlive = tcpKeepAlive;
+    this.compressionEnabled = compressionEnabled;
+    this.maxRetries = maxRetries;
+    this.prewarmConnections = prewarmConnections;
+  }
+
+  /**
+   * Parse the connection settings of the node.
+   * @param settings a {@link Settings} instance from which to read the kendra_intelligent_ranking.client settings
+   * @return connection settings, with defaults for settings that are not set
+   */
+  public static KendraConnectionSettings getConnectionSettings(Settings settings) {
+    return new KendraConnectionSettings(
+        CLIENT_MAX_CONNECTIONS_SETTING.get(settings),
+        CLIENT_CONNECTION_TIMEOUT_SETTING.get(settings),
+        CLIENT_SOCKET_TIMEOUT_SETTING.get(settings),
+        CLIENT_CONNECTION_TTL_SETTING.get(settings),
+        CLIENT_CONNECTION_MAX_IDLE_SETTING.get(settings),
+        CLIENT_TCP_KEEP_ALIVE_SETTING.get(settings),
+        CLIENT_COMPRESSION_ENABLED_SETTING.get(settings),
+        CLIENT_MAX_RETRIES_SETTING.get(settings),
+        CLIENT_PREWARM_CONNECTIONS_SETTING.get(settings)
+    );
+  }
+
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+
+  public TimeValue getConnectionTimeout() {
+    return connectionTimeout;
+  }
+
+  public TimeValue getSocketTimeout() {
+    return socketTimeout;
+  }
+
+  public TimeValue getConnectionTtl() {
+    return connectionTtl;
+  }
+
+  public TimeValue getConnectionMaxIdle() {
+    return connectionMaxIdle;
+  }
+
+  public boolean isTcpKeepAlive() {
+    return tcpKeepAlive;
+  }
+
+  public boolean isCompressionEnabled() {
+    return compressionEnabled;
+  }
+
+  public int getMaxRetries() {
+    return maxRetries;
+  }
+
+  public int getPrewarmConnections() {
+    return prewarmConnections;
+  }
+
+  /**
+   * @return configuration of the blocking AWS SDK HTTP client
+   */
+  ClientConfiguration toClientConfiguration() {
+    ClientConfiguration clientConfiguration = new ClientConfiguration()
+        .withMaxConnections(maxConnections)
+        .withConnectionTimeout(Math.toIntExact(connectionTimeout.millis()))
+        .withSocketTimeout(Math.toIntExact(socketTimeout.millis()))
+        .withConnectionTTL(connectionTtl.millis())
+        .withConnectionMaxIdleMillis(connectionMaxIdle.millis())
+        .withTcpKeepAlive(tcpKeepAlive)
+        .withGzip(compressionEnabled);
+    if (maxRetries >= 0) {
+      clientConfiguration.setRetryPolicy(PredefinedRetryPolicies.getDefaultRetryPolicyWithCustomMaxRetries(maxRetries));
+    }
+    return clientConfiguration;
+  }
+
+  /**
+   * @return default request configuration of the non-blocking HTTP client
+   */
+  RequestConfig toRequestConfig() {
+    return RequestConfig.custom()
+        .setConnectTimeout(Math.toIntExact(connectionTimeout.millis()))
+        .setSocketTimeout(Math.toIntExact(socketTimeout.millis()))
+        .build();
+  }
+
+  /**
+   * @return I/O reactor configuration of the non-blocking HTTP client
+   */
+  IOReactorConfig toIOReactorConfig() {
+    return IOReactorConfig.custom()
+        .setConnectTimeout(Math.toIntExact(connectionTimeout.millis()))
+        .setSoTimeout(Math.toIntExact(socketTimeout.millis()))
+        .setSoKeepAlive(tcpKeepAlive)
+        .build();
+  }
+
+  /**
+   * The non-blocking client has no connection time to live, so pooled connections are kept alive for at most the
+   * smaller of the maximum idle time and the time to live.
+   * @return maximum time a connection of the non-blocking client is kept alive between requests
+   */
+  long getKeepAliveMillis() {
+    if (connectionTtl.millis() < 0) {
+      return connectionMaxIdle.millis();
+    }
+    return Math.min(connectionMaxIdle.millis(), connectionTtl.millis());
+  }
+}
@@ -8,7 +8,6 @@
 package org.opensearch.search.relevance.transformer.kendraintelligentranking.client;
 
 import com.amazonaws.AmazonServiceException;
-import com.amazonaws.ClientConfiguration;
 import com.amazonaws.DefaultRequest;
 import com.amazonaws.Request;
 import com.amazonaws.Response;
@@ -30,36 +29,87 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.ByteArrayInputStream;
 import java.io.Closeable;
+import java.io.IOException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.entity.GzipDecompressingEntity;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.util.EntityUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.common.lease.Releasable;
+import org.opensearch.core.action.ActionListener;
 import org.opensearch.core.common.Strings;
+import org.opensearch.search.relevance.client.ForkedCompletionListener;
+import org.opensearch.search.relevance.client.RateLimiter;
+import org.opensearch.search.relevance.client.RemoteCallGuard;
+import org.opensearch.search.relevance.stats.RerankerMetrics;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreRequest;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
+import org.opensearch.threadpool.ThreadPool;
 
 public class KendraHttpClient implements Closeable {
   private static final String KENDRA_RANKING_SERVICE_NAME = "kendra-ranking";
   private static final String KENDRA_RESCORE_URI = "rescore";
   private static final String KENDRA_RESCORE_EXECUTION_PLANS = "rescore-execution-plans";
   private static final String ASSUME_ROLE_SESSION_NAME = "OpenSearchKendraIntelligentRankingPluginSession";
+  // Content type applied by AmazonHttpClient to the synchronous path, kept identical for the asynchronous path
+  private static final String RESCORE_CONTENT_TYPE = "application/x-www-form-urlencoded; charset=utf-8";
+  private static final String GZIP_CONTENT_CODING = "gzip";
+  // Completing a call resumes the search, which must not run on an I/O thread of the non-blocking client
+  private static final String COMPLETION_EXECUTOR = ThreadPool.Names.SEARCH;
+
+  private static final Logger logger = LogManager.getLogger(KendraHttpClient.class);
 
   private final AmazonHttpClient amazonHttpClient;
+  private final CloseableHttpAsyncClient asyncHttpClient;
   private final HttpResponseHandler<AmazonServiceException> errorHandler;
   private final HttpResponseHandler<String> responseHandler;
   private final AWSCredentialsProvider awsCredentialsProvider;
   private final AWS4Signer aws4Signer;
   private final String serviceEndpoint;
   private final String executionPlanId;
+  private final RemoteCallGuard callGuard;
+  private final RateLimiter rateLimiter;
+  private final RescoreRequestHedger requestHedger;
+  private final RerankerMetrics metrics;
+  private final ThreadPool threadPool;
+  private final KendraConnectionSettings connectionSettings;
   private final ObjectMapper objectMapper = new ObjectMapper()
           .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
-  public KendraHttpClient(KendraClientSettings clientSettings) {
+  private KendraHttpClient(Builder builder) {
+    final KendraClientSettings clientSettings = builder.clientSettings;
     serviceEndpoint = clientSettings.getServiceEndpoint();
     executionPlanId = clientSettings.getExecutionPlanId();
+    this.callGuard = builder.callGuard;
+    this.rateLimiter = builder.rateLimiter;
+    this.requestHedger = builder.requestHedger;
+    this.metrics = builder.metrics == null ? new RerankerMetrics() : builder.metrics;
+    this.threadPool = builder.threadPool;
+    connectionSettings = clientSettings.getConnectionSettings();
     if (isValid()) {
-      amazonHttpClient = AccessController.doPrivileged((PrivilegedAction<AmazonHttpClient>) () -> new AmazonHttpClient(new ClientConfiguration()));
+      amazonHttpClient = AccessController.doPrivileged(
+          (PrivilegedAction<AmazonHttpClient>) () -> new AmazonHttpClient(connectionSettings.toClientConfiguration()));
+      // The non-blocking client is only started on first use, so that nodes which never rerank do not spawn I/O threads
+      asyncHttpClient = AccessController.doPrivileged((PrivilegedAction<CloseableHttpAsyncClient>) () -> buildAsyncHttpClient(connectionSettings));
       errorHandler = new SimpleAwsErrorHandler();
       responseHandler = new SimpleResponseHandler();
       aws4Signer = new AWS4Signer();
@@ -95,6 +145,7 @@ public class KendraHttpClient implements Closeable {
       }
     } else {
       amazonHttpClient = null;
+      asyncHttpClient = null;
       aws4Signer = null;
       awsCredentialsProvider = null;
       errorHandler = null;
@@ -102,14 +153,166 @@ public class KendraHttpClient implements Closeable {
     }
   }
 
+  /**
+   * @param clientSettings settings of the Kendra Intelligent Ranking service
+   * @return builder of a client without call guard, rate limiter or hedging
+   */
+  public static Builder builder(KendraClientSettings clientSettings) {
+    return new Builder(clientSettings);
+  }
+
+  /**
+   * Builder of {@link KendraHttpClient}. Every optional dependency defaults to disabled.
+   */
+  public static final class Builder {
+    private final KendraClientSettings clientSettings;
+    private RemoteCallGuard callGuard;
+    private RateLimiter rateLimiter;
+    private RescoreRequestHedger requestHedger;
+    private RerankerMetrics metrics;
+    private ThreadPool threadPool;
+
+    private Builder(KendraClientSettings clientSettings) {
+      this.clientSettings = clientSettings;
+    }
+
+    /**
+     * @param callGuard node-level circuit breaker and bulkhead of rescore calls, or null to always call the service
+     */
+    public Builder callGuard(RemoteCallGuard callGuard) {
+      this.callGuard = callGuard;
+      return this;
+    }
+
+    /**
+     * @param rateLimiter node-level rate limits of execution plans, or null to never limit the rate of calls
+     */
+    public Builder rateLimiter(RateLimiter rateLimiter) {
+      this.rateLimiter = rateLimiter;
+      return this;
+    }
+
+    /**
+     * @param requestHedger node-level hedging of asynchronous rescore calls, or null to send a single request per call
+     */
+    public Builder requestHedger(RescoreRequestHedger requestHedger) {
+      this.requestHedger = requestHedger;
+      return this;
+    }
+
+    /**
+     * @param metrics metrics of the transformer or processor using this client, recording payload sizes, or null to
+     *                not report them
+     */
+    public Builder metrics(RerankerMetrics metrics) {
+      this.metrics = metrics;
+      return this;
+    }
+
+    /**
+     * @param threadPool thread pool whose search executor completes asynchronous rescore calls in the thread context of
+     *                   the caller, or null to complete them on the I/O threads of the non-blocking client
+     */
+    public Builder threadPool(ThreadPool threadPool) {
+      this.threadPool = threadPool;
+      return this;
+    }
+
+    public KendraHttpClient build() {
+      return new KendraHttpClient(this);
+    }
+  }
+
+  private static CloseableHttpAsyncClient buildAsyncHttpClient(KendraConnectionSettings connectionSettings) {
+    final long keepAliveMillis = connectionSettings.getKeepAliveMillis();
+    return HttpAsyncClients.custom()
+        .useSystemProperties()
+        // All calls go to the same endpoint, so a single route may use the whole pool
+        .setMaxConnTotal(connectionSettings.getMaxConnections())
+        .setMaxConnPerRoute(connectionSettings.getMaxConnections())
+        .setDefaultRequestConfig(connectionSettings.toRequestConfig())
+        .setDefaultIOReactorConfig(connectionSettings.toIOReactorConfig())
+        .setKeepAliveStrategy((response, context) -> {
+          final long serverKeepAliveMillis = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+          return serverKeepAliveMillis < 0 ? keepAliveMillis : Math.min(serverKeepAliveMillis, keepAliveMillis);
+        })
+        .build();
+  }
+
+  /**
+   * Open connections of the non-blocking client to the service endpoint ahead of the first rescore calls, so that
+   * these do not pay for TCP and TLS handshakes. The requests are not signed: any response leaves an established
+   * connection in the pool. Failures are logged and otherwise ignored.
+   * @param connections number of connections to open
+   */
+  public void prewarm(int connections) {
+    if (!isValid() || connections <= 0) {
+      return;
+    }
+    try {
+      AccessController.doPrivileged((PrivilegedAction<Void>) () -> {
+        if (!asyncHttpClient.isRunning()) {
+          asyncHttpClient.start();
+        }
+        // Requests are sent concurrently so that each of them leases its own connection
+        for (int i = 0; i < connections; i++) {
+          asyncHttpClient.execute(new HttpHead(serviceEndpoint), new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse httpResponse) {
+              EntityUtils.consumeQuietly(httpResponse.getEntity());
+              logger.debug("Opened connection to [{}]", serviceEndpoint);
+            }
+
+            @Override
+            public void failed(Exception ex) {
+              logger.debug("Failed to open connection to [{}]", serviceEndpoint, ex);
+            }
+
+            @Override
+            public void cancelled() {
+              // Only happens when the client is closed while pre-warming
+            }
+          });
+        }
+        return null;
+      });
+    } catch (Exception ex) {
+      logger.warn("Failed to pre-warm connections to [{}]", serviceEndpoint, ex);
+    }
+  }
+
+  /**
+   * @param rescoreRequest request to send to the rescore API
+   * @return parsed result
+   * @throws java.util.concurrent.RejectedExecutionException if the rate limiter or the call guard does not let the call through
+   */
   public RescoreResult rescore(RescoreRequest rescoreRequest) {
+    if (rateLimiter != null) {
+      rateLimiter.acquire(executionPlanId);
+    }
+    final RemoteCallGuard.Permit permit = acquirePermit();
+    final RescoreResult rescoreResult;
+    try {
+      rescoreResult = doRescore(rescoreRequest);
+    } catch (RuntimeException ex) {
+      if (permit != null) {
+        permit.onFailure(ex);
+      }
+      if (rateLimiter != null) {
+        rateLimiter.onFailure(executionPlanId, ex);
+      }
+      throw ex;
+    }
+    if (permit != null) {
+      permit.onSuccess();
+    }
+    return rescoreResult;
+  }
+
+  private RescoreResult doRescore(RescoreRequest rescoreRequest) {
     return AccessController.doPrivileged((PrivilegedAction<RescoreResult>) () -> {
       try {
-        Request<Void> request = new DefaultRequest<>(aws4Signer.getServiceName());
-        request.setHttpMethod(HttpMethodName.POST);
-        request.setEndpoint(buildRescoreURI());
-        request.setContent(new ByteArrayInputStream(objectMapper.writeValueAsString(rescoreRequest).getBytes(StandardCharsets.UTF_8)));
-        aws4Signer.sign(request, awsCredentialsProvider.getCredentials());
+        Request<Void> request = buildSignedRescoreRequest(rescoreRequest);
 
         Response<String> rsp = amazonHttpClient
             .requestExecutionBuilder()
@@ -118,6 +321,7 @@ public class KendraHttpClient implements Closeable {
             .errorResponseHandler(errorHandler)
             .execute(responseHandler);
 
+        metrics.recordResponseSize(rsp.getAwsResponse().getBytes(StandardCharsets.UTF_8).length);
         return objectMapper.readValue(rsp.getAwsResponse(), RescoreResult.class);
       } catch (Exception ex) {
         throw new RuntimeException("Exception executing request.", ex);
@@ -125,11 +329,194 @@ public class KendraHttpClient implements Closeable {
     });
   }
 
+  /**
+   * Rescore documents without blocking the calling thread. Once the Kendra Intelligent Ranking service responds, the
+   * listener is completed on the search executor in the thread context of the caller, or on an I/O thread of the
+   * non-blocking HTTP client if no thread pool was given. If the rate limiter or the call guard
+   * does not let the call through, the listener is failed with a {@link java.util.concurrent.RejectedExecutionException}
+   * before returning. When hedging is enabled, a duplicate request is sent if the service is slow to respond.
+   * @param rescoreRequest request to send to the rescore API
+   * @param rescoreListener listener notified with the parsed result, or with the failure
+   * @return releasable that cancels the call if it is still in flight
+   */
+  public Releasable rescoreAsync(RescoreRequest rescoreRequest, ActionListener<RescoreResult> rescoreListener) {
+    final ActionListener<RescoreResult> listener = threadPool == null ? rescoreListener
+        : new ForkedCompletionListener<>(threadPool, COMPLETION_EXECUTOR, rescoreListener);
+    final Request<Void> signedRequest;
+    try {
+      signedRequest = AccessController.doPrivileged((PrivilegedAction<Request<Void>>) () -> {
+        try {
+          return buildSignedRescoreRequest(rescoreRequest);
+        } catch (IOException ex) {
+          throw new RuntimeException(ex);
+        }
+      });
+    } catch (Exception ex) {
+      listener.onFailure(new RuntimeException("Exception executing request.", ex));
+      return () -> {};
+    }
+    if (requestHedger == null) {
+      return sendRescore(signedRequest, listener);
+    }
+    // The duplicate request reuses the signature of the first one, which stays valid for several minutes
+    return requestHedger.execute(executionPlanId, l -> sendRescore(signedRequest, l), listener);
+  }
+
+  private Releasable sendRescore(Request<Void> signedRequest, ActionListener<RescoreResult> listener) {
+    final HttpPost httpPost;
+    try {
+      httpPost = toHttpPost(signedRequest);
+    } catch (Exception ex) {
+      listener.onFailure(new RuntimeException("Exception executing request.", ex));
+      return () -> {};
+    }
+
+    final RemoteCallGuard.Permit permit;
+    try {
+      if (rateLimiter != null) {
+        rateLimiter.acquire(executionPlanId);
+      }
+      permit = acquirePermit();
+    } catch (RejectedExecutionException ex) {
+      listener.onFailure(ex);
+      return () -> {};
+    }
+
+    final Future<HttpResponse> response;
+    try {
+      response = AccessController.doPrivileged((PrivilegedAction<Future<HttpResponse>>) () -> {
+        if (!asyncHttpClient.isRunning()) {
+          asyncHttpClient.start();
+        }
+        return asyncHttpClient.execute(httpPost, new FutureCallback<HttpResponse>() {
+          @Override
+          public void completed(HttpResponse httpResponse) {
+            final RescoreResult rescoreResult;
+            try {
+              rescoreResult = parseRescoreResponse(httpResponse);
+            } catch (Exception ex) {
+              onRescoreFailure(permit, new RuntimeException("Exception executing request.", ex), listener);
+              return;
+            }
+            if (permit != null) {
+              permit.onSuccess();
+            }
+            listener.onResponse(rescoreResult);
+          }
+
+          @Override
+          public void failed(Exception ex) {
+            onRescoreFailure(permit, new RuntimeException("Exception executing request.", ex), listener);
+          }
+
+          @Override
+          public void cancelled() {
+            // Cancelled by the caller, which tells nothing about the health of the endpoint
+            if (permit != null) {
+              permit.onCancel();
+            }
+            listener.onFailure(new RuntimeException("Rescore request was cancelled."));
+          }
+        });
+      });
+    } catch (Exception ex) {
+      onRescoreFailure(permit, new RuntimeException("Exception executing request.", ex), listener);
+      return () -> {};
+    }
+    return () -> response.cancel(true);
+  }
+
+  /**
+   * Acquire the call guard permit of a call the rate limiter let through, giving its token back if the guard rejects it
+   */
+  private RemoteCallGuard.Permit acquirePermit() {
+    if (callGuard == null) {
+      return null;
+    }
+    try {
+      return callGuard.acquire(buildRescoreURI().toString());
+    } catch (RejectedExecutionException ex) {
+      if (rateLimiter != null) {
+        rateLimiter.release(executionPlanId);
+      }
+      throw ex;
+    }
+  }
+
+  private void onRescoreFailure(RemoteCallGuard.Permit permit, Exception ex, ActionListener<RescoreResult> listener) {
+    if (permit != null) {
+      permit.onFailure(ex);
+    }
+    if (rateLimiter != null) {
+      rateLimiter.onFailure(executionPlanId, ex);
+    }
+    listener.onFailure(ex);
+  }
+
+  private Request<Void> buildSignedRescoreRequest(RescoreRequest rescoreRequest) throws IOException {
+    Request<Void> request = new DefaultRequest<>(aws4Signer.getServiceName());
+    request.setHttpMethod(HttpMethodName.POST);
+    request.setEndpoint(buildRescoreURI());
+    final byte[] content = objectMapper.writeValueAsString(rescoreRequest).getBytes(StandardCharsets.UTF_8);
+    metrics.recordRequestSize(content.length);
+    request.setContent(new ByteArrayInputStream(content));
+    aws4Signer.sign(request, awsCredentialsProvider.getCredentials());
+    return request;
+  }
+
+  private HttpPost toHttpPost(Request<Void> signedRequest) throws IOException {
+    HttpPost httpPost = new HttpPost(signedRequest.getEndpoint());
+    for (Map.Entry<String, String> header : signedRequest.getHeaders().entrySet()) {
+      httpPost.addHeader(header.getKey(), header.getValue());
+    }
+    if (!httpPost.containsHeader("Content-Type")) {
+      httpPost.addHeader("Content-Type", RESCORE_CONTENT_TYPE);
+    }
+    if (connectionSettings.isCompressionEnabled()) {
+      httpPost.addHeader(HttpHeaders.ACCEPT_ENCODING, GZIP_CONTENT_CODING);
+    }
+    // The signer reads the content stream to compute the payload hash, so rewind it before copying
+    signedRequest.getContent().reset();
+    httpPost.setEntity(new ByteArrayEntity(signedRequest.getContent().readAllBytes()));
+    return httpPost;
+  }
+
+  // Visible for testing
+  RescoreResult parseRescoreResponse(HttpResponse httpResponse) throws IOException {
+    final int statusCode = httpResponse.getStatusLine().getStatusCode();
+    HttpEntity entity = httpResponse.getEntity();
+    if (entity != null && entity.getContentEncoding() != null
+        && GZIP_CONTENT_CODING.equalsIgnoreCase(entity.getContentEncoding().getValue())) {
+      entity = new GzipDecompressingEntity(entity);
+    }
+    final byte[] contentBytes = entity == null ? null : EntityUtils.toByteArray(entity);
+    final String content = contentBytes == null ? "" : new String(contentBytes, StandardCharsets.UTF_8);
+    metrics.recordResponseSize(contentBytes == null ? 0 : contentBytes.length);
+    if (statusCode < HttpStatus.SC_OK || statusCode >= HttpStatus.SC_MULTIPLE_CHOICES) {
+      final Header errorTypeHeader = httpResponse.getFirstHeader(SimpleAwsErrorHandler.ERROR_TYPE_HEADER);
+      throw SimpleAwsErrorHandler.buildServiceException(statusCode,
+          errorTypeHeader == null ? null : errorTypeHeader.getValue(), content,
+          httpResponse.getStatusLine().getReasonPhrase(), aws4Signer.getServiceName());
+    }
+    return objectMapper.readValue(content, RescoreResult.class);
+  }
+
   public URI buildRescoreURI() {
     return URI.create(String.join("/",
         serviceEndpoint, KENDRA_RESCORE_EXECUTION_PLANS, executionPlanId, KENDRA_RESCORE_URI));
   }
 
+  /**
+   * @return metrics of the transformer or processor using this client
+   */
+  public RerankerMetrics getMetrics() {
+    return metrics;
+  }
+
+  public String getExecutionPlanId() {
+    return executionPlanId;
+  }
+
   public boolean isValid() {
     return !Strings.isNullOrEmpty(serviceEndpoint) && !Strings.isNullOrEmpty(executionPlanId);
   }
@@ -139,5 +526,12 @@ public class KendraHttpClient implements Closeable {
     if (amazonHttpClient != null) {
       amazonHttpClient.shutdown();
     }
+    if (asyncHttpClient != null) {
+      try {
+        asyncHttpClient.close();
+      } catch (IOException ex) {
+        logger.warn("Failed to close non-blocking Kendra HTTP client", ex);
+      }
+    }
   }
 }
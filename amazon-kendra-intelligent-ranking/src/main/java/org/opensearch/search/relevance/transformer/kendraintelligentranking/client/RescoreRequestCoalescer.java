@@ -0,0 +1,239 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.client;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.opensearch.action.support.PlainActionFuture;
+import org.opensearch.common.lease.Releasable;
+import org.opensearch.common.metrics.CounterMetric;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.cache.RescoreResultCache;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreRequest;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
+
+/**
+ * Node-level deduplication of concurrent identical rescore calls. A rescore request that is identical to one already
+ * in flight, as defined by {@link RescoreResultCache#createKey(String, RescoreRequest)}, does not call Kendra
+ * Intelligent Ranking again but waits for the result of the call in flight. Requests are only shared while in flight;
+ * completed results are not retained. A call in flight is cancelled once every request waiting for it gave up.
+ */
+public class RescoreRequestCoalescer {
+  private final Map<RescoreResultCache.Key, InFlightRescore> inFlightRescores = new ConcurrentHashMap<>();
+  private final CounterMetric rescoreCount = new CounterMetric();
+  private final CounterMetric coalescedCount = new CounterMetric();
+  private final CounterMetric cancelledCount = new CounterMetric();
+
+  /**
+   * Rescore documents, blocking the calling thread until the result is available
+   * @param kendraClient   client used to call Kendra Intelligent Ranking if no identical request is in flight
+   * @param rescoreRequest request to send to the rescore API
+   * @return rescore result
+   */
+  public RescoreResult rescore(KendraHttpClient kendraClient, RescoreRequest rescoreRequest) {
+    final InFlightRescore created = new InFlightRescore(RescoreResultCache.createKey(kendraClient.getExecutionPlanId(), rescoreRequest));
+    final PlainActionFuture<RescoreResult> future = PlainActionFuture.newFuture();
+    if (join(created, future) == created) {
+      final RescoreResult rescoreResult;
+      try {
+        rescoreResult = kendraClient.rescore(rescoreRequest);
+      } catch (RuntimeException ex) {
+        created.onFailure(ex);
+        throw ex;
+      }
+      created.onResponse(rescoreResult);
+      return rescoreResult;
+    }
+    return future.actionGet();
+  }
+
+  /**
+   * Rescore documents without blocking the calling thread. The listener of a coalesced request is completed on the
+   * thread that completes the request in flight.
+   * @param kendraClient   client used to call Kendra Intelligent Ranking if no identical request is in flight
+   * @param rescoreRequest request to send to the rescore API
+   * @param listener       listener notified with the rescore result, or with the failure
+   * @return releasable that stops waiting for the result, and cancels the call in flight if no other request waits for it
+   */
+  public Releasable rescoreAsync(KendraHttpClient kendraClient, RescoreRequest rescoreRequest, ActionListener<RescoreResult> listener) {
+    final InFlightRescore created = new InFlightRescore(RescoreResultCache.createKey(kendraClient.getExecutionPlanId(), rescoreRequest));
+    final InFlightRescore inFlightRescore = join(created, listener);
+    if (inFlightRescore == created) {
+      created.setCall(kendraClient.rescoreAsync(rescoreRequest, created));
+    }
+    return () -> inFlightRescore.removeListener(listener);
+  }
+
+  /**
+   * Wait for the result of the identical call in flight, or register a new call that the caller must start
+   * @param created  new call to register if no identical call is in flight
+   * @param listener listener notified with the result of the call
+   * @return the call the listener waits for, which is {@code created} if the caller must start it
+   */
+  private InFlightRescore join(InFlightRescore created, ActionListener<RescoreResult> listener) {
+    created.addListener(listener);
+    while (true) {
+      final InFlightRescore inFlightRescore = inFlightRescores.putIfAbsent(created.key, created);
+      if (inFlightRescore == null) {
+        rescoreCount.inc();
+        return created;
+      }
+      if (inFlightRescore.addListener(listener)) {
+        coalescedCount.inc();
+        return inFlightRescore;
+      }
+      // Completed, but not yet removed
+      inFlightRescores.remove(created.key, inFlightRescore);
+    }
+  }
+
+  public Stats getStats() {
+    return new Stats(rescoreCount.count(), coalescedCount.count(), cancelledCount.count(), inFlightRescores.size());
+  }
+
+  /**
+   * Rescore call in flight and the requests waiting for its result
+   */
+  private final class InFlightRescore implements ActionListener<RescoreResult> {
+    private final RescoreResultCache.Key key;
+    private final List<ActionListener<RescoreResult>> listeners = new ArrayList<>();
+    private Releasable call;
+    private boolean completed;
+    private boolean cancelled;
+
+    InFlightRescore(RescoreResultCache.Key key) {
+      this.key = key;
+    }
+
+    /**
+     * @return false if the call already completed, in which case the listener is not notified
+     */
+    synchronized boolean addListener(ActionListener<RescoreResult> listener) {
+      if (completed) {
+        return false;
+      }
+      listeners.add(listener);
+      return true;
+    }
+
+    void removeListener(ActionListener<RescoreResult> listener) {
+      final Releasable callToCancel;
+      synchronized (this) {
+        if (completed || !listeners.remove(listener) || !listeners.isEmpty()) {
+          return;
+        }
+        completed = true;
+        cancelled = true;
+        callToCancel = call;
+      }
+      inFlightRescores.remove(key, this);
+      cancelledCount.inc();
+      if (callToCancel != null) {
+        callToCancel.close();
+      }
+    }
+
+    void setCall(Releasable call) {
+      synchronized (this) {
+        if (!cancelled) {
+          this.call = call;
+          return;
+        }
+      }
+      // Every request gave up before the call started
+      if (call != null) {
+        call.close();
+      }
+    }
+
+    /**
+     * Stop sharing the call before notifying its waiters, so that later requests call the service again
+     */
+    private List<ActionListener<RescoreResult>> complete() {
+      inFlightRescores.remove(key, this);
+      synchronized (this) {
+        if (completed) {
+          return List.of();
+        }
+        completed = true;
+        return new ArrayList<>(listeners);
+      }
+    }
+
+    @Override
+    public void onResponse(RescoreResult rescoreResult) {
+      for (ActionListener<RescoreResult> listener : complete()) {
+        listener.onResponse(rescoreResult);
+      }
+    }
+
+    @Override
+    public void onFailure(Exception ex) {
+      for (ActionListener<RescoreResult> listener : complete()) {
+        listener.onFailure(ex);
+      }
+    }
+  }
+
+  /**
+   * Point-in-time statistics of rescore request coalescing
+   */
+  public static final class Stats implements ToXContentFragment {
+    private final long rescoreCount;
+    private final long coalescedCount;
+    private final long cancelledCount;
+    private final long inFlightCount;
+
+    public Stats(long rescoreCount, long coalescedCount, long cancelledCount, long inFlightCount) {
+      this.rescoreCount = rescoreCount;
+      this.coalescedCount = coalescedCount;
+      this.cancelledCount = cancelledCount;
+      this.inFlightCount = inFlightCount;
+    }
+
+    /**
+     * @return number of rescore calls sent to Kendra Intelligent Ranking
+     */
+    public long getRescoreCount() {
+      return rescoreCount;
+    }
+
+    /**
+     * @return number of rescore requests that waited on an identical call in flight instead of calling the service
+     */
+    public long getCoalescedCount() {
+      return coalescedCount;
+    }
+
+    /**
+     * @return number of calls cancelled because every request waiting for them gave up
+     */
+    public long getCancelledCount() {
+      return cancelledCount;
+    }
+
+    public long getInFlightCount() {
+      return inFlightCount;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+      builder.startObject("rescore_coalescing");
+      builder.field("rescore_count", rescoreCount);
+      builder.field("coalesced_count", coalescedCount);
+      builder.field("cancelled_count", cancelledCount);
+      builder.field("in_flight_count", inFlightCount);
+      return builder.endObject();
+    }
+  }
+}
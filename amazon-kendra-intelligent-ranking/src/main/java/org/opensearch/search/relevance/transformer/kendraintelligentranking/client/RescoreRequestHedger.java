@@ -0,0 +1,434 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.client;
+
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.RESCORE_HEDGING_DELAY_PERCENTILE_SETTING;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.RESCORE_HEDGING_ENABLED_SETTING;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.RESCORE_HEDGING_MAX_RATE_SETTING;
+import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings.RESCORE_HEDGING_MIN_DELAY_SETTING;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import org.opensearch.common.lease.Releasable;
+import org.opensearch.common.metrics.CounterMetric;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.threadpool.Scheduler;
+import org.opensearch.threadpool.ThreadPool;
+
+/**
+ * Node-level hedging of rescore calls, to cut their tail latency. When an execution plan has not responded after the
+ * configured percentile of the latency of its recent calls, a duplicate request is sent and whichever response comes
+ * first is used; the other request is cancelled. The share of calls that may be hedged is capped, so that a slow
+ * endpoint does not receive twice the load. Latency is measured from the start of the call rather than from the start
+ * of the attempt that responded: when a hedge wins, this is the time the first request was pending, a lower bound of
+ * its latency. Measuring the hedge alone would only keep fast samples and lower the delay call after call.
+ */
+public class RescoreRequestHedger {
+  // Hedge credits accumulated while few calls are hedged, which bounds bursts of hedged calls
+  private static final double MAX_HEDGE_CREDITS = 10;
+
+  private final ThreadPool threadPool;
+  private final double delayPercentile;
+  private final long minDelayNanos;
+  private final double maxHedgeRate;
+  private final LongSupplier nanoClock;
+  private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+  private final CounterMetric callCount = new CounterMetric();
+  private final CounterMetric hedgedCount = new CounterMetric();
+  private final CounterMetric hedgeWonCount = new CounterMetric();
+  private final CounterMetric hedgeCappedCount = new CounterMetric();
+  private double hedgeCredits;
+
+  /**
+   * @param threadPool      thread pool used to schedule duplicate requests
+   * @param delayPercentile percentile of the latency of recent calls after which a duplicate request is sent
+   * @param minDelay        minimum time to wait before a duplicate request is sent
+   * @param maxHedgeRate    maximum fraction of calls that may send a duplicate request
+   * @param nanoClock       source of {@link System#nanoTime()}
+   */
+  RescoreRequestHedger(ThreadPool threadPool, double delayPercentile, TimeValue minDelay, double maxHedgeRate,
+      LongSupplier nanoClock) {
+    if (delayPercentile > 1) {
+      throw new IllegalArgumentException("Hedging delay percentile must be between 0 and 1, got [" + delayPercentile + "]");
+    }
+    if (maxHedgeRate > 1) {
+      throw new IllegalArgumentException("Hedging rate must be between 0 and 1, got [" + maxHedgeRate + "]");
+    }
+    this.threadPool = threadPool;
+    this.delayPercentile = delayPercentile;
+    this.minDelayNanos = minDelay.nanos();
+    this.maxHedgeRate = maxHedgeRate;
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * @param settings   node settings
+   * @param threadPool thread pool used to schedule duplicate requests
+   * @return hedger of the rescore calls of the node, or null if hedging is disabled
+   */
+  public static RescoreRequestHedger create(final Settings settings, final ThreadPool threadPool) {
+    if (!RESCORE_HEDGING_ENABLED_SETTING.get(settings)) {
+      return null;
+    }
+    return new RescoreRequestHedger(threadPool,
+        RESCORE_HEDGING_DELAY_PERCENTILE_SETTING.get(settings),
+        RESCORE_HEDGING_MIN_DELAY_SETTING.get(settings),
+        RESCORE_HEDGING_MAX_RATE_SETTING.get(settings),
+        System::nanoTime);
+  }
+
+  /**
+   * Start a call, and start it again if it is slow to respond. The listener is notified once, with the first
+   * response, or with the last failure if all attempts fail.
+   * @param target   execution plan called, whose recent latency sets the delay before hedging
+   * @param call     starts an attempt, notifying the given listener, and returns a releasable that cancels it
+   * @param listener listener notified with the result of the call
+   * @param <T>      result type of the call
+   * @return releasable that cancels all attempts still in flight
+   */
+  public <T> Releasable execute(String target, Function<ActionListener<T>, Releasable> call, ActionListener<T> listener) {
+    callCount.inc();
+    synchronized (this) {
+      hedgeCredits = Math.min(MAX_HEDGE_CREDITS, hedgeCredits + maxHedgeRate);
+    }
+    final LatencyHistogram histogram = histograms.computeIfAbsent(target, t -> new LatencyHistogram());
+    final HedgedCall<T> hedgedCall = new HedgedCall<>(histogram, call, listener);
+    hedgedCall.attempt(false);
+    final long delayNanos = histogram.getPercentileNanos(delayPercentile);
+    if (delayNanos >= 0) {
+      hedgedCall.scheduleHedge(TimeValue.timeValueNanos(Math.max(minDelayNanos, delayNanos)));
+    }
+    return hedgedCall;
+  }
+
+  private synchronized boolean tryAcquireHedge() {
+    if (hedgeCredits < 1) {
+      return false;
+    }
+    hedgeCredits--;
+    return true;
+  }
+
+  public Stats getStats() {
+    final Map<String, TargetStats> targetStats = new TreeMap<>();
+    for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+      final LatencyHistogram histogram = entry.getValue();
+      final long delayNanos = histogram.getPercentileNanos(delayPercentile);
+      final long hedgeDelayInMillis = delayNanos < 0 ? -1 : TimeValue.nsecToMSec(Math.max(minDelayNanos, delayNanos));
+      targetStats.put(entry.getKey(), new TargetStats(histogram.getSampleCount(), hedgeDelayInMillis));
+    }
+    return new Stats(callCount.count(), hedgedCount.count(), hedgeWonCount.count(), hedgeCappedCount.count(), targetStats);
+  }
+
+  /**
+   * Attempts of one call. Completing the call, or releasing it, cancels all attempts still in flight.
+   */
+  private final class HedgedCall<T> implements Releasable {
+    private final LatencyHistogram histogram;
+    private final Function<ActionListener<T>, Releasable> call;
+    private final ActionListener<T> listener;
+    private final long startTimeNanos = nanoClock.getAsLong();
+    private final List<Attempt> attempts = new ArrayList<>();
+    private Scheduler.ScheduledCancellable scheduledHedge;
+    private int pendingCount;
+    private boolean completed;
+
+    private HedgedCall(LatencyHistogram histogram, Function<ActionListener<T>, Releasable> call, ActionListener<T> listener) {
+      this.histogram = histogram;
+      this.call = call;
+      this.listener = listener;
+    }
+
+    private void attempt(final boolean hedge) {
+      final Attempt attempt = new Attempt();
+      synchronized (this) {
+        pendingCount++;
+      }
+      final Releasable releasable = call.apply(new ActionListener<T>() {
+        @Override
+        public void onResponse(T result) {
+          if (complete(attempt, true)) {
+            histogram.record(nanoClock.getAsLong() - startTimeNanos);
+            if (hedge) {
+              hedgeWonCount.inc();
+            }
+            listener.onResponse(result);
+          }
+        }
+
+        @Override
+        public void onFailure(Exception ex) {
+          if (complete(attempt, false)) {
+            listener.onFailure(ex);
+          }
+        }
+      });
+      final boolean cancel;
+      synchronized (this) {
+        attempt.releasable = releasable;
+        // The attempt may have completed before it returned its releasable
+        cancel = completed && !attempt.done;
+        if (!completed && !attempt.done) {
+          attempts.add(attempt);
+        }
+      }
+      if (cancel) {
+        attempt.cancel();
+      }
+    }
+
+    private synchronized void scheduleHedge(final TimeValue delay) {
+      if (!completed) {
+        scheduledHedge = threadPool.schedule(this::hedge, delay, ThreadPool.Names.GENERIC);
+      }
+    }
+
+    private void hedge() {
+      synchronized (this) {
+        if (completed) {
+          return;
+        }
+      }
+      if (!tryAcquireHedge()) {
+        hedgeCappedCount.inc();
+        return;
+      }
+      hedgedCount.inc();
+      attempt(true);
+    }
+
+    /**
+     * @param attempt attempt that completed
+     * @param success whether the attempt succeeded, as opposed to failed
+     * @return whether the call completes, in which case the caller notifies the listener
+     */
+    private boolean complete(final Attempt attempt, final boolean success) {
+      synchronized (this) {
+        attempt.done = true;
+        attempts.remove(attempt);
+        pendingCount--;
+        // A failed attempt waits for the others still in flight
+        if (completed || (!success && pendingCount > 0)) {
+          return false;
+        }
+      }
+      close();
+      return true;
+    }
+
+    @Override
+    public void close() {
+      final List<Attempt> toCancel;
+      final Scheduler.ScheduledCancellable hedgeToCancel;
+      synchronized (this) {
+        if (completed) {
+          return;
+        }
+        completed = true;
+        toCancel = new ArrayList<>(attempts);
+        attempts.clear();
+        hedgeToCancel = scheduledHedge;
+      }
+      if (hedgeToCancel != null) {
+        hedgeToCancel.cancel();
+      }
+      for (Attempt attempt : toCancel) {
+        attempt.cancel();
+      }
+    }
+  }
+
+  /**
+   * One request of a call.
+   */
+  private static final class Attempt {
+    private Releasable releasable;
+    private boolean done;
+
+    private void cancel() {
+      if (releasable != null) {
+        releasable.close();
+      }
+    }
+  }
+
+  /**
+   * Histogram of the latency of recent calls, in buckets growing by a factor of 2^(1/4) from 100 microseconds to
+   * about 2 minutes. Counts are halved once the histogram holds enough samples, so that it follows latency changes.
+   */
+  static final class LatencyHistogram {
+    private static final long MIN_LATENCY_NANOS = 100_000;
+    private static final int BUCKETS_PER_DOUBLING = 4;
+    private static final int BUCKET_COUNT = 80;
+    // Percentiles of fewer samples are not trusted to set the hedging delay
+    private static final int MIN_SAMPLE_COUNT = 100;
+    private static final int DECAY_SAMPLE_COUNT = 2000;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long sampleCount;
+
+    synchronized void record(final long latencyNanos) {
+      counts[bucket(latencyNanos)]++;
+      sampleCount++;
+      if (sampleCount >= DECAY_SAMPLE_COUNT) {
+        sampleCount = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+          counts[i] /= 2;
+          sampleCount += counts[i];
+        }
+      }
+    }
+
+    /**
+     * @param percentile percentile between 0 and 1
+     * @return upper bound of the bucket holding the percentile in nanoseconds, or -1 if there are too few samples
+     */
+    synchronized long getPercentileNanos(final double percentile) {
+      if (sampleCount < MIN_SAMPLE_COUNT) {
+        return -1;
+      }
+      final long rank = Math.max(1, (long) Math.ceil(percentile * sampleCount));
+      long cumulativeCount = 0;
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        cumulativeCount += counts[i];
+        if (cumulativeCount >= rank) {
+          return upperBoundNanos(i);
+        }
+      }
+      return upperBoundNanos(BUCKET_COUNT - 1);
+    }
+
+    synchronized long getSampleCount() {
+      return sampleCount;
+    }
+
+    static int bucket(final long latencyNanos) {
+      if (latencyNanos <= MIN_LATENCY_NANOS) {
+        return 0;
+      }
+      final double doublings = Math.log((double) latencyNanos / MIN_LATENCY_NANOS) / Math.log(2);
+      return (int) Math.min(BUCKET_COUNT - 1, Math.ceil(doublings * BUCKETS_PER_DOUBLING));
+    }
+
+    static long upperBoundNanos(final int bucket) {
+      return (long) (MIN_LATENCY_NANOS * Math.pow(2, (double) bucket / BUCKETS_PER_DOUBLING));
+    }
+  }
+
+  /**
+   * Point-in-time statistics of the hedging of calls to one execution plan.
+   */
+  public static final class TargetStats implements ToXContentFragment {
+    private final long sampleCount;
+    private final long hedgeDelayInMillis;
+
+    public TargetStats(long sampleCount, long hedgeDelayInMillis) {
+      this.sampleCount = sampleCount;
+      this.hedgeDelayInMillis = hedgeDelayInMillis;
+    }
+
+    /**
+     * @return number of recent latency samples
+     */
+    public long getSampleCount() {
+      return sampleCount;
+    }
+
+    /**
+     * @return time after which a duplicate request is sent, or -1 while there are too few samples to hedge
+     */
+    public long getHedgeDelayInMillis() {
+      return hedgeDelayInMillis;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+      builder.field("sample_count", sampleCount);
+      builder.field("hedge_delay_in_millis", hedgeDelayInMillis);
+      return builder;
+    }
+  }
+
+  /**
+   * Point-in-time statistics of hedging.
+   */
+  public static final class Stats implements ToXContentFragment {
+    private final long callCount;
+    private final long hedgedCount;
+    private final long hedgeWonCount;
+    private final long hedgeCappedCount;
+    private final Map<String, TargetStats> targets;
+
+    public Stats(long callCount, long hedgedCount, long hedgeWonCount, long hedgeCappedCount, Map<String, TargetStats> targets) {
+      this.callCount = callCount;
+      this.hedgedCount = hedgedCount;
+      this.hedgeWonCount = hedgeWonCount;
+      this.hedgeCappedCount = hedgeCappedCount;
+      this.targets = targets;
+    }
+
+    public long getCallCount() {
+      return callCount;
+    }
+
+    /**
+     * @return number of calls that sent a duplicate request
+     */
+    public long getHedgedCount() {
+      return hedgedCount;
+    }
+
+    /**
+     * @return number of calls completed by their duplicate request
+     */
+    public long getHedgeWonCount() {
+      return hedgeWonCount;
+    }
+
+    /**
+     * @return number of duplicate requests not sent because too many calls were hedged
+     */
+    public long getHedgeCappedCount() {
+      return hedgeCappedCount;
+    }
+
+    /**
+     * @return statistics by execution plan
+     */
+    public Map<String, TargetStats> getTargets() {
+      return targets;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+      builder.startObject("hedging");
+      builder.field("call_count", callCount);
+      builder.field("hedged_count", hedgedCount);
+      builder.field("hedge_won_count", hedgeWonCount);
+      builder.field("hedge_capped_count", hedgeCappedCount);
+      builder.startObject("targets");
+      for (Map.Entry<String, TargetStats> entry : targets.entrySet()) {
+        builder.startObject(entry.getKey());
+        entry.getValue().toXContent(builder, params);
+        builder.endObject();
+      }
+      builder.endObject();
+      return builder.endObject();
+    }
+  }
+}
@@ -10,19 +10,69 @@ package org.opensearch.search.relevance.transformer.kendraintelligentranking.cli
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.http.HttpResponse;
 import com.amazonaws.http.HttpResponseHandler;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.nio.charset.StandardCharsets;
 
 public class SimpleAwsErrorHandler implements HttpResponseHandler<AmazonServiceException> {
+  static final String ERROR_TYPE_HEADER = "x-amzn-ErrorType";
+  private static final String ERROR_TYPE_FIELD = "__type";
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
   @Override public AmazonServiceException handle(HttpResponse response) throws Exception {
-    AmazonServiceException ase = new AmazonServiceException(new String(response.getContent().readAllBytes(), StandardCharsets.UTF_8));
-    ase.setStatusCode(response.getStatusCode());
-    ase.setServiceName(response.getRequest().getServiceName());
-    ase.setErrorCode(response.getStatusText());
-    return ase;
+    final String content = new String(response.getContent().readAllBytes(), StandardCharsets.UTF_8);
+    return buildServiceException(response.getStatusCode(), response.getHeaders().get(ERROR_TYPE_HEADER),
+        content, response.getStatusText(), response.getRequest().getServiceName());
   }
 
   @Override public boolean needsConnectionLeftOpen() {
     return false;
   }
+
+  /**
+   * Build the exception for a failed call. The error code is taken from the x-amzn-ErrorType header
+   * or the __type field of a JSON body, so that throttling and other AWS errors can be told apart by
+   * their code rather than their HTTP status.
+   * @param statusCode HTTP status of the response.
+   * @param errorTypeHeader value of the x-amzn-ErrorType header, may be null.
+   * @param content response body.
+   * @param statusText HTTP status text, used as the error code when the response carries no error type.
+   * @param serviceName name of the called service.
+   * @return the exception describing the failure.
+   */
+  static AmazonServiceException buildServiceException(int statusCode, String errorTypeHeader, String content,
+                                                      String statusText, String serviceName) {
+    AmazonServiceException ase = new AmazonServiceException(content);
+    ase.setStatusCode(statusCode);
+    ase.setServiceName(serviceName);
+    ase.setErrorType(statusCode >= 500 ? AmazonServiceException.ErrorType.Service : AmazonServiceException.ErrorType.Client);
+    final String errorCode = parseErrorCode(errorTypeHeader, content);
+    ase.setErrorCode(errorCode != null ? errorCode : statusText);
+    return ase;
+  }
+
+  private static String parseErrorCode(String errorTypeHeader, String content) {
+    if (errorTypeHeader != null && !errorTypeHeader.isBlank()) {
+      // e.g. "ThrottlingException:http://internal.amazon.com/coral/com.amazonaws.kendra/"
+      final int separator = errorTypeHeader.indexOf(':');
+      return (separator < 0 ? errorTypeHeader : errorTypeHeader.substring(0, separator)).trim();
+    }
+    if (content == null || content.isBlank()) {
+      return null;
+    }
+    final JsonNode errorType;
+    try {
+      errorType = OBJECT_MAPPER.readTree(content).get(ERROR_TYPE_FIELD);
+    } catch (Exception e) {
+      // Not a JSON body
+      return null;
+    }
+    if (errorType == null || !errorType.isTextual()) {
+      return null;
+    }
+    // e.g. "com.amazonaws.kendra#ThrottlingException"
+    final String type = errorType.asText();
+    return type.substring(type.lastIndexOf('#') + 1);
+  }
 }
@@ -18,6 +18,8 @@ public class Constants {
   public static final String BODY_FIELD = "body_field";
   public static final String TITLE_FIELD = "title_field";
   public static final String DOC_LIMIT = "doc_limit";
+  public static final String CACHE_ENABLED = "cache_enabled";
+  public static final String LATENCY_BUDGET = "latency_budget";
 
   public static final String KENDRA_SETTINGS_PREFIX =
       String.join(".", RESULT_TRANSFORMER_SETTING_PREFIX, KENDRA_INTELLIGENT_RANKING);
@@ -30,6 +32,10 @@ public class Constants {
       String.join(".", KENDRA_SETTINGS_PREFIX, PROPERTIES, TITLE_FIELD);
   public static final String DOC_LIMIT_SETTING_NAME =
       String.join(".", KENDRA_SETTINGS_PREFIX, PROPERTIES, DOC_LIMIT);
+  public static final String CACHE_ENABLED_SETTING_NAME =
+      String.join(".", KENDRA_SETTINGS_PREFIX, PROPERTIES, CACHE_ENABLED);
+  public static final String LATENCY_BUDGET_SETTING_NAME =
+      String.join(".", KENDRA_SETTINGS_PREFIX, PROPERTIES, LATENCY_BUDGET);
 
   public static final int KENDRA_DEFAULT_DOC_LIMIT = 25;
 }
@@ -10,11 +10,17 @@ package org.opensearch.search.relevance.transformer.kendraintelligentranking.con
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 import org.opensearch.common.settings.SecureSetting;
 import org.opensearch.core.common.settings.SecureString;
 import org.opensearch.common.settings.Setting;
 import org.opensearch.common.settings.Setting.Property;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.common.unit.ByteSizeValue;
+import org.opensearch.search.relevance.client.RateLimiter;
+import org.opensearch.search.relevance.client.RemoteCallGuard;
 
 public class KendraIntelligentRankerSettings {
 
@@ -90,6 +96,17 @@ public class KendraIntelligentRankerSettings {
       Constants.DOC_LIMIT_SETTING_NAME, Constants.KENDRA_DEFAULT_DOC_LIMIT, 1,
       DOC_LIMIT_VALIDATOR, Property.Dynamic, Property.IndexScope);
 
+  /**
+   * Flag controlling whether rescore results for this index may be served from the node-level rescore cache.
+   */
+  public static final Setting<Boolean> KENDRA_CACHE_ENABLED_SETTING = Setting.boolSetting(
+      Constants.CACHE_ENABLED_SETTING_NAME, true, Property.Dynamic, Property.IndexScope);
+
+  /**
+   * Maximum time reranking may add to searches on this index, or -1 to use the node-level latency budget.
+   */
+  public static final Setting<TimeValue> KENDRA_LATENCY_BUDGET_SETTING = Setting.timeSetting(
+      Constants.LATENCY_BUDGET_SETTING_NAME, TimeValue.MINUS_ONE, TimeValue.MINUS_ONE, Property.Dynamic, Property.IndexScope);
 
 
   /**
@@ -115,19 +132,296 @@ public class KendraIntelligentRankerSettings {
 
   public static final Setting<String> ASSUME_ROLE_ARN_SETTING = Setting.simpleString("kendra_intelligent_ranking.service.assume_role_arn", Setting.Property.NodeScope);
 
+  /**
+   * Flag controlling whether the node-level rescore cache is created at all.
+   */
+  public static final Setting<Boolean> RESCORE_CACHE_ENABLED_SETTING = Setting.boolSetting("kendra_intelligent_ranking.cache.enabled", true, Setting.Property.NodeScope);
+
+  /**
+   * Upper bound on the estimated memory used by the node-level rescore cache.
+   */
+  public static final Setting<ByteSizeValue> RESCORE_CACHE_SIZE_SETTING = Setting.memorySizeSetting("kendra_intelligent_ranking.cache.size", "1%", Setting.Property.NodeScope);
+
+  /**
+   * Time after which a cached rescore result is no longer served.
+   */
+  public static final Setting<TimeValue> RESCORE_CACHE_EXPIRE_AFTER_WRITE_SETTING = Setting.positiveTimeSetting("kendra_intelligent_ranking.cache.expire_after_write", TimeValue.timeValueMinutes(5), Setting.Property.NodeScope);
+
+  /**
+   * Flag controlling whether the node-level cache of tokenized document passages is created at all.
+   */
+  public static final Setting<Boolean> PASSAGE_CACHE_ENABLED_SETTING = Setting.boolSetting("kendra_intelligent_ranking.passage_cache.enabled", true, Setting.Property.NodeScope);
+
+  /**
+   * Upper bound on the estimated memory used by the node-level passage cache.
+   */
+  public static final Setting<ByteSizeValue> PASSAGE_CACHE_SIZE_SETTING = Setting.memorySizeSetting("kendra_intelligent_ranking.passage_cache.size", "2%", Setting.Property.NodeScope);
+
+  /**
+   * Time after which cached passages of a document that has not been reranked are dropped.
+   */
+  public static final Setting<TimeValue> PASSAGE_CACHE_EXPIRE_AFTER_ACCESS_SETTING = Setting.positiveTimeSetting("kendra_intelligent_ranking.passage_cache.expire_after_access", TimeValue.timeValueMinutes(10), Setting.Property.NodeScope);
+
+  /**
+   * Flag controlling whether search hits are preprocessed concurrently on the plugin preprocessing thread pool.
+   */
+  public static final Setting<Boolean> PREPROCESS_PARALLEL_ENABLED_SETTING = Setting.boolSetting("kendra_intelligent_ranking.preprocess.parallel.enabled", true, Setting.Property.NodeScope);
+
+  /**
+   * Minimum number of hits to rerank for preprocessing to be fanned out to the preprocessing thread pool.
+   */
+  public static final Setting<Integer> PREPROCESS_PARALLEL_THRESHOLD_SETTING = Setting.intSetting("kendra_intelligent_ranking.preprocess.parallel.threshold", 8, 2, Setting.Property.NodeScope);
+
+  /**
+   * Maximum number of characters of the body field used to generate passages, or -1 to use the whole body.
+   */
+  public static final Setting<Integer> PREPROCESS_BODY_MAX_CHARS_SETTING = Setting.intSetting("kendra_intelligent_ranking.preprocess.body.max_chars", -1, -1, Setting.Property.NodeScope);
+
+  /**
+   * Maximum number of tokens of the body field used to generate passages, or -1 to tokenize until enough passages are generated.
+   */
+  public static final Setting<Integer> PREPROCESS_BODY_MAX_TOKENS_SETTING = Setting.intSetting("kendra_intelligent_ranking.preprocess.body.max_tokens", -1, -1, Setting.Property.NodeScope);
+
+  /**
+   * Flag controlling whether only the body and title fields are fetched for reranking when the search request disables _source.
+   */
+  public static final Setting<Boolean> PREPROCESS_FETCH_REQUIRED_FIELDS_ONLY_SETTING = Setting.boolSetting("kendra_intelligent_ranking.preprocess.fetch_required_fields_only", false, Setting.Property.NodeScope);
+
+  /**
+   * Flag controlling whether concurrent identical rescore requests share a single call to Kendra Intelligent Ranking.
+   */
+  public static final Setting<Boolean> RESCORE_COALESCING_ENABLED_SETTING = Setting.boolSetting("kendra_intelligent_ranking.rescore.coalescing.enabled", true, Setting.Property.NodeScope);
+
+  /**
+   * Default maximum time a rescore call may take before the original ranking is returned, or -1 for no budget.
+   */
+  public static final Setting<TimeValue> RESCORE_LATENCY_BUDGET_SETTING = Setting.timeSetting("kendra_intelligent_ranking.rescore.latency_budget", TimeValue.MINUS_ONE, TimeValue.MINUS_ONE, Setting.Property.NodeScope);
+
+  /**
+   * Maximum number of rescore calls in flight on the node, or -1 for no limit. Calls over the limit are rejected and
+   * searches return their original ranking.
+   */
+  public static final Setting<Integer> RESCORE_MAX_CONCURRENT_CALLS_SETTING = Setting.intSetting("kendra_intelligent_ranking.rescore.max_concurrent_calls", -1, -1, Setting.Property.NodeScope);
+
+  /**
+   * Flag controlling whether rescore calls to an endpoint stop while too many of its recent calls failed or were slow.
+   */
+  public static final Setting<Boolean> RESCORE_CIRCUIT_BREAKER_ENABLED_SETTING = Setting.boolSetting("kendra_intelligent_ranking.rescore.circuit_breaker.enabled", true, Setting.Property.NodeScope);
+
+  /**
+   * Number of most recent rescore calls to an endpoint the circuit breaker trips on.
+   */
+  public static final Setting<Integer> RESCORE_CIRCUIT_BREAKER_WINDOW_SIZE_SETTING = Setting.intSetting("kendra_intelligent_ranking.rescore.circuit_breaker.window_size", 100, 1, Setting.Property.NodeScope);
+
+  /**
+   * Minimum number of rescore calls to an endpoint before the circuit breaker may trip.
+   */
+  public static final Setting<Integer> RESCORE_CIRCUIT_BREAKER_MINIMUM_CALLS_SETTING = Setting.intSetting("kendra_intelligent_ranking.rescore.circuit_breaker.minimum_calls", 20, 1, Setting.Property.NodeScope);
+
+  /**
+   * Fraction of failed rescore calls that trips the circuit breaker.
+   */
+  public static final Setting<Double> RESCORE_CIRCUIT_BREAKER_FAILURE_RATE_SETTING = Setting.doubleSetting("kendra_intelligent_ranking.rescore.circuit_breaker.failure_rate", 0.5, 0.01, Setting.Property.NodeScope);
+
+  /**
+   * Latency of rescore calls that trips the circuit breaker when reached at the configured percentile, or -1 to only trip on failures.
+   */
+  public static final Setting<TimeValue> RESCORE_CIRCUIT_BREAKER_LATENCY_THRESHOLD_SETTING = Setting.timeSetting("kendra_intelligent_ranking.rescore.circuit_breaker.latency_threshold", TimeValue.MINUS_ONE, TimeValue.MINUS_ONE, Setting.Property.NodeScope);
+
+  /**
+   * Percentile of the latency of rescore calls compared to the latency threshold, between 0 and 1.
+   */
+  public static final Setting<Double> RESCORE_CIRCUIT_BREAKER_LATENCY_PERCENTILE_SETTING = Setting.doubleSetting("kendra_intelligent_ranking.rescore.circuit_breaker.latency_percentile", 0.9, 0.0, Setting.Property.NodeScope);
+
+  /**
+   * Time during which an open circuit breaker rejects rescore calls before letting a probe call through.
+   */
+  public static final Setting<TimeValue> RESCORE_CIRCUIT_BREAKER_OPEN_DURATION_SETTING = Setting.positiveTimeSetting("kendra_intelligent_ranking.rescore.circuit_breaker.open_duration", TimeValue.timeValueSeconds(30), Setting.Property.NodeScope);
+
+  /**
+   * Validator of the rate limits of specific execution plans.
+   */
+  static final class RateLimitValidator implements Setting.Validator<List<String>> {
+
+    @Override
+    public void validate(List<String> value) {
+      RateLimiter.parseTargetRates(value);
+    }
+  }
+
+  /**
+   * Rescore requests per second allowed to each execution plan, or -1 for no limit. Searches over the rate return
+   * their original ranking.
+   */
+  public static final Setting<Double> RESCORE_RATE_LIMIT_SETTING = Setting.doubleSetting("kendra_intelligent_ranking.rescore.rate_limit.requests_per_second", -1.0, -1.0, Setting.Property.NodeScope);
+
+  /**
+   * Maximum number of rescore requests let through at once to an execution plan, or -1 for one second worth of requests.
+   */
+  public static final Setting<Integer> RESCORE_RATE_LIMIT_BURST_SETTING = Setting.intSetting("kendra_intelligent_ranking.rescore.rate_limit.burst", -1, -1, Setting.Property.NodeScope);
+
+  /**
+   * Rescore requests per second allowed to specific execution plans, as execution_plan_id=requests_per_second entries.
+   */
+  public static final Setting<List<String>> RESCORE_RATE_LIMIT_EXECUTION_PLANS_SETTING = Setting.listSetting("kendra_intelligent_ranking.rescore.rate_limit.execution_plans",
+      Collections.emptyList(), Function.identity(), new RateLimitValidator(), Setting.Property.NodeScope);
+
+  /**
+   * Flag controlling whether a duplicate rescore request is sent when the first one is slower than most recent calls.
+   */
+  public static final Setting<Boolean> RESCORE_HEDGING_ENABLED_SETTING = Setting.boolSetting("kendra_intelligent_ranking.rescore.hedging.enabled", false, Setting.Property.NodeScope);
+
+  /**
+   * Percentile of the latency of recent rescore calls to an execution plan after which a duplicate request is sent, between 0 and 1.
+   */
+  public static final Setting<Double> RESCORE_HEDGING_DELAY_PERCENTILE_SETTING = Setting.doubleSetting("kendra_intelligent_ranking.rescore.hedging.delay_percentile", 0.95, 0.0, Setting.Property.NodeScope);
+
+  /**
+   * Minimum time to wait for a rescore response before a duplicate request is sent.
+   */
+  public static final Setting<TimeValue> RESCORE_HEDGING_MIN_DELAY_SETTING = Setting.timeSetting("kendra_intelligent_ranking.rescore.hedging.min_delay", TimeValue.timeValueMillis(5), TimeValue.ZERO, Setting.Property.NodeScope);
+
+  /**
+   * Maximum fraction of rescore calls that may send a duplicate request, between 0 and 1.
+   */
+  public static final Setting<Double> RESCORE_HEDGING_MAX_RATE_SETTING = Setting.doubleSetting("kendra_intelligent_ranking.rescore.hedging.max_rate", 0.05, 0.0, Setting.Property.NodeScope);
+
+  /**
+   * Maximum number of pooled HTTP connections to the Kendra Intelligent Ranking service, per client.
+   */
+  public static final Setting<Integer> CLIENT_MAX_CONNECTIONS_SETTING = Setting.intSetting("kendra_intelligent_ranking.client.max_connections", 50, 1, Setting.Property.NodeScope);
+
+  /**
+   * Maximum time to establish a connection to the service.
+   */
+  public static final Setting<TimeValue> CLIENT_CONNECTION_TIMEOUT_SETTING = Setting.positiveTimeSetting("kendra_intelligent_ranking.client.connection_timeout", TimeValue.timeValueSeconds(10), Setting.Property.NodeScope);
+
+  /**
+   * Maximum time to wait for data on an established connection.
+   */
+  public static final Setting<TimeValue> CLIENT_SOCKET_TIMEOUT_SETTING = Setting.positiveTimeSetting("kendra_intelligent_ranking.client.socket_timeout", TimeValue.timeValueSeconds(50), Setting.Property.NodeScope);
+
+  /**
+   * Maximum time a pooled connection is reused after it was opened, or -1 for no limit.
+   */
+  public static final Setting<TimeValue> CLIENT_CONNECTION_TTL_SETTING = Setting.timeSetting("kendra_intelligent_ranking.client.connection_ttl", TimeValue.MINUS_ONE, TimeValue.MINUS_ONE, Setting.Property.NodeScope);
+
+  /**
+   * Maximum time a connection may stay idle in the pool before it is closed.
+   */
+  public static final Setting<TimeValue> CLIENT_CONNECTION_MAX_IDLE_SETTING = Setting.positiveTimeSetting("kendra_intelligent_ranking.client.connection_max_idle", TimeValue.timeValueSeconds(60), Setting.Property.NodeScope);
+
+  /**
+   * Flag controlling whether TCP keep-alive probes are sent on idle connections.
+   */
+  public static final Setting<Boolean> CLIENT_TCP_KEEP_ALIVE_SETTING = Setting.boolSetting("kendra_intelligent_ranking.client.tcp_keep_alive", true, Setting.Property.NodeScope);
+
+  /**
+   * Flag controlling whether gzip compressed responses are requested from the service.
+   */
+  public static final Setting<Boolean> CLIENT_COMPRESSION_ENABLED_SETTING = Setting.boolSetting("kendra_intelligent_ranking.client.compression.enabled", false, Setting.Property.NodeScope);
+
+  /**
+   * Maximum number of retries of a failed blocking rescore call, or -1 for the AWS SDK default.
+   */
+  public static final Setting<Integer> CLIENT_MAX_RETRIES_SETTING = Setting.intSetting("kendra_intelligent_ranking.client.max_retries", -1, -1, Setting.Property.NodeScope);
+
+  /**
+   * Number of connections opened to the service when the node starts, so that the first searches do not pay for TCP
+   * and TLS handshakes. 0 disables pre-warming.
+   */
+  public static final Setting<Integer> CLIENT_PREWARM_CONNECTIONS_SETTING = Setting.intSetting("kendra_intelligent_ranking.client.prewarm_connections", 2, 0, Setting.Property.NodeScope);
+
+  /**
+   * Prefix of the size and queue_size settings of the preprocessing thread pool, which are registered by its executor builder.
+   */
+  public static final String PREPROCESS_THREAD_POOL_SETTING_PREFIX = "kendra_intelligent_ranking.preprocess.thread_pool";
+
+  /**
+   * @param settings node settings
+   * @return guard of the rescore calls of the node, or null if neither the circuit breaker nor the bulkhead is enabled
+   */
+  public static RemoteCallGuard createCallGuard(final Settings settings) {
+    final int maxConcurrentCalls = RESCORE_MAX_CONCURRENT_CALLS_SETTING.get(settings);
+    final boolean circuitBreakerEnabled = RESCORE_CIRCUIT_BREAKER_ENABLED_SETTING.get(settings);
+    if (maxConcurrentCalls < 0 && !circuitBreakerEnabled) {
+      return null;
+    }
+    return new RemoteCallGuard("Kendra Intelligent Ranking", maxConcurrentCalls, circuitBreakerEnabled,
+        RESCORE_CIRCUIT_BREAKER_WINDOW_SIZE_SETTING.get(settings),
+        RESCORE_CIRCUIT_BREAKER_MINIMUM_CALLS_SETTING.get(settings),
+        RESCORE_CIRCUIT_BREAKER_FAILURE_RATE_SETTING.get(settings),
+        RESCORE_CIRCUIT_BREAKER_LATENCY_THRESHOLD_SETTING.get(settings),
+        RESCORE_CIRCUIT_BREAKER_LATENCY_PERCENTILE_SETTING.get(settings),
+        RESCORE_CIRCUIT_BREAKER_OPEN_DURATION_SETTING.get(settings),
+        System::nanoTime);
+  }
+
+  /**
+   * @param settings node settings
+   * @return rate limiter of the rescore calls of the node, or null if no execution plan is rate limited
+   */
+  public static RateLimiter createRateLimiter(final Settings settings) {
+    final double defaultRate = RESCORE_RATE_LIMIT_SETTING.get(settings);
+    final Map<String, Double> targetRates = RateLimiter.parseTargetRates(RESCORE_RATE_LIMIT_EXECUTION_PLANS_SETTING.get(settings));
+    if (defaultRate < 0 && targetRates.isEmpty()) {
+      return null;
+    }
+    return new RateLimiter(defaultRate, RESCORE_RATE_LIMIT_BURST_SETTING.get(settings), targetRates, System::nanoTime);
+  }
+
   public static List<Setting<?>> getAllSettings() {
     return Arrays.asList(
       KENDRA_ORDER_SETTING,
       KENDRA_BODY_FIELD_SETTING,
       KENDRA_TITLE_FIELD_SETTING,
       KENDRA_DOC_LIMIT_SETTING,
+      KENDRA_CACHE_ENABLED_SETTING,
+      KENDRA_LATENCY_BUDGET_SETTING,
       ACCESS_KEY_SETTING,
       SECRET_KEY_SETTING,
       SESSION_TOKEN_SETTING,
       SERVICE_ENDPOINT_SETTING,
       SERVICE_REGION_SETTING,
       EXECUTION_PLAN_ID_SETTING,
-      ASSUME_ROLE_ARN_SETTING
+      ASSUME_ROLE_ARN_SETTING,
+      RESCORE_CACHE_ENABLED_SETTING,
+      RESCORE_CACHE_SIZE_SETTING,
+      RESCORE_CACHE_EXPIRE_AFTER_WRITE_SETTING,
+      PASSAGE_CACHE_ENABLED_SETTING,
+      PASSAGE_CACHE_SIZE_SETTING,
+      PASSAGE_CACHE_EXPIRE_AFTER_ACCESS_SETTING,
+      PREPROCESS_PARALLEL_ENABLED_SETTING,
+      PREPROCESS_PARALLEL_THRESHOLD_SETTING,
+      PREPROCESS_BODY_MAX_CHARS_SETTING,
+      PREPROCESS_BODY_MAX_TOKENS_SETTING,
+      PREPROCESS_FETCH_REQUIRED_FIELDS_ONLY_SETTING,
+      RESCORE_COALESCING_ENABLED_SETTING,
+      RESCORE_LATENCY_BUDGET_SETTING,
+      RESCORE_MAX_CONCURRENT_CALLS_SETTING,
+      RESCORE_CIRCUIT_BREAKER_ENABLED_SETTING,
+      RESCORE_CIRCUIT_BREAKER_WINDOW_SIZE_SETTING,
+      RESCORE_CIRCUIT_BREAKER_MINIMUM_CALLS_SETTING,
+      RESCORE_CIRCUIT_BREAKER_FAILURE_RATE_SETTING,
+      RESCORE_CIRCUIT_BREAKER_LATENCY_THRESHOLD_SETTING,
+      RESCORE_CIRCUIT_BREAKER_LATENCY_PERCENTILE_SETTING,
+      RESCORE_CIRCUIT_BREAKER_OPEN_DURATION_SETTING,
+      CLIENT_MAX_CONNECTIONS_SETTING,
+      CLIENT_CONNECTION_TIMEOUT_SETTING,
+      CLIENT_SOCKET_TIMEOUT_SETTING,
+      CLIENT_CONNECTION_TTL_SETTING,
+      CLIENT_CONNECTION_MAX_IDLE_SETTING,
+      CLIENT_TCP_KEEP_ALIVE_SETTING,
+      CLIENT_COMPRESSION_ENABLED_SETTING,
+      CLIENT_MAX_RETRIES_SETTING,
+      CLIENT_PREWARM_CONNECTIONS_SETTING,
+      RESCORE_RATE_LIMIT_SETTING,
+      RESCORE_RATE_LIMIT_BURST_SETTING,
+      RESCORE_RATE_LIMIT_EXECUTION_PLANS_SETTING,
+      RESCORE_HEDGING_ENABLED_SETTING,
+      RESCORE_HEDGING_DELAY_PERCENTILE_SETTING,
+      RESCORE_HEDGING_MIN_DELAY_SETTING,
+      RESCORE_HEDGING_MAX_RATE_SETTING
     );
   }
 }
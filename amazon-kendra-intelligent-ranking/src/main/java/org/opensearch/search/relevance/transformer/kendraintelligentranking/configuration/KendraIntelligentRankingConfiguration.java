@@ -7,11 +7,13 @@
  */
 package org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration;
 
+import org.opensearch.Version;
 import org.opensearch.core.common.ParsingException;
 import org.opensearch.core.common.io.stream.StreamInput;
 import org.opensearch.core.common.io.stream.StreamOutput;
 import org.opensearch.core.common.io.stream.Writeable;
 import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
 import org.opensearch.core.ParseField;
 import org.opensearch.core.xcontent.ObjectParser;
 import org.opensearch.core.xcontent.ToXContent;
@@ -63,7 +65,9 @@ public class KendraIntelligentRankingConfiguration extends ResultTransformerConf
     this.properties = new KendraIntelligentRankingProperties(
         settings.getAsList("properties.body_field"),
         settings.getAsList("properties.title_field"),
-        settings.getAsInt("properties.doc_limit", KENDRA_DEFAULT_DOC_LIMIT));
+        settings.getAsInt("properties.doc_limit", KENDRA_DEFAULT_DOC_LIMIT),
+        settings.getAsBoolean("properties.cache_enabled", true),
+        settings.getAsTime("properties.latency_budget", TimeValue.MINUS_ONE));
   }
 
   @Override
@@ -126,6 +130,10 @@ public class KendraIntelligentRankingConfiguration extends ResultTransformerConf
     protected static final ParseField BODY_FIELD = new ParseField(Constants.BODY_FIELD);
     protected static final ParseField TITLE_FIELD = new ParseField(Constants.TITLE_FIELD);
     protected static final ParseField DOC_LIMIT = new ParseField(Constants.DOC_LIMIT);
+    protected static final ParseField CACHE_ENABLED = new ParseField(Constants.CACHE_ENABLED);
+    protected static final ParseField LATENCY_BUDGET = new ParseField(Constants.LATENCY_BUDGET);
+    // Nodes of older versions neither send nor expect cache_enabled and latency_budget
+    static final Version CACHE_ENABLED_AND_LATENCY_BUDGET_VERSION = Version.V_3_0_0;
 
     private static final ObjectParser<KendraIntelligentRankingProperties, Void> PARSER;
 
@@ -134,29 +142,56 @@ public class KendraIntelligentRankingConfiguration extends ResultTransformerConf
       PARSER.declareStringArray(KendraIntelligentRankingProperties::setBodyFields, BODY_FIELD);
       PARSER.declareStringArray(KendraIntelligentRankingProperties::setTitleFields, TITLE_FIELD);
       PARSER.declareInt(KendraIntelligentRankingProperties::setDocLimit, DOC_LIMIT);
+      PARSER.declareBoolean(KendraIntelligentRankingProperties::setCacheEnabled, CACHE_ENABLED);
+      PARSER.declareField(KendraIntelligentRankingProperties::setLatencyBudget,
+          (p, c) -> TimeValue.parseTimeValue(p.text(), LATENCY_BUDGET.getPreferredName()),
+          LATENCY_BUDGET, ObjectParser.ValueType.STRING);
     }
 
     private List<String> bodyFields;
     private List<String> titleFields;
     private int docLimit;
+    private boolean cacheEnabled;
+    private TimeValue latencyBudget;
 
     public KendraIntelligentRankingProperties() {
       bodyFields = Collections.emptyList();
       titleFields = Collections.emptyList();
       docLimit = KENDRA_DEFAULT_DOC_LIMIT;
+      cacheEnabled = true;
+      latencyBudget = TimeValue.MINUS_ONE;
     }
 
     public KendraIntelligentRankingProperties(final List<String> bodyFields,
         final List<String> titleFields, final int docLimit) {
+      this(bodyFields, titleFields, docLimit, true);
+    }
+
+    public KendraIntelligentRankingProperties(final List<String> bodyFields,
+        final List<String> titleFields, final int docLimit, final boolean cacheEnabled) {
+      this(bodyFields, titleFields, docLimit, cacheEnabled, TimeValue.MINUS_ONE);
+    }
+
+    public KendraIntelligentRankingProperties(final List<String> bodyFields,
+        final List<String> titleFields, final int docLimit, final boolean cacheEnabled, final TimeValue latencyBudget) {
       this.bodyFields = bodyFields;
       this.titleFields = titleFields;
       this.docLimit = docLimit;
+      this.cacheEnabled = cacheEnabled;
+      this.latencyBudget = latencyBudget;
     }
 
     public KendraIntelligentRankingProperties(StreamInput input) throws IOException {
       this.bodyFields = input.readStringList();
       this.titleFields = input.readStringList();
       this.docLimit = input.readInt();
+      if (input.getVersion().onOrAfter(CACHE_ENABLED_AND_LATENCY_BUDGET_VERSION)) {
+        this.cacheEnabled = input.readBoolean();
+        this.latencyBudget = input.readTimeValue();
+      } else {
+        this.cacheEnabled = true;
+        this.latencyBudget = TimeValue.MINUS_ONE;
+      }
     }
 
     @Override
@@ -164,6 +199,10 @@ public class KendraIntelligentRankingConfiguration extends ResultTransformerConf
       out.writeStringCollection(this.bodyFields);
       out.writeStringCollection(this.titleFields);
       out.writeInt(this.docLimit);
+      if (out.getVersion().onOrAfter(CACHE_ENABLED_AND_LATENCY_BUDGET_VERSION)) {
+        out.writeBoolean(this.cacheEnabled);
+        out.writeTimeValue(this.latencyBudget);
+      }
     }
 
     public static KendraIntelligentRankingProperties parse(XContentParser parser, Void context) throws IOException {
@@ -186,6 +225,8 @@ public class KendraIntelligentRankingConfiguration extends ResultTransformerConf
       builder.field(BODY_FIELD.getPreferredName(), this.bodyFields);
       builder.field(TITLE_FIELD.getPreferredName(), this.titleFields);
       builder.field(DOC_LIMIT.getPreferredName(), this.docLimit);
+      builder.field(CACHE_ENABLED.getPreferredName(), this.cacheEnabled);
+      builder.field(LATENCY_BUDGET.getPreferredName(), this.latencyBudget.getStringRep());
       return builder.endObject();
     }
 
@@ -197,7 +238,8 @@ public class KendraIntelligentRankingConfiguration extends ResultTransformerConf
       KendraIntelligentRankingProperties properties = (KendraIntelligentRankingProperties) o;
 
       return bodyFields.equals(properties.bodyFields) && titleFields.equals(properties.titleFields) &&
-          docLimit == properties.docLimit;
+          docLimit == properties.docLimit && cacheEnabled == properties.cacheEnabled &&
+          latencyBudget.equals(properties.latencyBudget);
     }
 
     @Override
@@ -229,5 +271,24 @@ public class KendraIntelligentRankingConfiguration extends ResultTransformerConf
       this.docLimit = docLimit;
     }
 
+    public boolean isCacheEnabled() {
+      return this.cacheEnabled;
+    }
+
+    public void setCacheEnabled(final boolean cacheEnabled) {
+      this.cacheEnabled = cacheEnabled;
+    }
+
+    /**
+     * @return maximum time reranking may add to a search, or -1 to use the node-level latency budget
+     */
+    public TimeValue getLatencyBudget() {
+      return this.latencyBudget;
+    }
+
+    public void setLatencyBudget(final TimeValue latencyBudget) {
+      this.latencyBudget = latencyBudget;
+    }
+
   }
 }
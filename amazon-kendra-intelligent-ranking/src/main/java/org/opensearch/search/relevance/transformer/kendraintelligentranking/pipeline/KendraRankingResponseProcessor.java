@@ -13,25 +13,39 @@ import org.apache.logging.log4j.Logger;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.search.SearchResponseSections;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.action.ActionListener;
 import org.opensearch.ingest.ConfigurationUtils;
 import org.opensearch.search.SearchHits;
 import org.opensearch.search.aggregations.InternalAggregations;
 import org.opensearch.search.internal.InternalSearchResponse;
 import org.opensearch.search.pipeline.AbstractProcessor;
+import org.opensearch.search.pipeline.PipelineProcessingContext;
 import org.opensearch.search.pipeline.Processor;
 import org.opensearch.search.pipeline.SearchResponseProcessor;
 import org.opensearch.search.profile.SearchProfileShardResults;
+import org.opensearch.search.relevance.stats.RerankerMetrics;
+import org.opensearch.search.relevance.stats.SearchRelevanceStats;
+import org.opensearch.search.relevance.transformer.ResultTransformerContext;
+import org.opensearch.search.relevance.transformer.ResultTransformerProfile;
+import org.opensearch.search.relevance.transformer.ResultTransformerResponseExtBuilder;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.KendraIntelligentRanker;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraClientSettings;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraHttpClient;
+import org.opensearch.search.relevance.client.RateLimiter;
+import org.opensearch.search.relevance.client.RemoteCallGuard;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.RescoreRequestHedger;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankingConfiguration;
+import org.opensearch.threadpool.ThreadPool;
 
 import static org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.Constants.KENDRA_DEFAULT_DOC_LIMIT;
 
+import java.io.Closeable;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * This is a {@link SearchResponseProcessor} that applies kendra intelligence ranking
@@ -46,12 +60,34 @@ public class KendraRankingResponseProcessor extends AbstractProcessor implements
     private final int docLimit;
     private final String tag;
     private final String description;
-    private final KendraHttpClient kendraClient;
+    private final boolean cacheEnabled;
+    private final TimeValue latencyBudget;
+    private final KendraIntelligentRanker ranker;
+    private final RerankerMetrics metrics;
 
     private static final Logger logger = LogManager.getLogger(KendraRankingResponseProcessor.class);
 
+    private KendraRankingResponseProcessor(Builder builder) {
+        super(builder.tag, builder.description, builder.ignoreFailure);
+        this.titleField = builder.titleField;
+        this.bodyField = builder.bodyField;
+        this.tag = builder.tag;
+        this.description = builder.description;
+        this.cacheEnabled = builder.cacheEnabled;
+        this.latencyBudget = builder.latencyBudget;
+        this.ranker = builder.ranker;
+        this.metrics = builder.metrics == null ? new RerankerMetrics() : builder.metrics;
+        int docLimit;
+        if (builder.inputDocLimit == null) {
+            docLimit = KENDRA_DEFAULT_DOC_LIMIT;
+        } else {
+            docLimit = builder.inputDocLimit;
+        }
+        this.docLimit = docLimit;
+    }
+
     /**
-     * Constructor that apply configuration for kendra re-ranking
+     * Start building a processor that apply configuration for kendra re-ranking
      *
      * @param tag            processor tag
      * @param description    processor description
@@ -59,22 +95,68 @@ public class KendraRankingResponseProcessor extends AbstractProcessor implements
      * @param titleField     titleField applied to kendra re-ranking
      * @param bodyField      bodyField applied to kendra re-ranking
      * @param inputDocLimit  docLimit applied to kendra re-ranking
-     * @param kendraClient   kendraClient to connect with kendra
+     * @param ranker         ranker applying kendra re-ranking, sharing node-level caches and executors
+     * @return builder of a processor using the rescore cache and the node-level latency budget, without metrics
      */
-    public KendraRankingResponseProcessor(String tag, String description,  boolean ignoreFailure, List<String> titleField, List<String> bodyField, Integer inputDocLimit, KendraHttpClient kendraClient) {
-        super(tag, description, ignoreFailure);
-        this.titleField = titleField;
-        this.bodyField = bodyField;
-        this.tag = tag;
-        this.description = description;
-        this.kendraClient = kendraClient;
-        int docLimit;
-        if (inputDocLimit == null) {
-            docLimit = KENDRA_DEFAULT_DOC_LIMIT;
-        } else {
-            docLimit = inputDocLimit;
+    public static Builder builder(String tag, String description, boolean ignoreFailure, List<String> titleField,
+                                  List<String> bodyField, Integer inputDocLimit, KendraIntelligentRanker ranker) {
+        return new Builder(tag, description, ignoreFailure, titleField, bodyField, inputDocLimit, ranker);
+    }
+
+    /**
+     * Builder of {@link KendraRankingResponseProcessor}. Every optional setting keeps the behavior of a pipeline
+     * that does not configure it.
+     */
+    public static final class Builder {
+        private final String tag;
+        private final String description;
+        private final boolean ignoreFailure;
+        private final List<String> titleField;
+        private final List<String> bodyField;
+        private final Integer inputDocLimit;
+        private final KendraIntelligentRanker ranker;
+        private boolean cacheEnabled = true;
+        private TimeValue latencyBudget = TimeValue.MINUS_ONE;
+        private RerankerMetrics metrics;
+
+        private Builder(String tag, String description, boolean ignoreFailure, List<String> titleField,
+                        List<String> bodyField, Integer inputDocLimit, KendraIntelligentRanker ranker) {
+            this.tag = tag;
+            this.description = description;
+            this.ignoreFailure = ignoreFailure;
+            this.titleField = titleField;
+            this.bodyField = bodyField;
+            this.inputDocLimit = inputDocLimit;
+            this.ranker = ranker;
+        }
+
+        /**
+         * @param cacheEnabled whether this pipeline may use the rescore cache
+         */
+        public Builder cacheEnabled(boolean cacheEnabled) {
+            this.cacheEnabled = cacheEnabled;
+            return this;
+        }
+
+        /**
+         * @param latencyBudget maximum time kendra re-ranking may add to a search, or -1 to use the node-level budget
+         */
+        public Builder latencyBudget(TimeValue latencyBudget) {
+            this.latencyBudget = latencyBudget;
+            return this;
+        }
+
+        /**
+         * @param metrics node-level metrics of kendra ranking processors, or null to not report them
+         */
+        public Builder metrics(RerankerMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public KendraRankingResponseProcessor build() {
+            return new KendraRankingResponseProcessor(this);
         }
-        this.docLimit = docLimit;
     }
 
     /**
@@ -115,44 +197,218 @@ public class KendraRankingResponseProcessor extends AbstractProcessor implements
             return response;
         }
 
-        KendraIntelligentRankingConfiguration.KendraIntelligentRankingProperties properties = new KendraIntelligentRankingConfiguration.KendraIntelligentRankingProperties(bodyField, titleField, docLimit);
-        KendraIntelligentRankingConfiguration configuration = new KendraIntelligentRankingConfiguration(1, properties);
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(this.kendraClient);
+        final long configStartTime = System.nanoTime();
+        KendraIntelligentRankingConfiguration configuration = buildConfiguration();
         SearchRequest processedRequest = ranker.preprocessRequest(request, configuration);
 
         if (ranker.shouldTransform(processedRequest, configuration)) {
             long startTime = System.nanoTime();
-            SearchHits reRankedSearchHits = ranker.transform(hits, processedRequest, configuration);
-            long timeTookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
-
-            final SearchResponseSections internalResponse = new InternalSearchResponse(reRankedSearchHits,
-                    (InternalAggregations) response.getAggregations(), response.getSuggest(),
-                    new SearchProfileShardResults(response.getProfileResults()), response.isTimedOut(),
-                    response.isTerminatedEarly(), response.getNumReducePhases());
-
-            final SearchResponse newResponse = new SearchResponse(internalResponse, response.getScrollId(),
-                    response.getTotalShards(), response.getSuccessfulShards(),
-                    response.getSkippedShards(), timeTookMillis, response.getShardFailures(),
-                    response.getClusters());
+            final ResultTransformerContext context = new ResultTransformerContext(startTime, isProfiled(request));
+            SearchHits reRankedSearchHits = ranker.transform(hits, processedRequest, configuration, context);
+            long timeTookNanos = System.nanoTime() - startTime;
+            metrics.onRequest(timeTookNanos);
+            recordProfile(context, startTime - configStartTime, timeTookNanos);
+            long timeTookMillis = TimeUnit.NANOSECONDS.toMillis(timeTookNanos);
             logger.info("kendra ranking processor took " + timeTookMillis + " ms");
-            return newResponse;
+            return buildResponse(response, reRankedSearchHits, context, timeTookMillis);
         } else
             return response;
     }
 
     /**
-     * This is a factor that creates the KendraRankingResponseProcessor
+     * Transform the response hit and apply kendra re-ranking logic, without blocking the search thread while
+     * waiting on Kendra Intelligent Ranking
+     */
+    @Override
+    public void processResponseAsync(SearchRequest request,
+                                     SearchResponse response,
+                                     PipelineProcessingContext requestContext,
+                                     ActionListener<SearchResponse> responseListener) {
+        SearchHits hits = response.getHits();
+
+        if (hits.getHits().length == 0) {
+            // Avoid call to re-rank empty results
+            logger.info("TotalHits = 0. Returning search response without transforming.");
+            responseListener.onResponse(response);
+            return;
+        }
+
+        final long configStartTime = System.nanoTime();
+        final KendraIntelligentRankingConfiguration configuration = buildConfiguration();
+        final SearchRequest processedRequest;
+        try {
+            processedRequest = ranker.preprocessRequest(request, configuration);
+            if (!ranker.shouldTransform(processedRequest, configuration)) {
+                responseListener.onResponse(response);
+                return;
+            }
+        } catch (Exception e) {
+            responseListener.onFailure(e);
+            return;
+        }
+
+        final long startTime = System.nanoTime();
+        // The latency budget accounts for the time the search took before reaching this processor
+        final ResultTransformerContext context = new ResultTransformerContext(startTime - response.getTook().nanos(),
+                isProfiled(request));
+        final long configResolutionNanos = startTime - configStartTime;
+        ranker.transformAsync(hits, processedRequest, configuration, context, ActionListener.wrap(reRankedSearchHits -> {
+            long timeTookNanos = System.nanoTime() - startTime;
+            metrics.onRequest(timeTookNanos);
+            recordProfile(context, configResolutionNanos, timeTookNanos);
+            long timeTookMillis = TimeUnit.NANOSECONDS.toMillis(timeTookNanos);
+            logger.info("kendra ranking processor took " + timeTookMillis + " ms");
+            responseListener.onResponse(buildResponse(response, reRankedSearchHits, context, timeTookMillis));
+        }, e -> {
+            metrics.onRequest(System.nanoTime() - startTime);
+            metrics.onError();
+            responseListener.onFailure(e);
+        }));
+    }
+
+    private static boolean isProfiled(SearchRequest request) {
+        return request.source() != null && request.source().profile();
+    }
+
+    /**
+     * Report the time spent building the configuration of the ranker and reranking, if the search is profiled
+     */
+    private static void recordProfile(ResultTransformerContext context, long configResolutionNanos, long timeTookNanos) {
+        final ResultTransformerProfile profile = context.getProfile(KendraIntelligentRanker.NAME);
+        if (profile != null) {
+            profile.addPhaseTime(ResultTransformerProfile.Phase.CONFIG_RESOLUTION, configResolutionNanos);
+            profile.addTime(configResolutionNanos + timeTookNanos);
+        }
+    }
+
+    private KendraIntelligentRankingConfiguration buildConfiguration() {
+        KendraIntelligentRankingConfiguration.KendraIntelligentRankingProperties properties = new KendraIntelligentRankingConfiguration.KendraIntelligentRankingProperties(bodyField, titleField, docLimit, cacheEnabled, latencyBudget);
+        return new KendraIntelligentRankingConfiguration(1, properties);
+    }
+
+    private static SearchResponse buildResponse(SearchResponse response, SearchHits reRankedSearchHits,
+                                                ResultTransformerContext context, long timeTookMillis) {
+        final SearchResponseSections internalResponse = new InternalSearchResponse(reRankedSearchHits,
+                (InternalAggregations) response.getAggregations(), response.getSuggest(),
+                new SearchProfileShardResults(response.getProfileResults()), response.isTimedOut(),
+                response.isTerminatedEarly(), response.getNumReducePhases(),
+                ResultTransformerResponseExtBuilder.addFallbacks(response.getInternalResponse().getSearchExtBuilders(), context));
+
+        return new SearchResponse(internalResponse, response.getScrollId(),
+                response.getTotalShards(), response.getSuccessfulShards(),
+                response.getSkippedShards(), timeTookMillis, response.getShardFailures(),
+                response.getClusters());
+    }
+
+    /**
+     * This is a factor that creates the KendraRankingResponseProcessor. All processors share one kendra client and
+     * ranker, created when the first processor is, and closed with the factory.
      */
-    public static final class Factory implements Processor.Factory<SearchResponseProcessor>  {
+    public static final class Factory implements Processor.Factory<SearchResponseProcessor>, Closeable {
 
         private final KendraClientSettings clientSettings;
+        private final RemoteCallGuard callGuard;
+        private final RateLimiter rateLimiter;
+        private final RescoreRequestHedger requestHedger;
+        private final ThreadPool threadPool;
+        private final SearchRelevanceStats stats;
+        private final Function<KendraHttpClient, KendraIntelligentRanker> rankerFactory;
+        private KendraHttpClient kendraClient;
+        private KendraIntelligentRanker ranker;
+
+        private Factory(Builder builder) {
+            this.clientSettings = builder.clientSettings;
+            this.callGuard = builder.callGuard;
+            this.rateLimiter = builder.rateLimiter;
+            this.requestHedger = builder.requestHedger;
+            this.threadPool = builder.threadPool;
+            this.stats = builder.stats;
+            this.rankerFactory = builder.rankerFactory;
+        }
 
         /**
-         * Constructor for factory
          * @param kendraClientSettings credentials to create kendra client
+         * @return builder of a factory whose processors use a ranker without node-level caches or executors, calling
+         *         Kendra Intelligent Ranking without call guard, rate limit or hedging
          */
-        public Factory(KendraClientSettings kendraClientSettings) {
-            this.clientSettings = kendraClientSettings;
+        public static Builder builder(KendraClientSettings kendraClientSettings) {
+            return new Builder(kendraClientSettings);
+        }
+
+        /**
+         * Builder of {@link Factory}. Every optional dependency defaults to disabled.
+         */
+        public static final class Builder {
+            private final KendraClientSettings clientSettings;
+            private RemoteCallGuard callGuard;
+            private RateLimiter rateLimiter;
+            private RescoreRequestHedger requestHedger;
+            private ThreadPool threadPool;
+            private SearchRelevanceStats stats;
+            private Function<KendraHttpClient, KendraIntelligentRanker> rankerFactory =
+                    kendraClient -> KendraIntelligentRanker.builder(kendraClient).build();
+
+            private Builder(KendraClientSettings clientSettings) {
+                this.clientSettings = clientSettings;
+            }
+
+            /**
+             * @param callGuard node-level circuit breaker and bulkhead shared by the kendra clients of processors, or
+             *                  null to always call Kendra Intelligent Ranking
+             */
+            public Builder callGuard(RemoteCallGuard callGuard) {
+                this.callGuard = callGuard;
+                return this;
+            }
+
+            /**
+             * @param rateLimiter node-level rate limits of execution plans shared by the kendra clients of processors,
+             *                    or null to never limit the rate of calls
+             */
+            public Builder rateLimiter(RateLimiter rateLimiter) {
+                this.rateLimiter = rateLimiter;
+                return this;
+            }
+
+            /**
+             * @param requestHedger node-level hedging shared by the kendra clients of processors, or null to send a
+             *                      single request per call
+             */
+            public Builder requestHedger(RescoreRequestHedger requestHedger) {
+                this.requestHedger = requestHedger;
+                return this;
+            }
+
+            /**
+             * @param threadPool thread pool completing the rescore calls of processors in the thread context of the
+             *                   search, or null to complete them on the I/O threads of the kendra client
+             */
+            public Builder threadPool(ThreadPool threadPool) {
+                this.threadPool = threadPool;
+                return this;
+            }
+
+            /**
+             * @param stats node-level registry of the metrics reported by the stats API, or null to not report the
+             *              metrics of processors
+             */
+            public Builder stats(SearchRelevanceStats stats) {
+                this.stats = stats;
+                return this;
+            }
+
+            /**
+             * @param rankerFactory creates the ranker of a processor for its kendra client, sharing node-level caches
+             *                      and executors between processors
+             */
+            public Builder rankerFactory(Function<KendraHttpClient, KendraIntelligentRanker> rankerFactory) {
+                this.rankerFactory = rankerFactory;
+                return this;
+            }
+
+            public Factory build() {
+                return new Factory(this);
+            }
         }
 
         public KendraRankingResponseProcessor create(
@@ -166,14 +422,54 @@ public class KendraRankingResponseProcessor extends AbstractProcessor implements
             List<String> titleField = Collections.singletonList(ConfigurationUtils.readOptionalStringProperty(TYPE, tag, config, "title_field"));
             List<String> bodyField = Collections.singletonList(ConfigurationUtils.readStringProperty(TYPE, tag, config, "body_field"));
             String inputDocLimit = ConfigurationUtils.readOptionalStringOrIntProperty(TYPE, tag, config, "doc_limit");
-            KendraHttpClient kendraClient = new KendraHttpClient(this.clientSettings);
+            boolean cacheEnabled = ConfigurationUtils.readBooleanProperty(TYPE, tag, config, "cache_enabled", true);
+            String inputLatencyBudget = ConfigurationUtils.readOptionalStringProperty(TYPE, tag, config, "latency_budget");
+            RerankerMetrics metrics = this.stats == null ? null : this.stats.getProcessorMetrics(TYPE);
             int docLimit;
             if (inputDocLimit == null) {
                 docLimit = KENDRA_DEFAULT_DOC_LIMIT;
             } else {
                 docLimit = Integer.parseInt(inputDocLimit);
             }
-            return new KendraRankingResponseProcessor(tag, description, ignoreFailure, titleField, bodyField, docLimit, kendraClient);
+            TimeValue latencyBudget = inputLatencyBudget == null ? TimeValue.MINUS_ONE
+                    : TimeValue.parseTimeValue(inputLatencyBudget, "latency_budget");
+            // Processors created to validate a pipeline never run, so they do not need a kendra client
+            final boolean validation = pipelineContext != null
+                    && pipelineContext.getPipelineSource() == Processor.PipelineSource.VALIDATE_PIPELINE;
+            return KendraRankingResponseProcessor.builder(tag, description, ignoreFailure, titleField, bodyField, docLimit,
+                            validation ? null : getRanker(metrics))
+                    .cacheEnabled(cacheEnabled)
+                    .latencyBudget(latencyBudget)
+                    .metrics(metrics)
+                    .build();
+        }
+
+        private synchronized KendraIntelligentRanker getRanker(RerankerMetrics metrics) {
+            if (ranker == null) {
+                kendraClient = KendraHttpClient.builder(this.clientSettings)
+                        .callGuard(this.callGuard)
+                        .rateLimiter(this.rateLimiter)
+                        .requestHedger(this.requestHedger)
+                        .threadPool(this.threadPool)
+                        .metrics(metrics)
+                        .build();
+                ranker = rankerFactory.apply(kendraClient);
+            }
+            return ranker;
+        }
+
+        synchronized KendraHttpClient getKendraClient() {
+            // Visible for testing
+            return kendraClient;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (kendraClient != null) {
+                kendraClient.close();
+                kendraClient = null;
+                ranker = null;
+            }
         }
     }
 }
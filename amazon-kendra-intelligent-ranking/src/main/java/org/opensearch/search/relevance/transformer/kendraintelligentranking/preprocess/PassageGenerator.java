@@ -8,6 +8,9 @@
 package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -26,17 +29,25 @@ public class PassageGenerator {
 
   public List<List<String>> generatePassages(final String document, final int maxSentenceLengthInTokens,
       final int minPassageLengthInTokens, final int maxPassageCount) {
+    return generatePassages(document, maxSentenceLengthInTokens, minPassageLengthInTokens, maxPassageCount, -1);
+  }
+
+  /**
+   * Generate passages from at most the first {@code maxDocumentLengthInTokens} tokens of a document
+   * @param maxDocumentLengthInTokens maximum number of tokens read from the document, or -1 to read the document
+   *                                  until enough passages are generated
+   * @return List of passages, each a list of tokens
+   */
+  public List<List<String>> generatePassages(final String document, final int maxSentenceLengthInTokens,
+      final int minPassageLengthInTokens, final int maxPassageCount, final int maxDocumentLengthInTokens) {
     if (document == null || document.isBlank()) {
       return new ArrayList<>();
     }
 
-    List<List<String>> tokenizedSentences = generateTokenizedSentences(document, maxSentenceLengthInTokens);
-
     // To generate N passages with overlap, generate N/2 + 1 passages first, then overlap and exclude last passage
-    List<List<List<String>>> passages = combineSentencesIntoPassages(tokenizedSentences, 
-        minPassageLengthInTokens, (maxPassageCount / 2 + 1));
-
-    return generatePassagesWithOverlap(passages);
+    return new StreamingPassageBuilder(document, maxSentenceLengthInTokens,
+        maxDocumentLengthInTokens < 0 ? Integer.MAX_VALUE : maxDocumentLengthInTokens)
+        .build(minPassageLengthInTokens, (maxPassageCount / 2 + 1));
   }
 
 
@@ -179,4 +190,140 @@ public class PassageGenerator {
     }
     return tokenizedSentences;
   }
+
+  /**
+   * Generates the same passages as {@link #generateTokenizedSentences}, {@link #combineSentencesIntoPassages} and
+   * {@link #generatePassagesWithOverlap} combined, in a single pass over the document. Sentences are split and
+   * tokenized only as far as needed to fill the requested number of passages. Tokens are appended to a single
+   * buffer, sentences and passages are tracked as offsets into it, and the generated passages are views of the buffer.
+   */
+  private final class StreamingPassageBuilder {
+    private final Iterator<String> sentences;
+    private final int maxSentenceLengthInTokens;
+    private final int maxDocumentLengthInTokens;
+    private final List<String> tokens = new ArrayList<>();
+    // Token offset at which each sentence ends, after breaking up long sentences
+    private int[] sentenceEnds = new int[16];
+    private int sentenceCount;
+
+    StreamingPassageBuilder(final String document, final int maxSentenceLengthInTokens,
+        final int maxDocumentLengthInTokens) {
+      this.sentences = sentenceSplitter.iterate(document);
+      this.maxSentenceLengthInTokens = maxSentenceLengthInTokens;
+      this.maxDocumentLengthInTokens = maxDocumentLengthInTokens;
+    }
+
+    List<List<String>> build(final int minPassageLengthInTokens, final int maxPassageCount) {
+      // Sentence index at which each passage ends; each passage starts where the previous one ends
+      int[] passageEnds = new int[maxPassageCount];
+      int passageCount = 0;
+      int currentPassageLengthInTokens = 0;
+
+      for (int i = 0; i < sentenceCount || readSentence(); ++i) {
+        currentPassageLengthInTokens += sentenceEnds[i] - sentenceStart(i);
+
+        // Read ahead only until the remaining tokens are known to exceed half the minimum passage size
+        boolean hasMoreSentences = true;
+        while (hasMoreSentences && tokens.size() - sentenceEnds[i] <= (minPassageLengthInTokens / 2)) {
+          hasMoreSentences = readSentence();
+        }
+        final boolean isLastSentence = i == (sentenceCount - 1);
+
+        // If the token count from all remaining sentences is less than half the minimum passage size,
+        // append all remaining sentence to current passage and end
+        if (!isLastSentence && tokens.size() - sentenceEnds[i] <= (minPassageLengthInTokens / 2)) {
+          passageEnds[passageCount++] = sentenceCount;
+          break;
+        }
+
+        // If min passage length is reached, or this is the last sentence, end the current passage
+        if (currentPassageLengthInTokens >= minPassageLengthInTokens || isLastSentence) {
+          passageEnds[passageCount++] = i + 1;
+          currentPassageLengthInTokens = 0;
+        }
+
+        // If max number of passages is reached, end
+        if (passageCount == maxPassageCount) {
+          break;
+        }
+      }
+
+      return overlapPassages(passageEnds, passageCount);
+    }
+
+    private List<List<String>> overlapPassages(final int[] passageEnds, final int passageCount) {
+      List<List<String>> passagesWithOverlap = new ArrayList<>();
+      if (passageCount == 1) {
+        passagesWithOverlap.add(sentences(0, passageEnds[0]));
+      }
+
+      for (int i = 0; i < (passageCount - 1); ++i) {
+        final int passageStart = i == 0 ? 0 : passageEnds[i - 1];
+        final int nextPassageStart = passageEnds[i];
+        final int nextPassageEnd = passageEnds[i + 1];
+
+        // Add the passage itself, then the passage from its middle sentence to the middle sentence of the next
+        // passage. If the next passage has only one sentence, take it
+        passagesWithOverlap.add(sentences(passageStart, nextPassageStart));
+        passagesWithOverlap.add(sentences(passageStart + (nextPassageStart - passageStart) / 2,
+            nextPassageStart + Math.max(1, (nextPassageEnd - nextPassageStart) / 2)));
+      }
+
+      // Do not add the last passage, in order to limit the overall
+      return passagesWithOverlap;
+    }
+
+    /**
+     * @return tokens of the sentences from {@code fromSentence}, inclusive, to {@code toSentence}, exclusive
+     */
+    private List<String> sentences(final int fromSentence, final int toSentence) {
+      return Collections.unmodifiableList(tokens.subList(sentenceStart(fromSentence), sentenceStart(toSentence)));
+    }
+
+    private int sentenceStart(final int sentenceIndex) {
+      return sentenceIndex == 0 ? 0 : sentenceEnds[sentenceIndex - 1];
+    }
+
+    /**
+     * Tokenize the next non-empty sentence of the document, breaking up large sentences. The sentence that reaches
+     * the document token budget is cut short, and no sentences are read after it.
+     * @return false if there are no more sentences
+     */
+    private boolean readSentence() {
+      while (tokens.size() < maxDocumentLengthInTokens && sentences.hasNext()) {
+        final int sentenceStart = tokens.size();
+        textTokenizer.tokenize(sentences.next(), (buffer, offset, length, startOffset, endOffset) -> {
+          if (tokens.size() < maxDocumentLengthInTokens) {
+            tokens.add(new String(buffer, offset, length));
+          }
+        });
+        final int sentenceLengthInTokens = tokens.size() - sentenceStart;
+        if (sentenceLengthInTokens == 0) {
+          continue;
+        }
+        if (sentenceLengthInTokens <= maxSentenceLengthInTokens) {
+          addSentence(tokens.size());
+          return true;
+        }
+        for (int i = 0; i < sentenceLengthInTokens; i += maxSentenceLengthInTokens) {
+          final int tokensRemainingInSentence = sentenceLengthInTokens - (i + maxSentenceLengthInTokens);
+          // If the remaining text is too short, add it to the current sentence and end
+          if (tokensRemainingInSentence <= (maxSentenceLengthInTokens / 2)) {
+            addSentence(tokens.size());
+            break;
+          }
+          addSentence(sentenceStart + Math.min(sentenceLengthInTokens, i + maxSentenceLengthInTokens));
+        }
+        return true;
+      }
+      return false;
+    }
+
+    private void addSentence(final int sentenceEnd) {
+      if (sentenceCount == sentenceEnds.length) {
+        sentenceEnds = Arrays.copyOf(sentenceEnds, sentenceCount * 2);
+      }
+      sentenceEnds[sentenceCount++] = sentenceEnd;
+    }
+  }
 }
@@ -10,9 +10,12 @@ package org.opensearch.search.relevance.transformer.kendraintelligentranking.pre
 import com.ibm.icu.text.BreakIterator;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -25,23 +28,54 @@ public class SentenceSplitter {
    * @return list of strings, each a sentence
    */
   public List<String> split(final String text) {
+    List<String> sentences = new ArrayList<>();
+    iterate(text).forEachRemaining(sentences::add);
+    return sentences;
+  }
+
+  /**
+   * Iterate over the sentences of the input text. Sentence boundaries are found as the iterator advances, so
+   * callers that stop early do not pay for splitting the rest of the text
+   * @param text input text
+   * @return iterator over the same sentences returned by {@link #split(String)}
+   */
+  public Iterator<String> iterate(final String text) {
     if (text == null) {
-      return new ArrayList<>();
+      return Collections.emptyIterator();
     }
 
     final BreakIterator breakIterator = BreakIterator.getSentenceInstance(Locale.ENGLISH);
     breakIterator.setText(text);
 
-    List<String> sentences = new ArrayList();
-    int start = breakIterator.first();
-    String currentSentence;
+    return new Iterator<>() {
+      private int start = breakIterator.first();
+      private String nextSentence = advance();
 
-    for (int end = breakIterator.next(); end != BreakIterator.DONE; start = end, end = breakIterator.next()) {
-      currentSentence = text.substring(start, end).stripTrailing();
-      if (!currentSentence.isEmpty()) {
-        sentences.add(currentSentence);
+      private String advance() {
+        for (int end = breakIterator.next(); end != BreakIterator.DONE; start = end, end = breakIterator.next()) {
+          String currentSentence = text.substring(start, end).stripTrailing();
+          if (!currentSentence.isEmpty()) {
+            start = end;
+            return currentSentence;
+          }
+        }
+        return null;
       }
-    }
-    return sentences;
+
+      @Override
+      public boolean hasNext() {
+        return nextSentence != null;
+      }
+
+      @Override
+      public String next() {
+        if (nextSentence == null) {
+          throw new NoSuchElementException();
+        }
+        String sentence = nextSentence;
+        nextSentence = advance();
+        return sentence;
+      }
+    };
   }
 }
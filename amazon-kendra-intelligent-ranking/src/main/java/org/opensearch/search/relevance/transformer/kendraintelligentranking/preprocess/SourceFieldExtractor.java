@@ -0,0 +1,188 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.opensearch.OpenSearchParseException;
+import org.opensearch.common.xcontent.XContentHelper;
+import org.opensearch.common.xcontent.support.XContentMapValues;
+import org.opensearch.core.common.bytes.BytesReference;
+import org.opensearch.core.xcontent.DeprecationHandler;
+import org.opensearch.core.xcontent.MediaTypeRegistry;
+import org.opensearch.core.xcontent.NamedXContentRegistry;
+import org.opensearch.core.xcontent.XContentParser;
+import org.opensearch.search.SearchHit;
+
+/**
+ * Reads a fixed set of fields from the _source of search hits without parsing the whole source into a map.
+ * The source is streamed with an {@link XContentParser}: values and objects that cannot hold one of the fields are
+ * skipped, and parsing stops as soon as every field has been read. Field paths may use dots to reference fields of
+ * inner objects, and also match keys that contain dots. String values of fields with a length budget are cut to their
+ * first characters while they are read, without materializing the rest of the value. Extracted values are cached per
+ * hit. Thread safe.
+ */
+public class SourceFieldExtractor {
+  private final Set<String> paths = new HashSet<>();
+  // Every path that is a proper prefix of a field path, so that inner objects along these paths are parsed
+  private final Set<String> objectPaths = new HashSet<>();
+  private final Map<String, Integer> maxLengthsInChars;
+  private final Map<SearchHit, Map<String, Object>> extractedFields = Collections.synchronizedMap(new IdentityHashMap<>());
+
+  /**
+   * @param paths paths of the fields to read, null paths are ignored
+   */
+  public SourceFieldExtractor(Collection<String> paths) {
+    this(paths, Collections.emptyMap());
+  }
+
+  /**
+   * @param paths             paths of the fields to read, null paths are ignored
+   * @param maxLengthsInChars maximum number of characters read from the string value of a field, by path. String
+   *                          values are cut so that they do not end with half a surrogate pair.
+   */
+  public SourceFieldExtractor(Collection<String> paths, Map<String, Integer> maxLengthsInChars) {
+    this.maxLengthsInChars = maxLengthsInChars;
+    for (String path : paths) {
+      if (path == null) {
+        continue;
+      }
+      this.paths.add(path);
+      for (int dot = path.indexOf('.'); dot > 0; dot = path.indexOf('.', dot + 1)) {
+        objectPaths.add(path.substring(0, dot));
+      }
+    }
+  }
+
+  /**
+   * @param hit  search hit to read
+   * @param path one of the paths the extractor was created with
+   * @return value of the field, in the same form as in {@link SearchHit#getSourceAsMap()}, or null if the hit has no
+   * source or the field is missing
+   */
+  public Object getValue(SearchHit hit, String path) {
+    return extract(hit).get(path);
+  }
+
+  /**
+   * @param hit search hit to read
+   * @return values of the fields found in the source of the hit, by path
+   */
+  public Map<String, Object> extract(SearchHit hit) {
+    Map<String, Object> fields = extractedFields.get(hit);
+    if (fields == null) {
+      // Parse outside of the lock so that hits can be read concurrently
+      fields = parse(hit);
+      extractedFields.putIfAbsent(hit, fields);
+    }
+    return fields;
+  }
+
+  private Map<String, Object> parse(SearchHit hit) {
+    BytesReference source = hit.getSourceRef();
+    if (source == null || paths.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<String, Object> fields = new HashMap<>();
+    try (XContentParser parser = XContentHelper.createParser(NamedXContentRegistry.EMPTY,
+        DeprecationHandler.THROW_UNSUPPORTED_OPERATION, source, MediaTypeRegistry.xContentType(source))) {
+      if (parser.nextToken() == XContentParser.Token.START_OBJECT) {
+        parseObject(parser, "", fields);
+      }
+    } catch (IOException e) {
+      throw new OpenSearchParseException("failed to parse source of document [{}]", e, hit.getId());
+    }
+    return Collections.unmodifiableMap(fields);
+  }
+
+  /**
+   * Read the fields of the object the parser is positioned on
+   * @return true if all fields have been read and parsing can stop
+   */
+  private boolean parseObject(XContentParser parser, String prefix, Map<String, Object> fields) throws IOException {
+    while (parser.nextToken() == XContentParser.Token.FIELD_NAME) {
+      String path = prefix + parser.currentName();
+      XContentParser.Token token = parser.nextToken();
+      if (paths.contains(path) && !fields.containsKey(path)) {
+        Object value = token == XContentParser.Token.VALUE_STRING && maxLengthsInChars.containsKey(path)
+            ? readTextPrefix(parser, maxLengthsInChars.get(path)) : readValue(parser, token);
+        fields.put(path, value);
+        if (value instanceof Map && objectPaths.contains(path)) {
+          // Other fields are nested in this one
+          readNestedFields(path, value, fields);
+        }
+        if (fields.size() == paths.size()) {
+          return true;
+        }
+      } else if (token == XContentParser.Token.START_OBJECT && objectPaths.contains(path)) {
+        if (parseObject(parser, path + ".", fields)) {
+          return true;
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return false;
+  }
+
+  private void readNestedFields(String path, Object value, Map<String, Object> fields) {
+    for (String nestedPath : paths) {
+      if (nestedPath.startsWith(path + ".") && !fields.containsKey(nestedPath)) {
+        Object nestedValue = XContentMapValues.extractValue(nestedPath.substring(path.length() + 1), (Map<?, ?>) value);
+        if (nestedValue != null) {
+          fields.put(nestedPath, nestedValue);
+        }
+      }
+    }
+  }
+
+  /**
+   * Read at most the given number of characters of a string value, copying them straight from the parser buffer
+   */
+  private static String readTextPrefix(XContentParser parser, int maxLengthInChars) throws IOException {
+    int length = parser.textLength();
+    if (length <= maxLengthInChars) {
+      return parser.text();
+    }
+    char[] characters = parser.textCharacters();
+    int offset = parser.textOffset();
+    length = maxLengthInChars;
+    if (length > 0 && Character.isHighSurrogate(characters[offset + length - 1])) {
+      length--;
+    }
+    return new String(characters, offset, length);
+  }
+
+  /**
+   * Read a value the same way as when parsing the source into a map
+   */
+  private static Object readValue(XContentParser parser, XContentParser.Token token) throws IOException {
+    switch (token) {
+      case START_OBJECT:
+        return parser.map();
+      case START_ARRAY:
+        return parser.list();
+      case VALUE_STRING:
+        return parser.text();
+      case VALUE_NUMBER:
+        return parser.numberValue();
+      case VALUE_BOOLEAN:
+        return parser.booleanValue();
+      case VALUE_EMBEDDED_OBJECT:
+        return parser.binaryValue();
+      default:
+        return null;
+    }
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
+
+import java.util.Arrays;
+
+/**
+ * Assigns dense integer IDs, starting at 0, to terms in the order they are first added. Terms are looked up
+ * directly from character buffers so that tokens do not need to be materialized as strings. Not thread safe.
+ */
+public class TermDictionary {
+  private static final int EMPTY = -1;
+
+  private char[] termChars = new char[256];
+  private int termCharsLength;
+  private int[] termStarts = new int[16];
+  private int[] termLengths = new int[16];
+  private String[] terms = new String[16];
+  private int size;
+  private int[] table = newTable(32);
+
+  /**
+   * @return ID of the term, adding it to the dictionary if it is not present
+   */
+  public int add(char[] buffer, int offset, int length) {
+    int slot = findSlot(buffer, offset, length, hash(buffer, offset, length));
+    if (table[slot] != EMPTY) {
+      return table[slot];
+    }
+    ensureCapacity(length);
+    System.arraycopy(buffer, offset, termChars, termCharsLength, length);
+    return addTerm(slot, length, null);
+  }
+
+  /**
+   * @return ID of the term, adding it to the dictionary if it is not present
+   */
+  public int add(String term) {
+    int slot = findSlot(term, hash(term));
+    if (table[slot] != EMPTY) {
+      return table[slot];
+    }
+    ensureCapacity(term.length());
+    term.getChars(0, term.length(), termChars, termCharsLength);
+    return addTerm(slot, term.length(), term);
+  }
+
+  /**
+   * @return ID of the term, or -1 if the term is not in the dictionary
+   */
+  public int find(char[] buffer, int offset, int length) {
+    return table[findSlot(buffer, offset, length, hash(buffer, offset, length))];
+  }
+
+  /**
+   * @return ID of the term, or -1 if the term is not in the dictionary
+   */
+  public int find(String term) {
+    return table[findSlot(term, hash(term))];
+  }
+
+  /**
+   * @return the term with the given ID; repeated calls return the same instance
+   */
+  public String getTerm(int id) {
+    if (id < 0 || id >= size) {
+      throw new IndexOutOfBoundsException("Unknown term ID [" + id + "]");
+    }
+    if (terms[id] == null) {
+      terms[id] = new String(termChars, termStarts[id], termLengths[id]);
+    }
+    return terms[id];
+  }
+
+  /**
+   * @return number of terms in the dictionary
+   */
+  public int size() {
+    return size;
+  }
+
+  private void ensureCapacity(int length) {
+    if (size == termStarts.length) {
+      termStarts = Arrays.copyOf(termStarts, size * 2);
+      termLengths = Arrays.copyOf(termLengths, size * 2);
+      terms = Arrays.copyOf(terms, size * 2);
+    }
+    if (termCharsLength + length > termChars.length) {
+      termChars = Arrays.copyOf(termChars, Math.max(termChars.length * 2, termCharsLength + length));
+    }
+  }
+
+  /**
+   * Register a term whose characters were just copied to the end of the character pool
+   */
+  private int addTerm(int slot, int length, String term) {
+    termStarts[size] = termCharsLength;
+    termLengths[size] = length;
+    terms[size] = term;
+    termCharsLength += length;
+    int id = size++;
+    table[slot] = id;
+    if (size * 2 > table.length) {
+      rehash();
+    }
+    return id;
+  }
+
+  private int findSlot(char[] buffer, int offset, int length, int hash) {
+    int mask = table.length - 1;
+    int slot = hash & mask;
+    while (table[slot] != EMPTY && !termEquals(table[slot], buffer, offset, length)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private int findSlot(String term, int hash) {
+    int mask = table.length - 1;
+    int slot = hash & mask;
+    while (table[slot] != EMPTY && !termEquals(table[slot], term)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private boolean termEquals(int id, String term) {
+    if (termLengths[id] != term.length()) {
+      return false;
+    }
+    int start = termStarts[id];
+    for (int i = 0; i < term.length(); i++) {
+      if (termChars[start + i] != term.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean termEquals(int id, char[] buffer, int offset, int length) {
+    return termLengths[id] == length &&
+        Arrays.equals(termChars, termStarts[id], termStarts[id] + length, buffer, offset, offset + length);
+  }
+
+  private void rehash() {
+    table = newTable(table.length * 2);
+    int mask = table.length - 1;
+    for (int id = 0; id < size; id++) {
+      int slot = hash(termChars, termStarts[id], termLengths[id]) & mask;
+      while (table[slot] != EMPTY) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = id;
+    }
+  }
+
+  private static int[] newTable(int capacity) {
+    int[] table = new int[capacity];
+    Arrays.fill(table, EMPTY);
+    return table;
+  }
+
+  private static int hash(char[] buffer, int offset, int length) {
+    int hash = 0;
+    for (int i = offset; i < offset + length; i++) {
+      hash = 31 * hash + buffer[i];
+    }
+    return spread(hash);
+  }
+
+  private static int hash(String term) {
+    return spread(term.hashCode());
+  }
+
+  /**
+   * Spread the bits, since slots are selected from the low bits only
+   */
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -0,0 +1,227 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * BM25 scorer over a fixed set of documents that computes the same scores as {@link BM25Scorer}. Words are mapped
+ * to term IDs once when the scorer is created, and term and document frequencies are kept in primitive arrays.
+ * Not thread safe.
+ */
+public class TermIdBM25Scorer {
+  private final double k1;
+  private final int totalNumberOfDocs;
+  private final TermDictionary dictionary = new TermDictionary();
+  private final int[][] documentTermIds;
+  /**
+   * Length normalization term of the BM25 denominator of each document
+   */
+  private final double[] documentLengthNorms;
+  private int[] documentCounts;
+  /**
+   * Scratch space holding the term frequencies of the document being scored, reset after each document
+   */
+  private int[] termFrequencies;
+
+  /**
+   * Initialize dataset.
+   *
+   * @param b         free parameter for BM25
+   * @param k1        free parameter for BM25
+   * @param documents list of documents, each document is represented by a list of words
+   */
+  public TermIdBM25Scorer(double b, double k1, List<List<String>> documents) {
+    this.k1 = k1;
+    this.totalNumberOfDocs = documents.size();
+    this.documentTermIds = new int[documents.size()][];
+    this.documentLengthNorms = new double[documents.size()];
+    this.documentCounts = new int[16];
+
+    double totalDocumentLength = 0;
+    int[] lastDocumentOfTerm = new int[16];
+    for (int d = 0; d < documents.size(); d++) {
+      List<String> document = documents.get(d);
+      totalDocumentLength += document.size();
+
+      int[] termIds = new int[document.size()];
+      for (int i = 0; i < termIds.length; i++) {
+        int termId = dictionary.add(document.get(i));
+        if (termId == documentCounts.length) {
+          documentCounts = Arrays.copyOf(documentCounts, termId * 2);
+          lastDocumentOfTerm = Arrays.copyOf(lastDocumentOfTerm, termId * 2);
+        }
+        // Count each term once per document, documents are numbered from 1 in lastDocumentOfTerm
+        if (lastDocumentOfTerm[termId] != d + 1) {
+          lastDocumentOfTerm[termId] = d + 1;
+          documentCounts[termId]++;
+        }
+        termIds[i] = termId;
+      }
+      documentTermIds[d] = termIds;
+    }
+    double averageDocumentLength = totalDocumentLength / documents.size();
+    for (int d = 0; d < documents.size(); d++) {
+      int documentLength = documentTermIds[d].length;
+      documentLengthNorms[d] = k1 * (1 - b + b * documentLength / averageDocumentLength);
+    }
+    this.termFrequencies = new int[dictionary.size()];
+  }
+
+  /**
+   * @return number of documents the scorer was created with
+   */
+  public int getNumberOfDocuments() {
+    return totalNumberOfDocs;
+  }
+
+  /**
+   * Resolve a query against the documents of this scorer, computing the IDF of each query word once
+   *
+   * @param query query represented as a list of words
+   * @return query that can be scored against any document of this scorer
+   */
+  public Query prepareQuery(List<String> query) {
+    int[] termIds = new int[query.size()];
+    double[] idfs = new double[query.size()];
+    for (int i = 0; i < termIds.length; i++) {
+      termIds[i] = dictionary.find(query.get(i));
+      if (termIds[i] >= 0) {
+        idfs[i] = totalNumberOfDocs > 0 ? Math.log10((double) totalNumberOfDocs / documentCounts[termIds[i]]) : 0;
+      }
+    }
+    return new Query(termIds, idfs);
+  }
+
+  /**
+   * Calculate the BM25 score of a document given a query.
+   *
+   * @param query         query prepared with {@link #prepareQuery(List)}
+   * @param documentIndex index of the document in the list the scorer was created with
+   * @return the BM25 score
+   */
+  public double score(Query query, int documentIndex) {
+    int[] termIds = documentTermIds[documentIndex];
+    for (int termId : termIds) {
+      termFrequencies[termId]++;
+    }
+
+    double score = 0;
+    for (int i = 0; i < query.termIds.length; i++) {
+      int queryTermId = query.termIds[i];
+      if (queryTermId < 0 || termFrequencies[queryTermId] == 0) {
+        continue;
+      }
+      double termFrequency = (double) termFrequencies[queryTermId] / termIds.length;
+      double denominator = termFrequency + documentLengthNorms[documentIndex];
+      double numerator = query.idfs[i] * termFrequency * (k1 + 1);
+      score += numerator / denominator;
+    }
+
+    for (int termId : termIds) {
+      termFrequencies[termId] = 0;
+    }
+    return score;
+  }
+
+  /**
+   * Select the documents with the highest scores for a query. Documents with equal scores are selected and ordered
+   * the same way as when offering scores in document order to a size-bounded {@link java.util.PriorityQueue}.
+   *
+   * @param query query represented as a list of words
+   * @param k     maximum number of documents to return
+   * @return indices of the top documents, in descending order of score
+   */
+  public int[] topDocuments(List<String> query, int k) {
+    Query preparedQuery = prepareQuery(query);
+    TopDocumentsQueue queue = new TopDocumentsQueue(k + 1);
+    for (int d = 0; d < totalNumberOfDocs; d++) {
+      queue.offer(score(preparedQuery, d), d);
+      if (queue.size > k) {
+        // Maintain heap of top K documents
+        queue.poll();
+      }
+    }
+    int[] topDocuments = new int[queue.size];
+    for (int i = topDocuments.length - 1; i >= 0; i--) {
+      topDocuments[i] = queue.poll();
+    }
+    return topDocuments;
+  }
+
+  /**
+   * Query words resolved to term IDs, with their IDF
+   */
+  public static final class Query {
+    private final int[] termIds;
+    private final double[] idfs;
+
+    private Query(int[] termIds, double[] idfs) {
+      this.termIds = termIds;
+      this.idfs = idfs;
+    }
+  }
+
+  /**
+   * Binary min-heap of document scores with the same sift order as {@link java.util.PriorityQueue}, so that ties are
+   * broken identically
+   */
+  private static final class TopDocumentsQueue {
+    private final double[] scores;
+    private final int[] documents;
+    private int size;
+
+    TopDocumentsQueue(int capacity) {
+      this.scores = new double[capacity];
+      this.documents = new int[capacity];
+    }
+
+    void offer(double score, int document) {
+      int k = size++;
+      while (k > 0) {
+        int parent = (k - 1) >>> 1;
+        if (Double.compare(score, scores[parent]) >= 0) {
+          break;
+        }
+        scores[k] = scores[parent];
+        documents[k] = documents[parent];
+        k = parent;
+      }
+      scores[k] = score;
+      documents[k] = document;
+    }
+
+    int poll() {
+      int result = documents[0];
+      int n = --size;
+      if (n > 0) {
+        double score = scores[n];
+        int document = documents[n];
+        int k = 0;
+        int half = n >>> 1;
+        while (k < half) {
+          int child = (k << 1) + 1;
+          int right = child + 1;
+          if (right < n && Double.compare(scores[child], scores[right]) > 0) {
+            child = right;
+          }
+          if (Double.compare(score, scores[child]) <= 0) {
+            break;
+          }
+          scores[k] = scores[child];
+          documents[k] = documents[child];
+          k = child;
+        }
+        scores[k] = score;
+        documents[k] = document;
+      }
+      return result;
+    }
+  }
+}
@@ -10,18 +10,16 @@ package org.opensearch.search.relevance.transformer.kendraintelligentranking.pre
 import com.ibm.icu.text.BreakIterator;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import org.apache.lucene.analysis.CharArraySet;
 
 public class TextTokenizer {
   private static final int MINIMUM_WORD_LENGTH = 2;
   private static final int MAXIMUM_WORD_LENGTH = 25;
-  private static final Set<String> STOP_WORDS = new HashSet<>(
+  private static final CharArraySet STOP_WORDS = CharArraySet.unmodifiableSet(new CharArraySet(
       Arrays.asList("i", "me", "my", "myself", "we", "our", "ours", "ourselves", "you", "your", "yours", "yourself", "yourselves", "he", "him", "his",
           "himself", "she", "her", "hers", "herself", "it", "its", "itself", "they", "them", "their", "theirs", "themselves", "what", "which", "who",
           "whom", "this", "that", "these", "those", "am", "is", "are", "was", "were", "be", "been", "being", "have", "has", "had", "having", "do",
@@ -29,10 +27,54 @@ public class TextTokenizer {
           "about", "against", "between", "into", "through", "during", "before", "after", "above", "below", "to", "from", "up", "down", "in", "out",
           "on", "off", "over", "under", "again", "further", "then", "once", "here", "there", "when", "where", "why", "how", "all", "any", "both",
           "each", "few", "more", "most", "other", "some", "such", "no", "nor", "not", "only", "own", "same", "so", "than", "too", "very", "s", "t",
-          "can", "will", "just", "don", "should", "now"));
+          "can", "will", "just", "don", "should", "now"), false));
   private static final Pattern ALL_PUNCTUATIONS_REGEX = Pattern.compile("^\\p{Pc}+$|^\\p{Pd}+$|^\\p{Pe}+$|^\\p{Pf}+$|^\\p{Pi}+$|^\\p{Po}+$|^\\p{Ps}+$");
   private static final Pattern PUNCTUATIONS_REGEX_PATTERN = Pattern.compile("\\p{Pc}|\\p{Pd}|\\p{Pe}|\\p{Pf}|\\p{Pi}|\\p{Po}|\\p{Ps}");
 
+  /**
+   * ASCII characters in one of the punctuation categories matched by the regular expressions above
+   */
+  private static final boolean[] ASCII_PUNCTUATION = new boolean[128];
+
+  static {
+    for (char c = 0; c < 128; c++) {
+      switch (Character.getType(c)) {
+        case Character.CONNECTOR_PUNCTUATION:
+        case Character.DASH_PUNCTUATION:
+        case Character.END_PUNCTUATION:
+        case Character.FINAL_QUOTE_PUNCTUATION:
+        case Character.INITIAL_QUOTE_PUNCTUATION:
+        case Character.OTHER_PUNCTUATION:
+        case Character.START_PUNCTUATION:
+          ASCII_PUNCTUATION[c] = true;
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  /**
+   * Creating a word break iterator is expensive, so each thread reuses its own instance
+   */
+  private static final ThreadLocal<BreakIterator> WORD_BREAK_ITERATOR =
+      ThreadLocal.withInitial(() -> BreakIterator.getWordInstance(Locale.ENGLISH));
+
+  /**
+   * Receives the tokens of a text in order
+   */
+  @FunctionalInterface
+  public interface TokenConsumer {
+    /**
+     * @param buffer      characters of the token, only valid for the duration of the call
+     * @param offset      offset of the token in the buffer
+     * @param length      length of the token
+     * @param startOffset start offset in the text of the word the token was taken from
+     * @param endOffset   end offset in the text of the word the token was taken from, excluding trailing whitespace
+     */
+    void accept(char[] buffer, int offset, int length, int startOffset, int endOffset);
+  }
+
   public List<List<String>> tokenize(List<String> texts) {
     if (texts == null) {
       return new ArrayList<>();
@@ -49,42 +91,213 @@ public class TextTokenizer {
    * @return list of tokens
    */
   public List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    tokenize(text, (buffer, offset, length, startOffset, endOffset) -> tokens.add(new String(buffer, offset, length)));
+    return tokens;
+  }
+
+  /**
+   * Split the input text into term IDs, producing the same tokens as {@link #tokenize(String)}
+   * @param text       input text
+   * @param dictionary dictionary assigning IDs to new terms
+   * @return term ID of each token, in order
+   */
+  public int[] tokenizeToTermIds(String text, TermDictionary dictionary) {
+    TermIdCollector collector = new TermIdCollector(dictionary);
+    tokenize(text, collector);
+    return Arrays.copyOf(collector.termIds, collector.count);
+  }
+
+  /**
+   * Split the input text into tokens without materializing them, producing the same tokens as
+   * {@link #tokenize(String)}. Words made of ASCII characters are scanned in place; other words go through
+   * locale-sensitive lower casing first, which may change their length. The consumer must not call back into
+   * this method on the same thread.
+   * @param text     input text
+   * @param consumer receives each token in order
+   */
+  public void tokenize(String text, TokenConsumer consumer) {
     if (text == null) {
-      return new ArrayList<>();
+      return;
     }
 
-    final BreakIterator breakIterator = BreakIterator.getWordInstance(Locale.ENGLISH);
+    final BreakIterator breakIterator = WORD_BREAK_ITERATOR.get();
     breakIterator.setText(text);
+    try {
+      final char[] buffer = new char[MAXIMUM_WORD_LENGTH];
+      int start = breakIterator.first();
+      for (int end = breakIterator.next(); end != BreakIterator.DONE; start = end, end = breakIterator.next()) {
+        int wordEnd = end;
+        while (wordEnd > start && Character.isWhitespace(text.charAt(wordEnd - 1))) {
+          wordEnd--;
+        }
+        if (wordEnd == start) {
+          continue;
+        }
+        if (!isAscii(text, start, wordEnd)) {
+          tokenizeWord(text.substring(start, end).stripTrailing().toLowerCase(Locale.ENGLISH), start, wordEnd, consumer);
+          continue;
+        }
+        // Split long words
+        for (int i = start; i < wordEnd; i += MAXIMUM_WORD_LENGTH) {
+          int length = Math.min(wordEnd - i, MAXIMUM_WORD_LENGTH);
+          boolean allPunctuation = true;
+          for (int j = 0; j < length; j++) {
+            char c = text.charAt(i + j);
+            buffer[j] = (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+            allPunctuation &= ASCII_PUNCTUATION[c];
+          }
+          // Filter out punctuation, short words, numbers
+          if (!allPunctuation && !STOP_WORDS.contains(buffer, 0, length) &&
+              length >= MINIMUM_WORD_LENGTH && !isNumeric(buffer, length)) {
+            int tokenLength = removeInWordPunctuation(buffer, length);
+            if (tokenLength > 0) {
+              consumer.accept(buffer, 0, tokenLength, start, wordEnd);
+            }
+          }
+        }
+      }
+    } finally {
+      // Do not keep the text reachable from the thread
+      breakIterator.setText("");
+    }
+  }
 
-    List<String> tokens = new ArrayList();
-    int start = breakIterator.first();
-    String currentWord;
-    for (int end = breakIterator.next(); end != BreakIterator.DONE; start = end, end = breakIterator.next()) {
-      currentWord = text.substring(start, end).stripTrailing().toLowerCase(Locale.ENGLISH);
-      if (currentWord.isEmpty()) {
-        continue;
+  /**
+   * Tokenize a lower cased word that contains non-ASCII characters
+   */
+  private void tokenizeWord(String currentWord, int startOffset, int endOffset, TokenConsumer consumer) {
+    // Split long words
+    List<String> shortenedTokens = new ArrayList<>();
+    if (currentWord.length() <= MAXIMUM_WORD_LENGTH) {
+      shortenedTokens.add(currentWord);
+    } else {
+      for (int i = 0; i < currentWord.length(); i += MAXIMUM_WORD_LENGTH) {
+        shortenedTokens.add(currentWord.substring(i, Math.min(currentWord.length(), i + MAXIMUM_WORD_LENGTH)));
       }
-      // Split long words
-      List<String> shortenedTokens = new ArrayList<>();
-      if (currentWord.length() <= MAXIMUM_WORD_LENGTH) {
-        shortenedTokens.add(currentWord);
-      } else {
-        for (int i = 0; i < currentWord.length(); i += MAXIMUM_WORD_LENGTH) {
-          shortenedTokens.add(currentWord.substring(i, Math.min(currentWord.length(), i + MAXIMUM_WORD_LENGTH)));
+    }
+    // Filter out punctuation, short words, numbers
+    for (String shortenedToken : shortenedTokens) {
+      if (!isWordAllPunctuation(shortenedToken) && !STOP_WORDS.contains(shortenedToken) &&
+          shortenedToken.length() >= MINIMUM_WORD_LENGTH && !isNumeric(shortenedToken)) {
+        String tokenWithInWordPunctuationRemoved = removeInWordPunctuation(shortenedToken);
+        if (!tokenWithInWordPunctuationRemoved.isEmpty()) {
+          char[] chars = tokenWithInWordPunctuationRemoved.toCharArray();
+          consumer.accept(chars, 0, chars.length, startOffset, endOffset);
         }
       }
-      // Filter out punctuation, short words, numbers
-      for (String shortenedToken : shortenedTokens) {
-        if (!isWordAllPunctuation(shortenedToken) && !STOP_WORDS.contains(shortenedToken) &&
-            shortenedToken.length() >= MINIMUM_WORD_LENGTH && !isNumeric(shortenedToken)) {
-          String tokenWithInWordPunctuationRemoved = removeInWordPunctuation(shortenedToken);
-          if (!tokenWithInWordPunctuationRemoved.isEmpty()) {
-            tokens.add(tokenWithInWordPunctuationRemoved);
-          }
-        }
+    }
+  }
+
+  private static boolean isAscii(String text, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (text.charAt(i) >= 128) {
+        return false;
       }
     }
-    return tokens;
+    return true;
+  }
+
+  /**
+   * Remove punctuation from a lower cased ASCII token in place
+   * @return length of the token after removal
+   */
+  private static int removeInWordPunctuation(char[] buffer, int length) {
+    int newLength = 0;
+    for (int i = 0; i < length; i++) {
+      if (!ASCII_PUNCTUATION[buffer[i]]) {
+        buffer[newLength++] = buffer[i];
+      }
+    }
+    return newLength;
+  }
+
+  /**
+   * Same as {@link #isNumeric(String)} for a lower cased ASCII token, without going through exceptions
+   */
+  static boolean isNumeric(char[] buffer, int length) {
+    for (int i = 0; i < length; i++) {
+      if (buffer[i] <= ' ') {
+        // Double.parseDouble trims control characters and spaces
+        return parsesAsDouble(new String(buffer, 0, length));
+      }
+    }
+    int i = 0;
+    if (i < length && (buffer[i] == '+' || buffer[i] == '-')) {
+      i++;
+    }
+    if (i + 1 < length && buffer[i] == '0' && buffer[i + 1] == 'x') {
+      return isHexadecimalFloatingPointLiteral(buffer, i + 2, length);
+    }
+    int digits = 0;
+    for (; i < length && isDigit(buffer[i]); i++) {
+      digits++;
+    }
+    if (i < length && buffer[i] == '.') {
+      for (i++; i < length && isDigit(buffer[i]); i++) {
+        digits++;
+      }
+    }
+    if (digits == 0) {
+      return false;
+    }
+    if (i < length && buffer[i] == 'e') {
+      i = skipSignedInteger(buffer, i + 1, length);
+      if (i < 0) {
+        return false;
+      }
+    }
+    return isEndOfLiteral(buffer, i, length);
+  }
+
+  private static boolean isHexadecimalFloatingPointLiteral(char[] buffer, int i, int length) {
+    int digits = 0;
+    for (; i < length && isHexDigit(buffer[i]); i++) {
+      digits++;
+    }
+    if (i < length && buffer[i] == '.') {
+      for (i++; i < length && isHexDigit(buffer[i]); i++) {
+        digits++;
+      }
+    }
+    // The binary exponent is mandatory
+    if (digits == 0 || i == length || buffer[i] != 'p') {
+      return false;
+    }
+    i = skipSignedInteger(buffer, i + 1, length);
+    return i >= 0 && isEndOfLiteral(buffer, i, length);
+  }
+
+  /**
+   * @return index after an optionally signed integer starting at i, or -1 if there is no integer
+   */
+  private static int skipSignedInteger(char[] buffer, int i, int length) {
+    if (i < length && (buffer[i] == '+' || buffer[i] == '-')) {
+      i++;
+    }
+    int digits = 0;
+    for (; i < length && isDigit(buffer[i]); i++) {
+      digits++;
+    }
+    return digits == 0 ? -1 : i;
+  }
+
+  /**
+   * @return whether the literal ends at i, optionally followed by a float or double type suffix
+   */
+  private static boolean isEndOfLiteral(char[] buffer, int i, int length) {
+    if (i < length && (buffer[i] == 'f' || buffer[i] == 'd')) {
+      i++;
+    }
+    return i == length;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isHexDigit(char c) {
+    return isDigit(c) || (c >= 'a' && c <= 'f');
   }
 
   boolean isWordAllPunctuation(final String token) {
@@ -92,9 +305,10 @@ public class TextTokenizer {
   }
 
   boolean isNumeric(final String token) {
-    if (token == null) {
-      return false;
-    }
+    return token != null && parsesAsDouble(token);
+  }
+
+  private static boolean parsesAsDouble(final String token) {
     try {
       Double.parseDouble(token);
     } catch (NumberFormatException e) {
@@ -109,4 +323,22 @@ public class TextTokenizer {
     }
     return PUNCTUATIONS_REGEX_PATTERN.matcher(token).replaceAll("");
   }
+
+  private static final class TermIdCollector implements TokenConsumer {
+    private final TermDictionary dictionary;
+    private int[] termIds = new int[16];
+    private int count;
+
+    TermIdCollector(TermDictionary dictionary) {
+      this.dictionary = dictionary;
+    }
+
+    @Override
+    public void accept(char[] buffer, int offset, int length, int startOffset, int endOffset) {
+      if (count == termIds.length) {
+        termIds = Arrays.copyOf(termIds, count * 2);
+      }
+      termIds[count++] = dictionary.add(buffer, offset, length);
+    }
+  }
 }
@@ -0,0 +1,22 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.stats;
+
+import org.opensearch.search.relevance.stats.SearchRelevanceStatsAction;
+
+/**
+ * Action collecting the metrics of the Kendra Intelligent Ranking plugin from the nodes of the cluster.
+ */
+public class KendraIntelligentRankingStatsAction extends SearchRelevanceStatsAction {
+    public static final String NAME = "cluster:monitor/search_relevance/kendra_intelligent_ranking/stats";
+    public static final KendraIntelligentRankingStatsAction INSTANCE = new KendraIntelligentRankingStatsAction();
+
+    private KendraIntelligentRankingStatsAction() {
+        super(NAME);
+    }
+}
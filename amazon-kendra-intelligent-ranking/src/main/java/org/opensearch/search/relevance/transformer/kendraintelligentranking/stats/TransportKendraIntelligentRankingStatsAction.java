@@ -0,0 +1,30 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.stats;
+
+import org.opensearch.action.support.ActionFilters;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.inject.Inject;
+import org.opensearch.search.relevance.stats.SearchRelevanceStats;
+import org.opensearch.search.relevance.stats.TransportSearchRelevanceStatsAction;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.TransportService;
+
+/**
+ * Collects the metrics of the Kendra Intelligent Ranking plugin from the nodes of the cluster.
+ */
+public class TransportKendraIntelligentRankingStatsAction extends TransportSearchRelevanceStatsAction {
+
+    @Inject
+    public TransportKendraIntelligentRankingStatsAction(ThreadPool threadPool, ClusterService clusterService,
+                                                        TransportService transportService, ActionFilters actionFilters,
+                                                        SearchRelevanceStats stats) {
+        super(KendraIntelligentRankingStatsAction.INSTANCE, threadPool, clusterService, transportService,
+                actionFilters, stats);
+    }
+}
@@ -25,4 +25,14 @@ public class AmazonKendraIntelligentRankingPluginIT extends OpenSearchRestTestCa
         assertNotNull(body);
         assertTrue(body.contains("amazon-kendra-intelligent-ranking"));
     }
+
+    public void testStats() throws IOException, ParseException {
+        Response response = client().performRequest(new Request("GET", "/_plugins/search_relevance/stats/kendra_intelligent_ranking"));
+        String body = EntityUtils.toString(response.getEntity());
+
+        logger.info("response body: {}", body);
+        assertTrue(body.contains("\"all\""));
+        assertTrue(body.contains("\"nodes\""));
+        assertTrue(body.contains("\"latency_budget\""));
+    }
 }
@@ -9,6 +9,7 @@ package org.opensearch.search.relevance.actionfilter;
 
 import org.apache.lucene.search.TotalHits;
 import org.mockito.Mockito;
+import org.opensearch.Version;
 import org.opensearch.action.admin.indices.settings.get.GetSettingsAction;
 import org.opensearch.action.admin.indices.settings.get.GetSettingsRequest;
 import org.opensearch.action.admin.indices.settings.get.GetSettingsResponse;
@@ -23,13 +24,22 @@ import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.search.ShardSearchFailure;
 import org.opensearch.action.support.ActionFilterChain;
 import org.opensearch.client.Client;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.ClusterState;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.cluster.metadata.IndexNameExpressionResolver;
+import org.opensearch.cluster.metadata.Metadata;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.SuppressForbidden;
 import org.opensearch.core.action.ActionListener;
 import org.opensearch.core.common.bytes.BytesReference;
 import org.opensearch.common.document.DocumentField;
+import org.opensearch.common.io.stream.BytesStreamOutput;
 import org.opensearch.core.common.io.stream.StreamInput;
 import org.opensearch.core.common.io.stream.StreamOutput;
 import org.opensearch.common.settings.Setting;
 import org.opensearch.common.settings.Settings;
+import org.opensearch.common.util.concurrent.ThreadContext;
 import org.opensearch.common.xcontent.json.JsonXContent;
 import org.opensearch.core.xcontent.XContentBuilder;
 import org.opensearch.core.xcontent.XContentParser;
@@ -38,6 +48,7 @@ import org.opensearch.search.SearchHits;
 import org.opensearch.search.builder.SearchSourceBuilder;
 import org.opensearch.search.internal.InternalSearchResponse;
 import org.opensearch.search.relevance.client.OpenSearchClient;
+import org.opensearch.search.relevance.configuration.IndexConfigurationCache;
 import org.opensearch.search.relevance.configuration.ResultTransformerConfiguration;
 import org.opensearch.search.relevance.configuration.ResultTransformerConfigurationFactory;
 import org.opensearch.search.relevance.configuration.SearchConfigurationExtBuilder;
@@ -46,6 +57,7 @@ import org.opensearch.tasks.Task;
 import org.opensearch.test.OpenSearchTestCase;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -57,6 +69,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class SearchActionFilterTests extends OpenSearchTestCase {
 
@@ -66,7 +80,7 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
     public void testIgnoresDelete() {
         Client client = Mockito.mock(Client.class);
         OpenSearchClient openSearchClient = new OpenSearchClient(client);
-        SearchActionFilter searchActionFilter = new SearchActionFilter(Collections.emptyList(), openSearchClient);
+        SearchActionFilter searchActionFilter = SearchActionFilter.builder(Collections.emptyList(), openSearchClient).build();
 
         Task task = Mockito.mock(Task.class);
         DeleteRequest deleteRequest = new DeleteRequestBuilder(null, DeleteAction.INSTANCE).request();
@@ -83,7 +97,7 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
     public void testIgnoresSearchRequestOnZeroIndices() {
         Client client = Mockito.mock(Client.class);
         OpenSearchClient openSearchClient = new OpenSearchClient(client);
-        SearchActionFilter searchActionFilter = new SearchActionFilter(Collections.emptyList(), openSearchClient);
+        SearchActionFilter searchActionFilter = SearchActionFilter.builder(Collections.emptyList(), openSearchClient).build();
 
         Task task = Mockito.mock(Task.class);
         SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE).request();
@@ -100,7 +114,7 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
     public void testIgnoresSearchRequestOnMultipleIndices() {
         Client client = Mockito.mock(Client.class);
         OpenSearchClient openSearchClient = new OpenSearchClient(client);
-        SearchActionFilter searchActionFilter = new SearchActionFilter(Collections.emptyList(), openSearchClient);
+        SearchActionFilter searchActionFilter = SearchActionFilter.builder(Collections.emptyList(), openSearchClient).build();
 
         Task task = Mockito.mock(Task.class);
         SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
@@ -137,7 +151,7 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
     public void testOperatesOnSingleIndexWithNoTransformers() {
         Client client = buildMockClient("index");
         OpenSearchClient openSearchClient = new OpenSearchClient(client);
-        SearchActionFilter searchActionFilter = new SearchActionFilter(Collections.emptyList(), openSearchClient);
+        SearchActionFilter searchActionFilter = SearchActionFilter.builder(Collections.emptyList(), openSearchClient).build();
 
         Task task = Mockito.mock(Task.class);
         SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
@@ -256,7 +270,7 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
 
         MockTransformer mockTransformer = new MockTransformer();
 
-        SearchActionFilter searchActionFilter = new SearchActionFilter(List.of(mockTransformer), openSearchClient);
+        SearchActionFilter searchActionFilter = SearchActionFilter.builder(List.of(mockTransformer), openSearchClient).build();
 
         Task task = Mockito.mock(Task.class);
         SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
@@ -284,7 +298,7 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
 
         MockTransformer mockTransformer = new MockTransformer();
 
-        SearchActionFilter searchActionFilter = new SearchActionFilter(List.of(mockTransformer), openSearchClient);
+        SearchActionFilter searchActionFilter = SearchActionFilter.builder(List.of(mockTransformer), openSearchClient).build();
 
         Task task = Mockito.mock(Task.class);
         SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
@@ -365,7 +379,7 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
 
         MockTransformer mockTransformer = new MockTransformer();
 
-        SearchActionFilter searchActionFilter = new SearchActionFilter(List.of(mockTransformer), openSearchClient);
+        SearchActionFilter searchActionFilter = SearchActionFilter.builder(List.of(mockTransformer), openSearchClient).build();
 
         Task task = Mockito.mock(Task.class);
         SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
@@ -403,6 +417,122 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
         assertFalse(onFailureCalled.get());
     }
 
+    /**
+     * Index settings are read once per index while the configuration cache is valid.
+     */
+    public void testIndexConfigurationIsCached() throws IOException {
+        Settings enablePluginSettings = Settings.builder()
+                .put("index.plugin.searchrelevance.result_transformer." + MockTransformer.NAME + ".order", 1)
+                .build();
+        Client client = buildMockClient("index", enablePluginSettings);
+        IndexConfigurationCache indexConfigurationCache = new IndexConfigurationCache();
+        MockTransformer mockTransformer = new MockTransformer();
+        SearchActionFilter searchActionFilter = SearchActionFilter.builder(List.of(mockTransformer), new OpenSearchClient(client))
+                .indexConfigurationCache(indexConfigurationCache)
+                .build();
+
+        SearchResponse searchResponse = buildMockSearchResponse(5);
+        ActionFilterChain<SearchRequest, SearchResponse> searchFilterChain =
+                (task1, action, request, listener) -> listener.onResponse(searchResponse);
+        for (int i = 0; i < 3; i++) {
+            SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
+                    .setIndices("index")
+                    .request();
+            searchActionFilter.apply(Mockito.mock(Task.class), SearchAction.NAME, searchRequest,
+                    mock(ActionListener.class), searchFilterChain);
+        }
+        assertTrue(mockTransformer.transformWasCalled);
+        assertEquals(1, indexConfigurationCache.size());
+        verify(client, times(1)).execute(eq(GetSettingsAction.INSTANCE), any(GetSettingsRequest.class), any(ActionListener.class));
+
+        indexConfigurationCache.invalidate();
+        SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
+                .setIndices("index")
+                .request();
+        searchActionFilter.apply(Mockito.mock(Task.class), SearchAction.NAME, searchRequest,
+                mock(ActionListener.class), searchFilterChain);
+        verify(client, times(2)).execute(eq(GetSettingsAction.INSTANCE), any(GetSettingsRequest.class), any(ActionListener.class));
+    }
+
+    /**
+     * Index patterns are resolved from the cluster state, without reading index settings through the client.
+     */
+    public void testTransformEnabledOnAllIndicesOfPattern() throws IOException {
+        Settings enablePluginSettings = Settings.builder()
+                .put("index.plugin.searchrelevance.result_transformer." + MockTransformer.NAME + ".order", 1)
+                .build();
+        Client client = Mockito.mock(Client.class);
+        ClusterService clusterService = buildMockClusterService(Map.of(
+                "logs-1", enablePluginSettings, "logs-2", enablePluginSettings, "other", Settings.EMPTY));
+        IndexConfigurationCache indexConfigurationCache = new IndexConfigurationCache();
+        MockTransformer mockTransformer = new MockTransformer();
+        SearchActionFilter searchActionFilter = SearchActionFilter.builder(List.of(mockTransformer), new OpenSearchClient(client))
+                .indexConfigurationCache(indexConfigurationCache)
+                .indexResolution(clusterService, new IndexNameExpressionResolver(new ThreadContext(Settings.EMPTY)))
+                .build();
+
+        SearchResponse searchResponse = buildMockSearchResponse(5);
+        AtomicBoolean proceedCalled = new AtomicBoolean(false);
+        ActionFilterChain<SearchRequest, SearchResponse> searchFilterChain =
+                (task1, action, request, listener) -> {
+                    proceedCalled.set(true);
+                    listener.onResponse(searchResponse);
+                };
+        AtomicReference<SearchResponse> returnedResponse = new AtomicReference<>();
+        SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
+                .setIndices("logs-*")
+                .request();
+        searchActionFilter.apply(Mockito.mock(Task.class), SearchAction.NAME, searchRequest,
+                ActionListener.wrap(returnedResponse::set, e -> fail(e.getMessage())), searchFilterChain);
+
+        assertTrue(proceedCalled.get());
+        assertTrue(mockTransformer.transformWasCalled);
+        assertNotNull(returnedResponse.get());
+        assertEquals(1, indexConfigurationCache.size());
+        Mockito.verifyNoInteractions(client);
+    }
+
+    /**
+     * Hits of several indices are only transformed when all indices share the same configuration.
+     */
+    public void testTransformSkippedWhenIndicesAreConfiguredDifferently() throws IOException {
+        Settings enablePluginSettings = Settings.builder()
+                .put("index.plugin.searchrelevance.result_transformer." + MockTransformer.NAME + ".order", 1)
+                .build();
+        ClusterService clusterService = buildMockClusterService(Map.of(
+                "logs-1", enablePluginSettings, "logs-2", Settings.EMPTY));
+        MockTransformer mockTransformer = new MockTransformer();
+        SearchActionFilter searchActionFilter = SearchActionFilter.builder(List.of(mockTransformer), new OpenSearchClient(Mockito.mock(Client.class)))
+                .indexConfigurationCache(new IndexConfigurationCache())
+                .indexResolution(clusterService, new IndexNameExpressionResolver(new ThreadContext(Settings.EMPTY)))
+                .build();
+
+        SearchResponse searchResponse = buildMockSearchResponse(5);
+        AtomicReference<SearchResponse> returnedResponse = new AtomicReference<>();
+        SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
+                .setIndices("logs-1", "logs-2")
+                .request();
+        searchActionFilter.apply(Mockito.mock(Task.class), SearchAction.NAME, searchRequest,
+                ActionListener.wrap(returnedResponse::set, e -> fail(e.getMessage())),
+                (task1, action, request, listener) -> listener.onResponse(searchResponse));
+
+        assertFalse(mockTransformer.transformWasCalled);
+        assertSame(searchResponse, returnedResponse.get());
+    }
+
+    private static ClusterService buildMockClusterService(Map<String, Settings> indexSettings) {
+        Metadata.Builder metadata = Metadata.builder();
+        for (Map.Entry<String, Settings> entry : indexSettings.entrySet()) {
+            metadata.put(IndexMetadata.builder(entry.getKey())
+                    .settings(Settings.builder().put(settings(Version.CURRENT).build()).put(entry.getValue()))
+                    .numberOfShards(1)
+                    .numberOfReplicas(0), false);
+        }
+        ClusterService clusterService = Mockito.mock(ClusterService.class);
+        Mockito.when(clusterService.state()).thenReturn(ClusterState.builder(ClusterName.DEFAULT).metadata(metadata).build());
+        return clusterService;
+    }
+
     /**
      * Verify that even if the transformer overrides source, from, and fetchSource, the original values get applied
      * in the end.
@@ -419,7 +549,7 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
                     .fetchSource(true);
         });
 
-        SearchActionFilter searchActionFilter = new SearchActionFilter(List.of(mockTransformer), openSearchClient);
+        SearchActionFilter searchActionFilter = SearchActionFilter.builder(List.of(mockTransformer), openSearchClient).build();
 
         Task task = Mockito.mock(Task.class);
         SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
@@ -494,7 +624,7 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
                     .fetchSource(true);
         });
 
-        SearchActionFilter searchActionFilter = new SearchActionFilter(List.of(mockTransformer), openSearchClient);
+        SearchActionFilter searchActionFilter = SearchActionFilter.builder(List.of(mockTransformer), openSearchClient).build();
 
         Task task = Mockito.mock(Task.class);
         SearchRequest searchRequest = new SearchRequestBuilder(null, SearchAction.INSTANCE)
@@ -549,4 +679,69 @@ public class SearchActionFilterTests extends OpenSearchTestCase {
         SearchResponse response = returnedResponse.get();
         assertEquals(0, response.getHits().getHits().length);
     }
-}
\ No newline at end of file
+
+    public void testCopyHitsSharesHitsButNotOrder() throws IOException {
+        SearchHits hits = buildMockSearchResponse(10).getHits();
+        SearchHits copy = SearchActionFilter.copyHits(hits);
+        assertEquals(hits.getTotalHits(), copy.getTotalHits());
+        assertEquals(hits.getMaxScore(), copy.getMaxScore(), 0);
+        assertNotSame(hits.getHits(), copy.getHits());
+        for (int i = 0; i < hits.getHits().length; i++) {
+            assertSame(hits.getAt(i), copy.getAt(i));
+        }
+
+        copy.getHits()[0] = copy.getHits()[9];
+        assertEquals("0", hits.getAt(0).getId());
+    }
+
+    /**
+     * Compare the memory allocated to copy the hits of a page with the serialization round trip used previously,
+     * for pages of 25, 100 and 500 hits with a few kilobytes of _source each.
+     */
+    @SuppressForbidden(reason = "Measures memory allocated by the current thread")
+    public void testCopyHitsAllocatesLessThanSerialization() throws IOException {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue("Thread allocation accounting is not available",
+                bean instanceof com.sun.management.ThreadMXBean &&
+                        ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemoryEnabled());
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) bean;
+        long threadId = Thread.currentThread().getId();
+
+        for (int docLimit : new int[] { 25, 100, 500 }) {
+            SearchHit[] hitsArray = new SearchHit[docLimit];
+            for (int i = 0; i < docLimit; i++) {
+                hitsArray[i] = new SearchHit(i, String.valueOf(i), Map.of(), Map.of());
+                hitsArray[i].score(docLimit - i);
+                hitsArray[i].sourceRef(BytesReference.bytes(JsonXContent.contentBuilder()
+                        .startObject()
+                        .field("title", "doc" + i)
+                        .field("body", randomAlphaOfLength(4096))
+                        .endObject()));
+            }
+            SearchHits hits = new SearchHits(hitsArray, new TotalHits(docLimit, TotalHits.Relation.EQUAL_TO), docLimit);
+            // Warm up both code paths so that class loading is not measured
+            serializationCopy(hits);
+            SearchActionFilter.copyHits(hits);
+
+            long start = threadMXBean.getThreadAllocatedBytes(threadId);
+            SearchHits serialized = serializationCopy(hits);
+            long serializationBytes = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+            start = threadMXBean.getThreadAllocatedBytes(threadId);
+            SearchHits copied = SearchActionFilter.copyHits(hits);
+            long copyBytes = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+
+            logger.info("doc_limit={}: serialization allocated {} bytes, copy allocated {} bytes",
+                    docLimit, serializationBytes, copyBytes);
+            assertEquals(serialized.getHits().length, copied.getHits().length);
+            assertTrue("Copying " + docLimit + " hits allocated " + copyBytes + " bytes, serialization allocated "
+                    + serializationBytes + " bytes", copyBytes * 100 < serializationBytes);
+        }
+    }
+
+    private static SearchHits serializationCopy(SearchHits hits) throws IOException {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            hits.writeTo(out);
+            return new SearchHits(out.bytes().streamInput());
+        }
+    }
+}
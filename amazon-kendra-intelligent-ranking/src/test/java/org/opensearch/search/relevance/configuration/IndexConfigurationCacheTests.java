@@ -0,0 +1,115 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.configuration;
+
+import org.opensearch.Version;
+import org.opensearch.cluster.ClusterChangedEvent;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.ClusterState;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.cluster.metadata.Metadata;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.Collections;
+import java.util.List;
+
+public class IndexConfigurationCacheTests extends OpenSearchTestCase {
+
+    public void testPutAndGet() {
+        IndexConfigurationCache cache = new IndexConfigurationCache();
+        assertNull(cache.get("index"));
+        cache.put("index", cache.getGeneration(), Collections.emptyList());
+        assertEquals(Collections.emptyList(), cache.get("index"));
+        assertEquals(1, cache.size());
+    }
+
+    public void testPutAfterInvalidationIsIgnored() {
+        IndexConfigurationCache cache = new IndexConfigurationCache();
+        long generation = cache.getGeneration();
+        cache.invalidate();
+        cache.put("index", generation, Collections.emptyList());
+        assertNull(cache.get("index"));
+    }
+
+    public void testNumberOfEntriesIsBounded() {
+        IndexConfigurationCache cache = new IndexConfigurationCache(2);
+        for (int i = 0; i < 5; i++) {
+            cache.put("index-" + i, cache.getGeneration(), Collections.emptyList());
+        }
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("index-4"));
+        assertNull(cache.get("index-0"));
+    }
+
+    public void testDateMathExpressionsAreNotCacheable() {
+        assertTrue(IndexConfigurationCache.isCacheable("index", "logs-*"));
+        assertFalse(IndexConfigurationCache.isCacheable("index", "<logs-{now/d}>"));
+    }
+
+    public void testKeptWhenIndexSettingsAreUnchanged() {
+        IndexConfigurationCache cache = buildCache();
+        cache.clusterChanged(new ClusterChangedEvent("test",
+                buildClusterState(buildIndexMetadata("index", 1, 1), buildIndexMetadata("other", 1, 1)),
+                buildClusterState(buildIndexMetadata("index", 1, 1), buildIndexMetadata("other", 1, 1))));
+        assertNotNull(cache.get("index"));
+    }
+
+    public void testInvalidatedWhenIndexSettingsChange() {
+        IndexConfigurationCache cache = buildCache();
+        cache.clusterChanged(new ClusterChangedEvent("test",
+                buildClusterState(buildIndexMetadata("index", 2, 1), buildIndexMetadata("other", 1, 1)),
+                buildClusterState(buildIndexMetadata("index", 1, 1), buildIndexMetadata("other", 1, 1))));
+        assertNull(cache.get("index"));
+    }
+
+    public void testInvalidatedWhenAliasesChange() {
+        IndexConfigurationCache cache = buildCache();
+        cache.clusterChanged(new ClusterChangedEvent("test",
+                buildClusterState(buildIndexMetadata("index", 1, 1), buildIndexMetadata("other", 1, 2)),
+                buildClusterState(buildIndexMetadata("index", 1, 1), buildIndexMetadata("other", 1, 1))));
+        assertNull(cache.get("index"));
+    }
+
+    public void testInvalidatedWhenIndexIsCreatedOrDeleted() {
+        IndexConfigurationCache cache = buildCache();
+        cache.clusterChanged(new ClusterChangedEvent("test",
+                buildClusterState(buildIndexMetadata("index", 1, 1), buildIndexMetadata("other", 1, 1)),
+                buildClusterState(buildIndexMetadata("index", 1, 1))));
+        assertNull(cache.get("index"));
+
+        cache = buildCache();
+        cache.clusterChanged(new ClusterChangedEvent("test",
+                buildClusterState(buildIndexMetadata("index", 1, 1)),
+                buildClusterState(buildIndexMetadata("index", 1, 1), buildIndexMetadata("other", 1, 1))));
+        assertNull(cache.get("index"));
+    }
+
+    private static IndexConfigurationCache buildCache() {
+        IndexConfigurationCache cache = new IndexConfigurationCache();
+        cache.put("index", cache.getGeneration(), List.of());
+        return cache;
+    }
+
+    private static ClusterState buildClusterState(IndexMetadata... indices) {
+        Metadata.Builder metadata = Metadata.builder();
+        for (IndexMetadata indexMetadata : indices) {
+            metadata.put(indexMetadata, false);
+        }
+        return ClusterState.builder(ClusterName.DEFAULT).metadata(metadata).build();
+    }
+
+    private static IndexMetadata buildIndexMetadata(String name, long settingsVersion, long aliasesVersion) {
+        return IndexMetadata.builder(name)
+                .settings(settings(Version.CURRENT))
+                .numberOfShards(1)
+                .numberOfReplicas(0)
+                .settingsVersion(settingsVersion)
+                .aliasesVersion(aliasesVersion)
+                .build();
+    }
+}
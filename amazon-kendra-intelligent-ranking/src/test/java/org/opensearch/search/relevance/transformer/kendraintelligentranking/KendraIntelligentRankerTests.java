@@ -8,11 +8,16 @@
 package org.opensearch.search.relevance.transformer.kendraintelligentranking;
 
 import org.apache.lucene.search.TotalHits;
+import org.mockito.Mockito;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.core.common.bytes.BytesReference;
+import org.opensearch.common.lease.Releasable;
 import org.opensearch.common.settings.Setting;
 import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
 import org.opensearch.common.xcontent.json.JsonXContent;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.common.unit.ByteSizeValue;
 import org.opensearch.core.xcontent.XContentBuilder;
 import org.opensearch.index.query.MatchAllQueryBuilder;
 import org.opensearch.index.query.MatchQueryBuilder;
@@ -21,34 +26,50 @@ import org.opensearch.search.SearchHit;
 import org.opensearch.search.SearchHits;
 import org.opensearch.search.builder.SearchSourceBuilder;
 import org.opensearch.search.relevance.configuration.ResultTransformerConfiguration;
+import org.opensearch.search.relevance.stats.RerankerMetrics;
+import org.opensearch.search.relevance.transformer.ResultTransformerContext;
+import org.opensearch.search.relevance.transformer.ResultTransformerProfile;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.cache.PassageCache;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.cache.RescoreResultCache;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraClientSettings;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraHttpClient;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraIntelligentClientTests;
+import org.opensearch.search.relevance.client.LatencyBudget;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankingConfiguration;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankingConfiguration.KendraIntelligentRankingProperties;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.Document;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreRequest;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResultItem;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
 
     public void testGetSettings() {
-        List<Setting<?>> settings = new KendraIntelligentRanker(buildMockHttpClient()).getTransformerSettings();
+        List<Setting<?>> settings = KendraIntelligentRanker.builder(buildMockHttpClient()).build().getTransformerSettings();
         assertNotNull(settings);
         assertFalse(settings.isEmpty());
     }
 
     public void testPreprocess() {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient());
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(buildMockHttpClient()).build();
         KendraIntelligentRankingProperties properties =
                 new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), 50);
         ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1, properties);
@@ -63,15 +84,39 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
         assertEquals(50, transformedRequest.source().size());
     }
 
+    public void testPreprocessFetchesRequiredFieldsOnly() {
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(buildMockHttpClient())
+                .fetchRequiredFieldsOnly(true)
+                .build();
+        KendraIntelligentRankingProperties properties =
+                new KendraIntelligentRankingProperties(List.of("content.body"), List.of("title"), 50);
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1, properties);
+        SearchRequest originalRequest = new SearchRequest()
+                .source(new SearchSourceBuilder()
+                        .fetchSource(false)
+                        .from(5)
+                        .size(10));
+        SearchRequest transformedRequest = ranker.preprocessRequest(originalRequest, configuration);
+        assertTrue(transformedRequest.source().fetchSource().fetchSource());
+        assertArrayEquals(new String[] {"content.body", "title"}, transformedRequest.source().fetchSource().includes());
+        assertEquals(0, transformedRequest.source().fetchSource().excludes().length);
+        assertEquals(50, transformedRequest.source().size());
+
+        // Source fetched by default is not restricted, since it is returned in the response
+        SearchRequest defaultSourceRequest = ranker.preprocessRequest(
+                new SearchRequest().source(new SearchSourceBuilder()), configuration);
+        assertNull(defaultSourceRequest.source().fetchSource());
+    }
+
     public void testShouldNotTransformWithoutSource() {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient());
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(buildMockHttpClient()).build();
         SearchRequest originalRequest = new SearchRequest();
         boolean shouldTransform = ranker.shouldTransform(originalRequest, new KendraIntelligentRankingConfiguration());
         assertFalse(shouldTransform);
     }
 
     public void testShouldNotTransformWithoutQuery() {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient());
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(buildMockHttpClient()).build();
         SearchRequest originalRequest = new SearchRequest()
                 .source(new SearchSourceBuilder().query(null));
         boolean shouldTransform = ranker.shouldTransform(originalRequest, new KendraIntelligentRankingConfiguration());
@@ -79,7 +124,7 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
     }
 
     public void testShouldNotTransformWithScroll() {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient());
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(buildMockHttpClient()).build();
         SearchRequest originalRequest = new SearchRequest()
                 .source(new SearchSourceBuilder())
                 .scroll("5h");
@@ -88,7 +133,7 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
     }
 
     public void testShouldNotTransformWithSort() {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient());
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(buildMockHttpClient()).build();
         SearchRequest originalRequest = new SearchRequest()
                 .source(new SearchSourceBuilder()
                         .sort("foo"));
@@ -98,23 +143,23 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
 
     public void testShouldNotTransformWithInvalidClient() {
         Settings emptySettings = Settings.builder().build();
-        KendraHttpClient emptyClient = new KendraHttpClient(KendraClientSettings.getClientSettings(emptySettings));
+        KendraHttpClient emptyClient = KendraHttpClient.builder(KendraClientSettings.getClientSettings(emptySettings)).build();
         testWithInvalidClient(emptyClient);
 
         Settings settingsWithExecutionPlan = Settings.builder()
                 .put(KendraIntelligentRankerSettings.EXECUTION_PLAN_ID_SETTING.getKey(), "foo-plan")
                 .build();
-        testWithInvalidClient(new KendraHttpClient(KendraClientSettings.getClientSettings(settingsWithExecutionPlan)));
+        testWithInvalidClient(KendraHttpClient.builder(KendraClientSettings.getClientSettings(settingsWithExecutionPlan)).build());
 
         Settings settingsWithEndpoint = Settings.builder()
                 .put(KendraIntelligentRankerSettings.SERVICE_ENDPOINT_SETTING.getKey(),
                         "https://kendra-ranking.us-west-2.api.aws")
                 .build();
-        testWithInvalidClient(new KendraHttpClient(KendraClientSettings.getClientSettings(settingsWithEndpoint)));
+        testWithInvalidClient(KendraHttpClient.builder(KendraClientSettings.getClientSettings(settingsWithEndpoint)).build());
     }
 
     private void testWithInvalidClient(KendraHttpClient invalidClient) {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(invalidClient);
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(invalidClient).build();
 
         // Otherwise valid search request:
         SearchRequest originalRequest = new SearchRequest()
@@ -129,7 +174,7 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
     }
 
     public void testShouldNotTransformIfFromExceedsDocLimit() {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient());
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(buildMockHttpClient()).build();
         SearchRequest originalRequest = new SearchRequest()
                 .source(new SearchSourceBuilder()
                         .from(20));
@@ -141,7 +186,7 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
     }
 
     public void testShouldTransformTrue() {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient());
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(buildMockHttpClient()).build();
         SearchRequest originalRequest = new SearchRequest()
                 .source(new SearchSourceBuilder()
                         .query(new MatchAllQueryBuilder()));
@@ -153,7 +198,7 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
     }
 
     public void testTransformInvalidQueryType() {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient());
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(buildMockHttpClient()).build();
         SearchRequest originalRequest = new SearchRequest()
                 .source(new SearchSourceBuilder().query(new MatchAllQueryBuilder()));
         KendraIntelligentRankingProperties properties =
@@ -167,7 +212,7 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
     }
 
     public void testTransformEmptyHits() {
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient());
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(buildMockHttpClient()).build();
         SearchRequest originalRequest = new SearchRequest()
                 .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "foo")));
         KendraIntelligentRankingProperties properties =
@@ -199,10 +244,10 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
         SearchHits searchHits = new SearchHits(hitsArray, new TotalHits(1, TotalHits.Relation.EQUAL_TO), 1.0f);
 
         AtomicBoolean didTransform = new AtomicBoolean(false);
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient(r -> {
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(buildMockHttpClient(r -> {
             didTransform.set(true);
             return new RescoreResult();
-        }));
+        })).build();
         ranker.transform(searchHits, originalRequest, configuration);
         assertFalse(didTransform.get());
     }
@@ -231,7 +276,7 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
         SearchHits searchHits = new SearchHits(hitsArray, new TotalHits(numHits, TotalHits.Relation.EQUAL_TO), 1.0f);
 
         AtomicReference<RescoreRequest> rescoreRequestRef = new AtomicReference<>();
-        KendraIntelligentRanker ranker = new KendraIntelligentRanker(buildMockHttpClient(req -> {
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(buildMockHttpClient(req -> {
             rescoreRequestRef.set(req);
             // Return the top N results in reverse order.
             List<RescoreResultItem> resultItems = req.getDocuments().stream()
@@ -245,7 +290,7 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
             RescoreResult result = new RescoreResult();
             result.setResultItems(resultItems);
             return result;
-        }));
+        })).build();
         SearchHits transformedHits = ranker.transform(searchHits, originalRequest, configuration);
 
         assertNotSame(searchHits, transformedHits);
@@ -264,4 +309,520 @@ public class KendraIntelligentRankerTests extends KendraIntelligentClientTests {
         assertArrayEquals(transformedHits.getHits(), bodyOnlyTransformedHits.getHits());
     }
 
-}
\ No newline at end of file
+    public void testTransformHitsAsync() throws IOException {
+        SearchRequest originalRequest = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "foo")));
+
+        int docLimit = randomIntBetween(1, 20);
+        KendraIntelligentRankingProperties properties =
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), docLimit);
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1, properties);
+
+        int numHits = docLimit + randomInt(20);
+        SearchHit[] hitsArray = new SearchHit[numHits];
+        for (int i = 0; i < numHits; i++) {
+            XContentBuilder sourceContent = JsonXContent.contentBuilder()
+                    .startObject()
+                    .field("_id", String.valueOf(i))
+                    .field("body", "Body text for document number " + i)
+                    .field("title", "This is the title for document " + i)
+                    .endObject();
+            hitsArray[i] = new SearchHit(i, "doc" + i, Map.of(), Map.of());
+            hitsArray[i].sourceRef(BytesReference.bytes(sourceContent));
+        }
+        SearchHits searchHits = new SearchHits(hitsArray, new TotalHits(numHits, TotalHits.Relation.EQUAL_TO), 1.0f);
+
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(buildMockHttpClient(req -> {
+            // Return the top N results in reverse order.
+            List<RescoreResultItem> resultItems = req.getDocuments().stream()
+                    .map(d -> {
+                        RescoreResultItem item = new RescoreResultItem();
+                        item.setDocumentId(d.getGroupId());
+                        item.setScore(randomFloat());
+                        return item;
+                    }).collect(Collectors.toList());
+            Collections.reverse(resultItems);
+            RescoreResult result = new RescoreResult();
+            result.setResultItems(resultItems);
+            return result;
+        })).build();
+
+        AtomicReference<SearchHits> transformedHitsRef = new AtomicReference<>();
+        ranker.transformAsync(searchHits, originalRequest, configuration,
+                ActionListener.wrap(transformedHitsRef::set, e -> fail("Unexpected failure: " + e)));
+        SearchHits transformedHits = transformedHitsRef.get();
+
+        assertNotNull(transformedHits);
+        assertNotSame(searchHits, transformedHits);
+        // The top N (according to doc limit) should be in reverse order
+        for (int i = 0; i < docLimit; i++) {
+            assertEquals("doc" + (docLimit - i - 1), transformedHits.getHits()[i].getId());
+        }
+        // The remainder should be in the original order
+        for (int i = docLimit; i < numHits; i++) {
+            assertEquals("doc" + i, transformedHits.getHits()[i].getId());
+        }
+    }
+
+    public void testTransformAsyncReturnsOriginalHitsOnFailure() throws IOException {
+        SearchRequest originalRequest = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "foo")));
+        KendraIntelligentRankingProperties properties =
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), 10);
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1, properties);
+        SearchHit[] hitsArray = new SearchHit[]{
+                new SearchHit(1, "doc1", Map.of(), Map.of())
+                        .sourceRef(BytesReference.bytes(JsonXContent.contentBuilder()
+                        .startObject()
+                        .field("body", "Body text for document 1")
+                        .endObject()))
+        };
+        SearchHits searchHits = new SearchHits(hitsArray, new TotalHits(1, TotalHits.Relation.EQUAL_TO), 1.0f);
+
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(buildMockHttpClient(r -> {
+            throw new IllegalStateException("Service unavailable");
+        })).build();
+        AtomicReference<SearchHits> transformedHitsRef = new AtomicReference<>();
+        ranker.transformAsync(searchHits, originalRequest, configuration,
+                ActionListener.wrap(transformedHitsRef::set, e -> fail("Unexpected failure: " + e)));
+        assertSame(searchHits, transformedHitsRef.get());
+    }
+
+    public void testFallbackAfterScoresAreUpdatedRestoresOriginalScores() throws IOException {
+        SearchRequest originalRequest = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "foo")));
+        int numHits = randomIntBetween(2, 10);
+        SearchHit[] hitsArray = new SearchHit[numHits];
+        for (int i = 0; i < numHits; i++) {
+            hitsArray[i] = new SearchHit(i, "doc" + i, Map.of(), Map.of());
+            hitsArray[i].score(numHits - i);
+            hitsArray[i].sourceRef(BytesReference.bytes(JsonXContent.contentBuilder()
+                    .startObject()
+                    .field("body", "Body text for document number " + i)
+                    .endObject()));
+        }
+        KendraHttpClient kendraClient = buildMockHttpClient(req -> {
+            List<RescoreResultItem> resultItems = req.getDocuments().stream()
+                    .map(d -> {
+                        RescoreResultItem item = new RescoreResultItem();
+                        item.setDocumentId(d.getGroupId());
+                        item.setScore(100 + randomFloat());
+                        return item;
+                    }).collect(Collectors.toList());
+            RescoreResult result = new RescoreResult();
+            result.setResultItems(resultItems);
+            return result;
+        });
+        // Caching the result fails once the scores of the hits are updated
+        RescoreResultCache cache = Mockito.mock(RescoreResultCache.class);
+        Mockito.doThrow(new IllegalStateException("Cache failure")).when(cache).put(Mockito.any(), Mockito.any());
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(kendraClient).rescoreResultCache(cache).build();
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1,
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), numHits));
+
+        // As in the search action filter, the hits are shared with the search response and only their order is copied
+        SearchHits searchHits = new SearchHits(hitsArray.clone(), new TotalHits(numHits, TotalHits.Relation.EQUAL_TO), numHits);
+        AtomicReference<SearchHits> transformedHitsRef = new AtomicReference<>();
+        ranker.transformAsync(searchHits, originalRequest, configuration, new ResultTransformerContext(System.nanoTime()),
+                ActionListener.wrap(transformedHitsRef::set, e -> fail("Unexpected failure: " + e)));
+        assertSame(searchHits, transformedHitsRef.get());
+        for (int i = 0; i < numHits; i++) {
+            assertEquals(numHits - i, hitsArray[i].getScore(), 0);
+        }
+
+        searchHits = new SearchHits(hitsArray.clone(), new TotalHits(numHits, TotalHits.Relation.EQUAL_TO), numHits);
+        assertSame(searchHits, ranker.transform(searchHits, originalRequest, configuration));
+        for (int i = 0; i < numHits; i++) {
+            assertEquals(numHits - i, hitsArray[i].getScore(), 0);
+        }
+    }
+
+    public void testTransformAsyncFallsBackWhenLatencyBudgetIsSpent() throws Exception {
+        SearchRequest originalRequest = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "foo")));
+        KendraIntelligentRankingProperties properties = new KendraIntelligentRankingProperties(List.of("body"), List.of("title"),
+                10, true, TimeValue.timeValueMillis(10));
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1, properties);
+        SearchHit[] hitsArray = new SearchHit[]{
+                new SearchHit(1, "doc1", Map.of(), Map.of())
+                        .sourceRef(BytesReference.bytes(JsonXContent.contentBuilder()
+                        .startObject()
+                        .field("body", "Body text for document 1")
+                        .endObject()))
+        };
+        SearchHits searchHits = new SearchHits(hitsArray, new TotalHits(1, TotalHits.Relation.EQUAL_TO), 1.0f);
+
+        // Kendra Intelligent Ranking never responds
+        KendraHttpClient kendraClient = Mockito.mock(KendraHttpClient.class);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Mockito.doReturn((Releasable) () -> cancelled.set(true))
+                .when(kendraClient).rescoreAsync(Mockito.any(RescoreRequest.class), Mockito.any());
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            LatencyBudget latencyBudget = new LatencyBudget(threadPool, TimeValue.MINUS_ONE);
+            KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(kendraClient)
+                    .latencyBudget(latencyBudget)
+                    .build();
+            ResultTransformerContext context = new ResultTransformerContext(System.nanoTime());
+            AtomicReference<SearchHits> transformedHitsRef = new AtomicReference<>();
+            ranker.transformAsync(searchHits, originalRequest, configuration, context,
+                    ActionListener.wrap(transformedHitsRef::set, e -> fail("Unexpected failure: " + e)));
+
+            assertBusy(() -> assertSame(searchHits, transformedHitsRef.get()));
+            assertTrue(cancelled.get());
+            assertEquals(Set.of(KendraIntelligentRanker.NAME), context.getFallbackTransformers());
+            assertEquals(1, latencyBudget.getStats().getTimedOutCount());
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
+    public void testTransformAsyncFallsBackWhenCallIsRejected() throws IOException {
+        SearchRequest originalRequest = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "foo")));
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1,
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), 10));
+        SearchHit[] hitsArray = new SearchHit[]{
+                new SearchHit(1, "doc1", Map.of(), Map.of())
+                        .sourceRef(BytesReference.bytes(JsonXContent.contentBuilder()
+                        .startObject()
+                        .field("body", "Body text for document 1")
+                        .endObject()))
+        };
+        SearchHits searchHits = new SearchHits(hitsArray, new TotalHits(1, TotalHits.Relation.EQUAL_TO), 1.0f);
+
+        // Circuit breaker of the endpoint is open
+        KendraHttpClient kendraClient = Mockito.mock(KendraHttpClient.class);
+        Mockito.doAnswer(invocation -> {
+            ActionListener<RescoreResult> listener = invocation.getArgument(1);
+            listener.onFailure(new RejectedExecutionException("Circuit breaker of [endpoint] is open"));
+            return (Releasable) () -> {};
+        }).when(kendraClient).rescoreAsync(Mockito.any(RescoreRequest.class), Mockito.any());
+        RerankerMetrics metrics = new RerankerMetrics();
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(kendraClient).metrics(metrics).build();
+        ResultTransformerContext context = new ResultTransformerContext(System.nanoTime());
+        AtomicReference<SearchHits> transformedHitsRef = new AtomicReference<>();
+        ranker.transformAsync(searchHits, originalRequest, configuration, context,
+                ActionListener.wrap(transformedHitsRef::set, e -> fail("Unexpected failure: " + e)));
+
+        assertSame(searchHits, transformedHitsRef.get());
+        assertEquals(Set.of(KendraIntelligentRanker.NAME), context.getFallbackTransformers());
+        RerankerMetrics.Stats stats = metrics.getStats();
+        assertEquals(1, stats.getFallbackCount());
+        assertEquals(0, stats.getErrorCount());
+        assertEquals(1, stats.getPreprocessingLatency().getCount());
+        // Rejected calls never reach the service
+        assertEquals(0, stats.getRemoteCallLatency().getCount());
+    }
+
+    public void testTransformAsyncProfilesPhases() throws IOException {
+        SearchRequest originalRequest = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "foo")).profile(true));
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1,
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), 10));
+        SearchHit[] hitsArray = new SearchHit[]{
+                new SearchHit(1, "doc1", Map.of(), Map.of())
+                        .sourceRef(BytesReference.bytes(JsonXContent.contentBuilder()
+                        .startObject()
+                        .field("body", "Body text for document 1")
+                        .field("title", "Title of document 1")
+                        .endObject()))
+        };
+        SearchHits searchHits = new SearchHits(hitsArray, new TotalHits(1, TotalHits.Relation.EQUAL_TO), 1.0f);
+
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(buildMockHttpClient(req -> {
+            try {
+                // Slow service
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            RescoreResultItem item = new RescoreResultItem();
+            item.setDocumentId("doc1");
+            item.setScore(2.0f);
+            RescoreResult result = new RescoreResult();
+            result.setResultItems(List.of(item));
+            return result;
+        })).build();
+
+        ResultTransformerContext context = new ResultTransformerContext(System.nanoTime(), true);
+        AtomicReference<SearchHits> transformedHitsRef = new AtomicReference<>();
+        ranker.transformAsync(searchHits, originalRequest, configuration, context,
+                ActionListener.wrap(transformedHitsRef::set, e -> fail("Unexpected failure: " + e)));
+        assertEquals(2.0f, transformedHitsRef.get().getHits()[0].getScore(), 0.0f);
+
+        assertEquals(1, context.getProfiles().size());
+        ResultTransformerProfile profile = context.getProfiles().get(0);
+        assertEquals(KendraIntelligentRanker.NAME, profile.getName());
+        assertTrue(profile.getPhaseTime(ResultTransformerProfile.Phase.NETWORK_WAIT) >= TimeUnit.MILLISECONDS.toNanos(10));
+
+        // Searches are not profiled unless requested
+        ResultTransformerContext notProfiledContext = new ResultTransformerContext(System.nanoTime());
+        ranker.transformAsync(searchHits, originalRequest, configuration, notProfiledContext,
+                ActionListener.wrap(transformedHitsRef::set, e -> fail("Unexpected failure: " + e)));
+        assertNull(notProfiledContext.getProfile(KendraIntelligentRanker.NAME));
+        assertTrue(notProfiledContext.getProfiles().isEmpty());
+    }
+
+    public void testTransformUsesRescoreCache() throws IOException {
+        SearchRequest originalRequest = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "foo")));
+        int numHits = randomIntBetween(2, 10);
+        SearchHit[] hitsArray = new SearchHit[numHits];
+        for (int i = 0; i < numHits; i++) {
+            hitsArray[i] = new SearchHit(i, "doc" + i, Map.of(), Map.of());
+            hitsArray[i].sourceRef(BytesReference.bytes(JsonXContent.contentBuilder()
+                    .startObject()
+                    .field("body", "Body text for document number " + i)
+                    .endObject()));
+        }
+
+        AtomicInteger rescoreCount = new AtomicInteger();
+        KendraHttpClient kendraClient = buildMockHttpClient(req -> {
+            rescoreCount.incrementAndGet();
+            List<RescoreResultItem> resultItems = req.getDocuments().stream()
+                    .map(d -> {
+                        RescoreResultItem item = new RescoreResultItem();
+                        item.setDocumentId(d.getGroupId());
+                        item.setScore(randomFloat());
+                        return item;
+                    }).collect(Collectors.toList());
+            Collections.reverse(resultItems);
+            RescoreResult result = new RescoreResult();
+            result.setResultItems(resultItems);
+            return result;
+        });
+        RescoreResultCache cache = new RescoreResultCache(new ByteSizeValue(1024 * 1024), TimeValue.timeValueMinutes(1));
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(kendraClient).rescoreResultCache(cache).build();
+
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1,
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), numHits));
+        SearchHits first = ranker.transform(
+                new SearchHits(hitsArray.clone(), new TotalHits(numHits, TotalHits.Relation.EQUAL_TO), 1.0f),
+                originalRequest, configuration);
+        SearchHits second = ranker.transform(
+                new SearchHits(hitsArray.clone(), new TotalHits(numHits, TotalHits.Relation.EQUAL_TO), 1.0f),
+                originalRequest, configuration);
+        assertEquals(1, rescoreCount.get());
+        assertEquals(1, cache.getStats().getHitCount());
+        for (int i = 0; i < numHits; i++) {
+            assertEquals(first.getHits()[i].getId(), second.getHits()[i].getId());
+        }
+
+        // Disabling the cache in the configuration always calls Kendra Intelligent Ranking
+        ResultTransformerConfiguration noCacheConfiguration = new KendraIntelligentRankingConfiguration(1,
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), numHits, false));
+        ranker.transform(new SearchHits(hitsArray.clone(), new TotalHits(numHits, TotalHits.Relation.EQUAL_TO), 1.0f),
+                originalRequest, noCacheConfiguration);
+        assertEquals(2, rescoreCount.get());
+    }
+
+    public void testTransformReusesCachedPassages() throws IOException {
+        int numHits = randomIntBetween(2, 10);
+        SearchHit[] hitsArray = new SearchHit[numHits];
+        for (int i = 0; i < numHits; i++) {
+            hitsArray[i] = new SearchHit(i, "doc" + i, Map.of(), Map.of());
+            hitsArray[i].sourceRef(BytesReference.bytes(JsonXContent.contentBuilder()
+                    .startObject()
+                    .field("body", "Body text for document number " + i + ". It has a second sentence.")
+                    .endObject()));
+        }
+
+        List<RescoreRequest> rescoreRequests = new ArrayList<>();
+        KendraHttpClient kendraClient = buildMockHttpClient(req -> {
+            rescoreRequests.add(req);
+            return new RescoreResult();
+        });
+        PassageCache passageCache = new PassageCache(new ByteSizeValue(1024 * 1024), TimeValue.timeValueMinutes(1));
+        KendraIntelligentRanker cachingRanker = KendraIntelligentRanker.builder(kendraClient).passageCache(passageCache).build();
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(kendraClient).build();
+
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1,
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), numHits));
+        for (String queryText : List.of("document", "second sentence")) {
+            SearchRequest request = new SearchRequest()
+                    .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", queryText)));
+            cachingRanker.transform(new SearchHits(hitsArray.clone(), new TotalHits(numHits, TotalHits.Relation.EQUAL_TO), 1.0f),
+                    request, configuration);
+            ranker.transform(new SearchHits(hitsArray.clone(), new TotalHits(numHits, TotalHits.Relation.EQUAL_TO), 1.0f),
+                    request, configuration);
+        }
+        assertEquals(numHits, passageCache.getStats().getHitCount());
+        assertEquals(numHits, passageCache.getStats().getEntryCount());
+
+        // Cached passages produce the same requests as freshly generated passages
+        assertEquals(4, rescoreRequests.size());
+        assertEquals(rescoreRequests.get(0).getDocuments(), rescoreRequests.get(1).getDocuments());
+        assertEquals(rescoreRequests.get(2).getDocuments(), rescoreRequests.get(3).getDocuments());
+    }
+
+    public void testParallelPreprocessingKeepsHitOrder() throws Exception {
+        int numHits = randomIntBetween(10, 25);
+        SearchHit[] hitsArray = buildHitsWithLongBodies(numHits);
+        SearchRequest request = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "document sentence")));
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1,
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), numHits));
+
+        List<RescoreRequest> rescoreRequests = Collections.synchronizedList(new ArrayList<>());
+        KendraHttpClient kendraClient = buildMockHttpClient(req -> {
+            rescoreRequests.add(req);
+            return new RescoreResult();
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(randomIntBetween(2, 4));
+        try {
+            KendraIntelligentRanker.builder(kendraClient).build().transform(
+                    new SearchHits(hitsArray.clone(), new TotalHits(numHits, TotalHits.Relation.EQUAL_TO), 1.0f),
+                    request, configuration);
+            KendraIntelligentRanker.builder(kendraClient).preprocessExecutor(executor, 2).build().transform(
+                    new SearchHits(hitsArray.clone(), new TotalHits(numHits, TotalHits.Relation.EQUAL_TO), 1.0f),
+                    request, configuration);
+            // A saturated pool falls back to preprocessing on the calling thread
+            KendraIntelligentRanker.builder(kendraClient).preprocessExecutor(r -> {
+                throw new RejectedExecutionException("rejected");
+            }, 2).build().transform(
+                    new SearchHits(hitsArray.clone(), new TotalHits(numHits, TotalHits.Relation.EQUAL_TO), 1.0f),
+                    request, configuration);
+        } finally {
+            ThreadPool.terminate(executor, 10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(3, rescoreRequests.size());
+        List<Document> sequentialDocuments = rescoreRequests.get(0).getDocuments();
+        assertEquals(sequentialDocuments, rescoreRequests.get(1).getDocuments());
+        assertEquals(sequentialDocuments, rescoreRequests.get(2).getDocuments());
+    }
+
+    public void testParallelPreprocessingFailureReturnsOriginalHits() throws Exception {
+        int numHits = randomIntBetween(10, 25);
+        SearchHit[] hitsArray = buildHitsWithLongBodies(numHits);
+        hitsArray[randomIntBetween(0, numHits - 1)].sourceRef(BytesReference.bytes(JsonXContent.contentBuilder()
+                .startObject()
+                .field("title", "Document without a body")
+                .endObject()));
+        SearchHits searchHits = new SearchHits(hitsArray, new TotalHits(numHits, TotalHits.Relation.EQUAL_TO), 1.0f);
+        SearchRequest request = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "document")));
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1,
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), numHits));
+
+        AtomicInteger rescoreCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(buildMockHttpClient(req -> {
+                rescoreCount.incrementAndGet();
+                return new RescoreResult();
+            }))
+                    .preprocessExecutor(executor, 2)
+                    .build();
+            assertSame(searchHits, ranker.transform(searchHits, request, configuration));
+        } finally {
+            ThreadPool.terminate(executor, 10, TimeUnit.SECONDS);
+        }
+        assertEquals(0, rescoreCount.get());
+    }
+
+    public void testReadsNestedSourceFields() throws IOException {
+        int numHits = randomIntBetween(2, 10);
+        SearchHit[] hitsArray = buildHitsWithLongBodies(numHits);
+        SearchHit[] nestedHitsArray = new SearchHit[numHits];
+        for (int i = 0; i < numHits; i++) {
+            Map<String, Object> source = hitsArray[i].getSourceAsMap();
+            nestedHitsArray[i] = new SearchHit(i, "doc" + i, Map.of(), Map.of());
+            nestedHitsArray[i].score(numHits - i);
+            nestedHitsArray[i].sourceRef(BytesReference.bytes(JsonXContent.contentBuilder()
+                    .startObject()
+                    .field("body", "Top level body is ignored")
+                    .array("tags", "body", "title")
+                    .startObject("content")
+                    .field("body", source.get("body"))
+                    .field("title", source.get("title"))
+                    .endObject()
+                    .field("trailing", "Field after the body and title")
+                    .endObject()));
+        }
+        SearchRequest request = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "document sentence")));
+        SearchRequest nestedRequest = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("content.body", "document sentence")));
+
+        List<RescoreRequest> rescoreRequests = new ArrayList<>();
+        KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(buildMockHttpClient(req -> {
+            rescoreRequests.add(req);
+            return new RescoreResult();
+        })).build();
+        ranker.transform(new SearchHits(hitsArray, new TotalHits(numHits, TotalHits.Relation.EQUAL_TO), 1.0f),
+                request, new KendraIntelligentRankingConfiguration(1,
+                        new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), numHits)));
+        ranker.transform(new SearchHits(nestedHitsArray, new TotalHits(numHits, TotalHits.Relation.EQUAL_TO), 1.0f),
+                nestedRequest, new KendraIntelligentRankingConfiguration(1,
+                        new KendraIntelligentRankingProperties(List.of("content.body"), List.of("content.title"), numHits)));
+
+        assertEquals(2, rescoreRequests.size());
+        assertEquals(rescoreRequests.get(0).getDocuments(), rescoreRequests.get(1).getDocuments());
+    }
+
+    public void testBodyBudgetsLimitPassages() throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            body.append("Sentence number ").append(i).append(" talks about search relevance. ");
+        }
+        final String prefix = body.substring(0, 500);
+        SearchHit[] hitsArray = new SearchHit[] { new SearchHit(0, "doc0", Map.of(), Map.of()) };
+        hitsArray[0].sourceRef(BytesReference.bytes(JsonXContent.contentBuilder()
+                .startObject().field("body", body.toString()).endObject()));
+        SearchHit[] prefixHitsArray = new SearchHit[] { new SearchHit(0, "doc0", Map.of(), Map.of()) };
+        prefixHitsArray[0].sourceRef(BytesReference.bytes(JsonXContent.contentBuilder()
+                .startObject().field("body", prefix).endObject()));
+        SearchRequest request = new SearchRequest()
+                .source(new SearchSourceBuilder().query(new MatchQueryBuilder("body", "search relevance")));
+        ResultTransformerConfiguration configuration = new KendraIntelligentRankingConfiguration(1,
+                new KendraIntelligentRankingProperties(List.of("body"), List.of("title"), 1));
+
+        List<RescoreRequest> rescoreRequests = new ArrayList<>();
+        KendraHttpClient kendraClient = buildMockHttpClient(req -> {
+            rescoreRequests.add(req);
+            return new RescoreResult();
+        });
+        KendraIntelligentRanker.builder(kendraClient).build().transform(
+                new SearchHits(prefixHitsArray, new TotalHits(1, TotalHits.Relation.EQUAL_TO), 1.0f), request, configuration);
+        KendraIntelligentRanker.builder(kendraClient).maxBodyLength(prefix.length(), -1).build()
+                .transform(new SearchHits(hitsArray.clone(), new TotalHits(1, TotalHits.Relation.EQUAL_TO), 1.0f),
+                        request, configuration);
+        KendraIntelligentRanker.builder(kendraClient).build().transform(
+                new SearchHits(hitsArray.clone(), new TotalHits(1, TotalHits.Relation.EQUAL_TO), 1.0f), request, configuration);
+        KendraIntelligentRanker.builder(kendraClient).maxBodyLength(-1, 10).build()
+                .transform(new SearchHits(hitsArray.clone(), new TotalHits(1, TotalHits.Relation.EQUAL_TO), 1.0f),
+                        request, configuration);
+
+        assertEquals(4, rescoreRequests.size());
+        // A character budget generates passages from the prefix of the body only
+        assertEquals(rescoreRequests.get(0).getDocuments(), rescoreRequests.get(1).getDocuments());
+        assertNotEquals(rescoreRequests.get(1).getDocuments(), rescoreRequests.get(2).getDocuments());
+        // A token budget generates a single passage from the first tokens of the body
+        List<Document> tokenBudgetDocuments = rescoreRequests.get(3).getDocuments();
+        assertEquals(1, tokenBudgetDocuments.size());
+        assertEquals(10, tokenBudgetDocuments.get(0).getTokenizedBody().size());
+    }
+
+    private static SearchHit[] buildHitsWithLongBodies(int numHits) throws IOException {
+        SearchHit[] hitsArray = new SearchHit[numHits];
+        for (int i = 0; i < numHits; i++) {
+            StringBuilder body = new StringBuilder();
+            int numSentences = randomIntBetween(1, 30);
+            for (int j = 0; j < numSentences; j++) {
+                body.append("Sentence ").append(j).append(" of document ").append(i).append(" has ")
+                        .append(randomAlphaOfLengthBetween(3, 10)).append(" words. ");
+            }
+            hitsArray[i] = new SearchHit(i, "doc" + i, Map.of(), Map.of());
+            hitsArray[i].score(numHits - i);
+            hitsArray[i].sourceRef(BytesReference.bytes(JsonXContent.contentBuilder()
+                    .startObject()
+                    .field("title", "Title of document " + i)
+                    .field("body", body.toString())
+                    .endObject()));
+        }
+        return hitsArray;
+    }
+
+}
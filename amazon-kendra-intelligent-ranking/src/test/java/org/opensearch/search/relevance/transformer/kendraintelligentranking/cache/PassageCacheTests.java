@@ -0,0 +1,100 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.cache;
+
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.common.unit.ByteSizeValue;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.opensearch.index.seqno.SequenceNumbers.UNASSIGNED_PRIMARY_TERM;
+import static org.opensearch.index.seqno.SequenceNumbers.UNASSIGNED_SEQ_NO;
+
+public class PassageCacheTests extends OpenSearchTestCase {
+
+    public void testKeyUsesSequenceNumberWhenAvailable() {
+        PassageCache.Key key = PassageCache.createKey("index", "uuid", "1", "body", 5, 1, "some text");
+        assertEquals(key, PassageCache.createKey("index", "uuid", "1", "body", 5, 1, "other text"));
+        assertNotEquals(key, PassageCache.createKey("index", "uuid", "1", "body", 6, 1, "some text"));
+        assertNotEquals(key, PassageCache.createKey("index", "uuid", "1", "body", 5, 2, "some text"));
+        assertNotEquals(key, PassageCache.createKey("other-index", "other-uuid", "1", "body", 5, 1, "some text"));
+        assertNotEquals(key, PassageCache.createKey("index", "uuid", "2", "body", 5, 1, "some text"));
+        assertNotEquals(key, PassageCache.createKey("index", "uuid", "1", "title", 5, 1, "some text"));
+    }
+
+    public void testKeyDistinguishesRecreatedIndex() {
+        // A re-created index with the same name starts over from the same sequence numbers
+        PassageCache.Key key = PassageCache.createKey("index", "uuid", "1", "body", 0, 1, "some text");
+        assertNotEquals(key, PassageCache.createKey("index", "new-uuid", "1", "body", 0, 1, "other text"));
+    }
+
+    public void testKeyUsesContentHashWithoutSequenceNumber() {
+        PassageCache.Key key = PassageCache.createKey("index", "uuid", "1", "body", UNASSIGNED_SEQ_NO, UNASSIGNED_PRIMARY_TERM, "some text");
+        PassageCache.Key sameKey = PassageCache.createKey("index", "uuid", "1", "body", UNASSIGNED_SEQ_NO, UNASSIGNED_PRIMARY_TERM, "some text");
+        assertEquals(key, sameKey);
+        assertEquals(key.hashCode(), sameKey.hashCode());
+        assertNotEquals(key, PassageCache.createKey("index", "uuid", "1", "body", UNASSIGNED_SEQ_NO, UNASSIGNED_PRIMARY_TERM, "updated text"));
+    }
+
+    public void testKeyUsesContentHashWithoutIndexUuid() {
+        PassageCache.Key key = PassageCache.createKey("index", null, "1", "body", 5, 1, "some text");
+        assertEquals(key, PassageCache.createKey("index", null, "1", "body", 5, 1, "some text"));
+        assertNotEquals(key, PassageCache.createKey("index", null, "1", "body", 5, 1, "other text"));
+    }
+
+    public void testGetOrGenerateTracksStats() {
+        PassageCache cache = new PassageCache(new ByteSizeValue(1024 * 1024), TimeValue.timeValueMinutes(1));
+        PassageCache.Key key = PassageCache.createKey("index", "uuid", "1", "body", 1, 1, "some text");
+        AtomicInteger generateCount = new AtomicInteger();
+        List<List<String>> passages = List.of(List.of("some", "text"));
+
+        List<List<String>> first = cache.getOrGenerate(key, () -> {
+            generateCount.incrementAndGet();
+            return passages;
+        });
+        List<List<String>> second = cache.getOrGenerate(key, () -> {
+            generateCount.incrementAndGet();
+            return passages;
+        });
+        assertEquals(passages, first);
+        assertSame(first, second);
+        assertEquals(1, generateCount.get());
+
+        CacheStats stats = cache.getStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getEntryCount());
+        assertTrue(stats.getMemorySizeInBytes() > 0);
+
+        cache.invalidateAll();
+        assertEquals(0, cache.getStats().getEntryCount());
+    }
+
+    public void testEvictsWhenOverSizeLimit() {
+        PassageCache cache = new PassageCache(new ByteSizeValue(2048), TimeValue.timeValueMinutes(1));
+        for (int i = 0; i < 20; i++) {
+            cache.getOrGenerate(PassageCache.createKey("index", "uuid", String.valueOf(i), "body", 1, 1, "text"),
+                    () -> List.of(List.of("some", "body", "text"), List.of("another", "passage")));
+        }
+        CacheStats stats = cache.getStats();
+        assertTrue(stats.getEvictionCount() > 0);
+        assertTrue(stats.getMemorySizeInBytes() <= 2048);
+    }
+
+    public void testCreateFromSettings() {
+        assertNotNull(PassageCache.create(Settings.EMPTY));
+        Settings disabled = Settings.builder()
+                .put(KendraIntelligentRankerSettings.PASSAGE_CACHE_ENABLED_SETTING.getKey(), false)
+                .build();
+        assertNull(PassageCache.create(disabled));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.cache;
+
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.common.unit.ByteSizeValue;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration.KendraIntelligentRankerSettings;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.Document;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreRequest;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResultItem;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class RescoreResultCacheTests extends OpenSearchTestCase {
+
+    public void testKeyIsIndependentOfDocumentOrder() {
+        List<Document> documents = buildDocuments(5);
+        List<Document> shuffled = new ArrayList<>(documents);
+        Collections.reverse(shuffled);
+
+        RescoreResultCache.Key key = RescoreResultCache.createKey("plan", new RescoreRequest("foo  bar ", documents));
+        RescoreResultCache.Key shuffledKey = RescoreResultCache.createKey("plan", new RescoreRequest(" foo bar", shuffled));
+        assertEquals(key, shuffledKey);
+        assertEquals(key.hashCode(), shuffledKey.hashCode());
+    }
+
+    public void testKeyDependsOnPlanQueryAndDocuments() {
+        List<Document> documents = buildDocuments(5);
+        RescoreResultCache.Key key = RescoreResultCache.createKey("plan", new RescoreRequest("foo", documents));
+
+        assertNotEquals(key, RescoreResultCache.createKey("other-plan", new RescoreRequest("foo", documents)));
+        assertNotEquals(key, RescoreResultCache.createKey("plan", new RescoreRequest("Foo", documents)));
+        assertNotEquals(key, RescoreResultCache.createKey("plan", new RescoreRequest("foo", documents.subList(0, 4))));
+
+        List<Document> changedContent = buildDocuments(5);
+        changedContent.get(2).setTokenizedBody(List.of("different", "body"));
+        assertNotEquals(key, RescoreResultCache.createKey("plan", new RescoreRequest("foo", changedContent)));
+    }
+
+    public void testGetAndPutTrackStats() {
+        RescoreResultCache cache = new RescoreResultCache(new ByteSizeValue(1024 * 1024), TimeValue.timeValueMinutes(1));
+        RescoreResultCache.Key key = RescoreResultCache.createKey("plan", new RescoreRequest("foo", buildDocuments(3)));
+
+        assertNull(cache.get(key));
+        RescoreResult result = buildResult(3);
+        cache.put(key, result);
+        assertSame(result, cache.get(key));
+
+        CacheStats stats = cache.getStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getEntryCount());
+        assertTrue(stats.getMemorySizeInBytes() > 0);
+
+        cache.invalidateAll();
+        assertEquals(0, cache.getStats().getEntryCount());
+    }
+
+    public void testDoesNotCacheEmptyResult() {
+        RescoreResultCache cache = new RescoreResultCache(new ByteSizeValue(1024 * 1024), TimeValue.timeValueMinutes(1));
+        RescoreResultCache.Key key = RescoreResultCache.createKey("plan", new RescoreRequest("foo", buildDocuments(3)));
+        cache.put(key, new RescoreResult());
+        assertNull(cache.get(key));
+    }
+
+    public void testEvictsWhenOverSizeLimit() {
+        RescoreResultCache cache = new RescoreResultCache(new ByteSizeValue(2048), TimeValue.timeValueMinutes(1));
+        for (int i = 0; i < 20; i++) {
+            cache.put(RescoreResultCache.createKey("plan", new RescoreRequest("query " + i, buildDocuments(3))), buildResult(3));
+        }
+        CacheStats stats = cache.getStats();
+        assertTrue(stats.getEvictionCount() > 0);
+        assertTrue(stats.getMemorySizeInBytes() <= 2048);
+    }
+
+    public void testCreateFromSettings() {
+        assertNotNull(RescoreResultCache.create(Settings.EMPTY));
+        Settings disabled = Settings.builder()
+                .put(KendraIntelligentRankerSettings.RESCORE_CACHE_ENABLED_SETTING.getKey(), false)
+                .build();
+        assertNull(RescoreResultCache.create(disabled));
+    }
+
+    private static List<Document> buildDocuments(int count) {
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            documents.add(new Document("doc" + i + "@1", "doc" + i, List.of("title", String.valueOf(i)),
+                    List.of("body", "text", String.valueOf(i)), (float) i));
+        }
+        return documents;
+    }
+
+    private static RescoreResult buildResult(int count) {
+        List<RescoreResultItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            RescoreResultItem item = new RescoreResultItem();
+            item.setDocumentId("doc" + i);
+            item.setScore((float) (count - i));
+            items.add(item);
+        }
+        RescoreResult result = new RescoreResult();
+        result.setRescoreId("rescore");
+        result.setResultItems(items);
+        return result;
+    }
+}
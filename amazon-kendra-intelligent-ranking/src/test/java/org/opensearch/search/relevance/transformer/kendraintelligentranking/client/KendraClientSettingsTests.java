@@ -9,8 +9,10 @@
 
 package org.opensearch.search.relevance.transformer.kendraintelligentranking.client;
 
+import com.amazonaws.ClientConfiguration;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSSessionCredentials;
+import com.amazonaws.retry.PredefinedRetryPolicies;
 import org.opensearch.common.settings.MockSecureSettings;
 import org.opensearch.common.settings.SecureSettings;
 import org.opensearch.common.settings.Settings;
@@ -101,4 +103,48 @@ public class KendraClientSettingsTests extends OpenSearchTestCase {
     public void testWithSessionTokenButNoCredentials() {
         expectThrows(SettingsException.class, () -> buildClientSettings(false, false, true));
     }
+
+    public void testDefaultConnectionSettings() throws IOException {
+        KendraConnectionSettings connectionSettings = buildClientSettings(false, false, false).getConnectionSettings();
+
+        ClientConfiguration clientConfiguration = connectionSettings.toClientConfiguration();
+        assertEquals(50, clientConfiguration.getMaxConnections());
+        assertTrue(clientConfiguration.useTcpKeepAlive());
+        assertFalse(clientConfiguration.useGzip());
+        assertSame(PredefinedRetryPolicies.DEFAULT, clientConfiguration.getRetryPolicy());
+        assertEquals(60_000, connectionSettings.getKeepAliveMillis());
+        assertEquals(2, connectionSettings.getPrewarmConnections());
+    }
+
+    public void testConnectionSettings() {
+        Settings settings = Settings.builder()
+                .put(KendraIntelligentRankerSettings.CLIENT_MAX_CONNECTIONS_SETTING.getKey(), 10)
+                .put(KendraIntelligentRankerSettings.CLIENT_CONNECTION_TIMEOUT_SETTING.getKey(), "1s")
+                .put(KendraIntelligentRankerSettings.CLIENT_SOCKET_TIMEOUT_SETTING.getKey(), "2s")
+                .put(KendraIntelligentRankerSettings.CLIENT_CONNECTION_TTL_SETTING.getKey(), "20s")
+                .put(KendraIntelligentRankerSettings.CLIENT_CONNECTION_MAX_IDLE_SETTING.getKey(), "30s")
+                .put(KendraIntelligentRankerSettings.CLIENT_TCP_KEEP_ALIVE_SETTING.getKey(), false)
+                .put(KendraIntelligentRankerSettings.CLIENT_COMPRESSION_ENABLED_SETTING.getKey(), true)
+                .put(KendraIntelligentRankerSettings.CLIENT_MAX_RETRIES_SETTING.getKey(), 1)
+                .put(KendraIntelligentRankerSettings.CLIENT_PREWARM_CONNECTIONS_SETTING.getKey(), 0)
+                .build();
+        KendraConnectionSettings connectionSettings = KendraClientSettings.getClientSettings(settings).getConnectionSettings();
+
+        ClientConfiguration clientConfiguration = connectionSettings.toClientConfiguration();
+        assertEquals(10, clientConfiguration.getMaxConnections());
+        assertEquals(1000, clientConfiguration.getConnectionTimeout());
+        assertEquals(2000, clientConfiguration.getSocketTimeout());
+        assertEquals(20_000, clientConfiguration.getConnectionTTL());
+        assertEquals(30_000, clientConfiguration.getConnectionMaxIdleMillis());
+        assertFalse(clientConfiguration.useTcpKeepAlive());
+        assertTrue(clientConfiguration.useGzip());
+        assertEquals(1, clientConfiguration.getRetryPolicy().getMaxErrorRetry());
+
+        assertEquals(1000, connectionSettings.toRequestConfig().getConnectTimeout());
+        assertEquals(2000, connectionSettings.toRequestConfig().getSocketTimeout());
+        assertFalse(connectionSettings.toIOReactorConfig().isSoKeepalive());
+        // The non-blocking client does not keep connections alive beyond their time to live
+        assertEquals(20_000, connectionSettings.getKeepAliveMillis());
+        assertEquals(0, connectionSettings.getPrewarmConnections());
+    }
 }
\ No newline at end of file
@@ -9,11 +9,28 @@
 
 package org.opensearch.search.relevance.transformer.kendraintelligentranking.client;
 
+import com.amazonaws.AmazonServiceException;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.http.IdleConnectionReaper;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.opensearch.common.util.concurrent.ThreadContext;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.search.relevance.client.RateLimiter;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreRequest;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
 import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
 
 import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class KendraHttpClientTests extends OpenSearchTestCase {
 
@@ -27,10 +44,70 @@ public class KendraHttpClientTests extends OpenSearchTestCase {
                 "myAwesomeRole"
         );
 
-        try (KendraHttpClient client = new KendraHttpClient(settings)) {
+        try (KendraHttpClient client = KendraHttpClient.builder(settings).build()) {
             assertEquals(new URI("http://localhost/rescore-execution-plans/12345678/rescore"), client.buildRescoreURI());
         }
         IdleConnectionReaper.shutdown();
     }
 
-}
\ No newline at end of file
+    public void testPrewarmInvalidClient() {
+        KendraClientSettings settings = new KendraClientSettings(null, null, "us-west-2", null, null);
+
+        try (KendraHttpClient client = KendraHttpClient.builder(settings).build()) {
+            assertFalse(client.isValid());
+            // Nothing to connect to
+            client.prewarm(2);
+        }
+    }
+
+    public void testThrottlingResponseIsCountedByRateLimiter() throws Exception {
+        KendraClientSettings settings = new KendraClientSettings(null, null, "us-west-2", null, null);
+        BasicHttpResponse httpResponse = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_BAD_REQUEST, "Bad Request");
+        httpResponse.setEntity(new StringEntity("{\"__type\":\"com.amazonaws.kendra#ThrottlingException\",\"message\":\"Rate exceeded\"}"));
+
+        AmazonServiceException ase;
+        try (KendraHttpClient client = KendraHttpClient.builder(settings).build()) {
+            ase = expectThrows(AmazonServiceException.class, () -> client.parseRescoreResponse(httpResponse));
+        }
+        assertEquals(HttpStatus.SC_BAD_REQUEST, ase.getStatusCode());
+        assertEquals("ThrottlingException", ase.getErrorCode());
+
+        RateLimiter rateLimiter = new RateLimiter(-1, -1, Map.of(), System::nanoTime);
+        rateLimiter.onFailure("plan", new RuntimeException("Exception executing request.", ase));
+        assertEquals(1, rateLimiter.getStats().getThrottledCount());
+    }
+
+    public void testAsyncCompletionForkedInCallerContext() throws Exception {
+        // The client is not valid, so signing the request fails and the listener is completed with that failure
+        KendraClientSettings settings = new KendraClientSettings(null, null, "us-west-2", null, null);
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        try (KendraHttpClient client = KendraHttpClient.builder(settings).threadPool(threadPool).build()) {
+            ThreadContext threadContext = threadPool.getThreadContext();
+            CountDownLatch completed = new CountDownLatch(1);
+            AtomicReference<String> completionThread = new AtomicReference<>();
+            AtomicReference<String> completionHeader = new AtomicReference<>();
+            try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                threadContext.putHeader("caller", "search");
+                client.rescoreAsync(new RescoreRequest("query", Collections.emptyList()), new ActionListener<>() {
+                    @Override
+                    public void onResponse(RescoreResult rescoreResult) {
+                        fail("Rescore should fail");
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        completionThread.set(Thread.currentThread().getName());
+                        completionHeader.set(threadContext.getHeader("caller"));
+                        completed.countDown();
+                    }
+                });
+            }
+            assertTrue(completed.await(10, TimeUnit.SECONDS));
+            assertTrue(completionThread.get(), completionThread.get().contains("[" + ThreadPool.Names.SEARCH + "]"));
+            assertEquals("search", completionHeader.get());
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
+}
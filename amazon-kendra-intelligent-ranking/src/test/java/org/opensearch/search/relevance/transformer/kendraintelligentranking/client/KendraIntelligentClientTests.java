@@ -8,6 +8,7 @@
 package org.opensearch.search.relevance.transformer.kendraintelligentranking.client;
 
 import org.mockito.Mockito;
+import org.opensearch.core.action.ActionListener;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreRequest;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
 import org.opensearch.test.OpenSearchTestCase;
@@ -22,6 +23,19 @@ public class KendraIntelligentClientTests extends OpenSearchTestCase {
             RescoreRequest rescoreRequest = invocation.getArgument(0);
             return mockRescoreImpl.apply(rescoreRequest);
         }).when(kendraHttpClient).rescore(Mockito.any(RescoreRequest.class));
+        Mockito.doAnswer(invocation -> {
+            RescoreRequest rescoreRequest = invocation.getArgument(0);
+            ActionListener<RescoreResult> listener = invocation.getArgument(1);
+            RescoreResult rescoreResult;
+            try {
+                rescoreResult = mockRescoreImpl.apply(rescoreRequest);
+            } catch (Exception e) {
+                listener.onFailure(e);
+                return null;
+            }
+            listener.onResponse(rescoreResult);
+            return null;
+        }).when(kendraHttpClient).rescoreAsync(Mockito.any(RescoreRequest.class), Mockito.any());
         return kendraHttpClient;
     }
 
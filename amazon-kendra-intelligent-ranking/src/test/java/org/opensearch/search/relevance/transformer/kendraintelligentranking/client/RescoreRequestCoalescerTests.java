@@ -0,0 +1,173 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.client;
+
+import org.mockito.Mockito;
+import org.opensearch.common.lease.Releasable;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.Document;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreRequest;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.dto.RescoreResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class RescoreRequestCoalescerTests extends KendraIntelligentClientTests {
+
+    public void testConcurrentIdenticalRequestsShareOneCall() {
+        List<ActionListener<RescoreResult>> pendingCalls = new ArrayList<>();
+        KendraHttpClient kendraClient = buildPendingHttpClient(pendingCalls);
+        RescoreRequestCoalescer coalescer = new RescoreRequestCoalescer();
+
+        List<RescoreResult> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            coalescer.rescoreAsync(kendraClient, buildRescoreRequest("query", "doc1", "doc2"),
+                    ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+        }
+        // Same documents in another order and with different spacing of the query
+        coalescer.rescoreAsync(kendraClient, buildRescoreRequest(" query ", "doc2", "doc1"),
+                ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+        assertEquals(1, pendingCalls.size());
+        assertEquals(1, coalescer.getStats().getInFlightCount());
+        assertTrue(results.isEmpty());
+
+        RescoreResult rescoreResult = new RescoreResult();
+        pendingCalls.get(0).onResponse(rescoreResult);
+        assertEquals(4, results.size());
+        for (RescoreResult result : results) {
+            assertSame(rescoreResult, result);
+        }
+        assertEquals(1, coalescer.getStats().getRescoreCount());
+        assertEquals(3, coalescer.getStats().getCoalescedCount());
+        assertEquals(0, coalescer.getStats().getInFlightCount());
+
+        // Completed results are not shared
+        coalescer.rescoreAsync(kendraClient, buildRescoreRequest("query", "doc1", "doc2"), ActionListener.wrap(r -> {}, e -> {}));
+        assertEquals(2, pendingCalls.size());
+    }
+
+    public void testDifferentRequestsAreNotCoalesced() {
+        List<ActionListener<RescoreResult>> pendingCalls = new ArrayList<>();
+        KendraHttpClient kendraClient = buildPendingHttpClient(pendingCalls);
+        RescoreRequestCoalescer coalescer = new RescoreRequestCoalescer();
+
+        coalescer.rescoreAsync(kendraClient, buildRescoreRequest("query", "doc1"), ActionListener.wrap(r -> {}, e -> {}));
+        coalescer.rescoreAsync(kendraClient, buildRescoreRequest("query", "doc2"), ActionListener.wrap(r -> {}, e -> {}));
+        coalescer.rescoreAsync(kendraClient, buildRescoreRequest("other query", "doc1"), ActionListener.wrap(r -> {}, e -> {}));
+        assertEquals(3, pendingCalls.size());
+        assertEquals(0, coalescer.getStats().getCoalescedCount());
+    }
+
+    public void testFailureIsSharedWithWaiters() {
+        List<ActionListener<RescoreResult>> pendingCalls = new ArrayList<>();
+        KendraHttpClient kendraClient = buildPendingHttpClient(pendingCalls);
+        RescoreRequestCoalescer coalescer = new RescoreRequestCoalescer();
+
+        List<Exception> failures = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            coalescer.rescoreAsync(kendraClient, buildRescoreRequest("query", "doc1"),
+                    ActionListener.wrap(r -> fail("Expected failure"), failures::add));
+        }
+        RuntimeException exception = new RuntimeException("Exception executing request.");
+        pendingCalls.get(0).onFailure(exception);
+        assertEquals(List.of(exception, exception), failures);
+        assertEquals(0, coalescer.getStats().getInFlightCount());
+    }
+
+    public void testCallCancelledWhenAllWaitersGiveUp() {
+        List<ActionListener<RescoreResult>> pendingCalls = new ArrayList<>();
+        AtomicInteger cancelledCalls = new AtomicInteger();
+        KendraHttpClient kendraClient = buildPendingHttpClient(pendingCalls, cancelledCalls);
+        RescoreRequestCoalescer coalescer = new RescoreRequestCoalescer();
+
+        List<RescoreResult> results = new ArrayList<>();
+        Releasable first = coalescer.rescoreAsync(kendraClient, buildRescoreRequest("query", "doc1"),
+                ActionListener.wrap(r -> fail("Unexpected response"), e -> fail(e.getMessage())));
+        Releasable second = coalescer.rescoreAsync(kendraClient, buildRescoreRequest("query", "doc1"),
+                ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+        first.close();
+        assertEquals(0, cancelledCalls.get());
+
+        // The remaining waiter still receives the result
+        RescoreResult rescoreResult = new RescoreResult();
+        pendingCalls.get(0).onResponse(rescoreResult);
+        assertEquals(List.of(rescoreResult), results);
+        second.close();
+        assertEquals(0, cancelledCalls.get());
+
+        Releasable third = coalescer.rescoreAsync(kendraClient, buildRescoreRequest("query", "doc1"),
+                ActionListener.wrap(r -> fail("Unexpected response"), e -> fail(e.getMessage())));
+        third.close();
+        assertEquals(1, cancelledCalls.get());
+        assertEquals(1, coalescer.getStats().getCancelledCount());
+        assertEquals(0, coalescer.getStats().getInFlightCount());
+
+        // A cancelled call is not shared with later requests
+        coalescer.rescoreAsync(kendraClient, buildRescoreRequest("query", "doc1"), ActionListener.wrap(r -> {}, e -> {}));
+        assertEquals(3, pendingCalls.size());
+    }
+
+    public void testBlockingRequestWaitsForCallInFlight() throws Exception {
+        CountDownLatch callStarted = new CountDownLatch(1);
+        CountDownLatch releaseCall = new CountDownLatch(1);
+        RescoreResult rescoreResult = new RescoreResult();
+        KendraHttpClient kendraClient = buildMockHttpClient(r -> {
+            callStarted.countDown();
+            try {
+                assertTrue(releaseCall.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            return rescoreResult;
+        });
+        RescoreRequestCoalescer coalescer = new RescoreRequestCoalescer();
+
+        AtomicReference<RescoreResult> firstResult = new AtomicReference<>();
+        AtomicReference<RescoreResult> secondResult = new AtomicReference<>();
+        Thread first = new Thread(() -> firstResult.set(coalescer.rescore(kendraClient, buildRescoreRequest("query", "doc1"))));
+        first.start();
+        assertTrue(callStarted.await(10, TimeUnit.SECONDS));
+        Thread second = new Thread(() -> secondResult.set(coalescer.rescore(kendraClient, buildRescoreRequest("query", "doc1"))));
+        second.start();
+        assertBusy(() -> assertEquals(1, coalescer.getStats().getCoalescedCount()));
+        releaseCall.countDown();
+        first.join();
+        second.join();
+
+        assertSame(rescoreResult, firstResult.get());
+        assertSame(rescoreResult, secondResult.get());
+        Mockito.verify(kendraClient, Mockito.times(1)).rescore(Mockito.any(RescoreRequest.class));
+    }
+
+    private static KendraHttpClient buildPendingHttpClient(List<ActionListener<RescoreResult>> pendingCalls) {
+        return buildPendingHttpClient(pendingCalls, new AtomicInteger());
+    }
+
+    private static KendraHttpClient buildPendingHttpClient(List<ActionListener<RescoreResult>> pendingCalls,
+                                                           AtomicInteger cancelledCalls) {
+        KendraHttpClient kendraHttpClient = Mockito.mock(KendraHttpClient.class);
+        Mockito.when(kendraHttpClient.getExecutionPlanId()).thenReturn("execution-plan");
+        Mockito.doAnswer(invocation -> {
+            pendingCalls.add(invocation.getArgument(1));
+            return (Releasable) cancelledCalls::incrementAndGet;
+        }).when(kendraHttpClient).rescoreAsync(Mockito.any(RescoreRequest.class), Mockito.any());
+        return kendraHttpClient;
+    }
+
+    private static RescoreRequest buildRescoreRequest(String query, String... documentIds) {
+        List<Document> documents = new ArrayList<>();
+        for (String documentId : documentIds) {
+            documents.add(new Document(documentId, documentId, List.of("title"), List.of("body"), 1.0f));
+        }
+        return new RescoreRequest(query, documents);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.client;
+
+import org.opensearch.common.lease.Releasable;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RescoreRequestHedgerTests extends OpenSearchTestCase {
+    private static final String PLAN = "execution-plan";
+
+    private final AtomicLong nanoClock = new AtomicLong();
+    private final List<Runnable> scheduledHedges = new ArrayList<>();
+    private final List<TimeValue> hedgeDelays = new ArrayList<>();
+    private final List<ActionListener<String>> pendingAttempts = new ArrayList<>();
+    private final AtomicInteger cancelledAttempts = new AtomicInteger();
+
+    public void testNoHedgeWithoutLatencySamples() {
+        RescoreRequestHedger hedger = buildHedger(1.0);
+        List<String> results = new ArrayList<>();
+        hedger.execute(PLAN, this::pendingCall, ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+        assertTrue(scheduledHedges.isEmpty());
+
+        pendingAttempts.get(0).onResponse("result");
+        assertEquals(List.of("result"), results);
+        assertEquals(-1, hedger.getStats().getTargets().get(PLAN).getHedgeDelayInMillis());
+    }
+
+    public void testSlowCallIsHedged() {
+        RescoreRequestHedger hedger = buildHedger(1.0);
+        recordLatencies(hedger, 100, TimeValue.timeValueMillis(10));
+
+        List<String> results = new ArrayList<>();
+        hedger.execute(PLAN, this::pendingCall, ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+        assertEquals(1, scheduledHedges.size());
+        // The delay is the upper bound of the histogram bucket holding the percentile
+        assertTrue(hedgeDelays.get(0).millis() >= 10 && hedgeDelays.get(0).millis() < 12);
+
+        scheduledHedges.get(0).run();
+        assertEquals(2, pendingAttempts.size());
+        pendingAttempts.get(1).onResponse("hedge");
+        assertEquals(List.of("hedge"), results);
+        // The first request is cancelled, and its late response ignored
+        assertEquals(1, cancelledAttempts.get());
+        pendingAttempts.get(0).onResponse("first");
+        assertEquals(List.of("hedge"), results);
+
+        RescoreRequestHedger.Stats stats = hedger.getStats();
+        assertEquals(101, stats.getCallCount());
+        assertEquals(1, stats.getHedgedCount());
+        assertEquals(1, stats.getHedgeWonCount());
+    }
+
+    public void testHedgeLatencyIsMeasuredFromCallStart() {
+        RescoreRequestHedger hedger = buildHedger(1.0);
+        recordLatencies(hedger, 100, TimeValue.timeValueMillis(10));
+
+        for (int i = 0; i < 100; i++) {
+            hedger.execute(PLAN, this::pendingCall, ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+            nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(11));
+            scheduledHedges.get(i).run();
+            nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+            pendingAttempts.get(2 * i + 1).onResponse("hedge");
+        }
+        // Fast hedges do not pull the delay down, the first requests were pending for 12ms
+        assertEquals(100, hedger.getStats().getHedgeWonCount());
+        assertTrue(hedger.getStats().getTargets().get(PLAN).getHedgeDelayInMillis() >= 12);
+    }
+
+    public void testFailedAttemptWaitsForOtherAttempts() {
+        RescoreRequestHedger hedger = buildHedger(1.0);
+        recordLatencies(hedger, 100, TimeValue.timeValueMillis(10));
+
+        List<String> results = new ArrayList<>();
+        hedger.execute(PLAN, this::pendingCall, ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+        scheduledHedges.get(0).run();
+        pendingAttempts.get(0).onFailure(new RuntimeException("Rescore failure"));
+        assertTrue(results.isEmpty());
+        pendingAttempts.get(1).onResponse("hedge");
+        assertEquals(List.of("hedge"), results);
+
+        // A call fails right away when it fails before being hedged
+        List<Exception> failures = new ArrayList<>();
+        hedger.execute(PLAN, this::pendingCall, ActionListener.wrap(r -> fail("Unexpected response"), failures::add));
+        pendingAttempts.get(2).onFailure(new RuntimeException("Rescore failure"));
+        assertEquals(1, failures.size());
+        scheduledHedges.get(1).run();
+        assertEquals(3, pendingAttempts.size());
+    }
+
+    public void testHedgeRateIsCapped() {
+        RescoreRequestHedger hedger = buildHedger(0.0);
+        recordLatencies(hedger, 100, TimeValue.timeValueMillis(10));
+
+        hedger.execute(PLAN, this::pendingCall, ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+        scheduledHedges.get(0).run();
+        assertEquals(1, pendingAttempts.size());
+        assertEquals(0, hedger.getStats().getHedgedCount());
+        assertEquals(1, hedger.getStats().getHedgeCappedCount());
+    }
+
+    public void testReleaseCancelsAllAttempts() {
+        RescoreRequestHedger hedger = buildHedger(1.0);
+        recordLatencies(hedger, 100, TimeValue.timeValueMillis(10));
+
+        Releasable call = hedger.execute(PLAN, this::pendingCall,
+                ActionListener.wrap(r -> fail("Unexpected response"), e -> fail(e.getMessage())));
+        scheduledHedges.get(0).run();
+        call.close();
+        assertEquals(2, cancelledAttempts.get());
+        pendingAttempts.get(0).onFailure(new RuntimeException("Rescore request was cancelled."));
+        pendingAttempts.get(1).onResponse("hedge");
+    }
+
+    public void testLatencyHistogram() {
+        RescoreRequestHedger.LatencyHistogram histogram = new RescoreRequestHedger.LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        long p50 = histogram.getPercentileNanos(0.5);
+        long p99 = histogram.getPercentileNanos(0.99);
+        assertTrue(p50 >= TimeUnit.MILLISECONDS.toNanos(50) && p50 < TimeUnit.MILLISECONDS.toNanos(60));
+        assertTrue(p99 >= TimeUnit.MILLISECONDS.toNanos(99) && p99 < TimeUnit.MILLISECONDS.toNanos(119));
+        assertEquals(0, RescoreRequestHedger.LatencyHistogram.bucket(0));
+        assertEquals(79, RescoreRequestHedger.LatencyHistogram.bucket(Long.MAX_VALUE));
+    }
+
+    private Releasable pendingCall(ActionListener<String> listener) {
+        pendingAttempts.add(listener);
+        return cancelledAttempts::incrementAndGet;
+    }
+
+    private void recordLatencies(RescoreRequestHedger hedger, int count, TimeValue latency) {
+        for (int i = 0; i < count; i++) {
+            hedger.execute(PLAN, listener -> {
+                nanoClock.addAndGet(latency.nanos());
+                listener.onResponse("result");
+                return () -> {};
+            }, ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+        }
+        assertTrue(scheduledHedges.isEmpty());
+    }
+
+    private RescoreRequestHedger buildHedger(double maxHedgeRate) {
+        ThreadPool threadPool = mock(ThreadPool.class);
+        when(threadPool.schedule(any(Runnable.class), any(TimeValue.class), anyString())).thenAnswer(invocation -> {
+            scheduledHedges.add(invocation.getArgument(0));
+            hedgeDelays.add(invocation.getArgument(1));
+            return null;
+        });
+        return new RescoreRequestHedger(threadPool, 0.95, TimeValue.timeValueMillis(1), maxHedgeRate, nanoClock::get);
+    }
+}
@@ -13,6 +13,7 @@ import com.amazonaws.AmazonServiceException;
 import com.amazonaws.DefaultRequest;
 import com.amazonaws.Request;
 import com.amazonaws.http.HttpResponse;
+import com.amazonaws.retry.RetryUtils;
 import org.apache.http.HttpStatus;
 import org.opensearch.test.OpenSearchTestCase;
 
@@ -42,4 +43,46 @@ public class SimpleAwsErrorHandlerTests extends OpenSearchTestCase {
         assertEquals(STATUS_TEXT, ase.getErrorCode());
         assertEquals(SERVICE_NAME, ase.getServiceName());
     }
-}
\ No newline at end of file
+
+    public void testErrorCodeFromErrorTypeHeader() throws Exception {
+        HttpResponse httpResponse = new HttpResponse(new DefaultRequest<>(SERVICE_NAME), null, null);
+        httpResponse.setContent(new ByteArrayInputStream(ERROR_MESSAGE.getBytes(StandardCharsets.UTF_8)));
+        httpResponse.setStatusCode(HttpStatus.SC_BAD_REQUEST);
+        httpResponse.setStatusText("Bad Request");
+        httpResponse.addHeader(SimpleAwsErrorHandler.ERROR_TYPE_HEADER,
+                "ThrottlingException:http://internal.amazon.com/coral/com.amazonaws.kendra/");
+
+        AmazonServiceException ase = new SimpleAwsErrorHandler().handle(httpResponse);
+
+        assertEquals(HttpStatus.SC_BAD_REQUEST, ase.getStatusCode());
+        assertEquals("ThrottlingException", ase.getErrorCode());
+        assertEquals(AmazonServiceException.ErrorType.Client, ase.getErrorType());
+        assertTrue(RetryUtils.isThrottlingException(ase));
+    }
+
+    public void testErrorCodeFromBodyType() throws Exception {
+        final String body = "{\"__type\":\"com.amazonaws.kendra#ThrottlingException\",\"message\":\"Rate exceeded\"}";
+        HttpResponse httpResponse = new HttpResponse(new DefaultRequest<>(SERVICE_NAME), null, null);
+        httpResponse.setContent(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        httpResponse.setStatusCode(HttpStatus.SC_BAD_REQUEST);
+        httpResponse.setStatusText("Bad Request");
+
+        AmazonServiceException ase = new SimpleAwsErrorHandler().handle(httpResponse);
+
+        assertEquals("ThrottlingException", ase.getErrorCode());
+        assertTrue(RetryUtils.isThrottlingException(ase));
+    }
+
+    public void testServiceErrorType() throws Exception {
+        HttpResponse httpResponse = new HttpResponse(new DefaultRequest<>(SERVICE_NAME), null, null);
+        httpResponse.setContent(new ByteArrayInputStream("not json".getBytes(StandardCharsets.UTF_8)));
+        httpResponse.setStatusCode(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        httpResponse.setStatusText("Internal Server Error");
+
+        AmazonServiceException ase = new SimpleAwsErrorHandler().handle(httpResponse);
+
+        assertEquals("Internal Server Error", ase.getErrorCode());
+        assertEquals(AmazonServiceException.ErrorType.Service, ase.getErrorType());
+        assertFalse(RetryUtils.isThrottlingException(ase));
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration;
+
+import org.opensearch.common.settings.Settings;
+import org.opensearch.search.relevance.client.RateLimiter;
+import org.opensearch.search.relevance.client.RemoteCallGuard;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.concurrent.RejectedExecutionException;
+
+public class KendraIntelligentRankerSettingsTests extends OpenSearchTestCase {
+    private static final String ENDPOINT = "https://kendra-ranking.us-west-2.api.aws/rescore-execution-plans/plan/rescore";
+    private static final String PLAN = "execution-plan";
+
+    public void testCreateCallGuard() {
+        assertNotNull(KendraIntelligentRankerSettings.createCallGuard(Settings.EMPTY));
+        assertNull(KendraIntelligentRankerSettings.createCallGuard(Settings.builder()
+                .put("kendra_intelligent_ranking.rescore.circuit_breaker.enabled", false)
+                .build()));
+        RemoteCallGuard bulkheadOnly = KendraIntelligentRankerSettings.createCallGuard(Settings.builder()
+                .put("kendra_intelligent_ranking.rescore.circuit_breaker.enabled", false)
+                .put("kendra_intelligent_ranking.rescore.max_concurrent_calls", 1)
+                .build());
+        assertNotNull(bulkheadOnly);
+        for (int i = 0; i < 10; i++) {
+            bulkheadOnly.acquire(ENDPOINT).onFailure(new RuntimeException("Exception executing request."));
+        }
+        assertTrue(bulkheadOnly.getStats().getCircuitBreakers().isEmpty());
+        bulkheadOnly.acquire(ENDPOINT);
+        RejectedExecutionException e = expectThrows(RejectedExecutionException.class, () -> bulkheadOnly.acquire(ENDPOINT));
+        assertTrue(e.getMessage().contains("Kendra Intelligent Ranking"));
+        expectThrows(IllegalArgumentException.class, () -> KendraIntelligentRankerSettings.createCallGuard(Settings.builder()
+                .put("kendra_intelligent_ranking.rescore.circuit_breaker.latency_percentile", 1.5)
+                .build()));
+    }
+
+    public void testCreateRateLimiter() {
+        assertNull(KendraIntelligentRankerSettings.createRateLimiter(Settings.EMPTY));
+        assertNotNull(KendraIntelligentRankerSettings.createRateLimiter(Settings.builder()
+                .put("kendra_intelligent_ranking.rescore.rate_limit.requests_per_second", 50)
+                .build()));
+        RateLimiter rateLimiter = KendraIntelligentRankerSettings.createRateLimiter(Settings.builder()
+                .putList("kendra_intelligent_ranking.rescore.rate_limit.execution_plans", PLAN + "=1")
+                .build());
+        assertNotNull(rateLimiter);
+        rateLimiter.acquire(PLAN);
+        expectThrows(RejectedExecutionException.class, () -> rateLimiter.acquire(PLAN));
+        expectThrows(IllegalArgumentException.class, () -> KendraIntelligentRankerSettings.createRateLimiter(Settings.builder()
+                .putList("kendra_intelligent_ranking.rescore.rate_limit.execution_plans", PLAN)
+                .build()));
+    }
+}
@@ -7,14 +7,18 @@
  */
 package org.opensearch.search.relevance.transformer.kendraintelligentranking.configuration;
 
+import org.opensearch.Version;
 import org.opensearch.core.common.bytes.BytesReference;
+import org.opensearch.core.common.io.stream.StreamInput;
 import org.opensearch.common.io.stream.BytesStreamOutput;
 import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
 import org.opensearch.common.xcontent.XContentHelper;
 import org.opensearch.common.xcontent.XContentType;
 import org.opensearch.core.xcontent.XContentParser;
 import org.opensearch.search.relevance.configuration.Constants;
 import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.test.VersionUtils;
 
 import java.io.IOException;
 import java.util.List;
@@ -47,12 +51,33 @@ public class KendraIntelligentRankingConfigurationTests extends OpenSearchTestCa
         assertEquals(expected, deserialized);
     }
 
+    public void testSerializeToStreamOfOlderVersion() throws IOException {
+        KendraIntelligentRankingConfiguration configuration = new KendraIntelligentRankingConfiguration(1,
+                new KendraIntelligentRankingConfiguration.KendraIntelligentRankingProperties(List.of("body1"),
+                        List.of("title1"), 30, false, TimeValue.timeValueMillis(100)));
+        Version olderVersion = VersionUtils.getPreviousVersion(
+                KendraIntelligentRankingConfiguration.KendraIntelligentRankingProperties.CACHE_ENABLED_AND_LATENCY_BUDGET_VERSION);
+        BytesStreamOutput bytesStreamOutput = new BytesStreamOutput();
+        bytesStreamOutput.setVersion(olderVersion);
+        configuration.writeTo(bytesStreamOutput);
+
+        StreamInput input = bytesStreamOutput.bytes().streamInput();
+        input.setVersion(olderVersion);
+        KendraIntelligentRankingConfiguration deserialized = new KendraIntelligentRankingConfiguration(input);
+        // Properties unknown to older nodes take their default values
+        assertEquals(new KendraIntelligentRankingConfiguration(1,
+                new KendraIntelligentRankingConfiguration.KendraIntelligentRankingProperties(List.of("body1"),
+                        List.of("title1"), 30)), deserialized);
+        assertEquals(-1, input.read());
+    }
+
     private static KendraIntelligentRankingConfiguration getKendraIntelligentRankingConfiguration() {
         int order = randomInt(10) + 1;
         int docLimit = randomInt( Integer.MAX_VALUE - 25) + 25;
         KendraIntelligentRankingConfiguration.KendraIntelligentRankingProperties properties =
                 new KendraIntelligentRankingConfiguration.KendraIntelligentRankingProperties(List.of("body1"),
-                        List.of("title1"), docLimit);
+                        List.of("title1"), docLimit, randomBoolean(),
+                        randomBoolean() ? TimeValue.MINUS_ONE : TimeValue.timeValueMillis(randomIntBetween(0, 1000)));
         return new KendraIntelligentRankingConfiguration(order, properties);
     }
 
@@ -76,4 +101,30 @@ public class KendraIntelligentRankingConfigurationTests extends OpenSearchTestCa
 
         assertEquals(expected, actual);
     }
-}
\ No newline at end of file
+
+    public void testReadCacheEnabledFromSettings() {
+        Settings settings = Settings.builder()
+                .put(Constants.ORDER, 1)
+                .put("properties.body_field", "body1")
+                .put("properties.cache_enabled", false)
+                .build();
+
+        KendraIntelligentRankingConfiguration actual = new KendraIntelligentRankingConfiguration(settings);
+
+        assertFalse(actual.getProperties().isCacheEnabled());
+        assertTrue(new KendraIntelligentRankingConfiguration(Settings.EMPTY).getProperties().isCacheEnabled());
+    }
+
+    public void testReadLatencyBudgetFromSettings() {
+        Settings settings = Settings.builder()
+                .put(Constants.ORDER, 1)
+                .put("properties.body_field", "body1")
+                .put("properties.latency_budget", "150ms")
+                .build();
+
+        KendraIntelligentRankingConfiguration actual = new KendraIntelligentRankingConfiguration(settings);
+
+        assertEquals(TimeValue.timeValueMillis(150), actual.getProperties().getLatencyBudget());
+        assertEquals(TimeValue.MINUS_ONE, new KendraIntelligentRankingConfiguration(Settings.EMPTY).getProperties().getLatencyBudget());
+    }
+}
@@ -12,6 +12,9 @@ import org.opensearch.OpenSearchParseException;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.search.SearchResponseSections;
+import org.mockito.Mockito;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.action.ActionListener;
 import org.opensearch.core.common.bytes.BytesArray;
 import org.opensearch.common.document.DocumentField;
 import org.opensearch.common.settings.Settings;
@@ -20,13 +23,21 @@ import org.opensearch.env.TestEnvironment;
 import org.opensearch.index.query.MatchQueryBuilder;
 import org.opensearch.index.query.QueryBuilder;
 import org.opensearch.search.SearchHit;
+import org.opensearch.search.SearchExtBuilder;
 import org.opensearch.search.SearchHits;
 import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.search.pipeline.Processor;
+import org.opensearch.search.relevance.transformer.ResultTransformerResponseExtBuilder;
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.KendraIntelligentRanker;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraClientSettings;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraHttpClient;
 import org.opensearch.search.relevance.transformer.kendraintelligentranking.client.KendraIntelligentClientTests;
+import org.opensearch.search.relevance.client.LatencyBudget;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 public class KendraRankingResponseProcessorTests extends KendraIntelligentClientTests {
@@ -59,7 +70,7 @@ public class KendraRankingResponseProcessorTests extends KendraIntelligentClient
 
     public void testFactory() throws Exception {
 
-        KendraRankingResponseProcessor.Factory factory = new KendraRankingResponseProcessor.Factory( this.clientSettings);
+        KendraRankingResponseProcessor.Factory factory = KendraRankingResponseProcessor.Factory.builder(this.clientSettings).build();
 
         //test create without title field, expect exceptions
         expectThrows(OpenSearchParseException.class, () -> factory.create(
@@ -110,6 +121,27 @@ public class KendraRankingResponseProcessorTests extends KendraIntelligentClient
         assertEquals("testingNullTitleField", processorWithNullTitleField.getDescription());
 
     }
+    public void testFactorySharesKendraClient() throws Exception {
+        KendraRankingResponseProcessor.Factory factory = KendraRankingResponseProcessor.Factory.builder(this.clientSettings).build();
+        Map<String, Object> configuration = new HashMap<>();
+        configuration.put("body_field", "body");
+        factory.create(Collections.emptyMap(), "tmp0", null, false, new HashMap<>(configuration),
+                new Processor.PipelineContext(Processor.PipelineSource.VALIDATE_PIPELINE));
+        // Validated processors never run
+        assertNull(factory.getKendraClient());
+
+        factory.create(Collections.emptyMap(), "tmp1", null, false, new HashMap<>(configuration),
+                new Processor.PipelineContext(Processor.PipelineSource.UPDATE_PIPELINE));
+        KendraHttpClient kendraClient = factory.getKendraClient();
+        assertNotNull(kendraClient);
+        factory.create(Collections.emptyMap(), "tmp2", null, false, new HashMap<>(configuration),
+                new Processor.PipelineContext(Processor.PipelineSource.UPDATE_PIPELINE));
+        assertSame(kendraClient, factory.getKendraClient());
+
+        factory.close();
+        assertNull(factory.getKendraClient());
+    }
+
     public void testRankingResponse() throws Exception {
         KendraHttpClient kendraClient = buildMockHttpClient();
         List<String> titleField = new ArrayList<>();
@@ -118,20 +150,75 @@ public class KendraRankingResponseProcessorTests extends KendraIntelligentClient
         bodyField.add("body");
 
         //test response with titleField, bodyField and docLimit
-        KendraRankingResponseProcessor processorWtOptionalConfig = new KendraRankingResponseProcessor(null,null,false, titleField,bodyField,500,kendraClient);
+        KendraRankingResponseProcessor processorWtOptionalConfig = KendraRankingResponseProcessor.builder(null, null, false, titleField, bodyField, 500,
+                KendraIntelligentRanker.builder(kendraClient).build()).build();
         int size = 5;
         SearchResponse reRankedResponse0 = processorWtOptionalConfig.processResponse(createRequest(),createResponse(size));
         assertEquals(size,reRankedResponse0.getHits().getHits().length);
 
         //test response with null doc limit
-        KendraRankingResponseProcessor processorWtTwoConfig = new KendraRankingResponseProcessor(null,null,false, titleField,bodyField,null,kendraClient);
+        KendraRankingResponseProcessor processorWtTwoConfig = KendraRankingResponseProcessor.builder(null, null, false, titleField, bodyField, null,
+                KendraIntelligentRanker.builder(kendraClient).build()).build();
         SearchResponse reRankedResponse1 = processorWtTwoConfig.processResponse(createRequest(),createResponse(size));
         assertEquals(size,reRankedResponse1.getHits().getHits().length);
 
         //test response with null doc limit and null title field
-        KendraRankingResponseProcessor processorWtOneConfig = new KendraRankingResponseProcessor(null,null,false,null,bodyField,null,kendraClient);
+        KendraRankingResponseProcessor processorWtOneConfig = KendraRankingResponseProcessor.builder(null, null, false, null, bodyField, null,
+                KendraIntelligentRanker.builder(kendraClient).build()).build();
         SearchResponse reRankedResponse2 = processorWtOneConfig.processResponse(createRequest(),createResponse(size));
         assertEquals(size,reRankedResponse2.getHits().getHits().length);
 
     }
+
+    public void testRankingResponseAsync() throws Exception {
+        KendraHttpClient kendraClient = buildMockHttpClient();
+        List<String> titleField = new ArrayList<>();
+        titleField.add("field");
+        List<String> bodyField = new ArrayList<>();
+        bodyField.add("body");
+
+        KendraRankingResponseProcessor processor = KendraRankingResponseProcessor.builder(null, null, false, titleField, bodyField, 500,
+                KendraIntelligentRanker.builder(kendraClient).build()).build();
+        int size = 5;
+        AtomicReference<SearchResponse> responseRef = new AtomicReference<>();
+        processor.processResponseAsync(createRequest(), createResponse(size), null,
+                ActionListener.wrap(responseRef::set, e -> fail("Unexpected failure: " + e)));
+        assertNotNull(responseRef.get());
+        assertEquals(size, responseRef.get().getHits().getHits().length);
+
+        //test empty response is returned as is
+        SearchResponse emptyResponse = createResponse(0);
+        processor.processResponseAsync(createRequest(), emptyResponse, null,
+                ActionListener.wrap(responseRef::set, e -> fail("Unexpected failure: " + e)));
+        assertSame(emptyResponse, responseRef.get());
+    }
+
+    public void testRankingResponseAsyncFallsBackWhenSearchTimedOut() throws Exception {
+        KendraHttpClient kendraClient = buildMockHttpClient();
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            KendraIntelligentRanker ranker = KendraIntelligentRanker.builder(kendraClient)
+                    .latencyBudget(new LatencyBudget(threadPool, TimeValue.MINUS_ONE))
+                    .build();
+            KendraRankingResponseProcessor processor = KendraRankingResponseProcessor.builder(null, null, false,
+                    List.of("field"), List.of("body"), 500, ranker)
+                    .latencyBudget(TimeValue.timeValueSeconds(1))
+                    .build();
+            // The search took 10ms, which spends the whole time left before the request times out
+            SearchRequest request = createRequest();
+            request.source().timeout(TimeValue.timeValueMillis(5));
+            SearchResponse response = createResponse(5);
+            AtomicReference<SearchResponse> responseRef = new AtomicReference<>();
+            processor.processResponseAsync(request, response, null,
+                    ActionListener.wrap(responseRef::set, e -> fail("Unexpected failure: " + e)));
+
+            assertNotNull(responseRef.get());
+            assertArrayEquals(response.getHits().getHits(), responseRef.get().getHits().getHits());
+            List<SearchExtBuilder> extBuilders = responseRef.get().getInternalResponse().getSearchExtBuilders();
+            assertEquals(List.of(new ResultTransformerResponseExtBuilder(List.of(KendraIntelligentRanker.NAME))), extBuilders);
+            Mockito.verify(kendraClient, Mockito.never()).rescoreAsync(Mockito.any(), Mockito.any());
+        } finally {
+            terminate(threadPool);
+        }
+    }
 }
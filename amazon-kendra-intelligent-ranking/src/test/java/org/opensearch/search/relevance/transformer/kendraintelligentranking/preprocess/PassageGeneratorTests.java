@@ -195,6 +195,47 @@ public class PassageGeneratorTests extends OpenSearchTestCase {
     List<List<String>> actual = passageGenerator.generateTokenizedSentences(document, MAX_SENTENCE_LENGTH_IN_TOKENS);
     assertEquals(expected, actual);
   }
-  
+  public void testGeneratePassages_MatchesSentenceAndPassageCombination() {
+    final String[] words = {"search", "engine", "open", "source", "the", "lucene", "index", "shard", "a1", "2.0"};
+    for (int iteration = 0; iteration < 200; ++iteration) {
+      StringBuilder document = new StringBuilder();
+      int sentenceCount = randomIntBetween(0, 40);
+      for (int i = 0; i < sentenceCount; ++i) {
+        // Mix short sentences with sentences long enough to be broken up
+        int wordCount = randomBoolean() ? randomIntBetween(0, 5) : randomIntBetween(0, 60);
+        for (int j = 0; j < wordCount; ++j) {
+          document.append(randomFrom(words)).append(' ');
+        }
+        document.append(randomFrom(". ", "! ", "? "));
+      }
+      final int maxSentenceLengthInTokens = randomIntBetween(1, 40);
+      final int minPassageLengthInTokens = randomIntBetween(1, 120);
+      final int maxPassageCount = randomIntBetween(1, 12);
+
+      List<List<String>> expected = passageGenerator.generatePassagesWithOverlap(
+          passageGenerator.combineSentencesIntoPassages(
+              passageGenerator.generateTokenizedSentences(document.toString(), maxSentenceLengthInTokens),
+              minPassageLengthInTokens, maxPassageCount / 2 + 1));
+      if (document.toString().isBlank()) {
+        expected = Collections.emptyList();
+      }
+      assertEquals(document.toString(), expected, passageGenerator.generatePassages(
+          document.toString(), maxSentenceLengthInTokens, minPassageLengthInTokens, maxPassageCount));
+    }
+  }
+
+  public void testGeneratePassages_IgnoresTextAfterLastPassage() {
+    final String document = String.join(" ", PASSAGE_1_SENTENCE_1, PASSAGE_1_SENTENCE_2,
+        PASSAGE_1_LONG_SENTENCE, PASSAGE_2_SENTENCE_1, PASSAGE_2_SENTENCE_2, PASSAGE_2_LONG_SENTENCE);
+    StringBuilder longDocument = new StringBuilder(document);
+    for (int i = 0; i < 1000; ++i) {
+      longDocument.append(" Trailing sentence number ").append(i).append('.');
+    }
+
+    List<List<String>> passages = passageGenerator.generatePassages(
+        document, MAX_SENTENCE_LENGTH_IN_TOKENS, MIN_PASSAGE_LENGTH_IN_TOKENS, 2);
+    assertEquals(passages, passageGenerator.generatePassages(
+        longDocument.toString(), MAX_SENTENCE_LENGTH_IN_TOKENS, MIN_PASSAGE_LENGTH_IN_TOKENS, 2));
+  }
 
 }
@@ -9,7 +9,9 @@ package org.opensearch.search.relevance.transformer.kendraintelligentranking.pre
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import org.opensearch.test.OpenSearchTestCase;
 
 public class SentenceSplitterTests extends OpenSearchTestCase {
@@ -36,4 +38,18 @@ public class SentenceSplitterTests extends OpenSearchTestCase {
         "Testing lots of spaces    !",
         "and a long word Pneumonoultramicroscopicsilicovolcanoconiosis"), splitSentences);
   }
+
+  public void testIterate() {
+    final String text = String.join(" ", TEXT_1 + "   ", TEXT_2, TEXT_3, TEXT_4);
+    Iterator<String> sentences = sentenceSplitter.iterate(text);
+    for (String expected : sentenceSplitter.split(text)) {
+      assertTrue(sentences.hasNext());
+      assertEquals(expected, sentences.next());
+    }
+    assertFalse(sentences.hasNext());
+    expectThrows(NoSuchElementException.class, sentences::next);
+
+    assertFalse(sentenceSplitter.iterate(null).hasNext());
+    assertFalse(sentenceSplitter.iterate("  ").hasNext());
+  }
 }
@@ -0,0 +1,113 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.opensearch.OpenSearchParseException;
+import org.opensearch.common.xcontent.XContentFactory;
+import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.core.common.bytes.BytesArray;
+import org.opensearch.core.common.bytes.BytesReference;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.search.SearchHit;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class SourceFieldExtractorTests extends OpenSearchTestCase {
+
+  public void testExtractTopLevelFields() throws IOException {
+    SearchHit hit = buildHit(randomFrom(XContentType.values()), builder -> builder
+        .field("body", "Body text")
+        .field("count", 42)
+        .field("flag", true)
+        .array("tags", "a", "b")
+        .startObject("object").field("inner", "value").endObject()
+        .nullField("empty"));
+    SourceFieldExtractor extractor = new SourceFieldExtractor(
+        Arrays.asList("body", "count", "flag", "tags", "object", "empty", "missing", null));
+    Map<String, Object> sourceMap = hit.getSourceAsMap();
+    for (String field : List.of("body", "count", "flag", "tags", "object", "empty", "missing")) {
+      assertEquals(field, sourceMap.get(field), extractor.getValue(hit, field));
+    }
+  }
+
+  public void testExtractDottedPaths() throws IOException {
+    SearchHit hit = buildHit(XContentType.JSON, builder -> builder
+        .field("title", "Top level title")
+        .startObject("content")
+        .field("title", "Nested title")
+        .startObject("text").field("body", "Nested body").endObject()
+        .endObject()
+        .field("metadata.author", "Key with a dot"));
+    SourceFieldExtractor extractor = new SourceFieldExtractor(
+        List.of("content.title", "content.text.body", "metadata.author", "content.missing"));
+    assertEquals("Nested title", extractor.getValue(hit, "content.title"));
+    assertEquals("Nested body", extractor.getValue(hit, "content.text.body"));
+    assertEquals("Key with a dot", extractor.getValue(hit, "metadata.author"));
+    assertNull(extractor.getValue(hit, "content.missing"));
+  }
+
+  public void testExtractFieldsNestedInExtractedObject() throws IOException {
+    SearchHit hit = buildHit(XContentType.JSON, builder -> builder
+        .startObject("content").field("body", "Nested body").endObject());
+    SourceFieldExtractor extractor = new SourceFieldExtractor(List.of("content", "content.body"));
+    assertEquals(Map.of("body", "Nested body"), extractor.getValue(hit, "content"));
+    assertEquals("Nested body", extractor.getValue(hit, "content.body"));
+  }
+
+  public void testReadsPrefixOfFieldsWithLengthBudget() throws IOException {
+    SearchHit hit = buildHit(randomFrom(XContentType.values()), builder -> builder
+        .field("body", "Body text \uD83D\uDE00 that is long")
+        .field("title", "Title")
+        .array("tags", "a", "b"));
+    SourceFieldExtractor extractor = new SourceFieldExtractor(List.of("body", "title", "tags"),
+        Map.of("body", 4, "title", 10, "tags", 1));
+    assertEquals("Body", extractor.getValue(hit, "body"));
+    assertEquals("Title", extractor.getValue(hit, "title"));
+    // Only string values are cut
+    assertEquals(List.of("a", "b"), extractor.getValue(hit, "tags"));
+
+    // Never ends with half a surrogate pair
+    SourceFieldExtractor surrogateExtractor = new SourceFieldExtractor(List.of("body"), Map.of("body", 11));
+    assertEquals("Body text ", surrogateExtractor.getValue(hit, "body"));
+  }
+
+  public void testCachesFieldsPerHit() throws IOException {
+    SearchHit hit = buildHit(XContentType.JSON, builder -> builder.field("body", "Body text"));
+    SourceFieldExtractor extractor = new SourceFieldExtractor(List.of("body"));
+    assertSame(extractor.extract(hit), extractor.extract(hit));
+
+    SearchHit otherHit = buildHit(XContentType.JSON, builder -> builder.field("body", "Other body text"));
+    assertEquals("Other body text", extractor.getValue(otherHit, "body"));
+  }
+
+  public void testHitWithoutSource() {
+    SearchHit hit = new SearchHit(0, "doc", Map.of(), Map.of());
+    assertNull(new SourceFieldExtractor(List.of("body")).getValue(hit, "body"));
+  }
+
+  public void testInvalidSource() {
+    SearchHit hit = new SearchHit(0, "doc", Map.of(), Map.of());
+    hit.sourceRef(new BytesArray("{\"body\": "));
+    expectThrows(OpenSearchParseException.class, () -> new SourceFieldExtractor(List.of("body")).extract(hit));
+  }
+
+  private interface SourceBuilder {
+    void build(XContentBuilder builder) throws IOException;
+  }
+
+  private static SearchHit buildHit(XContentType xContentType, SourceBuilder sourceBuilder) throws IOException {
+    XContentBuilder builder = XContentFactory.contentBuilder(xContentType).startObject();
+    sourceBuilder.build(builder);
+    SearchHit hit = new SearchHit(0, "doc", Map.of(), Map.of());
+    hit.sourceRef(BytesReference.bytes(builder.endObject()));
+    return hit;
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.opensearch.test.OpenSearchTestCase;
+
+public class TermDictionaryTests extends OpenSearchTestCase {
+
+  public void testAddAndFind() {
+    TermDictionary dictionary = new TermDictionary();
+    assertEquals(-1, dictionary.find("search"));
+    assertEquals(0, dictionary.add("search"));
+    assertEquals(1, dictionary.add("engine"));
+    assertEquals(0, dictionary.add("search"));
+
+    char[] buffer = "xxsearchxx".toCharArray();
+    assertEquals(0, dictionary.find(buffer, 2, 6));
+    assertEquals(0, dictionary.add(buffer, 2, 6));
+    assertEquals(-1, dictionary.find(buffer, 2, 5));
+    assertEquals(2, dictionary.size());
+
+    assertEquals("search", dictionary.getTerm(0));
+    assertSame(dictionary.getTerm(1), dictionary.getTerm(1));
+    expectThrows(IndexOutOfBoundsException.class, () -> dictionary.getTerm(2));
+  }
+
+  public void testManyTerms() {
+    TermDictionary dictionary = new TermDictionary();
+    Map<String, Integer> expectedIds = new HashMap<>();
+    int numTerms = randomIntBetween(100, 2000);
+    for (int i = 0; i < numTerms; ++i) {
+      String term = randomAlphaOfLengthBetween(1, 30);
+      Integer expectedId = expectedIds.get(term);
+      int id = dictionary.add(term);
+      if (expectedId == null) {
+        assertEquals(expectedIds.size(), id);
+        expectedIds.put(term, id);
+      } else {
+        assertEquals(expectedId.intValue(), id);
+      }
+    }
+    assertEquals(expectedIds.size(), dictionary.size());
+    for (Map.Entry<String, Integer> entry : expectedIds.entrySet()) {
+      assertEquals(entry.getValue().intValue(), dictionary.find(entry.getKey()));
+      assertEquals(entry.getKey(), dictionary.getTerm(entry.getValue()));
+    }
+  }
+}
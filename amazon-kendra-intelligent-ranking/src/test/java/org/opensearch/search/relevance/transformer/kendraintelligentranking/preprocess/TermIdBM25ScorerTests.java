@@ -0,0 +1,115 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.opensearch.search.relevance.transformer.kendraintelligentranking.model.PassageScore;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class TermIdBM25ScorerTests extends OpenSearchTestCase {
+  private static final double B = 0.75;
+  private static final double K1 = 1.6;
+
+  public void testScoresMatchBM25Scorer() {
+    TextTokenizer textTokenizer = new TextTokenizer();
+    List<List<String>> documents = Arrays.asList(
+        textTokenizer.tokenize("OpenSearch is a distributed, community-driven, Apache 2.0-licensed, 100% open-source search and analytics suite"),
+        textTokenizer.tokenize("OpenSearch is powered by the Apache Lucene search library"),
+        textTokenizer.tokenize("The sky is blue"),
+        Collections.emptyList());
+    assertEquivalent(documents, textTokenizer.tokenize("Apache Lucene search library"));
+    assertEquivalent(documents, textTokenizer.tokenize("sky color"));
+    assertEquivalent(documents, textTokenizer.tokenize("search search opensearch"));
+    assertEquivalent(documents, Collections.emptyList());
+  }
+
+  public void testRandomScoresMatchBM25Scorer() {
+    for (int iteration = 0; iteration < 100; ++iteration) {
+      // Small vocabularies produce repeated words and tied scores
+      List<String> vocabulary = randomVocabulary(randomIntBetween(1, 30));
+      List<List<String>> documents = new ArrayList<>();
+      int numDocuments = randomIntBetween(1, 15);
+      for (int i = 0; i < numDocuments; ++i) {
+        if (i > 0 && randomBoolean() && randomBoolean()) {
+          // Duplicate passages have equal scores
+          documents.add(new ArrayList<>(randomFrom(documents)));
+        } else {
+          documents.add(randomWords(vocabulary, randomIntBetween(0, 50)));
+        }
+      }
+      List<String> query = randomWords(vocabulary, randomIntBetween(0, 6));
+      if (randomBoolean()) {
+        query.add("unknown");
+      }
+      assertEquivalent(documents, query);
+    }
+  }
+
+  public void testEmptyDocuments() {
+    TermIdBM25Scorer scorer = new TermIdBM25Scorer(B, K1, Collections.emptyList());
+    assertEquals(0, scorer.getNumberOfDocuments());
+    assertEquals(0, scorer.topDocuments(Arrays.asList("search"), 3).length);
+  }
+
+  private static void assertEquivalent(List<List<String>> documents, List<String> query) {
+    BM25Scorer expectedScorer = new BM25Scorer(B, K1, documents);
+    TermIdBM25Scorer scorer = new TermIdBM25Scorer(B, K1, documents);
+    TermIdBM25Scorer.Query preparedQuery = scorer.prepareQuery(query);
+    for (int i = 0; i < documents.size(); ++i) {
+      // Scores must be bit for bit identical, not only close
+      assertEquals("Document " + i + " of " + documents + " for query " + query,
+          Double.doubleToLongBits(expectedScorer.score(query, documents.get(i))),
+          Double.doubleToLongBits(scorer.score(preparedQuery, i)));
+    }
+    for (int k = 1; k <= documents.size() + 1; ++k) {
+      assertArrayEquals("Top " + k + " of " + documents + " for query " + query,
+          expectedTopDocuments(expectedScorer, documents, query, k), scorer.topDocuments(query, k));
+    }
+  }
+
+  /**
+   * Top document selection as previously implemented with a bounded priority queue of boxed scores
+   */
+  private static int[] expectedTopDocuments(BM25Scorer scorer, List<List<String>> documents, List<String> query, int k) {
+    PriorityQueue<PassageScore> pq = new PriorityQueue<>(Comparator.comparingDouble(PassageScore::getScore));
+    for (int i = 0; i < documents.size(); i++) {
+      pq.offer(new PassageScore(scorer.score(query, documents.get(i)), i));
+      if (pq.size() > k) {
+        pq.poll();
+      }
+    }
+    List<Integer> topDocuments = new ArrayList<>();
+    while (!pq.isEmpty()) {
+      topDocuments.add(pq.poll().getIndex());
+    }
+    Collections.reverse(topDocuments);
+    return topDocuments.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private static List<String> randomVocabulary(int size) {
+    List<String> vocabulary = new ArrayList<>();
+    for (int i = 0; i < size; ++i) {
+      vocabulary.add(randomAlphaOfLengthBetween(2, 10).toLowerCase(java.util.Locale.ROOT));
+    }
+    return vocabulary;
+  }
+
+  private static List<String> randomWords(List<String> vocabulary, int count) {
+    List<String> words = new ArrayList<>();
+    for (int i = 0; i < count; ++i) {
+      words.add(randomFrom(vocabulary));
+    }
+    return words;
+  }
+}
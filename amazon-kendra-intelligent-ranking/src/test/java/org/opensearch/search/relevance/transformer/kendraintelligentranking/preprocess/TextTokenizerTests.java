@@ -7,9 +7,14 @@
  */
 package org.opensearch.search.relevance.transformer.kendraintelligentranking.preprocess;
 
+import com.ibm.icu.text.BreakIterator;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 import org.junit.Assert;
 import org.opensearch.test.OpenSearchTestCase;
@@ -66,4 +71,138 @@ public class TextTokenizerTests extends OpenSearchTestCase {
       assertEquals("Test case " + testCases.get(i) + " failed", expectedResults.get(i), textTokenizer.removeInWordPunctuation(testCases.get(i)));
     }
   }
+
+  public void testTokenizeMatchesReferenceImplementation() {
+    for (int i = 0; i < 200; ++i) {
+      String text = randomText();
+      assertEquals("Test case [" + text + "] failed", referenceTokenize(text), textTokenizer.tokenize(text));
+    }
+  }
+
+  public void testTokenizeWithConsumerReportsWordOffsets() {
+    String text = "Running OpenSearch on número 42, please.";
+    List<String> tokens = new ArrayList<>();
+    List<String> words = new ArrayList<>();
+    textTokenizer.tokenize(text, (buffer, offset, length, startOffset, endOffset) -> {
+      tokens.add(new String(buffer, offset, length));
+      words.add(text.substring(startOffset, endOffset));
+    });
+    assertEquals(Arrays.asList("running", "opensearch", "número", "please"), tokens);
+    assertEquals(Arrays.asList("Running", "OpenSearch", "número", "please"), words);
+  }
+
+  public void testTokenizeToTermIds() {
+    TermDictionary dictionary = new TermDictionary();
+    int[] termIds = textTokenizer.tokenizeToTermIds(TEXT_3, dictionary);
+    assertEquals(EXPECTED_3.size(), termIds.length);
+    for (int i = 0; i < termIds.length; ++i) {
+      assertEquals(EXPECTED_3.get(i), dictionary.getTerm(termIds[i]));
+    }
+    // Repeated terms share an ID
+    assertEquals(termIds[1], termIds[8]);
+    assertEquals(termIds[0], termIds[9]);
+    assertEquals(9, dictionary.size());
+    assertEquals(0, textTokenizer.tokenizeToTermIds(null, dictionary).length);
+  }
+
+  public void testIsNumericMatchesParseDouble() {
+    List<String> testCases = new ArrayList<>(Arrays.asList("1", "-1", "+1.", ".5", "1e5", "1e+5d", "1.5e-3f", "0x1p3", "-0x1.8p1",
+        "0x.8p1d", "0xp1", "0x1", "0x1.p", "1e", "e1", ".", "-", "1-2", "12.3.4", "2020-01", "1d", "1f", "1fd", "1\u00011"));
+    for (int i = 0; i < 1000; ++i) {
+      testCases.add(randomFrom("", "-", "+") + randomStringFrom("0123456789.+-exfdpab", randomIntBetween(1, 8)));
+    }
+    for (String testCase : testCases) {
+      assertEquals("Test case [" + testCase + "] failed", textTokenizer.isNumeric(testCase),
+          TextTokenizer.isNumeric(testCase.toCharArray(), testCase.length()));
+    }
+  }
+
+  private static String randomStringFrom(String alphabet, int length) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < length; ++i) {
+      builder.append(alphabet.charAt(randomIntBetween(0, alphabet.length() - 1)));
+    }
+    return builder.toString();
+  }
+
+  private static String randomText() {
+    StringBuilder builder = new StringBuilder();
+    int numWords = randomIntBetween(0, 40);
+    for (int i = 0; i < numWords; ++i) {
+      switch (randomIntBetween(0, 9)) {
+        case 0:
+          builder.append(randomFrom("The", "is", "AND", "don't", "I", "s", "Won't", "U.S.A.", "e.g."));
+          break;
+        case 1:
+          builder.append(randomFrom("42", "-3.5", "1e10", "0x1p3", "12,000", "3.14d", "2020-01-01", "v1.2.3", "10%"));
+          break;
+        case 2:
+          builder.append(randomFrom("...", "--", "!?", "(", ")", "\"\"", "'", "@", "#", "_", "*", "$", "+", "~", "|"));
+          break;
+        case 3:
+          builder.append(randomFrom("número", "İstanbul", "Straße", "ﬁle", "naïve", "東京", "Ωmega", "😀", "ΣΑΣ"));
+          break;
+        case 4:
+          builder.append(randomAlphaOfLengthBetween(20, 60));
+          break;
+        case 5:
+          builder.append(randomFrom("https://opensearch.org/docs", "user@example.com", "a_b_c", "snake_case_word", "x-y"));
+          break;
+        case 6:
+          builder.append(randomRealisticUnicodeOfLengthBetween(1, 10));
+          break;
+        default:
+          builder.append(randomAlphaOfLengthBetween(1, 12));
+          break;
+      }
+      builder.append(randomFrom(" ", "  ", "\t", "\n", ". ", ", ", "\u00a0", "\u2003", ""));
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Tokenizer implementation based on substrings and regular expressions, which the scanning tokenizer must match
+   */
+  private List<String> referenceTokenize(String text) {
+    final BreakIterator breakIterator = BreakIterator.getWordInstance(Locale.ENGLISH);
+    breakIterator.setText(text);
+
+    List<String> tokens = new ArrayList<>();
+    int start = breakIterator.first();
+    String currentWord;
+    for (int end = breakIterator.next(); end != BreakIterator.DONE; start = end, end = breakIterator.next()) {
+      currentWord = text.substring(start, end).stripTrailing().toLowerCase(Locale.ENGLISH);
+      if (currentWord.isEmpty()) {
+        continue;
+      }
+      List<String> shortenedTokens = new ArrayList<>();
+      if (currentWord.length() <= 25) {
+        shortenedTokens.add(currentWord);
+      } else {
+        for (int i = 0; i < currentWord.length(); i += 25) {
+          shortenedTokens.add(currentWord.substring(i, Math.min(currentWord.length(), i + 25)));
+        }
+      }
+      for (String shortenedToken : shortenedTokens) {
+        if (!textTokenizer.isWordAllPunctuation(shortenedToken) && !REFERENCE_STOP_WORDS.contains(shortenedToken) &&
+            shortenedToken.length() >= 2 && !textTokenizer.isNumeric(shortenedToken)) {
+          String tokenWithInWordPunctuationRemoved = textTokenizer.removeInWordPunctuation(shortenedToken);
+          if (!tokenWithInWordPunctuationRemoved.isEmpty()) {
+            tokens.add(tokenWithInWordPunctuationRemoved);
+          }
+        }
+      }
+    }
+    return tokens;
+  }
+
+  private static final Set<String> REFERENCE_STOP_WORDS = new HashSet<>(
+      Arrays.asList("i", "me", "my", "myself", "we", "our", "ours", "ourselves", "you", "your", "yours", "yourself", "yourselves", "he", "him", "his",
+          "himself", "she", "her", "hers", "herself", "it", "its", "itself", "they", "them", "their", "theirs", "themselves", "what", "which", "who",
+          "whom", "this", "that", "these", "those", "am", "is", "are", "was", "were", "be", "been", "being", "have", "has", "had", "having", "do",
+          "does", "did", "doing", "a", "an", "the", "and", "but", "if", "or", "because", "as", "until", "while", "of", "at", "by", "for", "with",
+          "about", "against", "between", "into", "through", "during", "before", "after", "above", "below", "to", "from", "up", "down", "in", "out",
+          "on", "off", "over", "under", "again", "further", "then", "once", "here", "there", "when", "where", "why", "how", "all", "any", "both",
+          "each", "few", "more", "most", "other", "some", "such", "no", "nor", "not", "only", "own", "same", "so", "than", "too", "very", "s", "t",
+          "can", "will", "just", "don", "should", "now"));
 }
@@ -7,38 +7,89 @@
  */
 package org.opensearch.search.relevance;
 
+import com.amazonaws.ClientConfiguration;
+import org.opensearch.action.ActionRequest;
 import org.opensearch.client.Client;
 import org.opensearch.cluster.metadata.IndexNameExpressionResolver;
+import org.opensearch.cluster.node.DiscoveryNodes;
 import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.settings.ClusterSettings;
+import org.opensearch.common.settings.IndexScopedSettings;
 import org.opensearch.common.settings.Setting;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.settings.SettingsFilter;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.action.ActionResponse;
 import org.opensearch.core.common.io.stream.NamedWriteableRegistry;
 import org.opensearch.core.xcontent.NamedXContentRegistry;
 import org.opensearch.env.Environment;
 import org.opensearch.env.NodeEnvironment;
+import org.opensearch.plugins.ActionPlugin;
 import org.opensearch.plugins.Plugin;
 import org.opensearch.plugins.SearchPipelinePlugin;
 import org.opensearch.plugins.SearchPlugin;
 import org.opensearch.repositories.RepositoriesService;
+import org.opensearch.rest.RestController;
+import org.opensearch.rest.RestHandler;
 import org.opensearch.script.ScriptService;
 import org.opensearch.search.pipeline.Processor;
 import org.opensearch.search.pipeline.SearchResponseProcessor;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.PersonalizeRankingResponseExtBuilder;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.PersonalizeRankingResponseProcessor;
+import org.opensearch.search.relevance.client.LatencyBudget;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClient;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClientRegistry;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClientSettings;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeRequestBatcher;
+import org.opensearch.search.relevance.client.RateLimiter;
+import org.opensearch.search.relevance.client.RemoteCallGuard;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.requestparameter.PersonalizeRequestParametersExtBuilder;
+import org.opensearch.search.relevance.stats.RestSearchRelevanceStatsAction;
+import org.opensearch.search.relevance.stats.SearchRelevanceStats;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.stats.PersonalizedSearchRankingStatsAction;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.stats.TransportPersonalizedSearchRankingStatsAction;
+import org.opensearch.threadpool.ExecutorBuilder;
+import org.opensearch.threadpool.FixedExecutorBuilder;
 import org.opensearch.threadpool.ThreadPool;
 import org.opensearch.watcher.ResourceWatcherService;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-public class AmazonPersonalizeRankingPlugin extends Plugin implements SearchPlugin, SearchPipelinePlugin {
+public class AmazonPersonalizeRankingPlugin extends Plugin implements ActionPlugin, SearchPlugin, SearchPipelinePlugin {
+    private static final TimeValue CLIENT_PURGE_INTERVAL = TimeValue.timeValueMinutes(1);
 
     private PersonalizeClientSettings personalizeClientSettings;
+    private LatencyBudget latencyBudget;
+    private RemoteCallGuard callGuard;
+    private PersonalizeRequestBatcher requestBatcher;
+    private RateLimiter rateLimiter;
+    private PersonalizeClientRegistry clientRegistry;
+    private final SearchRelevanceStats stats = new SearchRelevanceStats();
+
+    @Override
+    public List<ActionHandler<? extends ActionRequest, ? extends ActionResponse>> getActions() {
+        return List.of(new ActionHandler<>(PersonalizedSearchRankingStatsAction.INSTANCE,
+                TransportPersonalizedSearchRankingStatsAction.class));
+    }
+
+    @Override
+    public List<RestHandler> getRestHandlers(
+            Settings settings,
+            RestController restController,
+            ClusterSettings clusterSettings,
+            IndexScopedSettings indexScopedSettings,
+            SettingsFilter settingsFilter,
+            IndexNameExpressionResolver indexNameExpressionResolver,
+            Supplier<DiscoveryNodes> nodesInCluster
+    ) {
+        return List.of(new RestSearchRelevanceStatsAction("personalized_search_ranking",
+                PersonalizedSearchRankingStatsAction.INSTANCE));
+    }
 
     @Override
     public List<Setting<?>> getSettings() {
@@ -46,6 +97,13 @@ public class AmazonPersonalizeRankingPlugin extends Plugin implements SearchPlug
         return new ArrayList<>(PersonalizeClientSettings.getAllSettings());
     }
 
+    @Override
+    public List<ExecutorBuilder<?>> getExecutorBuilders(Settings settings) {
+        // As many threads as connections of a client, since each call blocks a thread until Personalize responds
+        return List.of(new FixedExecutorBuilder(settings, PersonalizeClient.THREAD_POOL_NAME,
+                ClientConfiguration.DEFAULT_MAX_CONNECTIONS, 1000, PersonalizeClientSettings.THREAD_POOL_SETTING_PREFIX));
+    }
+
     @Override
     public Collection<Object> createComponents(
             Client client,
@@ -60,9 +118,43 @@ public class AmazonPersonalizeRankingPlugin extends Plugin implements SearchPlug
             IndexNameExpressionResolver indexNameExpressionResolver,
             Supplier<RepositoriesService> repositoriesServiceSupplier
     ) {
-       this.personalizeClientSettings = PersonalizeClientSettings.getClientSettings(environment.settings());
+        this.personalizeClientSettings = PersonalizeClientSettings.getClientSettings(environment.settings());
+        this.latencyBudget = new LatencyBudget(threadPool, PersonalizeClientSettings.LATENCY_BUDGET_SETTING.get(environment.settings()));
+        this.callGuard = PersonalizeClientSettings.createCallGuard(environment.settings());
+        this.requestBatcher = PersonalizeRequestBatcher.create(environment.settings(), threadPool);
+        this.rateLimiter = PersonalizeClientSettings.createRateLimiter(environment.settings());
+        final RemoteCallGuard clientCallGuard = this.callGuard;
+        final PersonalizeRequestBatcher clientRequestBatcher = this.requestBatcher;
+        final RateLimiter clientRateLimiter = this.rateLimiter;
+        this.clientRegistry = new PersonalizeClientRegistry(this.personalizeClientSettings,
+                (credentialsProvider, awsRegion) -> PersonalizeClient.builder(credentialsProvider, awsRegion)
+                        .callGuard(clientCallGuard)
+                        .requestBatcher(clientRequestBatcher)
+                        .rateLimiter(clientRateLimiter)
+                        .threadPool(threadPool)
+                        .build());
+        // Close the clients of pipelines that were replaced or deleted even if no pipeline is created afterwards
+        threadPool.scheduleWithFixedDelay(this.clientRegistry::purge, CLIENT_PURGE_INTERVAL, ThreadPool.Names.GENERIC);
 
-        return Collections.emptyList();
+        List<Object> components = new ArrayList<>();
+        components.add(latencyBudget);
+        components.add(clientRegistry);
+        components.add(stats);
+        stats.addComponent(latencyBudget::getStats);
+        stats.addComponent(clientRegistry::getStats);
+        if (callGuard != null) {
+            components.add(callGuard);
+            stats.addComponent(callGuard::getStats);
+        }
+        if (requestBatcher != null) {
+            components.add(requestBatcher);
+            stats.addComponent(requestBatcher::getStats);
+        }
+        if (rateLimiter != null) {
+            components.add(rateLimiter);
+            stats.addComponent(rateLimiter::getStats);
+        }
+        return components;
     }
 
     @Override
@@ -70,11 +162,25 @@ public class AmazonPersonalizeRankingPlugin extends Plugin implements SearchPlug
         return List.of(
                 new SearchPlugin.SearchExtSpec<>(PersonalizeRequestParametersExtBuilder.NAME,
                         PersonalizeRequestParametersExtBuilder::new,
-                        PersonalizeRequestParametersExtBuilder::parse));
+                        PersonalizeRequestParametersExtBuilder::parse),
+                new SearchPlugin.SearchExtSpec<>(PersonalizeRankingResponseExtBuilder.NAME,
+                        PersonalizeRankingResponseExtBuilder::new,
+                        PersonalizeRankingResponseExtBuilder::parse));
     }
 
     @Override
     public Map<String, Processor.Factory<SearchResponseProcessor>> getResponseProcessors(Parameters parameters) {
-        return Map.of(PersonalizeRankingResponseProcessor.TYPE, new PersonalizeRankingResponseProcessor.Factory(this.personalizeClientSettings));
+        return Map.of(PersonalizeRankingResponseProcessor.TYPE, PersonalizeRankingResponseProcessor.Factory.builder(this.personalizeClientSettings)
+                .clientRegistry(this.clientRegistry)
+                .nodeLatencyBudget(this.latencyBudget)
+                .stats(this.stats)
+                .build());
+    }
+
+    @Override
+    public void close() {
+        if (clientRegistry != null) {
+            clientRegistry.close();
+        }
     }
 }
\ No newline at end of file
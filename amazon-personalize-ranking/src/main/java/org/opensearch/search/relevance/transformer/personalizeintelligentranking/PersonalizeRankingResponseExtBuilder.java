@@ -0,0 +1,126 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.personalizeintelligentranking;
+
+import org.opensearch.core.ParseField;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.xcontent.ObjectParser;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.core.xcontent.XContentParser;
+import org.opensearch.search.SearchExtBuilder;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Search response extension reporting how the Personalize ranking processor handled the response, for example
+ * that it returned the original ranking because its latency budget was spent, or where re ranking spent its time
+ * when the search request enables profiling.
+ */
+public class PersonalizeRankingResponseExtBuilder extends SearchExtBuilder {
+    public static final String NAME = PersonalizeRankingResponseProcessor.TYPE;
+
+    private static final ParseField FALLBACK = new ParseField("fallback");
+    private static final ParseField PROFILE = new ParseField("profile");
+
+    private static final ObjectParser<PersonalizeRankingResponseExtBuilder, Void> PARSER;
+
+    static {
+        PARSER = new ObjectParser<>(NAME, PersonalizeRankingResponseExtBuilder::new);
+        PARSER.declareBoolean(PersonalizeRankingResponseExtBuilder::setFallback, FALLBACK);
+        PARSER.declareObject(PersonalizeRankingResponseExtBuilder::setProfile, (p, c) -> PersonalizeRankingProfile.parse(p), PROFILE);
+    }
+
+    private boolean fallback;
+    private PersonalizeRankingProfile profile;
+
+    public PersonalizeRankingResponseExtBuilder() {}
+
+    public PersonalizeRankingResponseExtBuilder(boolean fallback) {
+        this(fallback, null);
+    }
+
+    /**
+     * @param fallback true if the processor returned the original ranking instead of re ranking hits
+     * @param profile  time spent on each phase of re ranking, or null if the search is not profiled
+     */
+    public PersonalizeRankingResponseExtBuilder(boolean fallback, PersonalizeRankingProfile profile) {
+        this.fallback = fallback;
+        this.profile = profile;
+    }
+
+    public PersonalizeRankingResponseExtBuilder(StreamInput input) throws IOException {
+        this.fallback = input.readBoolean();
+        this.profile = input.readOptionalWriteable(PersonalizeRankingProfile::new);
+    }
+
+    /**
+     * @return true if the processor returned the original ranking instead of re ranking hits
+     */
+    public boolean isFallback() {
+        return fallback;
+    }
+
+    public void setFallback(boolean fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * @return time spent on each phase of re ranking, or null if the search is not profiled
+     */
+    public PersonalizeRankingProfile getProfile() {
+        return profile;
+    }
+
+    public void setProfile(PersonalizeRankingProfile profile) {
+        this.profile = profile;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.getClass(), this.fallback, this.profile);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (!(obj instanceof PersonalizeRankingResponseExtBuilder)) {
+            return false;
+        }
+        PersonalizeRankingResponseExtBuilder o = (PersonalizeRankingResponseExtBuilder) obj;
+        return this.fallback == o.fallback && Objects.equals(this.profile, o.profile);
+    }
+
+    @Override
+    public String getWriteableName() {
+        return NAME;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeBoolean(fallback);
+        out.writeOptionalWriteable(profile);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(NAME);
+        builder.field(FALLBACK.getPreferredName(), fallback);
+        if (profile != null) {
+            builder.field(PROFILE.getPreferredName(), profile);
+        }
+        return builder.endObject();
+    }
+
+    public static PersonalizeRankingResponseExtBuilder parse(XContentParser parser) throws IOException {
+        return PARSER.parse(parser, null);
+    }
+}
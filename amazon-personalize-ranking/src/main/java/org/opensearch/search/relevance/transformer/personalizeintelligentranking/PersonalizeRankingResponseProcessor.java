@@ -13,25 +13,38 @@ import org.apache.logging.log4j.Logger;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.search.SearchResponseSections;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.common.unit.ByteSizeValue;
 import org.opensearch.ingest.ConfigurationUtils;
+import org.opensearch.search.SearchExtBuilder;
 import org.opensearch.search.SearchHits;
 import org.opensearch.search.aggregations.InternalAggregations;
 import org.opensearch.search.internal.InternalSearchResponse;
 import org.opensearch.search.pipeline.AbstractProcessor;
+import org.opensearch.search.pipeline.PipelineProcessingContext;
 import org.opensearch.search.pipeline.Processor;
 import org.opensearch.search.pipeline.SearchResponseProcessor;
 import org.opensearch.search.profile.SearchProfileShardResults;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.cache.PersonalizedRankingCache;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClient;
+import org.opensearch.search.relevance.client.LatencyBudget;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClientSettings;
-import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeCredentialsProviderFactory;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClientRegistry;
+import org.opensearch.search.relevance.client.RemoteCallGuard;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.configuration.PersonalizeIntelligentRankerConfiguration;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.requestparameter.PersonalizeRequestParameterUtil;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.requestparameter.PersonalizeRequestParameters;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.reranker.PersonalizedRanker;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.reranker.PersonalizedRankerFactory;
+import org.opensearch.search.relevance.stats.RerankerMetrics;
+import org.opensearch.search.relevance.stats.SearchRelevanceStats;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.utils.ValidationUtil;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 
@@ -47,26 +60,96 @@ public class PersonalizeRankingResponseProcessor extends AbstractProcessor imple
     private final String description;
     private final PersonalizeClient personalizeClient;
     private final PersonalizeIntelligentRankerConfiguration rankerConfig;
+    private final PersonalizedRankingCache rankingCache;
+    private final TimeValue latencyBudget;
+    private final LatencyBudget nodeLatencyBudget;
+    private final RerankerMetrics metrics;
+
+    private PersonalizeRankingResponseProcessor(Builder builder) {
+        super(builder.tag, builder.description, builder.ignoreFailure);
+        this.tag = builder.tag;
+        this.description = builder.description;
+        this.rankerConfig = builder.rankerConfig;
+        this.personalizeClient = builder.client;
+        this.rankingCache = builder.rankingCache;
+        this.latencyBudget = builder.latencyBudget;
+        this.nodeLatencyBudget = builder.nodeLatencyBudget;
+        this.metrics = builder.metrics == null ? new RerankerMetrics() : builder.metrics;
+    }
 
     /**
-     * Constructor for Personalize ranking response processor
+     * Start building a Personalize ranking response processor
      *
      * @param tag           processor tag
      * @param description   processor description
      * @param ignoreFailure processor ignoreFailure config
      * @param rankerConfig  personalize ranker config
      * @param client        personalize client
+     * @return builder of a processor without cache, latency budget or metrics
      */
-    public PersonalizeRankingResponseProcessor(String tag,
-                                               String description,
-                                               boolean ignoreFailure,
-                                               PersonalizeIntelligentRankerConfiguration rankerConfig,
-                                               PersonalizeClient client) {
-        super(tag, description, ignoreFailure);
-        this.tag = tag;
-        this.description = description;
-        this.rankerConfig = rankerConfig;
-        this.personalizeClient = client;
+    public static Builder builder(String tag,
+                                  String description,
+                                  boolean ignoreFailure,
+                                  PersonalizeIntelligentRankerConfiguration rankerConfig,
+                                  PersonalizeClient client) {
+        return new Builder(tag, description, ignoreFailure, rankerConfig, client);
+    }
+
+    /**
+     * Builder of {@link PersonalizeRankingResponseProcessor}. Every optional dependency defaults to disabled.
+     */
+    public static final class Builder {
+        private final String tag;
+        private final String description;
+        private final boolean ignoreFailure;
+        private final PersonalizeIntelligentRankerConfiguration rankerConfig;
+        private final PersonalizeClient client;
+        private PersonalizedRankingCache rankingCache;
+        private TimeValue latencyBudget = TimeValue.MINUS_ONE;
+        private LatencyBudget nodeLatencyBudget;
+        private RerankerMetrics metrics;
+
+        private Builder(String tag,
+                        String description,
+                        boolean ignoreFailure,
+                        PersonalizeIntelligentRankerConfiguration rankerConfig,
+                        PersonalizeClient client) {
+            this.tag = tag;
+            this.description = description;
+            this.ignoreFailure = ignoreFailure;
+            this.rankerConfig = rankerConfig;
+            this.client = client;
+        }
+
+        /**
+         * @param rankingCache cache of Personalize ranking results owned by this processor, or null to disable caching
+         */
+        public Builder rankingCache(PersonalizedRankingCache rankingCache) {
+            this.rankingCache = rankingCache;
+            return this;
+        }
+
+        /**
+         * @param latencyBudget     time re ranking may add to a search, or -1 to use the node-level budget
+         * @param nodeLatencyBudget node-level enforcement of latency budgets, or null to never bound re ranking
+         */
+        public Builder latencyBudget(TimeValue latencyBudget, LatencyBudget nodeLatencyBudget) {
+            this.latencyBudget = latencyBudget;
+            this.nodeLatencyBudget = nodeLatencyBudget;
+            return this;
+        }
+
+        /**
+         * @param metrics node-level metrics of the processors of this type, or null to not report them
+         */
+        public Builder metrics(RerankerMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public PersonalizeRankingResponseProcessor build() {
+            return new PersonalizeRankingResponseProcessor(this);
+        }
     }
 
     /**
@@ -86,27 +169,155 @@ public class PersonalizeRankingResponseProcessor extends AbstractProcessor imple
             return response;
         }
         logger.info("Personalizing search results.");
+        final long configStartTime = System.nanoTime();
+        final PersonalizeRankingProfile profile = isProfiled(request) ? new PersonalizeRankingProfile(TYPE) : null;
         PersonalizeRequestParameters personalizeRequestParameters =
                 PersonalizeRequestParameterUtil.getPersonalizeRequestParameters(request);
         PersonalizedRankerFactory rankerFactory = new PersonalizedRankerFactory();
-        PersonalizedRanker ranker = rankerFactory.getPersonalizedRanker(rankerConfig, personalizeClient);
+        PersonalizedRanker ranker = rankerFactory.getPersonalizedRanker(rankerConfig, personalizeClient, rankingCache, metrics, profile);
+        recordConfigResolution(profile, configStartTime);
         long startTime = System.nanoTime();
-        SearchHits personalizedHits = ranker.rerank(hits, personalizeRequestParameters);
+        SearchHits personalizedHits;
+        try {
+            personalizedHits = ranker.rerank(hits, personalizeRequestParameters);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Personalize call rejected: " + e.getMessage() + ". Returning search response without applying Personalize transform");
+            metrics.onRequest(System.nanoTime() - startTime);
+            metrics.onFallback();
+            return buildTransformedResponse(response, hits, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime),
+                    buildRankingExtBuilder(true, profile, configStartTime));
+        } catch (Exception e) {
+            metrics.onRequest(System.nanoTime() - startTime);
+            metrics.onError();
+            throw e;
+        }
+        metrics.onRequest(System.nanoTime() - startTime);
         long personalizeTimeTookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        logger.info("Personalize ranking processor took " + personalizeTimeTookMs + " ms");
+
+        return buildTransformedResponse(response, personalizedHits, personalizeTimeTookMs,
+                buildRankingExtBuilder(false, profile, configStartTime));
+    }
+
+    /**
+     * Transform the response hits by re ranking results using Personalize, without blocking the search thread
+     * while waiting on Amazon Personalize. If Amazon Personalize does not respond within the latency budget, or the
+     * call is rejected by the circuit breaker or bulkhead, the response is returned with its original ranking.
+     *
+     * @param request          Search request
+     * @param response         Search response that needs to be transformed
+     * @param requestContext   Pipeline processing context
+     * @param responseListener Listener notified with the search response transformed using personalized re ranking
+     */
+    @Override
+    public void processResponseAsync(SearchRequest request,
+                                     SearchResponse response,
+                                     PipelineProcessingContext requestContext,
+                                     ActionListener<SearchResponse> responseListener) {
+        SearchHits hits = response.getHits();
 
+        if (hits.getHits().length == 0) {
+            logger.info("TotalHits = 0. Returning search response without applying Personalize transform");
+            responseListener.onResponse(response);
+            return;
+        }
+        logger.info("Personalizing search results.");
+        final long configStartTime = System.nanoTime();
+        final PersonalizeRankingProfile profile = isProfiled(request) ? new PersonalizeRankingProfile(TYPE) : null;
+        final PersonalizedRanker ranker;
+        final PersonalizeRequestParameters personalizeRequestParameters;
+        try {
+            personalizeRequestParameters = PersonalizeRequestParameterUtil.getPersonalizeRequestParameters(request);
+            PersonalizedRankerFactory rankerFactory = new PersonalizedRankerFactory();
+            ranker = rankerFactory.getPersonalizedRanker(rankerConfig, personalizeClient, rankingCache, metrics, profile);
+        } catch (Exception e) {
+            responseListener.onFailure(e);
+            return;
+        }
+        recordConfigResolution(profile, configStartTime);
+        final long startTime = System.nanoTime();
+        final ActionListener<SearchHits> rerankListener = ActionListener.wrap(personalizedHits -> {
+            metrics.onRequest(System.nanoTime() - startTime);
+            long personalizeTimeTookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            logger.info("Personalize ranking processor took " + personalizeTimeTookMs + " ms");
+            responseListener.onResponse(buildTransformedResponse(response, personalizedHits, personalizeTimeTookMs,
+                    buildRankingExtBuilder(false, profile, configStartTime)));
+        }, e -> {
+            metrics.onRequest(System.nanoTime() - startTime);
+            if (e instanceof RejectedExecutionException) {
+                // Circuit breaker open or too many calls in flight
+                long personalizeTimeTookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+                logger.debug("Personalize call rejected: " + e.getMessage() + ". Returning search response without applying Personalize transform");
+                metrics.onFallback();
+                responseListener.onResponse(buildTransformedResponse(response, hits, personalizeTimeTookMs,
+                        buildRankingExtBuilder(true, profile, configStartTime)));
+            } else {
+                metrics.onError();
+                responseListener.onFailure(e);
+            }
+        });
+        if (nodeLatencyBudget == null) {
+            ranker.rerankAsync(hits, personalizeRequestParameters, rerankListener);
+            return;
+        }
+        final long budgetMillis = nodeLatencyBudget.getRemainingMillis(latencyBudget, request, response.getTook().millis());
+        // The ranker only merges the result of Personalize into the hits if it arrives within the budget
+        ranker.rerankAsync(hits, personalizeRequestParameters, nodeLatencyBudget, budgetMillis, rerankListener, () -> {
+            metrics.onRequest(System.nanoTime() - startTime);
+            metrics.onFallback();
+            long personalizeTimeTookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            logger.warn("Personalize did not respond within the latency budget of " + budgetMillis
+                    + " ms. Returning search response without applying Personalize transform");
+            responseListener.onResponse(buildTransformedResponse(response, hits, personalizeTimeTookMs,
+                    buildRankingExtBuilder(true, profile, configStartTime)));
+        });
+    }
+
+    private static boolean isProfiled(SearchRequest request) {
+        return request.source() != null && request.source().profile();
+    }
+
+    private static void recordConfigResolution(PersonalizeRankingProfile profile, long configStartTime) {
+        if (profile != null) {
+            profile.addPhaseTime(PersonalizeRankingProfile.Phase.CONFIG_RESOLUTION, System.nanoTime() - configStartTime);
+        }
+    }
+
+    /**
+     * @param fallback        true if the original ranking is returned
+     * @param profile         profile of the search, or null if it is not profiled
+     * @param configStartTime start of re ranking, from {@link System#nanoTime()}
+     * @return extension reporting how the response was handled, or null if there is nothing to report
+     */
+    private static SearchExtBuilder buildRankingExtBuilder(boolean fallback, PersonalizeRankingProfile profile, long configStartTime) {
+        if (profile != null) {
+            profile.addTime(System.nanoTime() - configStartTime);
+        } else if (!fallback) {
+            return null;
+        }
+        return new PersonalizeRankingResponseExtBuilder(fallback, profile);
+    }
+
+    private static SearchResponse buildTransformedResponse(SearchResponse response,
+                                                           SearchHits personalizedHits,
+                                                           long personalizeTimeTookMs,
+                                                           SearchExtBuilder rankingExtBuilder) {
+        final List<SearchExtBuilder> searchExtBuilders = new ArrayList<>();
+        if (response.getInternalResponse() != null && response.getInternalResponse().getSearchExtBuilders() != null) {
+            searchExtBuilders.addAll(response.getInternalResponse().getSearchExtBuilders());
+        }
+        if (rankingExtBuilder != null) {
+            searchExtBuilders.add(rankingExtBuilder);
+        }
         final SearchResponseSections transformedSearchResponseSections = new InternalSearchResponse(personalizedHits,
                 (InternalAggregations) response.getAggregations(), response.getSuggest(),
                 new SearchProfileShardResults(response.getProfileResults()), response.isTimedOut(),
-                response.isTerminatedEarly(), response.getNumReducePhases());
+                response.isTerminatedEarly(), response.getNumReducePhases(), searchExtBuilders);
 
-        final SearchResponse transformedResponse = new SearchResponse(transformedSearchResponseSections, response.getScrollId(),
+        return new SearchResponse(transformedSearchResponseSections, response.getScrollId(),
                 response.getTotalShards(), response.getSuccessfulShards(),
                 response.getSkippedShards(), response.getTook().getMillis() + personalizeTimeTookMs, response.getShardFailures(),
                 response.getClusters());
-
-        logger.info("Personalize ranking processor took " + personalizeTimeTookMs + " ms");
-
-        return transformedResponse;
     }
 
     /**
@@ -141,16 +352,103 @@ public class PersonalizeRankingResponseProcessor extends AbstractProcessor imple
         private static final String RECIPE_CONFIG_NAME = "recipe";
         private static final String REGION_CONFIG_NAME = "aws_region";
         private static final String WEIGHT_CONFIG_NAME = "weight";
+        private static final String CACHE_SIZE_CONFIG_NAME = "cache_size";
+        private static final String CACHE_TTL_CONFIG_NAME = "cache_ttl";
+        private static final String DEFAULT_CACHE_SIZE = "1mb";
+        private static final String DEFAULT_CACHE_TTL = "30s";
+        private static final String LATENCY_BUDGET_CONFIG_NAME = "latency_budget";
         PersonalizeClientSettings personalizeClientSettings;
-        private final BiFunction<AWSCredentialsProvider, String, PersonalizeClient> clientBuilder;
+        private final PersonalizeClientRegistry clientRegistry;
+        private final LatencyBudget nodeLatencyBudget;
+        private final SearchRelevanceStats stats;
 
-        Factory(PersonalizeClientSettings settings, BiFunction<AWSCredentialsProvider, String, PersonalizeClient> clientBuilder) {
-            this.personalizeClientSettings = settings;
-            this.clientBuilder = clientBuilder;
+        private Factory(Builder builder) {
+            this.personalizeClientSettings = builder.settings;
+            if (builder.clientRegistry != null) {
+                this.clientRegistry = builder.clientRegistry;
+            } else if (builder.clientBuilder != null) {
+                this.clientRegistry = new PersonalizeClientRegistry(builder.settings, builder.clientBuilder);
+            } else {
+                final RemoteCallGuard callGuard = builder.callGuard;
+                this.clientRegistry = new PersonalizeClientRegistry(builder.settings,
+                        (credentialsProvider, awsRegion) -> PersonalizeClient.builder(credentialsProvider, awsRegion)
+                                .callGuard(callGuard)
+                                .build());
+            }
+            this.nodeLatencyBudget = builder.nodeLatencyBudget;
+            this.stats = builder.stats;
         }
 
-        public Factory(PersonalizeClientSettings settings) {
-            this(settings, PersonalizeClient::new);
+        /**
+         * @param settings Personalize client settings
+         * @return builder of a factory whose processors own their clients, without latency budget or metrics
+         */
+        public static Builder builder(PersonalizeClientSettings settings) {
+            return new Builder(settings);
+        }
+
+        /**
+         * Builder of {@link Factory}. Every optional dependency defaults to disabled.
+         */
+        public static final class Builder {
+            private final PersonalizeClientSettings settings;
+            private PersonalizeClientRegistry clientRegistry;
+            private BiFunction<AWSCredentialsProvider, String, PersonalizeClient> clientBuilder;
+            private RemoteCallGuard callGuard;
+            private LatencyBudget nodeLatencyBudget;
+            private SearchRelevanceStats stats;
+
+            private Builder(PersonalizeClientSettings settings) {
+                this.settings = settings;
+            }
+
+            /**
+             * @param clientRegistry node-level registry of the Personalize clients shared by processors, or null to
+             *                       use a registry owned by this factory
+             */
+            public Builder clientRegistry(PersonalizeClientRegistry clientRegistry) {
+                this.clientRegistry = clientRegistry;
+                return this;
+            }
+
+            /**
+             * @param clientBuilder builder of the clients of the registry owned by this factory, or null to build
+             *                      them from the settings
+             */
+            Builder clientBuilder(BiFunction<AWSCredentialsProvider, String, PersonalizeClient> clientBuilder) {
+                // Visible for testing
+                this.clientBuilder = clientBuilder;
+                return this;
+            }
+
+            /**
+             * @param callGuard node-level circuit breaker and bulkhead shared by the clients of processors, or null
+             *                  to always call Amazon Personalize
+             */
+            public Builder callGuard(RemoteCallGuard callGuard) {
+                this.callGuard = callGuard;
+                return this;
+            }
+
+            /**
+             * @param nodeLatencyBudget node-level enforcement of latency budgets, or null to never bound re ranking
+             */
+            public Builder nodeLatencyBudget(LatencyBudget nodeLatencyBudget) {
+                this.nodeLatencyBudget = nodeLatencyBudget;
+                return this;
+            }
+
+            /**
+             * @param stats node-level registry of the metrics reported by the stats API, or null to not report them
+             */
+            public Builder stats(SearchRelevanceStats stats) {
+                this.stats = stats;
+                return this;
+            }
+
+            public Factory build() {
+                return new Factory(this);
+            }
         }
 
         @Override
@@ -161,6 +459,24 @@ public class PersonalizeRankingResponseProcessor extends AbstractProcessor imple
             String itemIdField = ConfigurationUtils.readOptionalStringProperty(TYPE, tag, config, ITEM_ID_FIELD_CONFIG_NAME);
             String awsRegion = ConfigurationUtils.readStringProperty(TYPE, tag, config, REGION_CONFIG_NAME);
             double weight = ConfigurationUtils.readDoubleProperty(TYPE, tag, config, WEIGHT_CONFIG_NAME);
+            String cacheSizeConfig = ConfigurationUtils.readStringProperty(TYPE, tag, config, CACHE_SIZE_CONFIG_NAME, DEFAULT_CACHE_SIZE);
+            String cacheTtlConfig = ConfigurationUtils.readStringProperty(TYPE, tag, config, CACHE_TTL_CONFIG_NAME, DEFAULT_CACHE_TTL);
+            String latencyBudgetConfig = ConfigurationUtils.readOptionalStringProperty(TYPE, tag, config, LATENCY_BUDGET_CONFIG_NAME);
+            final ByteSizeValue cacheSize;
+            final TimeValue cacheTtl;
+            try {
+                cacheSize = ByteSizeValue.parseBytesSizeValue(cacheSizeConfig, CACHE_SIZE_CONFIG_NAME);
+                cacheTtl = TimeValue.parseTimeValue(cacheTtlConfig, CACHE_TTL_CONFIG_NAME);
+            } catch (IllegalArgumentException e) {
+                throw ConfigurationUtils.newConfigurationException(TYPE, tag, CACHE_SIZE_CONFIG_NAME + "/" + CACHE_TTL_CONFIG_NAME, e.getMessage());
+            }
+            final TimeValue latencyBudget;
+            try {
+                latencyBudget = latencyBudgetConfig == null ? TimeValue.MINUS_ONE
+                        : TimeValue.parseTimeValue(latencyBudgetConfig, LATENCY_BUDGET_CONFIG_NAME);
+            } catch (IllegalArgumentException e) {
+                throw ConfigurationUtils.newConfigurationException(TYPE, tag, LATENCY_BUDGET_CONFIG_NAME, e.getMessage());
+            }
 
             PersonalizeIntelligentRankerConfiguration rankerConfig =
                     new PersonalizeIntelligentRankerConfiguration(personalizeCampaign, iamRoleArn, recipe, itemIdField, awsRegion, weight);
@@ -171,14 +487,27 @@ public class PersonalizeRankingResponseProcessor extends AbstractProcessor imple
                 case SEARCH_REQUEST:
                     throw new IllegalStateException(TYPE + " processor may not be instantiated as part of a search request. Create a named search pipeline instead.");
                 case UPDATE_PIPELINE:
-                    AWSCredentialsProvider credentialsProvider = PersonalizeCredentialsProviderFactory.getCredentialsProvider(personalizeClientSettings, iamRoleArn, awsRegion);
-                    personalizeClient = clientBuilder.apply(credentialsProvider, awsRegion);
+                    personalizeClient = clientRegistry.acquire(iamRoleArn, awsRegion);
                     break;
                 case VALIDATE_PIPELINE:
                 default:
                     personalizeClient = null; // Do not instantiate client on validation
             }
-            return new PersonalizeRankingResponseProcessor(tag, description, ignoreFailure, rankerConfig, personalizeClient);
+            PersonalizedRankingCache rankingCache = null;
+            if (cacheSize.getBytes() > 0 && cacheTtl.millis() > 0) {
+                rankingCache = new PersonalizedRankingCache(cacheSize, cacheTtl);
+            }
+            PersonalizeRankingResponseProcessor processor = PersonalizeRankingResponseProcessor
+                    .builder(tag, description, ignoreFailure, rankerConfig, personalizeClient)
+                    .rankingCache(rankingCache)
+                    .latencyBudget(latencyBudget, nodeLatencyBudget)
+                    .metrics(stats == null ? null : stats.getProcessorMetrics(TYPE))
+                    .build();
+            if (personalizeClient != null) {
+                // Processors are not closed when their pipeline is replaced or deleted
+                clientRegistry.releaseWhenUnreachable(processor, personalizeClient);
+            }
+            return processor;
         }
     }
 
@@ -186,4 +515,12 @@ public class PersonalizeRankingResponseProcessor extends AbstractProcessor imple
         // Visible for testing
         return personalizeClient;
     }
+
+    /**
+     * Get statistics of the Personalize ranking cache owned by this processor
+     * @return cache statistics, or null if caching is disabled for this processor
+     */
+    public PersonalizedRankingCache.Stats getRankingCacheStats() {
+        return rankingCache == null ? null : rankingCache.getStats();
+    }
 }
@@ -0,0 +1,203 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.personalizeintelligentranking.cache;
+
+import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingRequest;
+import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingResult;
+import com.amazonaws.services.personalizeruntime.model.PredictedItem;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.opensearch.common.cache.Cache;
+import org.opensearch.common.cache.CacheBuilder;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.common.unit.ByteSizeValue;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Least recently used cache of Personalize ranking results with a short time to live, owned by a single processor.
+ * Entries are keyed by campaign, user, context and the set of item IDs to rank, so the same items returned in a
+ * different order by OpenSearch share an entry.
+ */
+public class PersonalizedRankingCache {
+    private static final long PREDICTED_ITEM_BYTES = RamUsageEstimator.shallowSizeOfInstance(PredictedItem.class)
+            + RamUsageEstimator.shallowSizeOfInstance(Double.class) + RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+
+    private final Cache<Key, GetPersonalizedRankingResult> cache;
+
+    /**
+     * @param maximumSize      upper bound on the estimated memory used by cached entries
+     * @param expireAfterWrite time after which an entry is no longer served
+     */
+    public PersonalizedRankingCache(ByteSizeValue maximumSize, TimeValue expireAfterWrite) {
+        this.cache = CacheBuilder.<Key, GetPersonalizedRankingResult>builder()
+                .setMaximumWeight(maximumSize.getBytes())
+                .setExpireAfterWrite(expireAfterWrite)
+                .weigher((key, result) -> key.ramBytesUsed() + ramBytesUsed(result))
+                .build();
+    }
+
+    /**
+     * @param key cache key built with {@link #createKey(GetPersonalizedRankingRequest)}
+     * @return cached ranking result, or null on a miss
+     */
+    public GetPersonalizedRankingResult get(Key key) {
+        return cache.get(key);
+    }
+
+    /**
+     * @param key    cache key built with {@link #createKey(GetPersonalizedRankingRequest)}
+     * @param result ranking result returned by Personalize for the request the key was built from
+     */
+    public void put(Key key, GetPersonalizedRankingResult result) {
+        if (result == null || result.getPersonalizedRanking() == null) {
+            return;
+        }
+        cache.put(key, result);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public Stats getStats() {
+        Cache.CacheStats cacheStats = cache.stats();
+        return new Stats(cacheStats.getHits(), cacheStats.getMisses(), cacheStats.getEvictions(), cache.count(), cache.weight());
+    }
+
+    /**
+     * Build the cache key for a Personalize ranking request
+     * @param request Personalize ranking request
+     * @return cache key that does not depend on the order of the input item IDs
+     */
+    public static Key createKey(GetPersonalizedRankingRequest request) {
+        List<String> itemIds = request.getInputList() == null ? new ArrayList<>() : new ArrayList<>(request.getInputList());
+        Collections.sort(itemIds);
+        Map<String, String> context = request.getContext() == null ? Collections.emptyMap() : new TreeMap<>(request.getContext());
+        return new Key(request.getCampaignArn(), request.getUserId(), context, itemIds);
+    }
+
+    private static long ramBytesUsed(GetPersonalizedRankingResult result) {
+        long bytes = RamUsageEstimator.shallowSizeOfInstance(GetPersonalizedRankingResult.class)
+                + RamUsageEstimator.sizeOf(result.getRecommendationId());
+        for (PredictedItem item : result.getPersonalizedRanking()) {
+            bytes += PREDICTED_ITEM_BYTES + RamUsageEstimator.sizeOf(item.getItemId());
+        }
+        return bytes;
+    }
+
+    /**
+     * Key of a cached Personalize ranking result
+     */
+    public static final class Key {
+        private static final long BASE_BYTES = RamUsageEstimator.shallowSizeOfInstance(Key.class);
+
+        private final String campaignArn;
+        private final String userId;
+        private final Map<String, String> context;
+        private final List<String> itemIds;
+
+        Key(String campaignArn, String userId, Map<String, String> context, List<String> itemIds) {
+            this.campaignArn = campaignArn;
+            this.userId = userId;
+            this.context = context;
+            this.itemIds = itemIds;
+        }
+
+        long ramBytesUsed() {
+            long bytes = BASE_BYTES + RamUsageEstimator.sizeOf(campaignArn) + RamUsageEstimator.sizeOf(userId);
+            for (Map.Entry<String, String> entry : context.entrySet()) {
+                bytes += RamUsageEstimator.sizeOf(entry.getKey()) + RamUsageEstimator.sizeOf(entry.getValue());
+            }
+            for (String itemId : itemIds) {
+                bytes += RamUsageEstimator.sizeOf(itemId) + RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+            }
+            return bytes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return Objects.equals(campaignArn, key.campaignArn) && Objects.equals(userId, key.userId) &&
+                    context.equals(key.context) && itemIds.equals(key.itemIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(campaignArn, userId, context, itemIds);
+        }
+    }
+
+    /**
+     * Point-in-time statistics of the Personalize ranking cache
+     */
+    public static final class Stats implements ToXContentFragment {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final long entryCount;
+        private final long memorySizeInBytes;
+
+        public Stats(long hitCount, long missCount, long evictionCount, long entryCount, long memorySizeInBytes) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.entryCount = entryCount;
+            this.memorySizeInBytes = memorySizeInBytes;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public long getEntryCount() {
+            return entryCount;
+        }
+
+        public long getMemorySizeInBytes() {
+            return memorySizeInBytes;
+        }
+
+        /**
+         * @return fraction of lookups served from the cache, or 0 if there were no lookups
+         */
+        public double getHitRate() {
+            long lookups = hitCount + missCount;
+            return lookups == 0 ? 0 : (double) hitCount / lookups;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject("ranking_cache");
+            builder.field("hit_count", hitCount);
+            builder.field("miss_count", missCount);
+            builder.field("hit_rate", getHitRate());
+            builder.field("eviction_count", evictionCount);
+            builder.field("entry_count", entryCount);
+            builder.field("memory_size_in_bytes", memorySizeInBytes);
+            return builder.endObject();
+        }
+    }
+}
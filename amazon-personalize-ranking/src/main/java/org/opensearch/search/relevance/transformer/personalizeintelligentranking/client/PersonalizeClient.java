@@ -7,41 +7,141 @@
  */
 package org.opensearch.search.relevance.transformer.personalizeintelligentranking.client;
 
-import com.amazonaws.AmazonServiceException;
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.handlers.AsyncHandler;
 import com.amazonaws.services.personalizeruntime.AmazonPersonalizeRuntime;
-import com.amazonaws.services.personalizeruntime.AmazonPersonalizeRuntimeClientBuilder;
+import com.amazonaws.services.personalizeruntime.AmazonPersonalizeRuntimeAsync;
+import com.amazonaws.services.personalizeruntime.AmazonPersonalizeRuntimeAsyncClientBuilder;
 import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingRequest;
 import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingResult;
+import org.opensearch.common.lease.Releasable;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.search.relevance.client.ForkedCompletionListener;
+import org.opensearch.search.relevance.client.RateLimiter;
+import org.opensearch.search.relevance.client.RemoteCallGuard;
+import org.opensearch.threadpool.ThreadPool;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Amazon Personalize client implementation for getting personalized ranking
  */
 public class PersonalizeClient implements Closeable {
-    private final AmazonPersonalizeRuntime personalizeRuntime;
-    private static final String USER_AGENT_PREFIX = "PersonalizeOpenSearchPlugin";
-
     /**
-     * Constructor for Amazon Personalize client
-     * @param credentialsProvider Credentials to be used for accessing Amazon Personalize
-     * @param awsRegion AWS region where Amazon Personalize campaign is hosted
+     * Thread pool running the calls of the asynchronous Personalize clients, which block a thread until Personalize
+     * responds.
      */
-    public PersonalizeClient(AWSCredentialsProvider credentialsProvider, String awsRegion) {
+    public static final String THREAD_POOL_NAME = "personalized_search_ranking";
+    // Completing a call resumes the search, which must not hold a thread of the Personalize thread pool
+    private static final String COMPLETION_EXECUTOR = ThreadPool.Names.SEARCH;
+    private final AmazonPersonalizeRuntimeAsync personalizeRuntime;
+    private final RemoteCallGuard callGuard;
+    private final PersonalizeRequestBatcher requestBatcher;
+    private final RateLimiter rateLimiter;
+    private final ThreadPool threadPool;
+    // Calls in flight hold the client open, so that closing it does not abort them
+    private int inFlightCallCount;
+    private boolean closed;
+    private boolean shutDown;
+    private static final String USER_AGENT_PREFIX = "PersonalizeOpenSearchPlugin";
+
+    private PersonalizeClient(Builder builder) {
+        this.callGuard = builder.callGuard;
+        this.requestBatcher = builder.requestBatcher;
+        this.rateLimiter = builder.rateLimiter;
+        this.threadPool = builder.threadPool;
         ClientConfiguration clientConfiguration = AccessController.doPrivileged(
                 (PrivilegedAction<ClientConfiguration>) () -> new ClientConfiguration()
                 .withUserAgentPrefix(USER_AGENT_PREFIX));
         personalizeRuntime = AccessController.doPrivileged(
-                (PrivilegedAction<AmazonPersonalizeRuntime>) () -> AmazonPersonalizeRuntimeClientBuilder.standard()
-                        .withCredentials(credentialsProvider)
-                        .withRegion(awsRegion)
-                        .withClientConfiguration(clientConfiguration)
-                        .build());
+                (PrivilegedAction<AmazonPersonalizeRuntimeAsync>) () -> {
+                    AmazonPersonalizeRuntimeAsyncClientBuilder clientBuilder = AmazonPersonalizeRuntimeAsyncClientBuilder.standard()
+                            .withCredentials(builder.credentialsProvider)
+                            .withRegion(builder.awsRegion)
+                            .withClientConfiguration(clientConfiguration);
+                    if (threadPool != null) {
+                        // Without an executor factory, each client starts its own pool of up to 50 threads
+                        clientBuilder.withExecutorFactory(() -> new SharedExecutorService(threadPool.executor(THREAD_POOL_NAME)));
+                    }
+                    return clientBuilder.build();
+                });
+    }
+
+    /**
+     * Start building an Amazon Personalize client
+     * @param credentialsProvider Credentials to be used for accessing Amazon Personalize
+     * @param awsRegion AWS region where Amazon Personalize campaign is hosted
+     * @return builder of a client without call guard, batching or rate limit
+     */
+    public static Builder builder(AWSCredentialsProvider credentialsProvider, String awsRegion) {
+        return new Builder(credentialsProvider, awsRegion);
+    }
+
+    /**
+     * Builder of {@link PersonalizeClient}. Every optional dependency defaults to disabled.
+     */
+    public static final class Builder {
+        private final AWSCredentialsProvider credentialsProvider;
+        private final String awsRegion;
+        private RemoteCallGuard callGuard;
+        private PersonalizeRequestBatcher requestBatcher;
+        private RateLimiter rateLimiter;
+        private ThreadPool threadPool;
+
+        private Builder(AWSCredentialsProvider credentialsProvider, String awsRegion) {
+            this.credentialsProvider = credentialsProvider;
+            this.awsRegion = awsRegion;
+        }
+
+        /**
+         * @param callGuard Node-level circuit breaker and bulkhead of Personalize calls, or null to always call Personalize
+         */
+        public Builder callGuard(RemoteCallGuard callGuard) {
+            this.callGuard = callGuard;
+            return this;
+        }
+
+        /**
+         * @param requestBatcher Node-level batching of asynchronous Personalize calls, or null to send each call immediately
+         */
+        public Builder requestBatcher(PersonalizeRequestBatcher requestBatcher) {
+            this.requestBatcher = requestBatcher;
+            return this;
+        }
+
+        /**
+         * @param rateLimiter Node-level rate limits of Personalize campaigns, or null to not limit the rate of calls
+         */
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * @param threadPool Thread pool of the node, whose Personalize thread pool runs asynchronous calls and whose
+         *                   search executor completes them in the thread context of the caller, or null to run them on
+         *                   threads of the client and complete them there
+         */
+        public Builder threadPool(ThreadPool threadPool) {
+            this.threadPool = threadPool;
+            return this;
+        }
+
+        public PersonalizeClient build() {
+            return new PersonalizeClient(this);
+        }
     }
 
     /**
@@ -56,22 +156,260 @@ public class PersonalizeClient implements Closeable {
      * Get Personalized ranking using Personalized runtime client
      * @param request Get personalized ranking request
      * @return Personalized ranking results
+     * @throws RejectedExecutionException if the rate limit of the campaign is exceeded or the call guard does not let the call through
      */
     public GetPersonalizedRankingResult getPersonalizedRanking(GetPersonalizedRankingRequest request) {
+        acquireRateLimit(request.getCampaignArn());
+        RemoteCallGuard.Permit permit = acquirePermit(request.getCampaignArn());
         GetPersonalizedRankingResult result;
+        retainCall();
         try {
             result = AccessController.doPrivileged(
                     (PrivilegedAction<GetPersonalizedRankingResult>) () -> personalizeRuntime.getPersonalizedRanking(request));
-        } catch (AmazonServiceException ex) {
+        } catch (RuntimeException ex) {
+            if (permit != null) {
+                permit.onFailure(ex);
+            }
+            if (rateLimiter != null) {
+                rateLimiter.onFailure(request.getCampaignArn(), ex);
+            }
             throw ex;
+        } finally {
+            releaseCall();
+        }
+        if (permit != null) {
+            permit.onSuccess();
         }
         return result;
     }
 
+    /**
+     * Get Personalized ranking using Personalized runtime client without blocking the calling thread.
+     * The listener is completed on the search executor, in the thread context of the caller, once the response is
+     * received, or on a Personalize client thread if the client has no thread pool. If the rate limit of the
+     * campaign is exceeded or the call guard does not let the call through, the listener is failed with a
+     * {@link RejectedExecutionException}. When batching is enabled, the call waits for the end of the batching window
+     * of its campaign before it is sent; calls over the rate limit are rejected before they are queued, and identical
+     * calls sharing a request take a single token. The client is not shut down before the call completes or is
+     * cancelled, even if it is closed meanwhile.
+     * @param request Get personalized ranking request
+     * @param rankingListener Listener notified with the personalized ranking results
+     * @return releasable that cancels the call if it is still in flight
+     */
+    public Releasable getPersonalizedRankingAsync(GetPersonalizedRankingRequest request,
+                                            ActionListener<GetPersonalizedRankingResult> rankingListener) {
+        // Captured before batching, which completes the calls sharing a request from the thread of that request
+        final ActionListener<GetPersonalizedRankingResult> forkedListener = threadPool == null ? rankingListener
+                : new ForkedCompletionListener<>(threadPool, COMPLETION_EXECUTOR, rankingListener);
+        retainCall();
+        final AtomicBoolean released = new AtomicBoolean();
+        final Runnable releaseOnce = () -> {
+            if (released.compareAndSet(false, true)) {
+                releaseCall();
+            }
+        };
+        final ActionListener<GetPersonalizedRankingResult> listener = ActionListener.runBefore(forkedListener, releaseOnce::run);
+        final Releasable cancel;
+        if (requestBatcher != null) {
+            // The batcher takes a token for each request it queues, not for each call
+            cancel = requestBatcher.getPersonalizedRankingAsync(this, request, listener);
+        } else {
+            try {
+                acquireRateLimit(request.getCampaignArn());
+            } catch (RejectedExecutionException ex) {
+                listener.onFailure(ex);
+                return () -> {};
+            }
+            cancel = sendPersonalizedRankingAsync(request, listener);
+        }
+        return () -> {
+            cancel.close();
+            // The listener of a cancelled call may never be completed
+            releaseOnce.run();
+        };
+    }
+
+    /**
+     * Take a token of the rate limit of a campaign for a request about to be sent.
+     * @param campaignArn ARN of the campaign called
+     * @throws RejectedExecutionException if the rate limit of the campaign is exceeded
+     */
+    void acquireRateLimit(String campaignArn) {
+        if (rateLimiter != null) {
+            rateLimiter.acquire(campaignArn);
+        }
+    }
+
+    /**
+     * Give back the token of a request that was not sent after all.
+     * @param campaignArn ARN of the campaign called
+     */
+    void releaseRateLimit(String campaignArn) {
+        if (rateLimiter != null) {
+            rateLimiter.release(campaignArn);
+        }
+    }
+
+    /**
+     * Acquire the call guard permit of a request that took a token, giving the token back if the guard rejects it.
+     */
+    private RemoteCallGuard.Permit acquirePermit(String campaignArn) {
+        if (callGuard == null) {
+            return null;
+        }
+        try {
+            return callGuard.acquire(campaignArn);
+        } catch (RejectedExecutionException ex) {
+            releaseRateLimit(campaignArn);
+            throw ex;
+        }
+    }
+
+    /**
+     * Send a get personalized ranking request to Amazon Personalize right away. The caller has taken a token of the
+     * rate limit of the campaign with {@link #acquireRateLimit(String)}.
+     * @param request Get personalized ranking request
+     * @param listener Listener notified with the personalized ranking results
+     * @return releasable that cancels the call if it is still in flight
+     */
+    Releasable sendPersonalizedRankingAsync(GetPersonalizedRankingRequest request,
+                                            ActionListener<GetPersonalizedRankingResult> listener) {
+        final RemoteCallGuard.Permit permit;
+        try {
+            permit = acquirePermit(request.getCampaignArn());
+        } catch (RejectedExecutionException ex) {
+            listener.onFailure(ex);
+            return () -> {};
+        }
+        AsyncHandler<GetPersonalizedRankingRequest, GetPersonalizedRankingResult> asyncHandler =
+                new AsyncHandler<GetPersonalizedRankingRequest, GetPersonalizedRankingResult>() {
+                    @Override
+                    public void onError(Exception exception) {
+                        if (permit != null) {
+                            permit.onFailure(exception);
+                        }
+                        if (rateLimiter != null) {
+                            rateLimiter.onFailure(request.getCampaignArn(), exception);
+                        }
+                        listener.onFailure(exception);
+                    }
+
+                    @Override
+                    public void onSuccess(GetPersonalizedRankingRequest request, GetPersonalizedRankingResult result) {
+                        if (permit != null) {
+                            permit.onSuccess();
+                        }
+                        listener.onResponse(result);
+                    }
+                };
+        final Future<GetPersonalizedRankingResult> result;
+        try {
+            result = AccessController.doPrivileged((PrivilegedAction<Future<GetPersonalizedRankingResult>>) () ->
+                    personalizeRuntime.getPersonalizedRankingAsync(request, asyncHandler));
+        } catch (Exception ex) {
+            // The request was not sent, typically because the thread pool is full, which says nothing about the campaign
+            if (permit != null) {
+                permit.onCancel();
+            }
+            releaseRateLimit(request.getCampaignArn());
+            listener.onFailure(ex);
+            return () -> {};
+        }
+        return () -> {
+            // The handler may not be notified of cancellation, so release the permit here. Giving up on the call
+            // says nothing about the campaign, so it does not count as a failure.
+            if (permit != null) {
+                permit.onCancel();
+            }
+            // Interrupting the client thread aborts the HTTP request
+            result.cancel(true);
+        };
+    }
+
+    /**
+     * Hold the client open for a call about to be made.
+     */
+    private synchronized void retainCall() {
+        inFlightCallCount++;
+    }
+
+    /**
+     * Let go of the client once a call completes, shutting it down if it was closed while the call was in flight.
+     */
+    private void releaseCall() {
+        synchronized (this) {
+            if (--inFlightCallCount > 0 || !closed || shutDown) {
+                return;
+            }
+            shutDown = true;
+        }
+        shutdownRuntime();
+    }
+
+    /**
+     * Close the client. Calls in flight complete first, and the client shuts down once the last of them does.
+     */
     @Override
     public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            if (inFlightCallCount > 0 || shutDown) {
+                return;
+            }
+            shutDown = true;
+        }
+        shutdownRuntime();
+    }
+
+    // Visible for testing
+    synchronized boolean isShutDown() {
+        return shutDown;
+    }
+
+    private void shutdownRuntime() {
         if (personalizeRuntime != null) {
             personalizeRuntime.shutdown();
         }
     }
+
+    /**
+     * Executor of the node thread pool handed to a client. Closing the client shuts down its executor, which is shared
+     * by all clients and belongs to the node, so shutting it down is a no-op.
+     */
+    private static final class SharedExecutorService extends AbstractExecutorService {
+        private final ExecutorService executor;
+
+        private SharedExecutorService(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            executor.execute(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return false;
+        }
+    }
 }
\ No newline at end of file
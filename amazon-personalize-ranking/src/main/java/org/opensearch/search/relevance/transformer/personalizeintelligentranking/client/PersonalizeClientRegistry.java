@@ -0,0 +1,268 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.personalizeintelligentranking.client;
+
+import com.amazonaws.auth.AWSCredentialsProvider;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.common.metrics.CounterMetric;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Node-level registry of Personalize clients shared by the processors of search pipelines. Processors with the same
+ * AWS region and IAM role share one client, and the node credentials are the same for all clients of a registry.
+ * Search pipeline processors are not notified when their pipeline is replaced or deleted, so a reference is released
+ * once its processor is garbage collected and {@link #purge()} runs, which may happen while a search of that
+ * processor still waits on Personalize. The client is closed when its last reference is released, and each call holds
+ * the client open until it completes, so that closing the client does not abort calls in flight.
+ */
+public class PersonalizeClientRegistry implements Closeable {
+    private static final Logger logger = LogManager.getLogger(PersonalizeClientRegistry.class);
+
+    private final PersonalizeClientSettings clientSettings;
+    private final BiFunction<AWSCredentialsProvider, String, PersonalizeClient> clientBuilder;
+    private final Map<ClientKey, SharedClient> clients = new HashMap<>();
+    private final ReferenceQueue<Object> ownerQueue = new ReferenceQueue<>();
+    // Phantom references must stay reachable until they are enqueued
+    private final Set<OwnerReference> owners = ConcurrentHashMap.newKeySet();
+    private final CounterMetric createdCount = new CounterMetric();
+    private final CounterMetric closedCount = new CounterMetric();
+
+    /**
+     * @param clientSettings Personalize client settings of the node
+     * @param clientBuilder  builds a client from credentials and an AWS region
+     */
+    public PersonalizeClientRegistry(PersonalizeClientSettings clientSettings,
+                                     BiFunction<AWSCredentialsProvider, String, PersonalizeClient> clientBuilder) {
+        this.clientSettings = clientSettings;
+        this.clientBuilder = clientBuilder;
+    }
+
+    /**
+     * Get a reference to the client for a region and IAM role, creating the client if no processor uses it yet.
+     * The reference must be handed to {@link #releaseWhenUnreachable(Object, PersonalizeClient)} or released
+     * with {@link #release(PersonalizeClient)}.
+     * @param iamRoleArn IAM role to assume to access Personalize, or null to use the node credentials
+     * @param awsRegion  AWS region where the Personalize campaign is hosted
+     * @return shared Personalize client
+     */
+    public PersonalizeClient acquire(String iamRoleArn, String awsRegion) {
+        purge();
+        ClientKey key = new ClientKey(iamRoleArn, awsRegion);
+        synchronized (this) {
+            SharedClient sharedClient = clients.get(key);
+            if (sharedClient == null) {
+                AWSCredentialsProvider credentialsProvider =
+                        PersonalizeCredentialsProviderFactory.getCredentialsProvider(clientSettings, iamRoleArn, awsRegion);
+                sharedClient = new SharedClient(clientBuilder.apply(credentialsProvider, awsRegion));
+                clients.put(key, sharedClient);
+                createdCount.inc();
+            }
+            sharedClient.refCount++;
+            return sharedClient.client;
+        }
+    }
+
+    /**
+     * Release a reference to a client once its owner is garbage collected.
+     * @param owner  object using the client, typically a search pipeline processor
+     * @param client client acquired from this registry
+     */
+    public void releaseWhenUnreachable(Object owner, PersonalizeClient client) {
+        owners.add(new OwnerReference(owner, ownerQueue, client));
+    }
+
+    /**
+     * Release a reference to a client, closing the client if it was the last one.
+     * @param client client acquired from this registry
+     */
+    public void release(PersonalizeClient client) {
+        PersonalizeClient clientToClose = null;
+        synchronized (this) {
+            for (Iterator<SharedClient> it = clients.values().iterator(); it.hasNext(); ) {
+                SharedClient sharedClient = it.next();
+                if (sharedClient.client == client) {
+                    if (--sharedClient.refCount == 0) {
+                        it.remove();
+                        clientToClose = client;
+                    }
+                    break;
+                }
+            }
+        }
+        if (clientToClose != null) {
+            closeClient(clientToClose);
+        }
+    }
+
+    /**
+     * Release the references of owners that were garbage collected since the last purge.
+     */
+    public void purge() {
+        Reference<?> reference;
+        while ((reference = ownerQueue.poll()) != null) {
+            OwnerReference ownerReference = (OwnerReference) reference;
+            if (owners.remove(ownerReference)) {
+                release(ownerReference.client);
+            }
+        }
+    }
+
+    private void closeClient(PersonalizeClient client) {
+        closedCount.inc();
+        try {
+            client.close();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to close Personalize client", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        List<PersonalizeClient> clientsToClose = new ArrayList<>();
+        synchronized (this) {
+            for (SharedClient sharedClient : clients.values()) {
+                clientsToClose.add(sharedClient.client);
+            }
+            clients.clear();
+        }
+        owners.clear();
+        clientsToClose.forEach(this::closeClient);
+    }
+
+    public Stats getStats() {
+        purge();
+        long clientCount;
+        long referenceCount = 0;
+        synchronized (this) {
+            clientCount = clients.size();
+            for (SharedClient sharedClient : clients.values()) {
+                referenceCount += sharedClient.refCount;
+            }
+        }
+        return new Stats(clientCount, referenceCount, createdCount.count(), closedCount.count());
+    }
+
+    private static final class SharedClient {
+        private final PersonalizeClient client;
+        private int refCount;
+
+        private SharedClient(PersonalizeClient client) {
+            this.client = client;
+        }
+    }
+
+    private static final class OwnerReference extends PhantomReference<Object> {
+        // The referent is not reachable from the reference, only the client it uses
+        private final PersonalizeClient client;
+
+        private OwnerReference(Object owner, ReferenceQueue<Object> queue, PersonalizeClient client) {
+            super(owner, queue);
+            this.client = client;
+        }
+    }
+
+    private static final class ClientKey {
+        private final String iamRoleArn;
+        private final String awsRegion;
+
+        private ClientKey(String iamRoleArn, String awsRegion) {
+            // A blank IAM role means the node credentials are used, as without role
+            this.iamRoleArn = iamRoleArn == null || iamRoleArn.isBlank() ? null : iamRoleArn;
+            this.awsRegion = awsRegion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ClientKey clientKey = (ClientKey) o;
+            return Objects.equals(iamRoleArn, clientKey.iamRoleArn) && Objects.equals(awsRegion, clientKey.awsRegion);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(iamRoleArn, awsRegion);
+        }
+    }
+
+    /**
+     * Point-in-time statistics of shared Personalize clients
+     */
+    public static final class Stats implements ToXContentFragment {
+        private final long clientCount;
+        private final long referenceCount;
+        private final long createdCount;
+        private final long closedCount;
+
+        public Stats(long clientCount, long referenceCount, long createdCount, long closedCount) {
+            this.clientCount = clientCount;
+            this.referenceCount = referenceCount;
+            this.createdCount = createdCount;
+            this.closedCount = closedCount;
+        }
+
+        /**
+         * @return number of open Personalize clients
+         */
+        public long getClientCount() {
+            return clientCount;
+        }
+
+        /**
+         * @return number of processors using the open clients
+         */
+        public long getReferenceCount() {
+            return referenceCount;
+        }
+
+        /**
+         * @return number of clients created since the node started
+         */
+        public long getCreatedCount() {
+            return createdCount;
+        }
+
+        /**
+         * @return number of clients closed since the node started
+         */
+        public long getClosedCount() {
+            return closedCount;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject("clients");
+            builder.field("client_count", clientCount);
+            builder.field("reference_count", referenceCount);
+            builder.field("created_count", createdCount);
+            builder.field("closed_count", closedCount);
+            return builder.endObject();
+        }
+    }
+}
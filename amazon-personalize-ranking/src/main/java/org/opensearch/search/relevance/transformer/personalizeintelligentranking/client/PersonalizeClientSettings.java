@@ -17,9 +17,16 @@ import org.opensearch.common.settings.SecureSetting;
 import org.opensearch.common.settings.Setting;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.common.settings.SettingsException;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.search.relevance.client.RateLimiter;
+import org.opensearch.search.relevance.client.RemoteCallGuard;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Container for personalize client settings such as AWS credentials
@@ -43,6 +50,128 @@ public final class PersonalizeClientSettings {
      */
     public static final Setting<SecureString> SESSION_TOKEN_SETTING = SecureSetting.secureString("personalized_search_ranking.aws.session_token", null);
 
+    /**
+     * Default maximum time a Personalize call may take before the original ranking is returned, or -1 for no budget.
+     */
+    public static final Setting<TimeValue> LATENCY_BUDGET_SETTING = Setting.timeSetting("personalized_search_ranking.latency_budget",
+            TimeValue.MINUS_ONE, TimeValue.MINUS_ONE, Setting.Property.NodeScope);
+
+    /**
+     * Maximum number of Personalize calls in flight on the node, or -1 for no limit.
+     */
+    public static final Setting<Integer> MAX_CONCURRENT_CALLS_SETTING = Setting.intSetting("personalized_search_ranking.max_concurrent_calls",
+            -1, -1, Setting.Property.NodeScope);
+
+    /**
+     * Flag controlling whether Personalize calls to a campaign stop while too many of its recent calls failed or were slow.
+     */
+    public static final Setting<Boolean> CIRCUIT_BREAKER_ENABLED_SETTING = Setting.boolSetting("personalized_search_ranking.circuit_breaker.enabled",
+            true, Setting.Property.NodeScope);
+
+    /**
+     * Number of most recent Personalize calls to a campaign the circuit breaker trips on.
+     */
+    public static final Setting<Integer> CIRCUIT_BREAKER_WINDOW_SIZE_SETTING = Setting.intSetting("personalized_search_ranking.circuit_breaker.window_size",
+            100, 1, Setting.Property.NodeScope);
+
+    /**
+     * Minimum number of Personalize calls to a campaign before the circuit breaker may trip.
+     */
+    public static final Setting<Integer> CIRCUIT_BREAKER_MINIMUM_CALLS_SETTING = Setting.intSetting("personalized_search_ranking.circuit_breaker.minimum_calls",
+            20, 1, Setting.Property.NodeScope);
+
+    /**
+     * Fraction of failed Personalize calls that trips the circuit breaker.
+     */
+    public static final Setting<Double> CIRCUIT_BREAKER_FAILURE_RATE_SETTING = Setting.doubleSetting("personalized_search_ranking.circuit_breaker.failure_rate",
+            0.5, 0.01, Setting.Property.NodeScope);
+
+    /**
+     * Latency of Personalize calls that trips the circuit breaker when reached at the configured percentile, or -1 to only trip on failures.
+     */
+    public static final Setting<TimeValue> CIRCUIT_BREAKER_LATENCY_THRESHOLD_SETTING = Setting.timeSetting("personalized_search_ranking.circuit_breaker.latency_threshold",
+            TimeValue.MINUS_ONE, TimeValue.MINUS_ONE, Setting.Property.NodeScope);
+
+    /**
+     * Percentile of the latency of Personalize calls compared to the latency threshold, between 0 and 1.
+     */
+    public static final Setting<Double> CIRCUIT_BREAKER_LATENCY_PERCENTILE_SETTING = Setting.doubleSetting("personalized_search_ranking.circuit_breaker.latency_percentile",
+            0.9, 0.0, Setting.Property.NodeScope);
+
+    /**
+     * Time during which an open circuit breaker rejects Personalize calls before letting a probe call through.
+     */
+    public static final Setting<TimeValue> CIRCUIT_BREAKER_OPEN_DURATION_SETTING = Setting.positiveTimeSetting("personalized_search_ranking.circuit_breaker.open_duration",
+            TimeValue.timeValueSeconds(30), Setting.Property.NodeScope);
+
+    /**
+     * Flag controlling whether Personalize calls for the same campaign are collected over a short window and dispatched together.
+     */
+    public static final Setting<Boolean> BATCHING_ENABLED_SETTING = Setting.boolSetting("personalized_search_ranking.batching.enabled",
+            false, Setting.Property.NodeScope);
+
+    /**
+     * Time during which Personalize calls for the same campaign are collected before they are dispatched.
+     */
+    public static final Setting<TimeValue> BATCHING_WINDOW_SETTING = Setting.positiveTimeSetting("personalized_search_ranking.batching.window",
+            TimeValue.timeValueMillis(5), Setting.Property.NodeScope);
+
+    /**
+     * Maximum number of Personalize calls dispatched by the node per batching window, or -1 for no limit. Calls over
+     * the limit wait for a later window.
+     */
+    public static final Setting<Integer> BATCHING_MAX_CALLS_PER_WINDOW_SETTING = Setting.intSetting("personalized_search_ranking.batching.max_calls_per_window",
+            -1, -1, Setting.Property.NodeScope);
+
+    /**
+     * Maximum number of batched Personalize calls in flight on the node. Calls over the limit wait for a later window.
+     */
+    public static final Setting<Integer> BATCHING_MAX_IN_FLIGHT_SETTING = Setting.intSetting("personalized_search_ranking.batching.max_in_flight",
+            50, 1, Setting.Property.NodeScope);
+
+    /**
+     * Maximum number of Personalize calls waiting to be dispatched on the node. Calls over the limit are rejected and
+     * searches return their original ranking.
+     */
+    public static final Setting<Integer> BATCHING_MAX_QUEUE_SIZE_SETTING = Setting.intSetting("personalized_search_ranking.batching.max_queue_size",
+            1000, 1, Setting.Property.NodeScope);
+
+    /**
+     * Validator of the rate limits of specific campaigns.
+     */
+    static final class RateLimitValidator implements Setting.Validator<List<String>> {
+
+        @Override
+        public void validate(List<String> value) {
+            RateLimiter.parseTargetRates(value);
+        }
+    }
+
+    /**
+     * Personalize calls per second allowed to each campaign, or -1 for no limit. Searches over the rate return their
+     * original ranking.
+     */
+    public static final Setting<Double> RATE_LIMIT_SETTING = Setting.doubleSetting("personalized_search_ranking.rate_limit.requests_per_second",
+            -1.0, -1.0, Setting.Property.NodeScope);
+
+    /**
+     * Maximum number of Personalize calls let through at once to a campaign, or -1 for one second worth of calls.
+     */
+    public static final Setting<Integer> RATE_LIMIT_BURST_SETTING = Setting.intSetting("personalized_search_ranking.rate_limit.burst",
+            -1, -1, Setting.Property.NodeScope);
+
+    /**
+     * Personalize calls per second allowed to specific campaigns, as campaign_arn=requests_per_second entries.
+     */
+    public static final Setting<List<String>> RATE_LIMIT_CAMPAIGNS_SETTING = Setting.listSetting("personalized_search_ranking.rate_limit.campaigns",
+            Collections.emptyList(), Function.identity(), new RateLimitValidator(), Setting.Property.NodeScope);
+
+    /**
+     * Prefix of the size and queue_size settings of the thread pool running Personalize calls, which are registered by
+     * its executor builder.
+     */
+    public static final String THREAD_POOL_SETTING_PREFIX = "personalized_search_ranking.thread_pool";
+
     private final AWSCredentials credentials;
 
     protected PersonalizeClientSettings(AWSCredentials credentials) {
@@ -53,7 +182,24 @@ public final class PersonalizeClientSettings {
         return Arrays.asList(
                 ACCESS_KEY_SETTING,
                 SECRET_KEY_SETTING,
-                SESSION_TOKEN_SETTING
+                SESSION_TOKEN_SETTING,
+                LATENCY_BUDGET_SETTING,
+                MAX_CONCURRENT_CALLS_SETTING,
+                CIRCUIT_BREAKER_ENABLED_SETTING,
+                CIRCUIT_BREAKER_WINDOW_SIZE_SETTING,
+                CIRCUIT_BREAKER_MINIMUM_CALLS_SETTING,
+                CIRCUIT_BREAKER_FAILURE_RATE_SETTING,
+                CIRCUIT_BREAKER_LATENCY_THRESHOLD_SETTING,
+                CIRCUIT_BREAKER_LATENCY_PERCENTILE_SETTING,
+                CIRCUIT_BREAKER_OPEN_DURATION_SETTING,
+                BATCHING_ENABLED_SETTING,
+                BATCHING_WINDOW_SETTING,
+                BATCHING_MAX_CALLS_PER_WINDOW_SETTING,
+                BATCHING_MAX_IN_FLIGHT_SETTING,
+                BATCHING_MAX_QUEUE_SIZE_SETTING,
+                RATE_LIMIT_SETTING,
+                RATE_LIMIT_BURST_SETTING,
+                RATE_LIMIT_CAMPAIGNS_SETTING
         );
     }
 
@@ -103,4 +249,37 @@ public final class PersonalizeClientSettings {
         final AWSCredentials credentials = loadCredentials(settings);
         return new PersonalizeClientSettings(credentials);
     }
+
+    /**
+     * @param settings node settings
+     * @return guard of the Personalize calls of the node, or null if neither the circuit breaker nor the bulkhead is enabled
+     */
+    public static RemoteCallGuard createCallGuard(Settings settings) {
+        final int maxConcurrentCalls = MAX_CONCURRENT_CALLS_SETTING.get(settings);
+        final boolean circuitBreakerEnabled = CIRCUIT_BREAKER_ENABLED_SETTING.get(settings);
+        if (maxConcurrentCalls < 0 && !circuitBreakerEnabled) {
+            return null;
+        }
+        return new RemoteCallGuard("Amazon Personalize", maxConcurrentCalls, circuitBreakerEnabled,
+                CIRCUIT_BREAKER_WINDOW_SIZE_SETTING.get(settings),
+                CIRCUIT_BREAKER_MINIMUM_CALLS_SETTING.get(settings),
+                CIRCUIT_BREAKER_FAILURE_RATE_SETTING.get(settings),
+                CIRCUIT_BREAKER_LATENCY_THRESHOLD_SETTING.get(settings),
+                CIRCUIT_BREAKER_LATENCY_PERCENTILE_SETTING.get(settings),
+                CIRCUIT_BREAKER_OPEN_DURATION_SETTING.get(settings),
+                System::nanoTime);
+    }
+
+    /**
+     * @param settings node settings
+     * @return rate limiter of the Personalize calls of the node, or null if no campaign is rate limited
+     */
+    public static RateLimiter createRateLimiter(Settings settings) {
+        final double defaultRate = RATE_LIMIT_SETTING.get(settings);
+        final Map<String, Double> targetRates = RateLimiter.parseTargetRates(RATE_LIMIT_CAMPAIGNS_SETTING.get(settings));
+        if (defaultRate < 0 && targetRates.isEmpty()) {
+            return null;
+        }
+        return new RateLimiter(defaultRate, RATE_LIMIT_BURST_SETTING.get(settings), targetRates, System::nanoTime);
+    }
 }
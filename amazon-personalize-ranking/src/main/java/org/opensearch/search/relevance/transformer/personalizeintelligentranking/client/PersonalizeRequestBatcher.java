@@ -0,0 +1,426 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.personalizeintelligentranking.client;
+
+import static org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClientSettings.BATCHING_ENABLED_SETTING;
+import static org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClientSettings.BATCHING_MAX_CALLS_PER_WINDOW_SETTING;
+import static org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClientSettings.BATCHING_MAX_IN_FLIGHT_SETTING;
+import static org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClientSettings.BATCHING_MAX_QUEUE_SIZE_SETTING;
+import static org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClientSettings.BATCHING_WINDOW_SETTING;
+
+import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingRequest;
+import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingResult;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import org.opensearch.common.lease.Releasable;
+import org.opensearch.common.metrics.CounterMetric;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.threadpool.ThreadPool;
+
+/**
+ * Node-level micro-batching of asynchronous Personalize calls. Calls for the same campaign are collected during a
+ * short window, identical calls share a single request to Amazon Personalize, and the distinct requests of the window
+ * are then dispatched concurrently. The number of requests dispatched per window and in flight are capped across
+ * campaigns, so that bursts of searches are spread over the following windows instead of being throttled by the
+ * campaign. Amazon Personalize ranks the items of one user per request, so batching does not merge distinct requests.
+ */
+public class PersonalizeRequestBatcher {
+    private final ThreadPool threadPool;
+    private final TimeValue window;
+    private final long windowNanos;
+    private final int maxCallsPerWindow;
+    private final int maxInFlight;
+    private final int maxQueueSize;
+    private final LongSupplier nanoClock;
+
+    // Calls waiting to be dispatched, by campaign ARN. All mutable state is guarded by this
+    private final Map<String, Deque<Call>> queues = new HashMap<>();
+    private int queuedCount;
+    private int inFlightCount;
+    private long windowStartNanos;
+    private int callsInWindow;
+
+    private final CounterMetric requestCount = new CounterMetric();
+    private final CounterMetric callCount = new CounterMetric();
+    private final CounterMetric batchCount = new CounterMetric();
+    private final CounterMetric deduplicatedCount = new CounterMetric();
+    private final CounterMetric deferredCount = new CounterMetric();
+    private final CounterMetric rejectedCount = new CounterMetric();
+
+    /**
+     * @param threadPool        thread pool scheduling the dispatch of batches
+     * @param window            time during which calls for a campaign are collected
+     * @param maxCallsPerWindow maximum number of requests dispatched per window, or -1 for no limit
+     * @param maxInFlight       maximum number of dispatched requests in flight
+     * @param maxQueueSize      maximum number of requests waiting to be dispatched
+     * @param nanoClock         source of the current time in nanoseconds
+     */
+    PersonalizeRequestBatcher(ThreadPool threadPool, TimeValue window, int maxCallsPerWindow, int maxInFlight, int maxQueueSize,
+                              LongSupplier nanoClock) {
+        this.threadPool = threadPool;
+        this.window = window;
+        this.windowNanos = window.nanos();
+        this.maxCallsPerWindow = maxCallsPerWindow;
+        this.maxInFlight = maxInFlight;
+        this.maxQueueSize = maxQueueSize;
+        this.nanoClock = nanoClock;
+        this.windowStartNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Create the request batcher of the node.
+     * @param settings   node settings
+     * @param threadPool thread pool scheduling the dispatch of batches
+     * @return request batcher, or null if batching is disabled
+     */
+    public static PersonalizeRequestBatcher create(Settings settings, ThreadPool threadPool) {
+        if (!BATCHING_ENABLED_SETTING.get(settings)) {
+            return null;
+        }
+        return new PersonalizeRequestBatcher(threadPool,
+                BATCHING_WINDOW_SETTING.get(settings),
+                BATCHING_MAX_CALLS_PER_WINDOW_SETTING.get(settings),
+                BATCHING_MAX_IN_FLIGHT_SETTING.get(settings),
+                BATCHING_MAX_QUEUE_SIZE_SETTING.get(settings),
+                System::nanoTime);
+    }
+
+    /**
+     * Queue a Personalize call until the end of the batching window of its campaign. A call that does not share a
+     * queued request takes a token of the rate limit of the campaign. If too many calls are waiting, or the rate limit
+     * is exceeded, the listener is failed with a {@link RejectedExecutionException} before returning.
+     * @param client   client sending the request
+     * @param request  get personalized ranking request
+     * @param listener listener notified with the result once the request completes
+     * @return releasable that gives up waiting for the result, and cancels the request if no other search waits for it
+     */
+    public Releasable getPersonalizedRankingAsync(PersonalizeClient client, GetPersonalizedRankingRequest request,
+                                                  ActionListener<GetPersonalizedRankingResult> listener) {
+        requestCount.inc();
+        final Waiter waiter = new Waiter(listener);
+        final Call call;
+        final boolean scheduleBatch;
+        RejectedExecutionException rateLimitException = null;
+        synchronized (this) {
+            Deque<Call> queue = queues.get(request.getCampaignArn());
+            Call queuedCall = null;
+            if (queue != null) {
+                for (Call candidate : queue) {
+                    if (candidate.client == client && candidate.request.equals(request)) {
+                        queuedCall = candidate;
+                        break;
+                    }
+                }
+            }
+            if (queuedCall != null) {
+                deduplicatedCount.inc();
+                call = queuedCall;
+                scheduleBatch = false;
+            } else if (queuedCount >= maxQueueSize) {
+                call = null;
+                scheduleBatch = false;
+            } else {
+                // Identical calls share the token of their request
+                try {
+                    client.acquireRateLimit(request.getCampaignArn());
+                } catch (RejectedExecutionException ex) {
+                    rateLimitException = ex;
+                }
+                if (rateLimitException != null) {
+                    call = null;
+                    scheduleBatch = false;
+                } else {
+                    scheduleBatch = queue == null;
+                    if (queue == null) {
+                        queue = new ArrayDeque<>();
+                        queues.put(request.getCampaignArn(), queue);
+                    }
+                    call = new Call(client, request);
+                    queue.add(call);
+                    queuedCount++;
+                }
+            }
+            if (call != null) {
+                call.waiters.add(waiter);
+            }
+        }
+        if (rateLimitException != null) {
+            listener.onFailure(rateLimitException);
+            return () -> {};
+        }
+        if (call == null) {
+            rejectedCount.inc();
+            listener.onFailure(new RejectedExecutionException("Too many Personalize calls waiting to be dispatched"));
+            return () -> {};
+        }
+        if (scheduleBatch) {
+            threadPool.schedule(() -> dispatchBatch(request.getCampaignArn()), window, ThreadPool.Names.GENERIC);
+        }
+        return () -> giveUp(call, waiter);
+    }
+
+    private void dispatchBatch(String campaignArn) {
+        final List<Call> calls = new ArrayList<>();
+        final boolean deferred;
+        synchronized (this) {
+            final Deque<Call> queue = queues.get(campaignArn);
+            if (queue == null) {
+                return;
+            }
+            final long now = nanoClock.getAsLong();
+            if (now - windowStartNanos >= windowNanos) {
+                windowStartNanos = now;
+                callsInWindow = 0;
+            }
+            while (!queue.isEmpty()
+                    && (maxCallsPerWindow < 0 || callsInWindow < maxCallsPerWindow)
+                    && inFlightCount < maxInFlight) {
+                Call call = queue.poll();
+                queuedCount--;
+                call.dispatched = true;
+                callsInWindow++;
+                inFlightCount++;
+                calls.add(call);
+            }
+            deferred = !queue.isEmpty();
+            if (deferred) {
+                deferredCount.inc(queue.size());
+            } else {
+                queues.remove(campaignArn);
+            }
+        }
+        batchCount.inc();
+        if (deferred) {
+            threadPool.schedule(() -> dispatchBatch(campaignArn), window, ThreadPool.Names.GENERIC);
+        }
+        for (Call call : calls) {
+            dispatch(call);
+        }
+    }
+
+    private void dispatch(Call call) {
+        callCount.inc();
+        final Releasable cancel = call.client.sendPersonalizedRankingAsync(call.request,
+                ActionListener.wrap(result -> complete(call, result, null), e -> complete(call, null, e)));
+        final boolean cancelled;
+        synchronized (call) {
+            cancelled = call.cancelled;
+            if (!cancelled) {
+                call.cancel = cancel;
+            }
+        }
+        if (cancelled) {
+            cancel.close();
+        }
+    }
+
+    private void complete(Call call, GetPersonalizedRankingResult result, Exception exception) {
+        if (!call.completed.compareAndSet(false, true)) {
+            return;
+        }
+        final List<Waiter> waiters;
+        synchronized (this) {
+            inFlightCount--;
+            waiters = new ArrayList<>(call.waiters);
+        }
+        for (Waiter waiter : waiters) {
+            if (waiter.done.compareAndSet(false, true)) {
+                if (exception == null) {
+                    waiter.listener.onResponse(result);
+                } else {
+                    waiter.listener.onFailure(exception);
+                }
+            }
+        }
+    }
+
+    private void giveUp(Call call, Waiter waiter) {
+        if (!waiter.done.compareAndSet(false, true)) {
+            return;
+        }
+        final boolean cancelRequest;
+        boolean dequeued = false;
+        synchronized (this) {
+            call.waiters.remove(waiter);
+            if (!call.waiters.isEmpty()) {
+                return;
+            }
+            if (!call.dispatched) {
+                // Nobody waits for the request anymore, so it is not sent
+                final Deque<Call> queue = queues.get(call.request.getCampaignArn());
+                if (queue != null && queue.remove(call)) {
+                    queuedCount--;
+                    dequeued = true;
+                }
+                cancelRequest = false;
+            } else {
+                cancelRequest = call.completed.compareAndSet(false, true);
+                if (cancelRequest) {
+                    inFlightCount--;
+                }
+            }
+        }
+        if (dequeued) {
+            // The token taken when the request was queued is not used
+            call.client.releaseRateLimit(call.request.getCampaignArn());
+        }
+        if (cancelRequest) {
+            final Releasable cancel;
+            synchronized (call) {
+                call.cancelled = true;
+                cancel = call.cancel;
+            }
+            if (cancel != null) {
+                cancel.close();
+            }
+        }
+    }
+
+    public Stats getStats() {
+        final long queued;
+        final long inFlight;
+        synchronized (this) {
+            queued = queuedCount;
+            inFlight = inFlightCount;
+        }
+        return new Stats(requestCount.count(), callCount.count(), batchCount.count(), deduplicatedCount.count(),
+                deferredCount.count(), rejectedCount.count(), queued, inFlight);
+    }
+
+    private static final class Call {
+        private final PersonalizeClient client;
+        private final GetPersonalizedRankingRequest request;
+        private final List<Waiter> waiters = new ArrayList<>();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private boolean dispatched;
+        private boolean cancelled;
+        private Releasable cancel;
+
+        private Call(PersonalizeClient client, GetPersonalizedRankingRequest request) {
+            this.client = client;
+            this.request = request;
+        }
+    }
+
+    private static final class Waiter {
+        private final ActionListener<GetPersonalizedRankingResult> listener;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Waiter(ActionListener<GetPersonalizedRankingResult> listener) {
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * Point-in-time statistics of batched Personalize calls
+     */
+    public static final class Stats implements ToXContentFragment {
+        private final long requestCount;
+        private final long callCount;
+        private final long batchCount;
+        private final long deduplicatedCount;
+        private final long deferredCount;
+        private final long rejectedCount;
+        private final long queuedCount;
+        private final long inFlightCount;
+
+        public Stats(long requestCount, long callCount, long batchCount, long deduplicatedCount, long deferredCount,
+                     long rejectedCount, long queuedCount, long inFlightCount) {
+            this.requestCount = requestCount;
+            this.callCount = callCount;
+            this.batchCount = batchCount;
+            this.deduplicatedCount = deduplicatedCount;
+            this.deferredCount = deferredCount;
+            this.rejectedCount = rejectedCount;
+            this.queuedCount = queuedCount;
+            this.inFlightCount = inFlightCount;
+        }
+
+        /**
+         * @return number of Personalize calls submitted by searches
+         */
+        public long getRequestCount() {
+            return requestCount;
+        }
+
+        /**
+         * @return number of requests sent to Amazon Personalize
+         */
+        public long getCallCount() {
+            return callCount;
+        }
+
+        /**
+         * @return number of batches dispatched
+         */
+        public long getBatchCount() {
+            return batchCount;
+        }
+
+        /**
+         * @return number of calls that shared the request of an identical call of the same batch
+         */
+        public long getDeduplicatedCount() {
+            return deduplicatedCount;
+        }
+
+        /**
+         * @return number of times a request waited for a later window because of the dispatch limits
+         */
+        public long getDeferredCount() {
+            return deferredCount;
+        }
+
+        /**
+         * @return number of calls rejected because too many calls were waiting to be dispatched
+         */
+        public long getRejectedCount() {
+            return rejectedCount;
+        }
+
+        /**
+         * @return number of requests waiting to be dispatched
+         */
+        public long getQueuedCount() {
+            return queuedCount;
+        }
+
+        /**
+         * @return number of dispatched requests in flight
+         */
+        public long getInFlightCount() {
+            return inFlightCount;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject("batching");
+            builder.field("request_count", requestCount);
+            builder.field("call_count", callCount);
+            builder.field("batch_count", batchCount);
+            builder.field("deduplicated_count", deduplicatedCount);
+            builder.field("deferred_count", deferredCount);
+            builder.field("rejected_count", rejectedCount);
+            builder.field("queued_count", queuedCount);
+            builder.field("in_flight_count", inFlightCount);
+            return builder.endObject();
+        }
+    }
+}
@@ -7,7 +7,10 @@
  */
 package org.opensearch.search.relevance.transformer.personalizeintelligentranking.reranker;
 
+import org.opensearch.common.lease.Releasable;
+import org.opensearch.core.action.ActionListener;
 import org.opensearch.search.SearchHits;
+import org.opensearch.search.relevance.client.LatencyBudget;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.requestparameter.PersonalizeRequestParameters;
 
 public interface PersonalizedRanker {
@@ -19,4 +22,39 @@ public interface PersonalizedRanker {
      * @return Re ranked search hits
      */
     SearchHits rerank(SearchHits hits, PersonalizeRequestParameters requestParameters);
+
+    /**
+     * Re rank search hits without blocking the calling thread
+     * @param hits              Search hits to re rank
+     * @param requestParameters Request parameters for Personalize present in search request
+     * @param listener          Listener notified with the re ranked search hits
+     * @return Releasable that cancels the call to Personalize if it is still in flight
+     */
+    default Releasable rerankAsync(SearchHits hits, PersonalizeRequestParameters requestParameters, ActionListener<SearchHits> listener) {
+        SearchHits rerankedHits;
+        try {
+            rerankedHits = rerank(hits, requestParameters);
+        } catch (Exception e) {
+            listener.onFailure(e);
+            return () -> {};
+        }
+        listener.onResponse(rerankedHits);
+        return () -> {};
+    }
+
+    /**
+     * Re rank search hits without blocking the calling thread, giving up on Personalize once the latency budget is
+     * spent. Rankers that modify the given hits must only do so once the call to Personalize completed within the
+     * budget, since the caller returns the original hits as soon as the fallback runs.
+     * @param hits              Search hits to re rank
+     * @param requestParameters Request parameters for Personalize present in search request
+     * @param latencyBudget     Node-level enforcement of latency budgets
+     * @param budgetMillis      Time left for the call to Personalize, as returned by {@link LatencyBudget#getRemainingMillis}
+     * @param listener          Listener notified with the re ranked search hits if Personalize responds within the budget
+     * @param fallback          Run instead of notifying the listener if the budget is spent first
+     */
+    default void rerankAsync(SearchHits hits, PersonalizeRequestParameters requestParameters, LatencyBudget latencyBudget,
+                             long budgetMillis, ActionListener<SearchHits> listener, Runnable fallback) {
+        latencyBudget.execute(budgetMillis, l -> rerankAsync(hits, requestParameters, l), listener, fallback);
+    }
 }
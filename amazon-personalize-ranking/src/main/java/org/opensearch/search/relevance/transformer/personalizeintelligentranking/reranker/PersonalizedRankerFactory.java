@@ -9,9 +9,12 @@ package org.opensearch.search.relevance.transformer.personalizeintelligentrankin
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.PersonalizeRankingProfile;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.cache.PersonalizedRankingCache;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClient;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.configuration.PersonalizeIntelligentRankerConfiguration;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.reranker.impl.AmazonPersonalizedRankerImpl;
+import org.opensearch.search.relevance.stats.RerankerMetrics;
 
 import static org.opensearch.search.relevance.transformer.personalizeintelligentranking.configuration.Constants.AMAZON_PERSONALIZED_RANKING_RECIPE_NAME;
 import static org.opensearch.search.relevance.transformer.personalizeintelligentranking.configuration.Constants.AMAZON_PERSONALIZED_RANKING_V2_RECIPE_NAME;
@@ -29,11 +32,56 @@ public class PersonalizedRankerFactory {
      * @return Personalize ranker instance
      */
     public PersonalizedRanker getPersonalizedRanker(PersonalizeIntelligentRankerConfiguration config, PersonalizeClient client){
+        return getPersonalizedRanker(config, client, null);
+    }
+
+    /**
+     * Create an instance of Personalize ranker based on ranker configuration
+     * @param config       Personalize ranker configuration
+     * @param client       Personalize client
+     * @param rankingCache Cache of Personalize ranking results, or null to always call Personalize
+     * @return Personalize ranker instance
+     */
+    public PersonalizedRanker getPersonalizedRanker(PersonalizeIntelligentRankerConfiguration config, PersonalizeClient client,
+                                                    PersonalizedRankingCache rankingCache){
+        return getPersonalizedRanker(config, client, rankingCache, null);
+    }
+
+    /**
+     * Create an instance of Personalize ranker based on ranker configuration
+     * @param config       Personalize ranker configuration
+     * @param client       Personalize client
+     * @param rankingCache Cache of Personalize ranking results, or null to always call Personalize
+     * @param metrics      Metrics the ranker records the time spent on each step of re ranking in, or null
+     * @return Personalize ranker instance
+     */
+    public PersonalizedRanker getPersonalizedRanker(PersonalizeIntelligentRankerConfiguration config, PersonalizeClient client,
+                                                    PersonalizedRankingCache rankingCache, RerankerMetrics metrics){
+        return getPersonalizedRanker(config, client, rankingCache, metrics, null);
+    }
+
+    /**
+     * Create an instance of Personalize ranker based on ranker configuration, to re rank the hits of one search
+     * @param config       Personalize ranker configuration
+     * @param client       Personalize client
+     * @param rankingCache Cache of Personalize ranking results, or null to always call Personalize
+     * @param metrics      Metrics the ranker records the time spent on each step of re ranking in, or null
+     * @param profile      Profile of the search the ranker records the time spent on each phase of re ranking in, or
+     *                     null if the search is not profiled
+     * @return Personalize ranker instance
+     */
+    public PersonalizedRanker getPersonalizedRanker(PersonalizeIntelligentRankerConfiguration config, PersonalizeClient client,
+                                                    PersonalizedRankingCache rankingCache, RerankerMetrics metrics,
+                                                    PersonalizeRankingProfile profile){
         PersonalizedRanker ranker = null;
         String recipeInConfig = config.getRecipe();
         if (recipeInConfig.equals(AMAZON_PERSONALIZED_RANKING_RECIPE_NAME)
                 || recipeInConfig.equals(AMAZON_PERSONALIZED_RANKING_V2_RECIPE_NAME)) {
-            ranker = new AmazonPersonalizedRankerImpl(config, client);
+            ranker = AmazonPersonalizedRankerImpl.builder(config, client)
+                    .rankingCache(rankingCache)
+                    .metrics(metrics)
+                    .profile(profile)
+                    .build();
         } else {
             logger.error("Personalize recipe provided in configuration is not supported for re ranking search results");
             //TODO : throw user error exception
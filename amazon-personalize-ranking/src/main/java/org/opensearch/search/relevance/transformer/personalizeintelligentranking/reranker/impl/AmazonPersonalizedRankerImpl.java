@@ -13,22 +13,34 @@ import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingRes
 import com.amazonaws.services.personalizeruntime.model.PredictedItem;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.opensearch.common.lease.Releasable;
+import org.opensearch.core.action.ActionListener;
 import org.opensearch.ingest.ConfigurationUtils;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.SearchHits;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.PersonalizeRankingProfile;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.PersonalizeRankingProfile.Phase;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.PersonalizeRankingResponseProcessor;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.cache.PersonalizedRankingCache;
+import org.opensearch.search.relevance.client.LatencyBudget;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClient;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.configuration.PersonalizeIntelligentRankerConfiguration;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.requestparameter.PersonalizeRequestParameters;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.reranker.PersonalizedRanker;
+import org.opensearch.search.relevance.stats.RerankerMetrics;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.utils.SourceFieldExtractor;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.utils.ValidationUtil;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -38,11 +50,69 @@ public class AmazonPersonalizedRankerImpl implements PersonalizedRanker {
     private static final Logger logger = LogManager.getLogger(AmazonPersonalizedRankerImpl.class);
     private final PersonalizeIntelligentRankerConfiguration rankerConfig;
     private final PersonalizeClient personalizeClient;
+    private final PersonalizedRankingCache rankingCache;
+    private final RerankerMetrics metrics;
+    private final PersonalizeRankingProfile profile;
 
-    public AmazonPersonalizedRankerImpl(PersonalizeIntelligentRankerConfiguration config,
-                                        PersonalizeClient client) {
-        this.rankerConfig = config;
-        this.personalizeClient = client;
+    private AmazonPersonalizedRankerImpl(Builder builder) {
+        this.rankerConfig = builder.config;
+        this.personalizeClient = builder.client;
+        this.rankingCache = builder.rankingCache;
+        this.metrics = builder.metrics == null ? new RerankerMetrics() : builder.metrics;
+        this.profile = builder.profile;
+    }
+
+    /**
+     * @param config Personalize ranker configuration
+     * @param client Personalize client
+     * @return builder of a ranker without cache, metrics or profile
+     */
+    public static Builder builder(PersonalizeIntelligentRankerConfiguration config, PersonalizeClient client) {
+        return new Builder(config, client);
+    }
+
+    /**
+     * Builder of {@link AmazonPersonalizedRankerImpl}. Every optional dependency defaults to disabled.
+     */
+    public static final class Builder {
+        private final PersonalizeIntelligentRankerConfiguration config;
+        private final PersonalizeClient client;
+        private PersonalizedRankingCache rankingCache;
+        private RerankerMetrics metrics;
+        private PersonalizeRankingProfile profile;
+
+        private Builder(PersonalizeIntelligentRankerConfiguration config, PersonalizeClient client) {
+            this.config = config;
+            this.client = client;
+        }
+
+        /**
+         * @param rankingCache cache of Personalize ranking results, or null to always call Personalize
+         */
+        public Builder rankingCache(PersonalizedRankingCache rankingCache) {
+            this.rankingCache = rankingCache;
+            return this;
+        }
+
+        /**
+         * @param metrics node-level metrics of the processor, or null to not report them
+         */
+        public Builder metrics(RerankerMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * @param profile profile of the search being re ranked, or null if the search is not profiled
+         */
+        public Builder profile(PersonalizeRankingProfile profile) {
+            this.profile = profile;
+            return this;
+        }
+
+        public AmazonPersonalizedRankerImpl build() {
+            return new AmazonPersonalizedRankerImpl(this);
+        }
     }
 
     /**
@@ -54,57 +124,39 @@ public class AmazonPersonalizedRankerImpl implements PersonalizedRanker {
     @Override
     public SearchHits rerank(SearchHits hits, PersonalizeRequestParameters requestParameters) {
         try {
-            validatePersonalizeRequestParams(requestParameters);
-            List<SearchHit> originalHits = Arrays.asList(hits.getHits());
-            // Do not make Personalize call if weight is zero which implies Personalization is turned off.
-            if (rankerConfig.getWeight() == 0) {
-                logger.info("Not applying Personalized ranking. Given value for weight configuration: {}", rankerConfig.getWeight());
+            long startTime = System.nanoTime();
+            SourceFieldExtractor sourceFields = createSourceFieldExtractor();
+            GetPersonalizedRankingRequest personalizeRequest = buildPersonalizedRankingRequest(hits, requestParameters, sourceFields);
+            recordPhase(Phase.SOURCE_PARSING, startTime);
+            if (personalizeRequest == null) {
                 return hits;
             }
-            String itemIdfield = rankerConfig.getItemIdField();
-            List<String> documentIdsToRank;
-            // If item field is not specified in the configuration then use default _id field.
-            if (itemIdfield != null && !itemIdfield.isBlank()) {
-                documentIdsToRank = originalHits.stream()
-                        .filter(h -> h.getSourceAsMap().get(itemIdfield) != null)
-                        .map(h -> h.getSourceAsMap().get(itemIdfield).toString())
-                        .collect(Collectors.toList());
-            } else {
-                documentIdsToRank = originalHits.stream()
-                        .filter(h -> h.getId() != null)
-                        .map(h -> h.getId())
-                        .collect(Collectors.toList());
-            }
-            if (documentIdsToRank.size() == 0) {
-                throw ConfigurationUtils.newConfigurationException(PersonalizeRankingResponseProcessor.TYPE, "", "item_id_field",
-                        "no item ids found to apply Personalized reranking. Please check configured value for item_id_field");
-            }
-            logger.info("Document Ids to re-rank with Personalize: {}", Arrays.toString(documentIdsToRank.toArray()));
-            String userId = requestParameters.getUserId();
-            Map<String, String> context = requestParameters.getContext() != null ?
-                                            requestParameters.getContext().entrySet().stream()
-                                                    .collect(Collectors.toMap(Map.Entry::getKey, e -> (String)e.getValue()))
-                                            : null;
-            logger.info("User ID from personalize request parameters - User ID: {}", userId);
-            if (context != null && !context.isEmpty()) {
-                logger.info("Personalize context provided in the search request");
+            PersonalizedRankingCache.Key cacheKey = rankingCache == null ? null : PersonalizedRankingCache.createKey(personalizeRequest);
+            GetPersonalizedRankingResult result = cacheKey == null ? null : rankingCache.get(cacheKey);
+            metrics.recordPreprocessing(System.nanoTime() - startTime);
+            if (result == null) {
+                metrics.recordRequestSize(estimateRequestSize(personalizeRequest));
+                startTime = System.nanoTime();
+                try {
+                    result = personalizeClient.getPersonalizedRanking(personalizeRequest);
+                } finally {
+                    recordPhase(Phase.NETWORK_WAIT, startTime);
+                }
+                metrics.recordRemoteCall(System.nanoTime() - startTime);
+                recordResponseSize(result);
+                if (cacheKey != null) {
+                    rankingCache.put(cacheKey, result);
+                }
             }
 
-            GetPersonalizedRankingRequest personalizeRequest = new GetPersonalizedRankingRequest()
-                    .withCampaignArn(rankerConfig.getPersonalizeCampaign())
-                    .withInputList(documentIdsToRank)
-                    .withContext(context)
-                    .withUserId(userId);
-            GetPersonalizedRankingResult result = personalizeClient.getPersonalizedRanking(personalizeRequest);
-
-            SearchHits personalizedHits = combineScores(hits, result);
+            startTime = System.nanoTime();
+            SearchHits personalizedHits = combineScores(hits, result, sourceFields);
+            metrics.recordPostprocessing(System.nanoTime() - startTime);
+            recordPhase(Phase.RESPONSE_MERGE, startTime);
             return personalizedHits;
         } catch (AmazonServiceException e) {
-            logger.error("Exception while calling personalize campaign: {}", e.getMessage());
-            int statusCode = e.getStatusCode();
-            if (ValidationUtil.is4xxError(statusCode)) {
-                throw new IllegalArgumentException(e);
-            }
+            throw translateServiceException(e);
+        } catch (RejectedExecutionException e) {
             throw e;
         }
         catch (Exception ex) {
@@ -113,8 +165,258 @@ public class AmazonPersonalizedRankerImpl implements PersonalizedRanker {
         }
     }
 
+    /**
+     * Re rank search hits using Personalize campaign that uses Personalized Ranking recipe, without blocking
+     * the calling thread while waiting on Amazon Personalize
+     * @param hits              search hits returned by open search
+     * @param requestParameters request parameters for Personalize present in search request
+     * @param listener          listener notified with search hits re ranked using Amazon Personalize
+     */
+    @Override
+    public Releasable rerankAsync(SearchHits hits, PersonalizeRequestParameters requestParameters, ActionListener<SearchHits> listener) {
+        return rerankAsync(hits, requestParameters, listener, (call, resultListener) -> call.apply(resultListener));
+    }
+
+    /**
+     * Re rank search hits using Personalize campaign that uses Personalized Ranking recipe, without blocking
+     * the calling thread while waiting on Amazon Personalize, and without waiting on it longer than the latency budget.
+     * The result of Personalize is merged into the hits only if it arrives within the budget, so that a late result
+     * never modifies hits already returned by the fallback.
+     * @param hits              search hits returned by open search
+     * @param requestParameters request parameters for Personalize present in search request
+     * @param latencyBudget     node-level enforcement of latency budgets
+     * @param budgetMillis      time left for the call to Personalize
+     * @param listener          listener notified with search hits re ranked using Amazon Personalize
+     * @param fallback          run instead of notifying the listener if the budget is spent first
+     */
+    @Override
+    public void rerankAsync(SearchHits hits, PersonalizeRequestParameters requestParameters, LatencyBudget latencyBudget,
+                            long budgetMillis, ActionListener<SearchHits> listener, Runnable fallback) {
+        rerankAsync(hits, requestParameters, listener, (call, resultListener) -> {
+            latencyBudget.execute(budgetMillis, call, resultListener, fallback);
+            return () -> {};
+        });
+    }
+
+    /**
+     * Starts the call to Amazon Personalize, possibly bounded by a latency budget
+     */
+    @FunctionalInterface
+    private interface RemoteCall {
+        /**
+         * @param call     starts the call, notifying the given listener, and returns a releasable that cancels it
+         * @param listener listener merging the result of the call into the hits
+         * @return releasable that cancels the call if it is still in flight
+         */
+        Releasable start(Function<ActionListener<GetPersonalizedRankingResult>, Releasable> call,
+                         ActionListener<GetPersonalizedRankingResult> listener);
+    }
+
+    private Releasable rerankAsync(SearchHits hits, PersonalizeRequestParameters requestParameters, ActionListener<SearchHits> listener,
+                                   RemoteCall remoteCall) {
+        final long preprocessingStartTime = System.nanoTime();
+        final SourceFieldExtractor sourceFields = createSourceFieldExtractor();
+        final GetPersonalizedRankingRequest personalizeRequest;
+        final PersonalizedRankingCache.Key cacheKey;
+        SearchHits cachedHits = null;
+        try {
+            personalizeRequest = buildPersonalizedRankingRequest(hits, requestParameters, sourceFields);
+            recordPhase(Phase.SOURCE_PARSING, preprocessingStartTime);
+            if (personalizeRequest == null) {
+                listener.onResponse(hits);
+                return () -> {};
+            }
+            cacheKey = rankingCache == null ? null : PersonalizedRankingCache.createKey(personalizeRequest);
+            GetPersonalizedRankingResult cachedResult = cacheKey == null ? null : rankingCache.get(cacheKey);
+            metrics.recordPreprocessing(System.nanoTime() - preprocessingStartTime);
+            if (cachedResult != null) {
+                final long postprocessingStartTime = System.nanoTime();
+                cachedHits = combineScores(hits, cachedResult, sourceFields);
+                metrics.recordPostprocessing(System.nanoTime() - postprocessingStartTime);
+                recordPhase(Phase.RESPONSE_MERGE, postprocessingStartTime);
+            }
+        } catch (Exception ex) {
+            logger.error("Failed to re rank with Personalize.", ex);
+            listener.onFailure(ex);
+            return () -> {};
+        }
+        if (cachedHits != null) {
+            listener.onResponse(cachedHits);
+            return () -> {};
+        }
+        metrics.recordRequestSize(estimateRequestSize(personalizeRequest));
+        final long remoteCallStartTime = System.nanoTime();
+        return remoteCall.start(l -> personalizeClient.getPersonalizedRankingAsync(personalizeRequest, l),
+                new ActionListener<GetPersonalizedRankingResult>() {
+                    @Override
+                    public void onResponse(GetPersonalizedRankingResult result) {
+                        metrics.recordRemoteCall(System.nanoTime() - remoteCallStartTime);
+                        recordPhase(Phase.NETWORK_WAIT, remoteCallStartTime);
+                        recordResponseSize(result);
+                        SearchHits personalizedHits;
+                        try {
+                            final long postprocessingStartTime = System.nanoTime();
+                            personalizedHits = combineScores(hits, result, sourceFields);
+                            if (cacheKey != null) {
+                                rankingCache.put(cacheKey, result);
+                            }
+                            metrics.recordPostprocessing(System.nanoTime() - postprocessingStartTime);
+                            recordPhase(Phase.RESPONSE_MERGE, postprocessingStartTime);
+                        } catch (Exception ex) {
+                            onFailure(ex);
+                            return;
+                        }
+                        listener.onResponse(personalizedHits);
+                    }
+
+                    @Override
+                    public void onFailure(Exception ex) {
+                        if (!(ex instanceof RejectedExecutionException)) {
+                            metrics.recordRemoteCall(System.nanoTime() - remoteCallStartTime);
+                        }
+                        recordPhase(Phase.NETWORK_WAIT, remoteCallStartTime);
+                        if (ex instanceof AmazonServiceException) {
+                            listener.onFailure(translateServiceException((AmazonServiceException) ex));
+                        } else if (ex instanceof RejectedExecutionException) {
+                            // Circuit breaker open or too many calls in flight, not an error of this search
+                            listener.onFailure(ex);
+                        } else {
+                            logger.error("Failed to re rank with Personalize.", ex);
+                            listener.onFailure(ex);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * @return extractor of the item ID field from the source of search hits, shared by all steps of one re ranking so
+     * that the source of each hit is read once
+     */
+    private SourceFieldExtractor createSourceFieldExtractor() {
+        return new SourceFieldExtractor(Collections.singletonList(rankerConfig.getItemIdField()));
+    }
+
+    /**
+     * Build the Personalize request for the given search hits
+     * @param hits              search hits returned by open search
+     * @param requestParameters request parameters for Personalize present in search request
+     * @param sourceFields      extractor of the item ID field from the source of search hits
+     * @return request to send to Personalize, or null if Personalization is turned off
+     */
+    private GetPersonalizedRankingRequest buildPersonalizedRankingRequest(SearchHits hits, PersonalizeRequestParameters requestParameters,
+                                                                          SourceFieldExtractor sourceFields) {
+        validatePersonalizeRequestParams(requestParameters);
+        List<SearchHit> originalHits = Arrays.asList(hits.getHits());
+        // Do not make Personalize call if weight is zero which implies Personalization is turned off.
+        if (rankerConfig.getWeight() == 0) {
+            logger.info("Not applying Personalized ranking. Given value for weight configuration: {}", rankerConfig.getWeight());
+            return null;
+        }
+        String itemIdfield = rankerConfig.getItemIdField();
+        List<String> documentIdsToRank;
+        // If item field is not specified in the configuration then use default _id field.
+        if (itemIdfield != null && !itemIdfield.isBlank()) {
+            documentIdsToRank = originalHits.stream()
+                    .map(h -> sourceFields.getValue(h, itemIdfield))
+                    .filter(itemId -> itemId != null)
+                    .map(Object::toString)
+                    .collect(Collectors.toList());
+        } else {
+            documentIdsToRank = originalHits.stream()
+                    .filter(h -> h.getId() != null)
+                    .map(h -> h.getId())
+                    .collect(Collectors.toList());
+        }
+        if (documentIdsToRank.size() == 0) {
+            throw ConfigurationUtils.newConfigurationException(PersonalizeRankingResponseProcessor.TYPE, "", "item_id_field",
+                    "no item ids found to apply Personalized reranking. Please check configured value for item_id_field");
+        }
+        logger.info("Document Ids to re-rank with Personalize: {}", Arrays.toString(documentIdsToRank.toArray()));
+        String userId = requestParameters.getUserId();
+        Map<String, String> context = requestParameters.getContext() != null ?
+                                        requestParameters.getContext().entrySet().stream()
+                                                .collect(Collectors.toMap(Map.Entry::getKey, e -> (String)e.getValue()))
+                                        : null;
+        logger.info("User ID from personalize request parameters - User ID: {}", userId);
+        if (context != null && !context.isEmpty()) {
+            logger.info("Personalize context provided in the search request");
+        }
+
+        return new GetPersonalizedRankingRequest()
+                .withCampaignArn(rankerConfig.getPersonalizeCampaign())
+                .withInputList(documentIdsToRank)
+                .withContext(context)
+                .withUserId(userId);
+    }
+
+    /**
+     * The SDK serializes the request itself, so its size is estimated from the values it carries
+     * @param request request to send to Personalize
+     * @return approximate size of the request payload, in bytes
+     */
+    private static long estimateRequestSize(GetPersonalizedRankingRequest request) {
+        long size = utf8Length(request.getCampaignArn()) + utf8Length(request.getUserId());
+        for (String itemId : request.getInputList()) {
+            size += utf8Length(itemId);
+        }
+        if (request.getContext() != null) {
+            for (Map.Entry<String, String> entry : request.getContext().entrySet()) {
+                size += utf8Length(entry.getKey()) + utf8Length(entry.getValue());
+            }
+        }
+        return size;
+    }
+
+    private static long utf8Length(String value) {
+        return value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Record the size of the response payload, when the HTTP metadata of the result is available
+     * @param result result returned by Personalize
+     */
+    private void recordResponseSize(GetPersonalizedRankingResult result) {
+        if (result == null || result.getSdkHttpMetadata() == null) {
+            return;
+        }
+        final String contentLength = result.getSdkHttpMetadata().getHttpHeaders().get("Content-Length");
+        if (contentLength != null) {
+            try {
+                metrics.recordResponseSize(Long.parseLong(contentLength));
+            } catch (NumberFormatException e) {
+                logger.debug("Invalid Content-Length in Personalize response: {}", contentLength);
+            }
+        }
+    }
+
+    /**
+     * Record the time spent on a phase of re ranking in the profile of the search, if it is profiled
+     * @param phase      phase of re ranking
+     * @param startNanos start of the phase, from {@link System#nanoTime()}
+     */
+    private void recordPhase(Phase phase, long startNanos) {
+        if (profile != null) {
+            profile.addPhaseTime(phase, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Client errors returned by Personalize are surfaced as invalid arguments, server errors are rethrown as is
+     * @param e exception returned by Personalize
+     * @return exception to surface to the caller
+     */
+    private RuntimeException translateServiceException(AmazonServiceException e) {
+        logger.error("Exception while calling personalize campaign: {}", e.getMessage());
+        int statusCode = e.getStatusCode();
+        if (ValidationUtil.is4xxError(statusCode)) {
+            return new IllegalArgumentException(e);
+        }
+        return e;
+    }
+
     //Combine open search hits and personalize campaign response
-    private SearchHits combineScores(SearchHits originalHits, GetPersonalizedRankingResult personalizedRankingResult) {
+    private SearchHits combineScores(SearchHits originalHits, GetPersonalizedRankingResult personalizedRankingResult,
+                                     SourceFieldExtractor sourceFields) {
         List<PredictedItem> personalziedRanking = personalizedRankingResult.getPersonalizedRanking();
         List<String> personalizedRankedItemsList = new LinkedList<>();
         for (PredictedItem item : personalziedRanking) {
@@ -129,7 +431,7 @@ public class AmazonPersonalizedRankerImpl implements PersonalizedRanker {
             SearchHit hit = originalHits.getAt(i);
             String itemIdField = rankerConfig.getItemIdField();
             if (itemIdField != null && !(itemIdField.isBlank())) {
-                openSearchItemId = hit.getSourceAsMap().get(rankerConfig.getItemIdField()).toString();
+                openSearchItemId = sourceFields.getValue(hit, itemIdField).toString();
             } else {
                 openSearchItemId = hit.getId();
             }
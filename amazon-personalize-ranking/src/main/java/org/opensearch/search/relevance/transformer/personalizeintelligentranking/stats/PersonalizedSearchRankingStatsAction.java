@@ -0,0 +1,22 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.personalizeintelligentranking.stats;
+
+import org.opensearch.search.relevance.stats.SearchRelevanceStatsAction;
+
+/**
+ * Action collecting the metrics of the Amazon Personalize plugin from the nodes of the cluster.
+ */
+public class PersonalizedSearchRankingStatsAction extends SearchRelevanceStatsAction {
+    public static final String NAME = "cluster:monitor/search_relevance/personalized_search_ranking/stats";
+    public static final PersonalizedSearchRankingStatsAction INSTANCE = new PersonalizedSearchRankingStatsAction();
+
+    private PersonalizedSearchRankingStatsAction() {
+        super(NAME);
+    }
+}
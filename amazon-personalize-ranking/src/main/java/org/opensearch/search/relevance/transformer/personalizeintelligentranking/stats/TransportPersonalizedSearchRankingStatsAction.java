@@ -0,0 +1,30 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.personalizeintelligentranking.stats;
+
+import org.opensearch.action.support.ActionFilters;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.inject.Inject;
+import org.opensearch.search.relevance.stats.SearchRelevanceStats;
+import org.opensearch.search.relevance.stats.TransportSearchRelevanceStatsAction;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.TransportService;
+
+/**
+ * Collects the metrics of the Amazon Personalize plugin from the nodes of the cluster.
+ */
+public class TransportPersonalizedSearchRankingStatsAction extends TransportSearchRelevanceStatsAction {
+
+    @Inject
+    public TransportPersonalizedSearchRankingStatsAction(ThreadPool threadPool, ClusterService clusterService,
+                                                         TransportService transportService, ActionFilters actionFilters,
+                                                         SearchRelevanceStats stats) {
+        super(PersonalizedSearchRankingStatsAction.INSTANCE, threadPool, clusterService, transportService,
+                actionFilters, stats);
+    }
+}
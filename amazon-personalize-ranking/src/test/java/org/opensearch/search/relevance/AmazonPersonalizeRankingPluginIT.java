@@ -25,4 +25,14 @@ public class AmazonPersonalizeRankingPluginIT extends OpenSearchRestTestCase {
         assertNotNull(body);
         assertTrue(body.contains("amazon-personalize-ranking"));
     }
+
+    public void testStats() throws IOException, ParseException {
+        Response response = client().performRequest(new Request("GET", "/_plugins/search_relevance/stats/personalized_search_ranking"));
+        String body = EntityUtils.toString(response.getEntity());
+
+        logger.info("response body: {}", body);
+        assertTrue(body.contains("\"all\""));
+        assertTrue(body.contains("\"nodes\""));
+        assertTrue(body.contains("\"clients\""));
+    }
 }
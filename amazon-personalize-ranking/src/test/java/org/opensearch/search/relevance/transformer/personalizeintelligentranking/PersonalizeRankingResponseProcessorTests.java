@@ -8,24 +8,34 @@
 package org.opensearch.search.relevance.transformer.personalizeintelligentranking;
 
 import com.amazonaws.http.IdleConnectionReaper;
+import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingResult;
 import org.apache.lucene.search.TotalHits;
 import org.opensearch.OpenSearchParseException;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.search.SearchResponseSections;
 import org.opensearch.action.search.ShardSearchFailure;
+import org.opensearch.common.lease.Releasable;
 import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.action.ActionListener;
 import org.opensearch.env.Environment;
 import org.opensearch.env.TestEnvironment;
 import org.opensearch.search.SearchHit;
 import org.opensearch.search.SearchHits;
 import org.opensearch.search.pipeline.Processor;
+import org.opensearch.search.relevance.client.LatencyBudget;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClient;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClientRegistry;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClientSettings;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.requestparameter.PersonalizeRequestParameters;
+import org.opensearch.search.relevance.stats.RerankerMetrics;
+import org.opensearch.search.relevance.stats.SearchRelevanceStats;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.utils.PersonalizeRuntimeTestUtil;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.utils.SearchTestUtil;
 import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -34,9 +44,17 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.opensearch.search.relevance.transformer.personalizeintelligentranking.PersonalizeRankingResponseProcessor.TYPE;
 import static org.opensearch.search.relevance.transformer.personalizeintelligentranking.configuration.Constants.AMAZON_PERSONALIZED_RANKING_RECIPE_NAME;
 import static org.opensearch.search.relevance.transformer.personalizeintelligentranking.configuration.Constants.AMAZON_PERSONALIZED_RANKING_V2_RECIPE_NAME;
@@ -58,7 +76,7 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
 
     public void testCreateFactoryThrowsExceptionWithEmptyConfig() {
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings);
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings).build();
         expectThrows(OpenSearchParseException.class, () -> factory.create(
                 Collections.emptyMap(),
                 null,
@@ -72,7 +90,7 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
 
     public void testFactoryValidations() {
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings);
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings).build();
         // Test config without campaign
         Map<String, Object> configuration = new HashMap<>();
         configuration.put("item_id_field", ITEM_ID_FIELD);
@@ -181,7 +199,7 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
 
     public void testCreateFactoryWithAllPersonalizeConfig() throws Exception {
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings);
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings).build();
 
         Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
 
@@ -194,10 +212,32 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
         IdleConnectionReaper.shutdown();
     }
 
+    public void testProcessorsShareClient() throws Exception {
+        AtomicInteger builtClients = new AtomicInteger();
+        PersonalizeRankingResponseProcessor.Factory factory
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings).clientBuilder((cp, r) -> {
+                    builtClients.incrementAndGet();
+                    return mock(PersonalizeClient.class);
+                }).build();
+
+        PersonalizeRankingResponseProcessor first = factory.create(Collections.emptyMap(), "first", null, false,
+                buildPersonalizeResponseProcessorConfig(), UPDATE_CONTEXT);
+        PersonalizeRankingResponseProcessor second = factory.create(Collections.emptyMap(), "second", null, false,
+                buildPersonalizeResponseProcessorConfig(), UPDATE_CONTEXT);
+        assertSame(first.getPersonalizeClient(), second.getPersonalizeClient());
+        assertEquals(1, builtClients.get());
+
+        // Validation does not hold a client
+        factory.create(Collections.emptyMap(), "validated", null, false, buildPersonalizeResponseProcessorConfig(), VALIDATE_CONTEXT);
+        assertEquals(1, builtClients.get());
+    }
+
     public void testProcessorWithNoHits() throws Exception {
         PersonalizeClient mockClient = mock(PersonalizeClient.class);
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, (cp, r) -> mockClient);
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings)
+                        .clientBuilder((cp, r) -> mockClient)
+                        .build();
 
         Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
 
@@ -217,7 +257,9 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
         PersonalizeClient mockClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();
 
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, (cp, r) -> mockClient);
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings)
+                        .clientBuilder((cp, r) -> mockClient)
+                        .build();
 
         Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
         PersonalizeRankingResponseProcessor personalizeResponseProcessor =
@@ -245,7 +287,9 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
         PersonalizeClient mockClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();;
 
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, (cp, r) -> mockClient);
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings)
+                        .clientBuilder((cp, r) -> mockClient)
+                        .build();
 
         Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
         PersonalizeRankingResponseProcessor personalizeResponseProcessor =
@@ -263,7 +307,9 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
         PersonalizeClient personalizeClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();
 
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, (cp, r) -> personalizeClient);
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings)
+                        .clientBuilder((cp, r) -> personalizeClient)
+                        .build();
 
         String itemField = "ITEM_ID";
         Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
@@ -289,7 +335,9 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
         PersonalizeClient personalizeClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();
 
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, (cp, r) -> personalizeClient);
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings)
+                        .clientBuilder((cp, r) -> personalizeClient)
+                        .build();
 
         String itemField = "ITEM_ID";
         Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
@@ -316,7 +364,9 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
         PersonalizeClient personalizeClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();
 
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, (cp, r) -> personalizeClient);
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings)
+                        .clientBuilder((cp, r) -> personalizeClient)
+                        .build();
 
         String itemFieldInvalid = "ITEM_ID_NOT_VALID";
         Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
@@ -335,7 +385,9 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
         PersonalizeClient personalizeClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();
 
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, (cp, r) -> personalizeClient);
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings)
+                        .clientBuilder((cp, r) -> personalizeClient)
+                        .build();
 
         String itemIdFieldEmpty = "";
         Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
@@ -364,7 +416,9 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
         PersonalizeClient personalizeClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();
 
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, (cp, r) -> personalizeClient);
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings)
+                        .clientBuilder((cp, r) -> personalizeClient)
+                        .build();
 
         String itemFieldInvalid = "ITEM_ID_NOT_VALID";
         Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
@@ -382,7 +436,9 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
         PersonalizeClient personalizeClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();
 
         PersonalizeRankingResponseProcessor.Factory factory
-                = new PersonalizeRankingResponseProcessor.Factory(this.clientSettings, (cp, r) -> personalizeClient);
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings)
+                        .clientBuilder((cp, r) -> personalizeClient)
+                        .build();
 
         String itemIdFieldEmpty = "";
         Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
@@ -406,6 +462,325 @@ public class PersonalizeRankingResponseProcessorTests extends OpenSearchTestCase
         IdleConnectionReaper.shutdown();
     }
 
+    public void testPersonalizeRankingResponseAsync() throws Exception {
+        PersonalizeClient personalizeClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();
+
+        PersonalizeRankingResponseProcessor.Factory factory
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings)
+                        .clientBuilder((cp, r) -> personalizeClient)
+                        .build();
+
+        Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
+        PersonalizeRankingResponseProcessor responseProcessor =
+                factory.create(Collections.emptyMap(), "testTag", "testingAllFields", false, configuration, UPDATE_CONTEXT);
+
+        PersonalizeRequestParameters personalizeRequestParams = new PersonalizeRequestParameters("user_1", null);
+        SearchRequest request = SearchTestUtil.createSearchRequestWithPersonalizeRequest(personalizeRequestParams);
+        SearchHits searchHits = SearchTestUtil.getSampleSearchHitsForPersonalize(NUM_HITS);
+        SearchResponseSections searchResponseSections = new SearchResponseSections(searchHits, null, null, false, false, null, 0);
+        SearchResponse searchResponse = new SearchResponse(searchResponseSections, null, 1, 1, 0, 1, new ShardSearchFailure[0], null);
+
+        AtomicReference<SearchResponse> responseRef = new AtomicReference<>();
+        responseProcessor.processResponseAsync(request, searchResponse, null,
+                ActionListener.wrap(responseRef::set, e -> fail("Unexpected failure: " + e)));
+        assertNotNull(responseRef.get());
+
+        List<String> rerankedDocumentIds = Arrays.stream(responseRef.get().getHits().getHits())
+                .filter(h -> h.getSourceAsMap().get(ITEM_ID_FIELD) != null)
+                .map(h -> h.getSourceAsMap().get(ITEM_ID_FIELD).toString())
+                .collect(Collectors.toList());
+        ArrayList<String> expectedRankedDocumentIds = PersonalizeRuntimeTestUtil.expectedRankedItemIdsForGivenWeight(NUM_HITS, 1);
+        assertEquals(expectedRankedDocumentIds, rerankedDocumentIds);
+        IdleConnectionReaper.shutdown();
+    }
+
+    public void testPersonalizeRankingResponseIsProfiled() throws Exception {
+        PersonalizeClient personalizeClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();
+
+        PersonalizeRankingResponseProcessor.Factory factory
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings)
+                        .clientBuilder((cp, r) -> personalizeClient)
+                        .build();
+
+        Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
+        PersonalizeRankingResponseProcessor responseProcessor =
+                factory.create(Collections.emptyMap(), "testTag", "testingAllFields", false, configuration, UPDATE_CONTEXT);
+
+        PersonalizeRequestParameters personalizeRequestParams = new PersonalizeRequestParameters("user_1", null);
+        SearchRequest request = SearchTestUtil.createSearchRequestWithPersonalizeRequest(personalizeRequestParams);
+        SearchHits searchHits = SearchTestUtil.getSampleSearchHitsForPersonalize(NUM_HITS);
+        SearchResponseSections searchResponseSections = new SearchResponseSections(searchHits, null, null, false, false, null, 0);
+        SearchResponse searchResponse = new SearchResponse(searchResponseSections, null, 1, 1, 0, 1, new ShardSearchFailure[0], null);
+
+        // Searches are not profiled unless requested
+        SearchResponse response = responseProcessor.processResponse(request, searchResponse);
+        assertTrue(response.getInternalResponse().getSearchExtBuilders().isEmpty());
+
+        request.source().profile(true);
+        response = responseProcessor.processResponse(request, searchResponse);
+        assertProfiled(response);
+
+        AtomicReference<SearchResponse> responseRef = new AtomicReference<>();
+        responseProcessor.processResponseAsync(request, searchResponse, null,
+                ActionListener.wrap(responseRef::set, e -> fail("Unexpected failure: " + e)));
+        assertProfiled(responseRef.get());
+        IdleConnectionReaper.shutdown();
+    }
+
+    private static void assertProfiled(SearchResponse response) {
+        assertEquals(1, response.getInternalResponse().getSearchExtBuilders().size());
+        PersonalizeRankingResponseExtBuilder extBuilder =
+                (PersonalizeRankingResponseExtBuilder) response.getInternalResponse().getSearchExtBuilders().get(0);
+        assertFalse(extBuilder.isFallback());
+        PersonalizeRankingProfile profile = extBuilder.getProfile();
+        assertNotNull(profile);
+        assertEquals(TYPE, profile.getName());
+        assertTrue(profile.getTimeInNanos() > 0);
+        long phasesTime = 0;
+        for (PersonalizeRankingProfile.Phase phase : PersonalizeRankingProfile.Phase.values()) {
+            phasesTime += profile.getPhaseTime(phase);
+        }
+        assertTrue(profile.getPhaseTime(PersonalizeRankingProfile.Phase.NETWORK_WAIT) > 0);
+        assertTrue(phasesTime <= profile.getTimeInNanos());
+    }
+
+    public void testPersonalizeRankingResponseAsyncWithInvalidPersonalizeContext() throws Exception {
+        PersonalizeClient personalizeClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();
+
+        PersonalizeRankingResponseProcessor.Factory factory
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings)
+                        .clientBuilder((cp, r) -> personalizeClient)
+                        .build();
+
+        Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
+        PersonalizeRankingResponseProcessor responseProcessor =
+                factory.create(Collections.emptyMap(), "testTag", "testingAllFields", false, configuration, UPDATE_CONTEXT);
+
+        Map<String, Object> personalizeContext = new HashMap<>();
+        personalizeContext.put("contextKey2", 5);
+        PersonalizeRequestParameters personalizeRequestParams = new PersonalizeRequestParameters("user_1", personalizeContext);
+        SearchRequest request = SearchTestUtil.createSearchRequestWithPersonalizeRequest(personalizeRequestParams);
+        SearchHits searchHits = SearchTestUtil.getSampleSearchHitsForPersonalize(NUM_HITS);
+        SearchResponseSections searchResponseSections = new SearchResponseSections(searchHits, null, null, false, false, null, 0);
+        SearchResponse searchResponse = new SearchResponse(searchResponseSections, null, 1, 1, 0, 1, new ShardSearchFailure[0], null);
+
+        AtomicReference<Exception> failureRef = new AtomicReference<>();
+        responseProcessor.processResponseAsync(request, searchResponse, null,
+                ActionListener.wrap(r -> fail("Expected failure"), failureRef::set));
+        assertTrue(failureRef.get() instanceof OpenSearchParseException);
+        IdleConnectionReaper.shutdown();
+    }
+
+    public void testPersonalizeRankingResponseIsCached() throws Exception {
+        PersonalizeClient personalizeClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();
+
+        PersonalizeRankingResponseProcessor.Factory factory
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings)
+                        .clientBuilder((cp, r) -> personalizeClient)
+                        .build();
+
+        Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
+        PersonalizeRankingResponseProcessor responseProcessor =
+                factory.create(Collections.emptyMap(), "testTag", "testingAllFields", false, configuration, UPDATE_CONTEXT);
+
+        SearchResponse first = createPersonalizedRankingProcessorResponse(responseProcessor, null, NUM_HITS);
+        SearchResponse second = createPersonalizedRankingProcessorResponse(responseProcessor, null, NUM_HITS);
+
+        verify(personalizeClient, times(1)).getPersonalizedRanking(any());
+        assertEquals(Arrays.stream(first.getHits().getHits()).map(SearchHit::getId).collect(Collectors.toList()),
+                Arrays.stream(second.getHits().getHits()).map(SearchHit::getId).collect(Collectors.toList()));
+        assertEquals(1, responseProcessor.getRankingCacheStats().getHitCount());
+        assertEquals(1, responseProcessor.getRankingCacheStats().getMissCount());
+        IdleConnectionReaper.shutdown();
+    }
+
+    public void testPersonalizeRankingResponseWithCacheDisabled() throws Exception {
+        PersonalizeClient personalizeClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();
+
+        PersonalizeRankingResponseProcessor.Factory factory
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings)
+                        .clientBuilder((cp, r) -> personalizeClient)
+                        .build();
+
+        Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
+        configuration.put("cache_size", "0b");
+        PersonalizeRankingResponseProcessor responseProcessor =
+                factory.create(Collections.emptyMap(), "testTag", "testingAllFields", false, configuration, UPDATE_CONTEXT);
+
+        createPersonalizedRankingProcessorResponse(responseProcessor, null, NUM_HITS);
+        createPersonalizedRankingProcessorResponse(responseProcessor, null, NUM_HITS);
+
+        verify(personalizeClient, times(2)).getPersonalizedRanking(any());
+        assertNull(responseProcessor.getRankingCacheStats());
+        IdleConnectionReaper.shutdown();
+    }
+
+    public void testCreateFactoryWithInvalidCacheConfig() {
+        PersonalizeClient personalizeClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();
+        PersonalizeRankingResponseProcessor.Factory factory
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings)
+                        .clientBuilder((cp, r) -> personalizeClient)
+                        .build();
+
+        Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
+        configuration.put("cache_ttl", "not-a-time");
+        expectThrows(OpenSearchParseException.class, () ->
+                factory.create(Collections.emptyMap(), "testTag", "testingAllFields", false, configuration, UPDATE_CONTEXT));
+        IdleConnectionReaper.shutdown();
+    }
+
+    public void testPersonalizeRankingResponseAsyncFallsBackWhenLatencyBudgetIsSpent() throws Exception {
+        AtomicInteger cancelledCalls = new AtomicInteger();
+        PersonalizeClient personalizeClient = mock(PersonalizeClient.class);
+        // Personalize never responds
+        doAnswer(invocation -> (Releasable) cancelledCalls::incrementAndGet)
+                .when(personalizeClient).getPersonalizedRankingAsync(any(), any());
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            LatencyBudget latencyBudget = new LatencyBudget(threadPool, TimeValue.MINUS_ONE);
+            PersonalizeRankingResponseProcessor.Factory factory
+                    = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings)
+                            .clientBuilder((cp, r) -> personalizeClient)
+                            .nodeLatencyBudget(latencyBudget)
+                            .build();
+
+            Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
+            configuration.put("latency_budget", "10ms");
+            PersonalizeRankingResponseProcessor responseProcessor =
+                    factory.create(Collections.emptyMap(), "testTag", "testingAllFields", false, configuration, UPDATE_CONTEXT);
+
+            PersonalizeRequestParameters personalizeRequestParams = new PersonalizeRequestParameters("user_1", null);
+            SearchRequest request = SearchTestUtil.createSearchRequestWithPersonalizeRequest(personalizeRequestParams);
+            SearchHits searchHits = SearchTestUtil.getSampleSearchHitsForPersonalize(NUM_HITS);
+            SearchResponseSections searchResponseSections = new SearchResponseSections(searchHits, null, null, false, false, null, 0);
+            SearchResponse searchResponse = new SearchResponse(searchResponseSections, null, 1, 1, 0, 1, new ShardSearchFailure[0], null);
+
+            AtomicReference<SearchResponse> responseRef = new AtomicReference<>();
+            responseProcessor.processResponseAsync(request, searchResponse, null,
+                    ActionListener.wrap(responseRef::set, e -> fail("Unexpected failure: " + e)));
+            assertBusy(() -> assertNotNull(responseRef.get()));
+
+            // Hits keep their original ranking
+            assertEquals(Arrays.stream(searchHits.getHits()).map(SearchHit::getId).collect(Collectors.toList()),
+                    Arrays.stream(responseRef.get().getHits().getHits()).map(SearchHit::getId).collect(Collectors.toList()));
+            assertEquals(List.of(new PersonalizeRankingResponseExtBuilder(true)),
+                    responseRef.get().getInternalResponse().getSearchExtBuilders());
+            assertEquals(1, cancelledCalls.get());
+            assertEquals(1, latencyBudget.getStats().getTimedOutCount());
+        } finally {
+            terminate(threadPool);
+        }
+        IdleConnectionReaper.shutdown();
+    }
+
+    public void testLatePersonalizeResponseDoesNotModifyFallbackHits() throws Exception {
+        AtomicReference<ActionListener<GetPersonalizedRankingResult>> lateListener = new AtomicReference<>();
+        PersonalizeClient personalizeClient = mock(PersonalizeClient.class);
+        // Personalize responds after the budget is spent, although the call was cancelled
+        doAnswer(invocation -> {
+            lateListener.set(invocation.getArgument(1));
+            return (Releasable) () -> {};
+        }).when(personalizeClient).getPersonalizedRankingAsync(any(), any());
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            LatencyBudget latencyBudget = new LatencyBudget(threadPool, TimeValue.MINUS_ONE);
+            PersonalizeRankingResponseProcessor.Factory factory
+                    = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings)
+                            .clientBuilder((cp, r) -> personalizeClient)
+                            .nodeLatencyBudget(latencyBudget)
+                            .build();
+
+            Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
+            configuration.put("latency_budget", "10ms");
+            PersonalizeRankingResponseProcessor responseProcessor =
+                    factory.create(Collections.emptyMap(), "testTag", "testingAllFields", false, configuration, UPDATE_CONTEXT);
+
+            PersonalizeRequestParameters personalizeRequestParams = new PersonalizeRequestParameters("user_1", null);
+            SearchRequest request = SearchTestUtil.createSearchRequestWithPersonalizeRequest(personalizeRequestParams);
+            SearchHits searchHits = SearchTestUtil.getSampleSearchHitsForPersonalize(NUM_HITS);
+            List<Float> originalScores = Arrays.stream(searchHits.getHits()).map(SearchHit::getScore).collect(Collectors.toList());
+            SearchResponseSections searchResponseSections = new SearchResponseSections(searchHits, null, null, false, false, null, 0);
+            SearchResponse searchResponse = new SearchResponse(searchResponseSections, null, 1, 1, 0, 1, new ShardSearchFailure[0], null);
+
+            AtomicReference<SearchResponse> responseRef = new AtomicReference<>();
+            responseProcessor.processResponseAsync(request, searchResponse, null,
+                    ActionListener.wrap(responseRef::set, e -> fail("Unexpected failure: " + e)));
+            assertBusy(() -> assertNotNull(responseRef.get()));
+            assertEquals(List.of(new PersonalizeRankingResponseExtBuilder(true)),
+                    responseRef.get().getInternalResponse().getSearchExtBuilders());
+
+            lateListener.get().onResponse(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult(NUM_HITS));
+            assertEquals(originalScores,
+                    Arrays.stream(responseRef.get().getHits().getHits()).map(SearchHit::getScore).collect(Collectors.toList()));
+        } finally {
+            terminate(threadPool);
+        }
+        IdleConnectionReaper.shutdown();
+    }
+
+    public void testPersonalizeRankingResponseFallsBackWhenCallIsRejected() throws Exception {
+        PersonalizeClient personalizeClient = mock(PersonalizeClient.class);
+        // Circuit breaker of the campaign is open
+        doThrow(new RejectedExecutionException("Circuit breaker of [" + PERSONALIZE_CAMPAIGN + "] is open"))
+                .when(personalizeClient).getPersonalizedRanking(any());
+        doAnswer(invocation -> {
+            ActionListener<?> listener = invocation.getArgument(1);
+            listener.onFailure(new RejectedExecutionException("Circuit breaker of [" + PERSONALIZE_CAMPAIGN + "] is open"));
+            return (Releasable) () -> {};
+        }).when(personalizeClient).getPersonalizedRankingAsync(any(), any());
+        SearchRelevanceStats stats = new SearchRelevanceStats();
+        PersonalizeRankingResponseProcessor.Factory factory = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings)
+                .clientRegistry(new PersonalizeClientRegistry(this.clientSettings, (cp, r) -> personalizeClient))
+                .stats(stats)
+                .build();
+
+        Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
+        PersonalizeRankingResponseProcessor responseProcessor =
+                factory.create(Collections.emptyMap(), "testTag", "testingAllFields", false, configuration, UPDATE_CONTEXT);
+
+        PersonalizeRequestParameters personalizeRequestParams = new PersonalizeRequestParameters("user_1", null);
+        SearchRequest request = SearchTestUtil.createSearchRequestWithPersonalizeRequest(personalizeRequestParams);
+        SearchHits searchHits = SearchTestUtil.getSampleSearchHitsForPersonalize(NUM_HITS);
+        SearchResponseSections searchResponseSections = new SearchResponseSections(searchHits, null, null, false, false, null, 0);
+        SearchResponse searchResponse = new SearchResponse(searchResponseSections, null, 1, 1, 0, 1, new ShardSearchFailure[0], null);
+        List<String> originalDocumentIds = Arrays.stream(searchHits.getHits()).map(SearchHit::getId).collect(Collectors.toList());
+
+        SearchResponse response = responseProcessor.processResponse(request, searchResponse);
+        assertEquals(originalDocumentIds, Arrays.stream(response.getHits().getHits()).map(SearchHit::getId).collect(Collectors.toList()));
+        assertEquals(List.of(new PersonalizeRankingResponseExtBuilder(true)), response.getInternalResponse().getSearchExtBuilders());
+
+        AtomicReference<SearchResponse> responseRef = new AtomicReference<>();
+        responseProcessor.processResponseAsync(request, searchResponse, null,
+                ActionListener.wrap(responseRef::set, e -> fail("Unexpected failure: " + e)));
+        assertEquals(originalDocumentIds,
+                Arrays.stream(responseRef.get().getHits().getHits()).map(SearchHit::getId).collect(Collectors.toList()));
+        assertEquals(List.of(new PersonalizeRankingResponseExtBuilder(true)),
+                responseRef.get().getInternalResponse().getSearchExtBuilders());
+
+        RerankerMetrics.Stats processorStats = stats.getProcessorMetrics(TYPE).getStats();
+        assertEquals(2, processorStats.getRequestCount());
+        assertEquals(2, processorStats.getFallbackCount());
+        assertEquals(0, processorStats.getErrorCount());
+        assertEquals(2, processorStats.getPreprocessingLatency().getCount());
+        // Rejected calls never reached Amazon Personalize
+        assertEquals(0, processorStats.getRemoteCallLatency().getCount());
+        IdleConnectionReaper.shutdown();
+    }
+
+    public void testCreateFactoryWithInvalidLatencyBudgetConfig() {
+        PersonalizeClient personalizeClient = PersonalizeRuntimeTestUtil.buildMockPersonalizeClient();
+        PersonalizeRankingResponseProcessor.Factory factory
+                = PersonalizeRankingResponseProcessor.Factory.builder(this.clientSettings)
+                        .clientBuilder((cp, r) -> personalizeClient)
+                        .build();
+
+        Map<String, Object> configuration = buildPersonalizeResponseProcessorConfig();
+        configuration.put("latency_budget", "not-a-time");
+        expectThrows(OpenSearchParseException.class, () ->
+                factory.create(Collections.emptyMap(), "testTag", "testingAllFields", false, configuration, UPDATE_CONTEXT));
+        IdleConnectionReaper.shutdown();
+    }
+
     private SearchResponse createPersonalizedRankingProcessorResponse(PersonalizeRankingResponseProcessor responseProcessor,
                                                                       Map<String, Object> personalizeContext,
                                                                       int numHits) throws Exception {
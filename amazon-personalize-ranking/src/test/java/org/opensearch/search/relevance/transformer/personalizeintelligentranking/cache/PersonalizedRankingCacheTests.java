@@ -0,0 +1,72 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.personalizeintelligentranking.cache;
+
+import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingRequest;
+import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingResult;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.common.unit.ByteSizeValue;
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.utils.PersonalizeRuntimeTestUtil;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.List;
+import java.util.Map;
+
+public class PersonalizedRankingCacheTests extends OpenSearchTestCase {
+
+    public void testKeyIsIndependentOfItemOrder() {
+        GetPersonalizedRankingRequest request = buildRequest("user", List.of("1", "2", "3"), Map.of("k1", "v1", "k2", "v2"));
+        GetPersonalizedRankingRequest reordered = buildRequest("user", List.of("3", "1", "2"), Map.of("k2", "v2", "k1", "v1"));
+        assertEquals(PersonalizedRankingCache.createKey(request), PersonalizedRankingCache.createKey(reordered));
+    }
+
+    public void testKeyDependsOnUserContextAndItems() {
+        PersonalizedRankingCache.Key key = PersonalizedRankingCache.createKey(buildRequest("user", List.of("1", "2"), null));
+        assertNotEquals(key, PersonalizedRankingCache.createKey(buildRequest("other", List.of("1", "2"), null)));
+        assertNotEquals(key, PersonalizedRankingCache.createKey(buildRequest("user", List.of("1", "3"), null)));
+        assertNotEquals(key, PersonalizedRankingCache.createKey(buildRequest("user", List.of("1", "2"), Map.of("k", "v"))));
+    }
+
+    public void testGetAndPutTrackStats() {
+        PersonalizedRankingCache cache = new PersonalizedRankingCache(new ByteSizeValue(1024 * 1024), TimeValue.timeValueSeconds(30));
+        PersonalizedRankingCache.Key key = PersonalizedRankingCache.createKey(buildRequest("user", List.of("1", "2"), null));
+
+        assertNull(cache.get(key));
+        GetPersonalizedRankingResult result = PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult(2);
+        cache.put(key, result);
+        assertSame(result, cache.get(key));
+
+        PersonalizedRankingCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(0.5, stats.getHitRate(), 0.0001);
+        assertEquals(1, stats.getEntryCount());
+        assertTrue(stats.getMemorySizeInBytes() > 0);
+    }
+
+    public void testEvictsLeastRecentlyUsed() {
+        PersonalizedRankingCache cache = new PersonalizedRankingCache(new ByteSizeValue(2048), TimeValue.timeValueSeconds(30));
+        for (int i = 0; i < 20; i++) {
+            cache.put(PersonalizedRankingCache.createKey(buildRequest("user" + i, List.of("1", "2"), null)),
+                    PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult(2));
+        }
+        PersonalizedRankingCache.Stats stats = cache.getStats();
+        assertTrue(stats.getEvictionCount() > 0);
+        assertTrue(stats.getMemorySizeInBytes() <= 2048);
+        // The most recently added entry is retained
+        assertNotNull(cache.get(PersonalizedRankingCache.createKey(buildRequest("user19", List.of("1", "2"), null))));
+    }
+
+    private static GetPersonalizedRankingRequest buildRequest(String userId, List<String> itemIds, Map<String, String> context) {
+        return new GetPersonalizedRankingRequest()
+                .withCampaignArn("sampleCampaign")
+                .withUserId(userId)
+                .withInputList(itemIds)
+                .withContext(context);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.personalizeintelligentranking.client;
+
+import org.opensearch.search.relevance.transformer.personalizeintelligentranking.utils.PersonalizeClientSettingsTestUtil;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class PersonalizeClientRegistryTests extends OpenSearchTestCase {
+    private static final String IAM_ROLE_ARN = "arn:aws:iam::123456789012:role/personalize";
+
+    private final List<PersonalizeClient> builtClients = new ArrayList<>();
+
+    public void testClientsAreSharedByRegionAndRole() throws Exception {
+        PersonalizeClientRegistry registry = buildRegistry();
+
+        PersonalizeClient client = registry.acquire(null, "us-west-2");
+        assertSame(client, registry.acquire("", "us-west-2"));
+        assertNotSame(client, registry.acquire(null, "us-east-1"));
+        assertNotSame(client, registry.acquire(IAM_ROLE_ARN, "us-west-2"));
+        assertSame(registry.acquire(IAM_ROLE_ARN, "us-west-2"), registry.acquire(IAM_ROLE_ARN, "us-west-2"));
+
+        assertEquals(3, builtClients.size());
+        assertEquals(3, registry.getStats().getClientCount());
+        assertEquals(6, registry.getStats().getReferenceCount());
+        assertEquals(3, registry.getStats().getCreatedCount());
+    }
+
+    public void testClientClosedWithLastReference() throws Exception {
+        PersonalizeClientRegistry registry = buildRegistry();
+
+        PersonalizeClient client = registry.acquire(null, "us-west-2");
+        registry.acquire(null, "us-west-2");
+        registry.release(client);
+        verify(client, never()).close();
+        registry.release(client);
+        verify(client, times(1)).close();
+        assertEquals(0, registry.getStats().getClientCount());
+        assertEquals(1, registry.getStats().getClosedCount());
+
+        // A new client is created once the previous one was closed
+        assertNotSame(client, registry.acquire(null, "us-west-2"));
+    }
+
+    public void testReferenceReleasedWhenOwnerIsCollected() throws Exception {
+        PersonalizeClientRegistry registry = buildRegistry();
+
+        Object owner = new Object();
+        registry.releaseWhenUnreachable(owner, registry.acquire(null, "us-west-2"));
+        Object otherOwner = new Object();
+        registry.releaseWhenUnreachable(otherOwner, registry.acquire(null, "us-west-2"));
+        owner = null;
+        assertBusy(() -> {
+            System.gc();
+            assertEquals(1, registry.getStats().getReferenceCount());
+        });
+        assertEquals(1, registry.getStats().getClientCount());
+        verify(builtClients.get(0), never()).close();
+        assertNotNull(otherOwner);
+    }
+
+    public void testCloseClosesAllClients() throws Exception {
+        PersonalizeClientRegistry registry = buildRegistry();
+        registry.acquire(null, "us-west-2");
+        registry.acquire(null, "us-east-1");
+
+        registry.close();
+        for (PersonalizeClient client : builtClients) {
+            verify(client, times(1)).close();
+        }
+        assertEquals(0, registry.getStats().getClientCount());
+    }
+
+    private PersonalizeClientRegistry buildRegistry() throws Exception {
+        PersonalizeClientSettings clientSettings = PersonalizeClientSettingsTestUtil.buildClientSettings(false, false, false);
+        return new PersonalizeClientRegistry(clientSettings, (credentialsProvider, awsRegion) -> {
+            PersonalizeClient client = mock(PersonalizeClient.class);
+            builtClients.add(client);
+            return client;
+        });
+    }
+}
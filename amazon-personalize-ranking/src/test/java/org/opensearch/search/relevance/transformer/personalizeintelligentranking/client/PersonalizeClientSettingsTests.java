@@ -11,8 +11,11 @@ import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSSessionCredentials;
 import org.opensearch.common.settings.SecureSetting;
 import org.opensearch.common.settings.Setting;
+import org.opensearch.common.settings.Settings;
 import org.opensearch.common.settings.SettingsException;
 import org.opensearch.core.common.settings.SecureString;
+import org.opensearch.search.relevance.client.RateLimiter;
+import org.opensearch.search.relevance.client.RemoteCallGuard;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.utils.PersonalizeClientSettingsTestUtil;
 import org.opensearch.test.OpenSearchTestCase;
 
@@ -20,12 +23,14 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.opensearch.search.relevance.transformer.personalizeintelligentranking.utils.PersonalizeClientSettingsTestUtil.ACCESS_KEY;
 import static org.opensearch.search.relevance.transformer.personalizeintelligentranking.utils.PersonalizeClientSettingsTestUtil.SECRET_KEY;
 import static org.opensearch.search.relevance.transformer.personalizeintelligentranking.utils.PersonalizeClientSettingsTestUtil.SESSION_TOKEN;
 
 public class PersonalizeClientSettingsTests extends OpenSearchTestCase {
+    private static final String CAMPAIGN_ARN = "arn:aws:personalize:us-west-2:000000000000:campaign/test-campaign";
 
     public void testWithBasicCredentials() throws IOException {
         PersonalizeClientSettings clientSettings = PersonalizeClientSettingsTestUtil.buildClientSettings(true, true, false);
@@ -37,7 +42,7 @@ public class PersonalizeClientSettingsTests extends OpenSearchTestCase {
 
     public void testWithGetAllSetting() throws IOException {
         PersonalizeClientSettings clientSettings = PersonalizeClientSettingsTestUtil.buildClientSettings(true, true, true);
-        assertEquals(clientSettings.getAllSettings().size(), 3);
+        assertEquals(clientSettings.getAllSettings().size(), 20);
         Setting<SecureString> ACCESS_KEY_SETTING = SecureSetting.secureString("personalized_search_ranking.aws.access_key", null);
         Setting<SecureString> SECRET_KEY_SETTING = SecureSetting.secureString("personalized_search_ranking.aws.secret_key", null);
         Setting<SecureString> SESSION_TOKEN_SETTING = SecureSetting.secureString("personalized_search_ranking.aws.session_token", null);
@@ -74,4 +79,42 @@ public class PersonalizeClientSettingsTests extends OpenSearchTestCase {
     public void testWithSessionTokenButNoCredentials() {
         expectThrows(SettingsException.class, () -> PersonalizeClientSettingsTestUtil.buildClientSettings(false, false, true));
     }
+
+    public void testCreateCallGuard() {
+        assertNotNull(PersonalizeClientSettings.createCallGuard(Settings.EMPTY));
+        assertNull(PersonalizeClientSettings.createCallGuard(Settings.builder()
+                .put("personalized_search_ranking.circuit_breaker.enabled", false)
+                .build()));
+        RemoteCallGuard bulkheadOnly = PersonalizeClientSettings.createCallGuard(Settings.builder()
+                .put("personalized_search_ranking.circuit_breaker.enabled", false)
+                .put("personalized_search_ranking.max_concurrent_calls", 1)
+                .build());
+        assertNotNull(bulkheadOnly);
+        for (int i = 0; i < 10; i++) {
+            bulkheadOnly.acquire(CAMPAIGN_ARN).onFailure(new RuntimeException("Service unavailable"));
+        }
+        assertTrue(bulkheadOnly.getStats().getCircuitBreakers().isEmpty());
+        bulkheadOnly.acquire(CAMPAIGN_ARN);
+        RejectedExecutionException e = expectThrows(RejectedExecutionException.class, () -> bulkheadOnly.acquire(CAMPAIGN_ARN));
+        assertTrue(e.getMessage().contains("Amazon Personalize"));
+        expectThrows(IllegalArgumentException.class, () -> PersonalizeClientSettings.createCallGuard(Settings.builder()
+                .put("personalized_search_ranking.circuit_breaker.latency_percentile", 1.5)
+                .build()));
+    }
+
+    public void testCreateRateLimiter() {
+        assertNull(PersonalizeClientSettings.createRateLimiter(Settings.EMPTY));
+        assertNotNull(PersonalizeClientSettings.createRateLimiter(Settings.builder()
+                .put("personalized_search_ranking.rate_limit.requests_per_second", 50)
+                .build()));
+        RateLimiter rateLimiter = PersonalizeClientSettings.createRateLimiter(Settings.builder()
+                .putList("personalized_search_ranking.rate_limit.campaigns", CAMPAIGN_ARN + "=1")
+                .build());
+        assertNotNull(rateLimiter);
+        rateLimiter.acquire(CAMPAIGN_ARN);
+        expectThrows(RejectedExecutionException.class, () -> rateLimiter.acquire(CAMPAIGN_ARN));
+        expectThrows(IllegalArgumentException.class, () -> PersonalizeClientSettings.createRateLimiter(Settings.builder()
+                .putList("personalized_search_ranking.rate_limit.campaigns", CAMPAIGN_ARN)
+                .build()));
+    }
 }
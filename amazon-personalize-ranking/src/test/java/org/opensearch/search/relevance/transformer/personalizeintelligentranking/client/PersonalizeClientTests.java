@@ -14,10 +14,21 @@ import com.amazonaws.auth.BasicSessionCredentials;
 import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingRequest;
 import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingResult;
 import org.mockito.Mockito;
+import org.opensearch.common.lease.Releasable;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.search.relevance.client.RateLimiter;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.utils.PersonalizeRuntimeTestUtil;
 import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.FixedExecutorBuilder;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.mockito.ArgumentMatchers.any;
 
@@ -27,7 +38,7 @@ public class PersonalizeClientTests extends OpenSearchTestCase {
         AWSCredentials credentials = new BasicSessionCredentials("accessKey", "secretKey", "sessionToken");
         AWSCredentialsProvider credentialsProvider = new AWSStaticCredentialsProvider(credentials);
         String region = "us-west-2";
-        try (PersonalizeClient client = new PersonalizeClient(credentialsProvider,region)) {
+        try (PersonalizeClient client = PersonalizeClient.builder(credentialsProvider, region).build()) {
             assertTrue(client.getPersonalizeRuntime() != null);
         }
     }
@@ -39,4 +50,74 @@ public class PersonalizeClientTests extends OpenSearchTestCase {
         GetPersonalizedRankingResult result = client.getPersonalizedRanking(request);
         assertEquals(result.getRecommendationId(), "sampleRecommendationId");
     }
+
+    public void testRateLimitTokenReleasedWhenCallIsNotSent() throws IOException {
+        AWSCredentialsProvider credentialsProvider = new AWSStaticCredentialsProvider(
+                new BasicSessionCredentials("accessKey", "secretKey", "sessionToken"));
+        ThreadPool threadPool = new TestThreadPool(getTestName(), new FixedExecutorBuilder(Settings.EMPTY,
+                PersonalizeClient.THREAD_POOL_NAME, 1, 1, PersonalizeClientSettings.THREAD_POOL_SETTING_PREFIX));
+        RateLimiter rateLimiter = new RateLimiter(1, 1, Map.of(), System::nanoTime);
+        try (PersonalizeClient client = PersonalizeClient.builder(credentialsProvider, "us-west-2")
+                .rateLimiter(rateLimiter)
+                .threadPool(threadPool)
+                .build()) {
+            // A terminated thread pool rejects the calls before they are sent
+            terminate(threadPool);
+            GetPersonalizedRankingRequest request = PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingRequest();
+            for (int i = 0; i < 2; i++) {
+                AtomicReference<Exception> failure = new AtomicReference<>();
+                client.getPersonalizedRankingAsync(request, ActionListener.wrap(
+                        result -> fail("Call should not be sent"), failure::set));
+                assertTrue(failure.get() instanceof RejectedExecutionException);
+            }
+            // The second call took the token given back by the first one
+            RateLimiter.Stats stats = rateLimiter.getStats();
+            assertEquals(0, stats.getShedCount());
+            assertEquals(0, stats.getAdmittedCount());
+        }
+    }
+
+    public void testCloseWaitsForCallsInFlight() throws Exception {
+        AWSCredentialsProvider credentialsProvider = new AWSStaticCredentialsProvider(
+                new BasicSessionCredentials("accessKey", "secretKey", "sessionToken"));
+        ThreadPool threadPool = new TestThreadPool(getTestName(), new FixedExecutorBuilder(Settings.EMPTY,
+                PersonalizeClient.THREAD_POOL_NAME, 1, 1, PersonalizeClientSettings.THREAD_POOL_SETTING_PREFIX));
+        CountDownLatch unblock = new CountDownLatch(1);
+        try {
+            // Occupy the only thread so that the call stays queued
+            threadPool.executor(PersonalizeClient.THREAD_POOL_NAME).execute(() -> {
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            PersonalizeClient client = PersonalizeClient.builder(credentialsProvider, "us-west-2")
+                    .threadPool(threadPool)
+                    .build();
+            Releasable cancel = client.getPersonalizedRankingAsync(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingRequest(),
+                    ActionListener.wrap(result -> fail("Call should not complete"), e -> fail("Call should not fail")));
+
+            client.close();
+            assertFalse(client.isShutDown());
+
+            cancel.close();
+            assertTrue(client.isShutDown());
+            // Releasing a call twice does not change anything
+            cancel.close();
+            assertTrue(client.isShutDown());
+        } finally {
+            unblock.countDown();
+            terminate(threadPool);
+        }
+    }
+
+    public void testCloseShutsDownIdleClient() throws IOException {
+        AWSCredentialsProvider credentialsProvider = new AWSStaticCredentialsProvider(
+                new BasicSessionCredentials("accessKey", "secretKey", "sessionToken"));
+        PersonalizeClient client = PersonalizeClient.builder(credentialsProvider, "us-west-2").build();
+        assertFalse(client.isShutDown());
+        client.close();
+        assertTrue(client.isShutDown());
+    }
 }
@@ -0,0 +1,204 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.transformer.personalizeintelligentranking.client;
+
+import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingRequest;
+import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingResult;
+import org.opensearch.common.lease.Releasable;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PersonalizeRequestBatcherTests extends OpenSearchTestCase {
+    private static final String CAMPAIGN_ARN = "arn:aws:personalize:us-west-2:123456789012:campaign/test";
+    private static final TimeValue WINDOW = TimeValue.timeValueMillis(5);
+
+    private final AtomicLong nanoClock = new AtomicLong();
+    private final List<Runnable> scheduledBatches = new ArrayList<>();
+    private final List<ActionListener<GetPersonalizedRankingResult>> sentCalls = new ArrayList<>();
+    private final AtomicInteger cancelledCalls = new AtomicInteger();
+    private PersonalizeClient client;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        client = mock(PersonalizeClient.class);
+        doAnswer(invocation -> {
+            sentCalls.add(invocation.getArgument(1));
+            return (Releasable) cancelledCalls::incrementAndGet;
+        }).when(client).sendPersonalizedRankingAsync(any(), any());
+    }
+
+    public void testCallsForSameCampaignAreBatched() {
+        PersonalizeRequestBatcher batcher = buildBatcher(-1, 10, 10);
+        List<GetPersonalizedRankingResult> results = new ArrayList<>();
+        batcher.getPersonalizedRankingAsync(client, buildRequest("user1"), ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+        batcher.getPersonalizedRankingAsync(client, buildRequest("user1"), ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+        batcher.getPersonalizedRankingAsync(client, buildRequest("user2"), ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+        assertTrue(sentCalls.isEmpty());
+        assertEquals(1, scheduledBatches.size());
+
+        runScheduledBatches();
+        assertEquals(2, sentCalls.size());
+        assertEquals(2, batcher.getStats().getInFlightCount());
+
+        GetPersonalizedRankingResult result = new GetPersonalizedRankingResult();
+        sentCalls.get(0).onResponse(result);
+        sentCalls.get(1).onResponse(new GetPersonalizedRankingResult());
+        assertEquals(3, results.size());
+        // Identical calls share the result of one request
+        assertSame(result, results.get(0));
+        assertSame(result, results.get(1));
+
+        PersonalizeRequestBatcher.Stats stats = batcher.getStats();
+        assertEquals(3, stats.getRequestCount());
+        assertEquals(2, stats.getCallCount());
+        assertEquals(1, stats.getBatchCount());
+        assertEquals(1, stats.getDeduplicatedCount());
+        assertEquals(0, stats.getInFlightCount());
+        assertEquals(0, stats.getQueuedCount());
+    }
+
+    public void testDispatchLimitsDeferCalls() {
+        PersonalizeRequestBatcher batcher = buildBatcher(1, 10, 10);
+        for (String userId : List.of("user1", "user2", "user3")) {
+            batcher.getPersonalizedRankingAsync(client, buildRequest(userId), ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+        }
+        runScheduledBatches();
+        assertEquals(1, sentCalls.size());
+        assertEquals(2, batcher.getStats().getQueuedCount());
+
+        // The limit applies until the window ends
+        runScheduledBatches();
+        assertEquals(1, sentCalls.size());
+
+        nanoClock.addAndGet(WINDOW.nanos());
+        runScheduledBatches();
+        assertEquals(2, sentCalls.size());
+        nanoClock.addAndGet(WINDOW.nanos());
+        runScheduledBatches();
+        assertEquals(3, sentCalls.size());
+        assertTrue(scheduledBatches.isEmpty());
+        assertEquals(5, batcher.getStats().getDeferredCount());
+    }
+
+    public void testInFlightLimitDefersCalls() {
+        PersonalizeRequestBatcher batcher = buildBatcher(-1, 1, 10);
+        batcher.getPersonalizedRankingAsync(client, buildRequest("user1"), ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+        batcher.getPersonalizedRankingAsync(client, buildRequest("user2"), ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+        runScheduledBatches();
+        assertEquals(1, sentCalls.size());
+
+        sentCalls.get(0).onFailure(new RuntimeException("Personalize failure"));
+        nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        runScheduledBatches();
+        assertEquals(2, sentCalls.size());
+    }
+
+    public void testQueueLimitRejectsCalls() {
+        PersonalizeRequestBatcher batcher = buildBatcher(-1, 10, 1);
+        batcher.getPersonalizedRankingAsync(client, buildRequest("user1"), ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+        // Identical calls do not take room in the queue
+        batcher.getPersonalizedRankingAsync(client, buildRequest("user1"), ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+
+        List<Exception> failures = new ArrayList<>();
+        batcher.getPersonalizedRankingAsync(client, buildRequest("user2"), ActionListener.wrap(r -> fail("Unexpected response"), failures::add));
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0) instanceof RejectedExecutionException);
+        assertEquals(1, batcher.getStats().getRejectedCount());
+    }
+
+    public void testRateLimitTokenTakenPerRequest() {
+        PersonalizeRequestBatcher batcher = buildBatcher(-1, 10, 10);
+        batcher.getPersonalizedRankingAsync(client, buildRequest("user1"), ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+        batcher.getPersonalizedRankingAsync(client, buildRequest("user1"), ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+        verify(client, times(1)).acquireRateLimit(CAMPAIGN_ARN);
+
+        // The token of a request nobody waits for anymore is given back
+        Releasable queued = batcher.getPersonalizedRankingAsync(client, buildRequest("user2"),
+                ActionListener.wrap(r -> fail("Unexpected response"), e -> fail(e.getMessage())));
+        verify(client, times(2)).acquireRateLimit(CAMPAIGN_ARN);
+        queued.close();
+        verify(client, times(1)).releaseRateLimit(CAMPAIGN_ARN);
+
+        doThrow(new RejectedExecutionException("Rate limit exceeded")).when(client).acquireRateLimit(CAMPAIGN_ARN);
+        List<Exception> failures = new ArrayList<>();
+        batcher.getPersonalizedRankingAsync(client, buildRequest("user3"), ActionListener.wrap(r -> fail("Unexpected response"), failures::add));
+        assertEquals(1, failures.size());
+        assertEquals(0, batcher.getStats().getRejectedCount());
+        // Identical calls still share the queued request
+        batcher.getPersonalizedRankingAsync(client, buildRequest("user1"), ActionListener.wrap(r -> {}, e -> fail(e.getMessage())));
+        assertEquals(2, batcher.getStats().getDeduplicatedCount());
+    }
+
+    public void testCallCancelledWhenAllSearchesGiveUp() {
+        PersonalizeRequestBatcher batcher = buildBatcher(-1, 10, 10);
+        Releasable queued = batcher.getPersonalizedRankingAsync(client, buildRequest("user1"),
+                ActionListener.wrap(r -> fail("Unexpected response"), e -> fail(e.getMessage())));
+        queued.close();
+
+        List<GetPersonalizedRankingResult> results = new ArrayList<>();
+        Releasable first = batcher.getPersonalizedRankingAsync(client, buildRequest("user2"),
+                ActionListener.wrap(r -> fail("Unexpected response"), e -> fail(e.getMessage())));
+        Releasable second = batcher.getPersonalizedRankingAsync(client, buildRequest("user2"),
+                ActionListener.wrap(results::add, e -> fail(e.getMessage())));
+        runScheduledBatches();
+        // Calls nobody waits for are not sent
+        assertEquals(1, sentCalls.size());
+
+        first.close();
+        assertEquals(0, cancelledCalls.get());
+        second.close();
+        assertEquals(1, cancelledCalls.get());
+        assertEquals(0, batcher.getStats().getInFlightCount());
+
+        // A late response is ignored
+        sentCalls.get(0).onResponse(new GetPersonalizedRankingResult());
+        assertTrue(results.isEmpty());
+        assertEquals(0, batcher.getStats().getInFlightCount());
+    }
+
+    private void runScheduledBatches() {
+        List<Runnable> batches = new ArrayList<>(scheduledBatches);
+        scheduledBatches.clear();
+        batches.forEach(Runnable::run);
+    }
+
+    private PersonalizeRequestBatcher buildBatcher(int maxCallsPerWindow, int maxInFlight, int maxQueueSize) {
+        ThreadPool threadPool = mock(ThreadPool.class);
+        when(threadPool.schedule(any(Runnable.class), any(TimeValue.class), anyString())).thenAnswer(invocation -> {
+            scheduledBatches.add(invocation.getArgument(0));
+            return null;
+        });
+        return new PersonalizeRequestBatcher(threadPool, WINDOW, maxCallsPerWindow, maxInFlight, maxQueueSize, nanoClock::get);
+    }
+
+    private static GetPersonalizedRankingRequest buildRequest(String userId) {
+        return new GetPersonalizedRankingRequest()
+                .withCampaignArn(CAMPAIGN_ARN)
+                .withUserId(userId)
+                .withInputList("item1", "item2");
+    }
+}
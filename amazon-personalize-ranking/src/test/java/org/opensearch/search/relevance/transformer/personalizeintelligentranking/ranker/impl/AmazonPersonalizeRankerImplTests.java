@@ -48,7 +48,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult());
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = AmazonPersonalizedRankerImpl.builder(rankerConfig, client).build();
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -63,7 +63,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult());
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = AmazonPersonalizedRankerImpl.builder(rankerConfig, client).build();
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -77,7 +77,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult());
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = AmazonPersonalizedRankerImpl.builder(rankerConfig, client).build();
         Map<String, Object> context = new HashMap<>();
         context.put("contextKey", "contextValue");
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
@@ -94,7 +94,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult());
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = AmazonPersonalizedRankerImpl.builder(rankerConfig, client).build();
         Map<String, Object> context = new HashMap<>();
         context.put("contextKey", 2);
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
@@ -111,7 +111,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult());
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = AmazonPersonalizedRankerImpl.builder(rankerConfig, client).build();
         Map<String, Object> context = new HashMap<>();
         context.put("contextKey", "contextValue");
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
@@ -128,7 +128,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult());
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = AmazonPersonalizedRankerImpl.builder(rankerConfig, client).build();
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -142,7 +142,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult());
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = AmazonPersonalizedRankerImpl.builder(rankerConfig, client).build();
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -156,7 +156,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult(numOfHits));
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = AmazonPersonalizedRankerImpl.builder(rankerConfig, client).build();
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -182,7 +182,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult(numOfHits));
 
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = AmazonPersonalizedRankerImpl.builder(rankerConfig, client).build();
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -207,7 +207,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult(numOfHits));
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = AmazonPersonalizedRankerImpl.builder(rankerConfig, client).build();
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -235,7 +235,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult(numOfHits));
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = AmazonPersonalizedRankerImpl.builder(rankerConfig, client).build();
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -261,7 +261,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult(numOfHits));
 
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = AmazonPersonalizedRankerImpl.builder(rankerConfig, client).build();
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -285,7 +285,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeClient client = Mockito.mock(PersonalizeClient.class);
         Mockito.when(client.getPersonalizedRanking(any())).thenReturn(PersonalizeRuntimeTestUtil.buildGetPersonalizedRankingResult(numOfHits));
 
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = AmazonPersonalizedRankerImpl.builder(rankerConfig, client).build();
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
@@ -316,7 +316,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = AmazonPersonalizedRankerImpl.builder(rankerConfig, client).build();
         Assert.assertThrows(IllegalArgumentException.class, () -> ranker.rerank(responseHits, requestParameters));
     }
 
@@ -330,7 +330,7 @@ public class AmazonPersonalizeRankerImplTests extends OpenSearchTestCase {
         PersonalizeRequestParameters requestParameters = new PersonalizeRequestParameters();
         requestParameters.setUserId("28");
         SearchHits responseHits = SearchTestUtil.getSampleSearchHitsForPersonalize(numOfHits);
-        AmazonPersonalizedRankerImpl ranker = new AmazonPersonalizedRankerImpl(rankerConfig, client);
+        AmazonPersonalizedRankerImpl ranker = AmazonPersonalizedRankerImpl.builder(rankerConfig, client).build();
         Assert.assertThrows(AmazonServiceException.class, () -> ranker.rerank(responseHits, requestParameters));
     }
 
@@ -11,6 +11,7 @@ import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingReq
 import com.amazonaws.services.personalizeruntime.model.GetPersonalizedRankingResult;
 import com.amazonaws.services.personalizeruntime.model.PredictedItem;
 import org.mockito.Mockito;
+import org.opensearch.core.action.ActionListener;
 import org.opensearch.search.relevance.transformer.personalizeintelligentranking.client.PersonalizeClient;
 
 import java.util.ArrayList;
@@ -76,6 +77,12 @@ public class PersonalizeRuntimeTestUtil {
           GetPersonalizedRankingRequest request = invocation.getArgument(0);
           return mockGetPersonalizedRankingImpl.apply(request);
         }).when(personalizeClient).getPersonalizedRanking(any(GetPersonalizedRankingRequest.class));
+        Mockito.doAnswer(invocation -> {
+          GetPersonalizedRankingRequest request = invocation.getArgument(0);
+          ActionListener<GetPersonalizedRankingResult> listener = invocation.getArgument(1);
+          listener.onResponse(mockGetPersonalizedRankingImpl.apply(request));
+          return null;
+        }).when(personalizeClient).getPersonalizedRankingAsync(any(GetPersonalizedRankingRequest.class), any());
         return personalizeClient;
     }
 }
@@ -0,0 +1,69 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.client;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.action.ActionRunnable;
+import org.opensearch.action.support.ContextPreservingActionListener;
+import org.opensearch.common.util.concurrent.AbstractRunnable;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.threadpool.ThreadPool;
+
+/**
+ * Listener of a call to a ranking service that is completed on an OpenSearch executor, in the thread context it was
+ * created in. The threads of the service client, such as I/O reactor threads, are not blocked by the search resuming,
+ * and the search does not lose the headers and transients of its request. If the executor rejects the completion, the
+ * listener is failed on the completing thread, still in the context it was created in.
+ * @param <T> type of the response
+ */
+public class ForkedCompletionListener<T> implements ActionListener<T> {
+    private static final Logger logger = LogManager.getLogger(ForkedCompletionListener.class);
+
+    private final ThreadPool threadPool;
+    private final String executor;
+    private final ActionListener<T> delegate;
+
+    /**
+     * Capture the thread context of the calling thread, to complete the listener in it.
+     * @param threadPool thread pool of the node
+     * @param executor   name of the executor completing the listener
+     * @param listener   listener of the call
+     */
+    public ForkedCompletionListener(ThreadPool threadPool, String executor, ActionListener<T> listener) {
+        this.threadPool = threadPool;
+        this.executor = executor;
+        this.delegate = new ContextPreservingActionListener<>(threadPool.getThreadContext().newRestorableContext(false), listener);
+    }
+
+    @Override
+    public void onResponse(T response) {
+        threadPool.executor(executor).execute(ActionRunnable.wrap(delegate, l -> l.onResponse(response)));
+    }
+
+    @Override
+    public void onFailure(Exception e) {
+        threadPool.executor(executor).execute(new AbstractRunnable() {
+            @Override
+            protected void doRun() {
+                delegate.onFailure(e);
+            }
+
+            @Override
+            public void onRejection(Exception rejection) {
+                e.addSuppressed(rejection);
+                delegate.onFailure(e);
+            }
+
+            @Override
+            public void onFailure(Exception listenerFailure) {
+                logger.warn("Failed to notify listener of a failed call", listenerFailure);
+            }
+        });
+    }
+}
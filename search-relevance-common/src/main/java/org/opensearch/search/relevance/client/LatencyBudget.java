@@ -0,0 +1,198 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.client;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.common.lease.Releasable;
+import org.opensearch.common.metrics.CounterMetric;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.threadpool.Scheduler;
+import org.opensearch.threadpool.ThreadPool;
+
+/**
+ * Node-level enforcement of the time reranking may add to a search. The budget of a call is the smallest of the
+ * configured latency budget and the time left before the search request times out. When the budget is spent before
+ * the ranking service responds, the call is cancelled and the caller falls back to the original ranking.
+ */
+public class LatencyBudget {
+    private final ThreadPool threadPool;
+    private final TimeValue defaultBudget;
+    private final CounterMetric budgetedCount = new CounterMetric();
+    private final CounterMetric budgetInMillis = new CounterMetric();
+    private final CounterMetric exhaustedCount = new CounterMetric();
+    private final CounterMetric timedOutCount = new CounterMetric();
+
+    /**
+     * @param threadPool    thread pool used to schedule the end of budgets
+     * @param defaultBudget budget of calls whose configuration does not set one, or -1 for no budget
+     */
+    public LatencyBudget(ThreadPool threadPool, TimeValue defaultBudget) {
+        this.threadPool = threadPool;
+        this.defaultBudget = defaultBudget;
+    }
+
+    /**
+     * @param configuredBudget budget configured for the pipeline, or -1 to use the node-level budget
+     * @param request          search request being reranked
+     * @param elapsedMillis    time already spent on the search
+     * @return time left to call the ranking service in milliseconds, 0 if the budget is spent, or -1 if the call
+     * is not bounded
+     */
+    public long getRemainingMillis(TimeValue configuredBudget, SearchRequest request, long elapsedMillis) {
+        final TimeValue budget = configuredBudget == null || configuredBudget.millis() < 0 ? defaultBudget : configuredBudget;
+        long remainingMillis = budget.millis() < 0 ? -1 : budget.millis();
+        final TimeValue searchTimeout = request.source() == null ? null : request.source().timeout();
+        if (searchTimeout != null && searchTimeout.millis() >= 0) {
+            final long untilTimeoutMillis = Math.max(0, searchTimeout.millis() - elapsedMillis);
+            remainingMillis = remainingMillis < 0 ? untilTimeoutMillis : Math.min(remainingMillis, untilTimeoutMillis);
+        }
+        return remainingMillis;
+    }
+
+    /**
+     * Start a call, and give up on it once the budget is spent. Exactly one of the listener and the fallback runs.
+     * @param budgetMillis time left for the call, as returned by {@link #getRemainingMillis}
+     * @param call         starts the call, notifying the given listener, and returns a releasable that cancels it
+     * @param listener     listener notified with the result of the call if it completes within the budget
+     * @param fallback     run instead of notifying the listener if the budget is spent first
+     * @param <T>          result type of the call
+     */
+    public <T> void execute(long budgetMillis, Function<ActionListener<T>, Releasable> call, ActionListener<T> listener,
+            Runnable fallback) {
+        if (budgetMillis < 0) {
+            call.apply(listener);
+            return;
+        }
+        budgetedCount.inc();
+        budgetInMillis.inc(budgetMillis);
+        if (budgetMillis == 0) {
+            exhaustedCount.inc();
+            fallback.run();
+            return;
+        }
+
+        final AtomicBoolean completed = new AtomicBoolean();
+        final AtomicBoolean timedOut = new AtomicBoolean();
+        final Releasable[] cancelCall = new Releasable[1];
+        final Scheduler.ScheduledCancellable timeout = threadPool.schedule(() -> {
+            if (completed.compareAndSet(false, true)) {
+                timedOutCount.inc();
+                Releasable cancel;
+                synchronized (cancelCall) {
+                    timedOut.set(true);
+                    cancel = cancelCall[0];
+                }
+                if (cancel != null) {
+                    cancel.close();
+                }
+                fallback.run();
+            }
+        }, TimeValue.timeValueMillis(budgetMillis), ThreadPool.Names.GENERIC);
+
+        final Releasable cancel = call.apply(new ActionListener<T>() {
+            @Override
+            public void onResponse(T result) {
+                if (completed.compareAndSet(false, true)) {
+                    timeout.cancel();
+                    listener.onResponse(result);
+                }
+            }
+
+            @Override
+            public void onFailure(Exception ex) {
+                if (completed.compareAndSet(false, true)) {
+                    timeout.cancel();
+                    listener.onFailure(ex);
+                }
+            }
+        });
+        synchronized (cancelCall) {
+            if (!timedOut.get()) {
+                cancelCall[0] = cancel;
+                return;
+            }
+        }
+        // The budget was spent before the call returned its releasable
+        if (cancel != null) {
+            cancel.close();
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(budgetedCount.count(), budgetInMillis.count(), exhaustedCount.count(), timedOutCount.count());
+    }
+
+    /**
+     * Point-in-time statistics of latency budgets
+     */
+    public static final class Stats implements ToXContentFragment {
+        private final long budgetedCount;
+        private final long budgetInMillis;
+        private final long exhaustedCount;
+        private final long timedOutCount;
+
+        public Stats(long budgetedCount, long budgetInMillis, long exhaustedCount, long timedOutCount) {
+            this.budgetedCount = budgetedCount;
+            this.budgetInMillis = budgetInMillis;
+            this.exhaustedCount = exhaustedCount;
+            this.timedOutCount = timedOutCount;
+        }
+
+        /**
+         * @return number of calls bounded by a latency budget
+         */
+        public long getBudgetedCount() {
+            return budgetedCount;
+        }
+
+        /**
+         * @return sum of the budgets of bounded calls, in milliseconds
+         */
+        public long getBudgetInMillis() {
+            return budgetInMillis;
+        }
+
+        /**
+         * @return number of re rankings skipped because the budget was spent before calling the service
+         */
+        public long getExhaustedCount() {
+            return exhaustedCount;
+        }
+
+        /**
+         * @return number of calls cancelled because the service did not respond within the budget
+         */
+        public long getTimedOutCount() {
+            return timedOutCount;
+        }
+
+        /**
+         * @return number of searches that returned the original ranking because of the budget
+         */
+        public long getFallbackCount() {
+            return exhaustedCount + timedOutCount;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject("latency_budget");
+            builder.field("budgeted_count", budgetedCount);
+            builder.field("budget_in_millis", budgetInMillis);
+            builder.field("exhausted_count", exhaustedCount);
+            builder.field("timed_out_count", timedOutCount);
+            builder.field("fallback_count", getFallbackCount());
+            return builder.endObject();
+        }
+    }
+}
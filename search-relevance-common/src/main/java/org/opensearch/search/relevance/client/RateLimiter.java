@@ -0,0 +1,288 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.client;
+
+import com.amazonaws.SdkBaseException;
+import com.amazonaws.retry.RetryUtils;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.opensearch.common.metrics.CounterMetric;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+/**
+ * Node-level token bucket per ranking service target, such as a rescore execution plan or an Amazon Personalize
+ * campaign, sized after its provisioned capacity. Calls over the rate are rejected right away with a
+ * {@link RejectedExecutionException}, so that searches return their original ranking instead of waiting to be
+ * throttled by the service.
+ */
+public class RateLimiter {
+    private final double defaultRate;
+    private final int burst;
+    private final Map<String, Double> targetRates;
+    private final LongSupplier nanoClock;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param defaultRate requests per second allowed to targets without a specific rate, or -1 for no limit
+     * @param burst       maximum number of requests let through at once, or -1 for one second worth of requests
+     * @param targetRates requests per second allowed to specific targets
+     * @param nanoClock   source of the current time in nanoseconds
+     */
+    public RateLimiter(final double defaultRate, final int burst, final Map<String, Double> targetRates, final LongSupplier nanoClock) {
+        this.defaultRate = defaultRate;
+        this.burst = burst;
+        this.targetRates = targetRates;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Parse rates of specific targets.
+     * @param entries entries formatted as target=requests_per_second
+     * @return requests per second by target
+     * @throws IllegalArgumentException if an entry is malformed
+     */
+    public static Map<String, Double> parseTargetRates(final List<String> entries) {
+        final Map<String, Double> targetRates = new HashMap<>();
+        for (String entry : entries) {
+            final int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Rate limit [" + entry + "] must be formatted as target=requests_per_second");
+            }
+            final double rate;
+            try {
+                rate = Double.parseDouble(entry.substring(separator + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Rate limit [" + entry + "] must be formatted as target=requests_per_second", e);
+            }
+            if (!(rate > 0)) {
+                throw new IllegalArgumentException("Rate limit [" + entry + "] must be positive");
+            }
+            targetRates.put(entry.substring(0, separator).trim(), rate);
+        }
+        return targetRates;
+    }
+
+    /**
+     * Let a call to a target through, or reject it.
+     * @param target identifier of the rate limited resource
+     * @throws RejectedExecutionException if the target has no token left
+     */
+    public void acquire(final String target) {
+        final TokenBucket bucket = buckets.computeIfAbsent(target, this::newBucket);
+        if (!bucket.tryAcquire(nanoClock.getAsLong())) {
+            bucket.shedCount.inc();
+            throw new RejectedExecutionException("Rate limit of [" + target + "] exceeded");
+        }
+        bucket.admittedCount.inc();
+    }
+
+    /**
+     * Give back the token of a call that was let through but not sent, for instance because the call guard rejected it.
+     * @param target identifier of the rate limited resource
+     */
+    public void release(final String target) {
+        final TokenBucket bucket = buckets.get(target);
+        if (bucket != null) {
+            bucket.release();
+            bucket.admittedCount.dec();
+        }
+    }
+
+    /**
+     * Record the failure of an admitted call, to count calls throttled by the service in spite of the rate limit.
+     * @param target identifier of the rate limited resource
+     * @param ex     failure of the call
+     */
+    public void onFailure(final String target, final Exception ex) {
+        if (isThrottling(ex)) {
+            buckets.computeIfAbsent(target, this::newBucket).throttledCount.inc();
+        }
+    }
+
+    static boolean isThrottling(final Exception ex) {
+        Throwable cause = ex;
+        while (cause != null && !(cause instanceof SdkBaseException)) {
+            cause = cause.getCause();
+        }
+        return cause != null && RetryUtils.isThrottlingException((SdkBaseException) cause);
+    }
+
+    private TokenBucket newBucket(final String target) {
+        final double rate = targetRates.getOrDefault(target, defaultRate);
+        final double capacity = burst > 0 ? burst : Math.max(1, rate);
+        return new TokenBucket(rate, capacity, nanoClock.getAsLong());
+    }
+
+    public Stats getStats() {
+        final Map<String, TargetStats> targetStats = new TreeMap<>();
+        long admittedCount = 0;
+        long shedCount = 0;
+        long throttledCount = 0;
+        for (Map.Entry<String, TokenBucket> entry : buckets.entrySet()) {
+            final TokenBucket bucket = entry.getValue();
+            final TargetStats stats = new TargetStats(bucket.rate, bucket.admittedCount.count(), bucket.shedCount.count(),
+                    bucket.throttledCount.count());
+            targetStats.put(entry.getKey(), stats);
+            admittedCount += stats.getAdmittedCount();
+            shedCount += stats.getShedCount();
+            throttledCount += stats.getThrottledCount();
+        }
+        return new Stats(admittedCount, shedCount, throttledCount, targetStats);
+    }
+
+    private static final class TokenBucket {
+        private final double rate;
+        private final double capacity;
+        private final CounterMetric admittedCount = new CounterMetric();
+        private final CounterMetric shedCount = new CounterMetric();
+        private final CounterMetric throttledCount = new CounterMetric();
+        private double tokens;
+        private long refilledNanos;
+
+        private TokenBucket(final double rate, final double capacity, final long nowNanos) {
+            this.rate = rate;
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.refilledNanos = nowNanos;
+        }
+
+        private synchronized boolean tryAcquire(final long nowNanos) {
+            if (rate < 0) {
+                return true;
+            }
+            final long elapsedNanos = nowNanos - refilledNanos;
+            if (elapsedNanos > 0) {
+                tokens = Math.min(capacity, tokens + elapsedNanos * rate / TimeUnit.SECONDS.toNanos(1));
+                refilledNanos = nowNanos;
+            }
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        private synchronized void release() {
+            tokens = Math.min(capacity, tokens + 1);
+        }
+    }
+
+    /**
+     * Point-in-time statistics of the calls to one target.
+     */
+    public static final class TargetStats implements ToXContentFragment {
+        private final double rate;
+        private final long admittedCount;
+        private final long shedCount;
+        private final long throttledCount;
+
+        public TargetStats(double rate, long admittedCount, long shedCount, long throttledCount) {
+            this.rate = rate;
+            this.admittedCount = admittedCount;
+            this.shedCount = shedCount;
+            this.throttledCount = throttledCount;
+        }
+
+        /**
+         * @return requests per second allowed to the target, or -1 for no limit
+         */
+        public double getRate() {
+            return rate;
+        }
+
+        /**
+         * @return number of calls let through
+         */
+        public long getAdmittedCount() {
+            return admittedCount;
+        }
+
+        /**
+         * @return number of calls rejected because the target had no token left
+         */
+        public long getShedCount() {
+            return shedCount;
+        }
+
+        /**
+         * @return number of admitted calls the target throttled
+         */
+        public long getThrottledCount() {
+            return throttledCount;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.field("requests_per_second", rate);
+            builder.field("admitted_count", admittedCount);
+            builder.field("shed_count", shedCount);
+            builder.field("throttled_count", throttledCount);
+            return builder;
+        }
+    }
+
+    /**
+     * Point-in-time statistics of the rate limiter.
+     */
+    public static final class Stats implements ToXContentFragment {
+        private final long admittedCount;
+        private final long shedCount;
+        private final long throttledCount;
+        private final Map<String, TargetStats> targets;
+
+        public Stats(long admittedCount, long shedCount, long throttledCount, Map<String, TargetStats> targets) {
+            this.admittedCount = admittedCount;
+            this.shedCount = shedCount;
+            this.throttledCount = throttledCount;
+            this.targets = targets;
+        }
+
+        public long getAdmittedCount() {
+            return admittedCount;
+        }
+
+        public long getShedCount() {
+            return shedCount;
+        }
+
+        public long getThrottledCount() {
+            return throttledCount;
+        }
+
+        /**
+         * @return statistics by target
+         */
+        public Map<String, TargetStats> getTargets() {
+            return targets;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject("rate_limiter");
+            builder.field("admitted_count", admittedCount);
+            builder.field("shed_count", shedCount);
+            builder.field("throttled_count", throttledCount);
+            builder.startObject("targets");
+            for (Map.Entry<String, TargetStats> entry : targets.entrySet()) {
+                builder.startObject(entry.getKey());
+                entry.getValue().toXContent(builder, params);
+                builder.endObject();
+            }
+            builder.endObject();
+            return builder.endObject();
+        }
+    }
+}
@@ -0,0 +1,426 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.client;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.retry.RetryUtils;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import org.opensearch.common.metrics.CounterMetric;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+/**
+ * Node-level protection of searches against a degraded ranking service target, such as a Kendra Intelligent Ranking
+ * endpoint or an Amazon Personalize campaign. A circuit breaker per target stops calling it while too many recent
+ * calls failed or were slow, then lets a single probe through once it has been open for a while. A bulkhead caps the
+ * number of calls in flight on the node across all targets. Calls that are not let through are rejected with a
+ * {@link RejectedExecutionException}, so that searches return their original ranking instead of waiting on the target.
+ */
+public class RemoteCallGuard {
+    private final String service;
+    private final Semaphore bulkhead;
+    private final int maxConcurrentCalls;
+    private final boolean circuitBreakerEnabled;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long latencyThresholdNanos;
+    private final double latencyPercentile;
+    private final long openDurationNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final CounterMetric bulkheadRejectedCount = new CounterMetric();
+    private final CounterMetric shortCircuitedCount = new CounterMetric();
+
+    /**
+     * @param service               name of the ranking service, used in rejection messages
+     * @param maxConcurrentCalls    maximum number of calls in flight on the node, or -1 for no limit
+     * @param circuitBreakerEnabled whether calls to a target stop while it is degraded
+     * @param windowSize            number of most recent calls to a target the breaker trips on
+     * @param minimumCalls          minimum number of calls in the window before the breaker may trip
+     * @param failureRateThreshold  fraction of failed calls in the window that trips the breaker
+     * @param latencyThreshold      latency that trips the breaker when it is reached at the given percentile, or -1
+     *                              to only trip on failures
+     * @param latencyPercentile     percentile of the latency of calls in the window compared to the latency threshold
+     * @param openDuration          time during which an open breaker rejects calls before letting a probe through
+     * @param nanoClock             source of {@link System#nanoTime()}
+     */
+    public RemoteCallGuard(String service, int maxConcurrentCalls, boolean circuitBreakerEnabled, int windowSize,
+            int minimumCalls, double failureRateThreshold, TimeValue latencyThreshold, double latencyPercentile,
+            TimeValue openDuration, LongSupplier nanoClock) {
+        if (latencyPercentile > 1) {
+            throw new IllegalArgumentException("Latency percentile must be between 0 and 1, got [" + latencyPercentile + "]");
+        }
+        this.service = service;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.bulkhead = maxConcurrentCalls < 0 ? null : new Semaphore(maxConcurrentCalls);
+        this.circuitBreakerEnabled = circuitBreakerEnabled;
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.latencyThresholdNanos = latencyThreshold.nanos();
+        this.latencyPercentile = latencyPercentile;
+        this.openDurationNanos = openDuration.nanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Let a call to a target through, or reject it.
+     * @param target identifier of the target called
+     * @return permit to complete once the call completes, successfully or not
+     * @throws RejectedExecutionException if the breaker of the target is open or too many calls are in flight
+     */
+    public Permit acquire(final String target) {
+        final CircuitBreaker circuitBreaker = circuitBreakerEnabled
+                ? circuitBreakers.computeIfAbsent(target, t -> new CircuitBreaker()) : null;
+        final Admission admission = circuitBreaker == null
+                ? Admission.CALL : circuitBreaker.tryAcquire(nanoClock.getAsLong());
+        if (admission == Admission.REJECTED) {
+            shortCircuitedCount.inc();
+            throw new RejectedExecutionException("Circuit breaker of [" + target + "] is open");
+        }
+        if (bulkhead != null && !bulkhead.tryAcquire()) {
+            if (admission == Admission.PROBE) {
+                circuitBreaker.cancelProbe();
+            }
+            bulkheadRejectedCount.inc();
+            throw new RejectedExecutionException("Too many concurrent calls to " + service + ", limit is ["
+                    + maxConcurrentCalls + "]");
+        }
+        return new Permit(circuitBreaker, admission == Admission.PROBE, nanoClock.getAsLong());
+    }
+
+    /**
+     * @param ex failure of a call
+     * @return whether the failure tells that the target is degraded, as opposed to a request it rejected as invalid.
+     * Throttling is a remote failure whatever its status, since services such as Kendra throttle with a 400.
+     */
+    static boolean isRemoteFailure(final Exception ex) {
+        Throwable cause = ex;
+        while (cause != null && !(cause instanceof AmazonServiceException)) {
+            cause = cause.getCause();
+        }
+        if (cause == null) {
+            return true;
+        }
+        final AmazonServiceException ase = (AmazonServiceException) cause;
+        if (RetryUtils.isThrottlingException(ase)) {
+            return true;
+        }
+        switch (ase.getErrorType()) {
+            case Service:
+                return true;
+            case Client:
+                return false;
+            default:
+                final int statusCode = ase.getStatusCode();
+                return statusCode >= 500 || statusCode < 400;
+        }
+    }
+
+    public Stats getStats() {
+        final Map<String, CircuitBreakerStats> circuitBreakerStats = new TreeMap<>();
+        for (Map.Entry<String, CircuitBreaker> entry : circuitBreakers.entrySet()) {
+            circuitBreakerStats.put(entry.getKey(), entry.getValue().getStats());
+        }
+        final int inFlightCount = bulkhead == null ? 0 : maxConcurrentCalls - bulkhead.availablePermits();
+        return new Stats(inFlightCount, maxConcurrentCalls, bulkheadRejectedCount.count(), shortCircuitedCount.count(),
+                circuitBreakerStats);
+    }
+
+    /**
+     * Right to make one call, held until it completes. Completing a permit more than once has no effect.
+     */
+    public final class Permit {
+        private final CircuitBreaker circuitBreaker;
+        private final boolean probe;
+        private final long startTimeNanos;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private Permit(CircuitBreaker circuitBreaker, boolean probe, long startTimeNanos) {
+            this.circuitBreaker = circuitBreaker;
+            this.probe = probe;
+            this.startTimeNanos = startTimeNanos;
+        }
+
+        public void onSuccess() {
+            complete(false, false);
+        }
+
+        /**
+         * @param ex failure of the call, which only counts against the target if {@link #isRemoteFailure} holds
+         */
+        public void onFailure(final Exception ex) {
+            complete(isRemoteFailure(ex), false);
+        }
+
+        /**
+         * Complete the permit of a call that was cancelled by the caller. The call does not count as failed, but still
+         * counts as slow if it reached the latency threshold before being cancelled. A cancelled probe that was not slow
+         * tells nothing about the target, so the breaker stays half open and lets another probe through.
+         */
+        public void onCancel() {
+            complete(false, true);
+        }
+
+        private void complete(final boolean failed, final boolean cancelled) {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+            if (circuitBreaker != null) {
+                final long nowNanos = nanoClock.getAsLong();
+                final boolean slow = latencyThresholdNanos >= 0 && nowNanos - startTimeNanos >= latencyThresholdNanos;
+                if (probe && cancelled && !slow) {
+                    circuitBreaker.cancelProbe();
+                } else {
+                    circuitBreaker.record(probe, failed, slow, nowNanos);
+                }
+            }
+        }
+    }
+
+    private enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Decision of a circuit breaker on a call: only the probe let through while half open decides whether it closes.
+     */
+    private enum Admission {
+        REJECTED, CALL, PROBE
+    }
+
+    /**
+     * Outcomes of the most recent calls to a target, in a ring buffer. The latency percentile is compared to the
+     * threshold by counting slow calls: it reaches the threshold when more than 1 - percentile of the calls are slow.
+     */
+    private final class CircuitBreaker {
+        private final boolean[] failures = new boolean[windowSize];
+        private final boolean[] slowCalls = new boolean[windowSize];
+        private int next;
+        private int callCount;
+        private int failureCount;
+        private int slowCallCount;
+        private State state = State.CLOSED;
+        private long openedAtNanos;
+        private boolean probeInFlight;
+        private long openedCount;
+
+        synchronized Admission tryAcquire(final long nowNanos) {
+            if (state == State.CLOSED) {
+                return Admission.CALL;
+            }
+            if (state == State.OPEN) {
+                if (nowNanos - openedAtNanos < openDurationNanos) {
+                    return Admission.REJECTED;
+                }
+                state = State.HALF_OPEN;
+            }
+            if (probeInFlight) {
+                return Admission.REJECTED;
+            }
+            probeInFlight = true;
+            return Admission.PROBE;
+        }
+
+        synchronized void cancelProbe() {
+            probeInFlight = false;
+        }
+
+        synchronized void record(final boolean probe, final boolean failed, final boolean slow, final long nowNanos) {
+            if (probe) {
+                probeInFlight = false;
+                if (failed || slow) {
+                    open(nowNanos);
+                } else {
+                    close();
+                }
+                return;
+            }
+            if (state != State.CLOSED) {
+                // Call started before the breaker opened, only the probe decides whether it closes again
+                return;
+            }
+            if (callCount == windowSize) {
+                failureCount -= failures[next] ? 1 : 0;
+                slowCallCount -= slowCalls[next] ? 1 : 0;
+            } else {
+                callCount++;
+            }
+            failures[next] = failed;
+            slowCalls[next] = slow;
+            failureCount += failed ? 1 : 0;
+            slowCallCount += slow ? 1 : 0;
+            next = (next + 1) % windowSize;
+            if (callCount >= minimumCalls && (failureCount >= failureRateThreshold * callCount
+                    || slowCallCount > (1 - latencyPercentile) * callCount)) {
+                open(nowNanos);
+            }
+        }
+
+        private void open(final long nowNanos) {
+            state = State.OPEN;
+            openedAtNanos = nowNanos;
+            openedCount++;
+        }
+
+        private void close() {
+            state = State.CLOSED;
+            next = 0;
+            callCount = 0;
+            failureCount = 0;
+            slowCallCount = 0;
+        }
+
+        synchronized CircuitBreakerStats getStats() {
+            return new CircuitBreakerStats(state.name().toLowerCase(Locale.ROOT), callCount, failureCount, slowCallCount,
+                    openedCount);
+        }
+    }
+
+    /**
+     * Point-in-time statistics of the circuit breaker of a target
+     */
+    public static final class CircuitBreakerStats implements ToXContentFragment {
+        private final String state;
+        private final int callCount;
+        private final int failureCount;
+        private final int slowCallCount;
+        private final long openedCount;
+
+        public CircuitBreakerStats(String state, int callCount, int failureCount, int slowCallCount, long openedCount) {
+            this.state = state;
+            this.callCount = callCount;
+            this.failureCount = failureCount;
+            this.slowCallCount = slowCallCount;
+            this.openedCount = openedCount;
+        }
+
+        /**
+         * @return closed, open or half_open
+         */
+        public String getState() {
+            return state;
+        }
+
+        /**
+         * @return number of calls in the window of the breaker
+         */
+        public int getCallCount() {
+            return callCount;
+        }
+
+        /**
+         * @return number of failed calls in the window of the breaker
+         */
+        public int getFailureCount() {
+            return failureCount;
+        }
+
+        /**
+         * @return number of calls in the window of the breaker that reached the latency threshold
+         */
+        public int getSlowCallCount() {
+            return slowCallCount;
+        }
+
+        /**
+         * @return number of times the breaker opened
+         */
+        public long getOpenedCount() {
+            return openedCount;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.field("state", state);
+            builder.field("call_count", callCount);
+            builder.field("failure_count", failureCount);
+            builder.field("slow_call_count", slowCallCount);
+            builder.field("opened_count", openedCount);
+            return builder;
+        }
+    }
+
+    /**
+     * Point-in-time statistics of the bulkhead and circuit breakers
+     */
+    public static final class Stats implements ToXContentFragment {
+        private final int inFlightCount;
+        private final int maxConcurrentCalls;
+        private final long bulkheadRejectedCount;
+        private final long shortCircuitedCount;
+        private final Map<String, CircuitBreakerStats> circuitBreakers;
+
+        public Stats(int inFlightCount, int maxConcurrentCalls, long bulkheadRejectedCount, long shortCircuitedCount,
+                Map<String, CircuitBreakerStats> circuitBreakers) {
+            this.inFlightCount = inFlightCount;
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            this.bulkheadRejectedCount = bulkheadRejectedCount;
+            this.shortCircuitedCount = shortCircuitedCount;
+            this.circuitBreakers = circuitBreakers;
+        }
+
+        /**
+         * @return number of calls in flight, if the bulkhead is enabled
+         */
+        public int getInFlightCount() {
+            return inFlightCount;
+        }
+
+        /**
+         * @return number of calls rejected because too many calls were in flight
+         */
+        public long getBulkheadRejectedCount() {
+            return bulkheadRejectedCount;
+        }
+
+        /**
+         * @return number of calls rejected because the breaker of their target was open
+         */
+        public long getShortCircuitedCount() {
+            return shortCircuitedCount;
+        }
+
+        /**
+         * @return statistics of the circuit breaker of each target
+         */
+        public Map<String, CircuitBreakerStats> getCircuitBreakers() {
+            return circuitBreakers;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject("remote_call_guard");
+            builder.field("in_flight_count", inFlightCount);
+            builder.field("max_concurrent_calls", maxConcurrentCalls);
+            builder.field("bulkhead_rejected_count", bulkheadRejectedCount);
+            builder.field("short_circuited_count", shortCircuitedCount);
+            builder.startObject("circuit_breakers");
+            for (Map.Entry<String, CircuitBreakerStats> entry : circuitBreakers.entrySet()) {
+                builder.startObject(entry.getKey());
+                entry.getValue().toXContent(builder, params);
+                builder.endObject();
+            }
+            builder.endObject();
+            return builder.endObject();
+        }
+    }
+}
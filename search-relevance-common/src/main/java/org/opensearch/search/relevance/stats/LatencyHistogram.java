@@ -0,0 +1,133 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.stats;
+
+import org.opensearch.common.metrics.CounterMetric;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.common.io.stream.Writeable;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies with fixed bucket bounds, so that the histograms of all nodes of a cluster can be added up.
+ */
+public class LatencyHistogram {
+    /**
+     * Upper bounds of the buckets, in milliseconds. The last bucket holds the latencies above the last bound.
+     */
+    static final long[] BUCKET_BOUNDS_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+    static final String OVERFLOW_BUCKET = "inf";
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length + 1);
+    private final CounterMetric totalNanos = new CounterMetric();
+
+    /**
+     * @param nanos latency to record, in nanoseconds
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucket(nanos));
+        totalNanos.inc(Math.max(0, nanos));
+    }
+
+    static int bucket(long nanos) {
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            if (nanos <= TimeUnit.MILLISECONDS.toNanos(BUCKET_BOUNDS_MILLIS[i])) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MILLIS.length;
+    }
+
+    public Stats getStats() {
+        final long[] bucketCounts = new long[counts.length()];
+        for (int i = 0; i < bucketCounts.length; i++) {
+            bucketCounts[i] = counts.get(i);
+        }
+        return new Stats(bucketCounts, totalNanos.count());
+    }
+
+    /**
+     * Point-in-time copy of a latency histogram.
+     */
+    public static final class Stats implements Writeable, ToXContentFragment {
+        private final long[] bucketCounts;
+        private final long totalNanos;
+
+        public Stats(long[] bucketCounts, long totalNanos) {
+            this.bucketCounts = bucketCounts;
+            this.totalNanos = totalNanos;
+        }
+
+        public Stats(StreamInput in) throws IOException {
+            this.bucketCounts = in.readVLongArray();
+            this.totalNanos = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLongArray(bucketCounts);
+            out.writeVLong(totalNanos);
+        }
+
+        /**
+         * @param other histogram of another node
+         * @return sum of both histograms
+         */
+        public Stats add(Stats other) {
+            final long[] sum = new long[Math.max(bucketCounts.length, other.bucketCounts.length)];
+            for (int i = 0; i < sum.length; i++) {
+                sum[i] = (i < bucketCounts.length ? bucketCounts[i] : 0) + (i < other.bucketCounts.length ? other.bucketCounts[i] : 0);
+            }
+            return new Stats(sum, totalNanos + other.totalNanos);
+        }
+
+        /**
+         * @return number of latencies recorded
+         */
+        public long getCount() {
+            long count = 0;
+            for (long bucketCount : bucketCounts) {
+                count += bucketCount;
+            }
+            return count;
+        }
+
+        /**
+         * @return sum of the latencies recorded, in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * @return number of latencies recorded per bucket, ordered by upper bound
+         */
+        public long[] getBucketCounts() {
+            return bucketCounts;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.field("count", getCount());
+            builder.field("time_in_millis", TimeUnit.NANOSECONDS.toMillis(totalNanos));
+            // Each bucket counts the latencies up to its bound, and above the bound of the previous bucket
+            builder.startObject("buckets");
+            for (int i = 0; i < bucketCounts.length; i++) {
+                builder.field(i < BUCKET_BOUNDS_MILLIS.length
+                        ? TimeValue.timeValueMillis(BUCKET_BOUNDS_MILLIS[i]).toString() : OVERFLOW_BUCKET, bucketCounts[i]);
+            }
+            return builder.endObject();
+        }
+    }
+}
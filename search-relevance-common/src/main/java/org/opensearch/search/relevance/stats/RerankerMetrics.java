@@ -0,0 +1,214 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.stats;
+
+import org.opensearch.common.metrics.CounterMetric;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.common.io.stream.Writeable;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+import java.io.IOException;
+
+/**
+ * Node-level metrics of one result transformer or search pipeline processor. The time spent on a request is split
+ * into the preprocessing of search hits, the remote call to the ranking service, and the postprocessing of its result.
+ */
+public class RerankerMetrics {
+    private final CounterMetric requestCount = new CounterMetric();
+    private final CounterMetric errorCount = new CounterMetric();
+    private final CounterMetric fallbackCount = new CounterMetric();
+    private final LatencyHistogram totalLatency = new LatencyHistogram();
+    private final LatencyHistogram preprocessingLatency = new LatencyHistogram();
+    private final LatencyHistogram remoteCallLatency = new LatencyHistogram();
+    private final LatencyHistogram postprocessingLatency = new LatencyHistogram();
+    private final CounterMetric requestSizeInBytes = new CounterMetric();
+    private final CounterMetric responseSizeInBytes = new CounterMetric();
+
+    /**
+     * Record a request, once it completes.
+     * @param tookNanos time spent on the request, in nanoseconds
+     */
+    public void onRequest(long tookNanos) {
+        requestCount.inc();
+        totalLatency.record(tookNanos);
+    }
+
+    /**
+     * Record a request that failed, or whose hits were returned unchanged because of an error.
+     */
+    public void onError() {
+        errorCount.inc();
+    }
+
+    /**
+     * Record a request whose hits were returned unchanged because the remote call was rejected or took too long.
+     */
+    public void onFallback() {
+        fallbackCount.inc();
+    }
+
+    public void recordPreprocessing(long nanos) {
+        preprocessingLatency.record(nanos);
+    }
+
+    public void recordRemoteCall(long nanos) {
+        remoteCallLatency.record(nanos);
+    }
+
+    public void recordPostprocessing(long nanos) {
+        postprocessingLatency.record(nanos);
+    }
+
+    /**
+     * @param bytes size of the payload sent to the ranking service
+     */
+    public void recordRequestSize(long bytes) {
+        requestSizeInBytes.inc(bytes);
+    }
+
+    /**
+     * @param bytes size of the payload received from the ranking service
+     */
+    public void recordResponseSize(long bytes) {
+        responseSizeInBytes.inc(bytes);
+    }
+
+    public Stats getStats() {
+        return new Stats(requestCount.count(), errorCount.count(), fallbackCount.count(), totalLatency.getStats(),
+                preprocessingLatency.getStats(), remoteCallLatency.getStats(), postprocessingLatency.getStats(),
+                requestSizeInBytes.count(), responseSizeInBytes.count());
+    }
+
+    /**
+     * Point-in-time metrics of a result transformer or search pipeline processor.
+     */
+    public static final class Stats implements Writeable, ToXContentFragment {
+        private final long requestCount;
+        private final long errorCount;
+        private final long fallbackCount;
+        private final LatencyHistogram.Stats totalLatency;
+        private final LatencyHistogram.Stats preprocessingLatency;
+        private final LatencyHistogram.Stats remoteCallLatency;
+        private final LatencyHistogram.Stats postprocessingLatency;
+        private final long requestSizeInBytes;
+        private final long responseSizeInBytes;
+
+        public Stats(long requestCount, long errorCount, long fallbackCount, LatencyHistogram.Stats totalLatency,
+                     LatencyHistogram.Stats preprocessingLatency, LatencyHistogram.Stats remoteCallLatency,
+                     LatencyHistogram.Stats postprocessingLatency, long requestSizeInBytes, long responseSizeInBytes) {
+            this.requestCount = requestCount;
+            this.errorCount = errorCount;
+            this.fallbackCount = fallbackCount;
+            this.totalLatency = totalLatency;
+            this.preprocessingLatency = preprocessingLatency;
+            this.remoteCallLatency = remoteCallLatency;
+            this.postprocessingLatency = postprocessingLatency;
+            this.requestSizeInBytes = requestSizeInBytes;
+            this.responseSizeInBytes = responseSizeInBytes;
+        }
+
+        public Stats(StreamInput in) throws IOException {
+            this.requestCount = in.readVLong();
+            this.errorCount = in.readVLong();
+            this.fallbackCount = in.readVLong();
+            this.totalLatency = new LatencyHistogram.Stats(in);
+            this.preprocessingLatency = new LatencyHistogram.Stats(in);
+            this.remoteCallLatency = new LatencyHistogram.Stats(in);
+            this.postprocessingLatency = new LatencyHistogram.Stats(in);
+            this.requestSizeInBytes = in.readVLong();
+            this.responseSizeInBytes = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(requestCount);
+            out.writeVLong(errorCount);
+            out.writeVLong(fallbackCount);
+            totalLatency.writeTo(out);
+            preprocessingLatency.writeTo(out);
+            remoteCallLatency.writeTo(out);
+            postprocessingLatency.writeTo(out);
+            out.writeVLong(requestSizeInBytes);
+            out.writeVLong(responseSizeInBytes);
+        }
+
+        /**
+         * @param other metrics of the same transformer or processor on another node
+         * @return sum of both metrics
+         */
+        public Stats add(Stats other) {
+            return new Stats(requestCount + other.requestCount, errorCount + other.errorCount,
+                    fallbackCount + other.fallbackCount, totalLatency.add(other.totalLatency),
+                    preprocessingLatency.add(other.preprocessingLatency), remoteCallLatency.add(other.remoteCallLatency),
+                    postprocessingLatency.add(other.postprocessingLatency), requestSizeInBytes + other.requestSizeInBytes,
+                    responseSizeInBytes + other.responseSizeInBytes);
+        }
+
+        public long getRequestCount() {
+            return requestCount;
+        }
+
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        public long getFallbackCount() {
+            return fallbackCount;
+        }
+
+        public LatencyHistogram.Stats getTotalLatency() {
+            return totalLatency;
+        }
+
+        public LatencyHistogram.Stats getPreprocessingLatency() {
+            return preprocessingLatency;
+        }
+
+        public LatencyHistogram.Stats getRemoteCallLatency() {
+            return remoteCallLatency;
+        }
+
+        public LatencyHistogram.Stats getPostprocessingLatency() {
+            return postprocessingLatency;
+        }
+
+        public long getRequestSizeInBytes() {
+            return requestSizeInBytes;
+        }
+
+        public long getResponseSizeInBytes() {
+            return responseSizeInBytes;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.field("request_count", requestCount);
+            builder.field("error_count", errorCount);
+            builder.field("fallback_count", fallbackCount);
+            builder.startObject("latency");
+            latencyToXContent("total", totalLatency, builder, params);
+            latencyToXContent("preprocessing", preprocessingLatency, builder, params);
+            latencyToXContent("remote_call", remoteCallLatency, builder, params);
+            latencyToXContent("postprocessing", postprocessingLatency, builder, params);
+            builder.endObject();
+            builder.startObject("payload");
+            builder.field("request_size_in_bytes", requestSizeInBytes);
+            builder.field("response_size_in_bytes", responseSizeInBytes);
+            return builder.endObject();
+        }
+
+        private static void latencyToXContent(String name, LatencyHistogram.Stats latency, XContentBuilder builder,
+                                              Params params) throws IOException {
+            builder.startObject(name);
+            latency.toXContent(builder, params);
+            builder.endObject();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.stats;
+
+import org.opensearch.client.node.NodeClient;
+import org.opensearch.core.common.Strings;
+import org.opensearch.rest.BaseRestHandler;
+import org.opensearch.rest.RestRequest;
+import org.opensearch.rest.action.RestActions;
+
+import java.util.List;
+
+import static org.opensearch.rest.RestRequest.Method.GET;
+
+/**
+ * Reports the metrics of a plugin. The plugin name is part of the path, so that both search relevance plugins can
+ * be installed on the same cluster: they run in separate class loaders and cannot share a single route.
+ */
+public class RestSearchRelevanceStatsAction extends BaseRestHandler {
+    private final String pluginName;
+    private final SearchRelevanceStatsAction action;
+
+    /**
+     * @param pluginName name of the plugin in the stats paths
+     * @param action     stats action of the plugin
+     */
+    public RestSearchRelevanceStatsAction(String pluginName, SearchRelevanceStatsAction action) {
+        this.pluginName = pluginName;
+        this.action = action;
+    }
+
+    @Override
+    public String getName() {
+        return pluginName + "_stats_action";
+    }
+
+    @Override
+    public List<Route> routes() {
+        return List.of(new Route(GET, "/_plugins/search_relevance/stats/" + pluginName),
+                new Route(GET, "/_plugins/search_relevance/{nodeId}/stats/" + pluginName));
+    }
+
+    @Override
+    protected RestChannelConsumer prepareRequest(RestRequest request, NodeClient client) {
+        final SearchRelevanceStatsRequest statsRequest = new SearchRelevanceStatsRequest(
+                Strings.splitStringByCommaToArray(request.param("nodeId")));
+        statsRequest.timeout(request.param("timeout"));
+        return channel -> client.execute(action, statsRequest,
+                new RestActions.NodesResponseRestListener<>(channel));
+    }
+}
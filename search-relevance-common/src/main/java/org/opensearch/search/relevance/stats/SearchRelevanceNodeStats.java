@@ -0,0 +1,96 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.stats;
+
+import org.opensearch.action.support.nodes.BaseNodeResponse;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Metrics of the result transformers and search pipeline processors of one node, and statistics of its components.
+ */
+public class SearchRelevanceNodeStats extends BaseNodeResponse implements ToXContentFragment {
+    private final Map<String, RerankerMetrics.Stats> transformers;
+    private final Map<String, RerankerMetrics.Stats> processors;
+    private final Map<String, Object> components;
+
+    public SearchRelevanceNodeStats(DiscoveryNode node, Map<String, RerankerMetrics.Stats> transformers,
+                                    Map<String, RerankerMetrics.Stats> processors, Map<String, Object> components) {
+        super(node);
+        this.transformers = transformers;
+        this.processors = processors;
+        this.components = components;
+    }
+
+    public SearchRelevanceNodeStats(StreamInput in) throws IOException {
+        super(in);
+        this.transformers = new TreeMap<>(in.readMap(StreamInput::readString, RerankerMetrics.Stats::new));
+        this.processors = new TreeMap<>(in.readMap(StreamInput::readString, RerankerMetrics.Stats::new));
+        this.components = new TreeMap<>(in.readMap());
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeMap(transformers, StreamOutput::writeString, (o, stats) -> stats.writeTo(o));
+        out.writeMap(processors, StreamOutput::writeString, (o, stats) -> stats.writeTo(o));
+        out.writeMap(components);
+    }
+
+    /**
+     * @return metrics by result transformer name
+     */
+    public Map<String, RerankerMetrics.Stats> getTransformers() {
+        return transformers;
+    }
+
+    /**
+     * @return metrics by search pipeline processor type
+     */
+    public Map<String, RerankerMetrics.Stats> getProcessors() {
+        return processors;
+    }
+
+    /**
+     * @return statistics by node component
+     */
+    public Map<String, Object> getComponents() {
+        return components;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.field("name", getNode().getName());
+        metricsToXContent(builder, params, transformers, processors);
+        return builder.field("components", components);
+    }
+
+    static void metricsToXContent(XContentBuilder builder, Params params, Map<String, RerankerMetrics.Stats> transformers,
+                                  Map<String, RerankerMetrics.Stats> processors) throws IOException {
+        metricsToXContent(builder, params, "transformers", transformers);
+        metricsToXContent(builder, params, "processors", processors);
+    }
+
+    private static void metricsToXContent(XContentBuilder builder, Params params, String name,
+                                          Map<String, RerankerMetrics.Stats> metrics) throws IOException {
+        builder.startObject(name);
+        for (Map.Entry<String, RerankerMetrics.Stats> entry : metrics.entrySet()) {
+            builder.startObject(entry.getKey());
+            entry.getValue().toXContent(builder, params);
+            builder.endObject();
+        }
+        builder.endObject();
+    }
+}
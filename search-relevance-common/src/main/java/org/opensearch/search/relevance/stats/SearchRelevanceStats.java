@@ -0,0 +1,90 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.stats;
+
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.common.xcontent.XContentFactory;
+import org.opensearch.common.xcontent.XContentHelper;
+import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.core.common.bytes.BytesReference;
+import org.opensearch.core.xcontent.ToXContent;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Node-level registry of the metrics of result transformers and search pipeline processors, and of the statistics of
+ * the node components they share, reported by the stats API.
+ */
+public class SearchRelevanceStats {
+    private final Map<String, RerankerMetrics> transformers = new ConcurrentHashMap<>();
+    private final Map<String, RerankerMetrics> processors = new ConcurrentHashMap<>();
+    private final List<Supplier<? extends ToXContentFragment>> components = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param name name of a result transformer
+     * @return metrics of the transformer on this node
+     */
+    public RerankerMetrics getTransformerMetrics(String name) {
+        return transformers.computeIfAbsent(name, n -> new RerankerMetrics());
+    }
+
+    /**
+     * @param type type of a search pipeline processor
+     * @return metrics of all processors of this type on this node
+     */
+    public RerankerMetrics getProcessorMetrics(String type) {
+        return processors.computeIfAbsent(type, t -> new RerankerMetrics());
+    }
+
+    /**
+     * Report the statistics of a node component
+     * @param statsSupplier supplier of the current statistics of the component, which write their own named object
+     */
+    public void addComponent(Supplier<? extends ToXContentFragment> statsSupplier) {
+        components.add(statsSupplier);
+    }
+
+    /**
+     * @param node this node
+     * @return current metrics and component statistics of this node
+     * @throws IOException if the statistics of a component cannot be rendered
+     */
+    public SearchRelevanceNodeStats getNodeStats(DiscoveryNode node) throws IOException {
+        return new SearchRelevanceNodeStats(node, getStats(transformers), getStats(processors), getComponentStats());
+    }
+
+    private static Map<String, RerankerMetrics.Stats> getStats(Map<String, RerankerMetrics> metrics) {
+        final Map<String, RerankerMetrics.Stats> stats = new TreeMap<>();
+        for (Map.Entry<String, RerankerMetrics> entry : metrics.entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Components have different statistics, which are only rendered, so they are sent to other nodes as maps.
+     */
+    private Map<String, Object> getComponentStats() throws IOException {
+        try (XContentBuilder builder = XContentFactory.jsonBuilder()) {
+            builder.startObject();
+            for (Supplier<? extends ToXContentFragment> statsSupplier : components) {
+                statsSupplier.get().toXContent(builder, ToXContent.EMPTY_PARAMS);
+            }
+            builder.endObject();
+            return XContentHelper.convertToMap(BytesReference.bytes(builder), true, XContentType.JSON).v2();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.stats;
+
+import org.opensearch.action.ActionType;
+
+/**
+ * Action collecting the metrics of a plugin from the nodes of the cluster. Each plugin registers its own action name,
+ * so that both search relevance plugins can be installed on the same cluster.
+ */
+public class SearchRelevanceStatsAction extends ActionType<SearchRelevanceStatsResponse> {
+
+    /**
+     * @param name name of the action, unique to the plugin
+     */
+    protected SearchRelevanceStatsAction(String name) {
+        super(name, SearchRelevanceStatsResponse::new);
+    }
+}
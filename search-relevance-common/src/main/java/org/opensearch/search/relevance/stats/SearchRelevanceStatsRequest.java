@@ -0,0 +1,30 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.stats;
+
+import org.opensearch.action.support.nodes.BaseNodesRequest;
+import org.opensearch.core.common.io.stream.StreamInput;
+
+import java.io.IOException;
+
+/**
+ * Request of the metrics of the plugin on some or all nodes of the cluster.
+ */
+public class SearchRelevanceStatsRequest extends BaseNodesRequest<SearchRelevanceStatsRequest> {
+
+    /**
+     * @param nodesIds nodes to get metrics from, or none for all nodes
+     */
+    public SearchRelevanceStatsRequest(String... nodesIds) {
+        super(nodesIds);
+    }
+
+    public SearchRelevanceStatsRequest(StreamInput in) throws IOException {
+        super(in);
+    }
+}
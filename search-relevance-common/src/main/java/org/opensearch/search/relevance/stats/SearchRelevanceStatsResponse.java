@@ -0,0 +1,82 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.stats;
+
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.nodes.BaseNodesResponse;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Metrics of the plugin on the nodes of the cluster, reported per node and added up over all nodes.
+ */
+public class SearchRelevanceStatsResponse extends BaseNodesResponse<SearchRelevanceNodeStats> implements ToXContentFragment {
+
+    public SearchRelevanceStatsResponse(StreamInput in) throws IOException {
+        super(in);
+    }
+
+    public SearchRelevanceStatsResponse(ClusterName clusterName, List<SearchRelevanceNodeStats> nodes,
+                                        List<FailedNodeException> failures) {
+        super(clusterName, nodes, failures);
+    }
+
+    @Override
+    protected List<SearchRelevanceNodeStats> readNodesFrom(StreamInput in) throws IOException {
+        return in.readList(SearchRelevanceNodeStats::new);
+    }
+
+    @Override
+    protected void writeNodesTo(StreamOutput out, List<SearchRelevanceNodeStats> nodes) throws IOException {
+        out.writeList(nodes);
+    }
+
+    /**
+     * @return metrics by result transformer name, added up over all nodes
+     */
+    public Map<String, RerankerMetrics.Stats> getTransformers() {
+        final Map<String, RerankerMetrics.Stats> transformers = new TreeMap<>();
+        for (SearchRelevanceNodeStats nodeStats : getNodes()) {
+            nodeStats.getTransformers().forEach((name, stats) -> transformers.merge(name, stats, RerankerMetrics.Stats::add));
+        }
+        return transformers;
+    }
+
+    /**
+     * @return metrics by search pipeline processor type, added up over all nodes
+     */
+    public Map<String, RerankerMetrics.Stats> getProcessors() {
+        final Map<String, RerankerMetrics.Stats> processors = new TreeMap<>();
+        for (SearchRelevanceNodeStats nodeStats : getNodes()) {
+            nodeStats.getProcessors().forEach((type, stats) -> processors.merge(type, stats, RerankerMetrics.Stats::add));
+        }
+        return processors;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("all");
+        SearchRelevanceNodeStats.metricsToXContent(builder, params, getTransformers(), getProcessors());
+        builder.endObject();
+        builder.startObject("nodes");
+        for (SearchRelevanceNodeStats nodeStats : getNodes()) {
+            builder.startObject(nodeStats.getNode().getId());
+            nodeStats.toXContent(builder, params);
+            builder.endObject();
+        }
+        return builder.endObject();
+    }
+}
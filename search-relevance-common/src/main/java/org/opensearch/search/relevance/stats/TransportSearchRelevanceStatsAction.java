@@ -0,0 +1,77 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.stats;
+
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.ActionFilters;
+import org.opensearch.action.support.nodes.TransportNodesAction;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.TransportRequest;
+import org.opensearch.transport.TransportService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Collects the metrics of a plugin from the nodes of the cluster. Each plugin binds its stats action to a subclass
+ * with an injectable constructor.
+ */
+public class TransportSearchRelevanceStatsAction extends TransportNodesAction<SearchRelevanceStatsRequest,
+        SearchRelevanceStatsResponse, TransportSearchRelevanceStatsAction.NodeRequest, SearchRelevanceNodeStats> {
+
+    private final SearchRelevanceStats stats;
+
+    protected TransportSearchRelevanceStatsAction(SearchRelevanceStatsAction action, ThreadPool threadPool,
+                                                  ClusterService clusterService, TransportService transportService,
+                                                  ActionFilters actionFilters, SearchRelevanceStats stats) {
+        super(action.name(), threadPool, clusterService, transportService, actionFilters,
+                SearchRelevanceStatsRequest::new, NodeRequest::new, ThreadPool.Names.MANAGEMENT, SearchRelevanceNodeStats.class);
+        this.stats = stats;
+    }
+
+    @Override
+    protected SearchRelevanceStatsResponse newResponse(SearchRelevanceStatsRequest request, List<SearchRelevanceNodeStats> responses,
+                                                       List<FailedNodeException> failures) {
+        return new SearchRelevanceStatsResponse(clusterService.getClusterName(), responses, failures);
+    }
+
+    @Override
+    protected NodeRequest newNodeRequest(SearchRelevanceStatsRequest request) {
+        return new NodeRequest();
+    }
+
+    @Override
+    protected SearchRelevanceNodeStats newNodeResponse(StreamInput in) throws IOException {
+        return new SearchRelevanceNodeStats(in);
+    }
+
+    @Override
+    protected SearchRelevanceNodeStats nodeOperation(NodeRequest request) {
+        try {
+            return stats.getNodeStats(clusterService.localNode());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Request of the metrics of a single node.
+     */
+    public static class NodeRequest extends TransportRequest {
+
+        public NodeRequest() {
+        }
+
+        public NodeRequest(StreamInput in) throws IOException {
+            super(in);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.client;
+
+import org.opensearch.common.util.concurrent.ThreadContext;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ForkedCompletionListenerTests extends OpenSearchTestCase {
+
+    public void testCompletedOnExecutorInCallerContext() throws Exception {
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            ThreadContext threadContext = threadPool.getThreadContext();
+            CountDownLatch completed = new CountDownLatch(1);
+            AtomicReference<String> completionThread = new AtomicReference<>();
+            AtomicReference<String> completionHeader = new AtomicReference<>();
+            ActionListener<String> listener;
+            try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                threadContext.putHeader("caller", "search");
+                listener = new ForkedCompletionListener<>(threadPool, ThreadPool.Names.SEARCH, ActionListener.wrap(response -> {
+                    completionThread.set(Thread.currentThread().getName());
+                    completionHeader.set(threadContext.getHeader("caller"));
+                    completed.countDown();
+                }, e -> fail("Call should succeed")));
+            }
+            // Completed from a thread that does not carry the context of the caller, as an I/O thread
+            Thread ioThread = new Thread(() -> listener.onResponse("ranked"));
+            ioThread.start();
+            ioThread.join();
+
+            assertTrue(completed.await(10, TimeUnit.SECONDS));
+            assertTrue(completionThread.get(), completionThread.get().contains("[" + ThreadPool.Names.SEARCH + "]"));
+            assertEquals("search", completionHeader.get());
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
+    public void testFailedInCallerContextWhenRejected() throws Exception {
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        ThreadContext threadContext = threadPool.getThreadContext();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        AtomicReference<String> completionHeader = new AtomicReference<>();
+        ActionListener<String> listener;
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            threadContext.putHeader("caller", "search");
+            listener = new ForkedCompletionListener<>(threadPool, ThreadPool.Names.SEARCH, ActionListener.wrap(
+                    response -> fail("Call should fail"), e -> {
+                        failure.set(e);
+                        completionHeader.set(threadContext.getHeader("caller"));
+                    }));
+        }
+        // A terminated thread pool rejects the completion
+        terminate(threadPool);
+        RuntimeException callFailure = new RuntimeException("Call failed");
+        listener.onFailure(callFailure);
+
+        assertSame(callFailure, failure.get());
+        assertEquals(1, callFailure.getSuppressed().length);
+        assertEquals("search", completionHeader.get());
+    }
+}
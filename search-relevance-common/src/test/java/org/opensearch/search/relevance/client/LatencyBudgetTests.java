@@ -0,0 +1,117 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.client;
+
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.threadpool.TestThreadPool;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class LatencyBudgetTests extends OpenSearchTestCase {
+    private ThreadPool threadPool;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        threadPool = new TestThreadPool(getTestName());
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        terminate(threadPool);
+        super.tearDown();
+    }
+
+    public void testRemainingMillis() {
+        SearchRequest request = new SearchRequest().source(new SearchSourceBuilder());
+        LatencyBudget unbounded = new LatencyBudget(threadPool, TimeValue.MINUS_ONE);
+        assertEquals(-1, unbounded.getRemainingMillis(TimeValue.MINUS_ONE, request, 50));
+        assertEquals(100, unbounded.getRemainingMillis(TimeValue.timeValueMillis(100), request, 50));
+
+        LatencyBudget bounded = new LatencyBudget(threadPool, TimeValue.timeValueMillis(200));
+        assertEquals(200, bounded.getRemainingMillis(TimeValue.MINUS_ONE, request, 50));
+        // The budget of the index or pipeline takes precedence over the node-level budget
+        assertEquals(100, bounded.getRemainingMillis(TimeValue.timeValueMillis(100), request, 50));
+
+        // The call must complete before the search times out
+        SearchRequest timeoutRequest = new SearchRequest().source(new SearchSourceBuilder().timeout(TimeValue.timeValueMillis(120)));
+        assertEquals(70, unbounded.getRemainingMillis(TimeValue.MINUS_ONE, timeoutRequest, 50));
+        assertEquals(70, bounded.getRemainingMillis(TimeValue.MINUS_ONE, timeoutRequest, 50));
+        assertEquals(10, bounded.getRemainingMillis(TimeValue.timeValueMillis(10), timeoutRequest, 50));
+        assertEquals(0, bounded.getRemainingMillis(TimeValue.MINUS_ONE, timeoutRequest, 150));
+    }
+
+    public void testFallbackWhenBudgetIsExhausted() {
+        LatencyBudget latencyBudget = new LatencyBudget(threadPool, TimeValue.MINUS_ONE);
+        AtomicBoolean called = new AtomicBoolean();
+        AtomicBoolean fellBack = new AtomicBoolean();
+        latencyBudget.<String>execute(0, l -> {
+            called.set(true);
+            return () -> {};
+        }, ActionListener.wrap(r -> fail("Unexpected response"), e -> fail("Unexpected failure")), () -> fellBack.set(true));
+        assertFalse(called.get());
+        assertTrue(fellBack.get());
+        assertEquals(1, latencyBudget.getStats().getExhaustedCount());
+        assertEquals(1, latencyBudget.getStats().getFallbackCount());
+    }
+
+    public void testCallCancelledWhenBudgetIsSpent() throws Exception {
+        LatencyBudget latencyBudget = new LatencyBudget(threadPool, TimeValue.MINUS_ONE);
+        AtomicReference<ActionListener<String>> pendingCall = new AtomicReference<>();
+        CountDownLatch cancelled = new CountDownLatch(1);
+        CountDownLatch fellBack = new CountDownLatch(1);
+        latencyBudget.<String>execute(10, l -> {
+            pendingCall.set(l);
+            return cancelled::countDown;
+        }, ActionListener.wrap(r -> fail("Unexpected response"), e -> fail("Unexpected failure")), fellBack::countDown);
+        assertTrue(fellBack.await(10, TimeUnit.SECONDS));
+        assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+
+        // A late response is ignored
+        pendingCall.get().onResponse("late");
+        assertEquals(1, latencyBudget.getStats().getBudgetedCount());
+        assertEquals(10, latencyBudget.getStats().getBudgetInMillis());
+        assertEquals(1, latencyBudget.getStats().getTimedOutCount());
+    }
+
+    public void testResponseWithinBudget() throws Exception {
+        LatencyBudget latencyBudget = new LatencyBudget(threadPool, TimeValue.MINUS_ONE);
+        AtomicReference<String> result = new AtomicReference<>();
+        AtomicInteger fallbacks = new AtomicInteger();
+        latencyBudget.<String>execute(100, l -> {
+            l.onResponse("result");
+            return () -> fail("Completed call should not be cancelled");
+        }, ActionListener.wrap(result::set, e -> fail("Unexpected failure")), fallbacks::incrementAndGet);
+        assertEquals("result", result.get());
+
+        // Wait past the budget to check that the fallback does not run once the call completed
+        Thread.sleep(200);
+        assertEquals(0, fallbacks.get());
+        assertEquals(0, latencyBudget.getStats().getFallbackCount());
+    }
+
+    public void testUnboundedCall() {
+        LatencyBudget latencyBudget = new LatencyBudget(threadPool, TimeValue.MINUS_ONE);
+        AtomicReference<String> result = new AtomicReference<>();
+        latencyBudget.<String>execute(-1, l -> {
+            l.onResponse("result");
+            return null;
+        }, ActionListener.wrap(result::set, e -> fail("Unexpected failure")), () -> fail("Unexpected fallback"));
+        assertEquals("result", result.get());
+        assertEquals(0, latencyBudget.getStats().getBudgetedCount());
+    }
+}
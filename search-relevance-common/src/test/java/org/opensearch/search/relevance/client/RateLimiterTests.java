@@ -0,0 +1,81 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.client;
+
+import com.amazonaws.AmazonServiceException;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RateLimiterTests extends OpenSearchTestCase {
+    private static final String PLAN = "execution-plan";
+
+    private final AtomicLong nanoClock = new AtomicLong();
+
+    public void testCallsOverRateAreShed() {
+        RateLimiter rateLimiter = new RateLimiter(2, -1, Map.of(), nanoClock::get);
+        rateLimiter.acquire(PLAN);
+        rateLimiter.acquire(PLAN);
+        expectThrows(RejectedExecutionException.class, () -> rateLimiter.acquire(PLAN));
+
+        // Tokens are refilled at the configured rate
+        nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        rateLimiter.acquire(PLAN);
+        expectThrows(RejectedExecutionException.class, () -> rateLimiter.acquire(PLAN));
+
+        RateLimiter.TargetStats stats = rateLimiter.getStats().getTargets().get(PLAN);
+        assertEquals(3, stats.getAdmittedCount());
+        assertEquals(2, stats.getShedCount());
+        assertEquals(2.0, stats.getRate(), 0.0);
+    }
+
+    public void testReleasedTokenIsReused() {
+        RateLimiter rateLimiter = new RateLimiter(1, -1, Map.of(), nanoClock::get);
+        rateLimiter.acquire(PLAN);
+        rateLimiter.release(PLAN);
+        rateLimiter.acquire(PLAN);
+        expectThrows(RejectedExecutionException.class, () -> rateLimiter.acquire(PLAN));
+        assertEquals(1, rateLimiter.getStats().getAdmittedCount());
+    }
+
+    public void testBurstAndTargetRates() {
+        RateLimiter rateLimiter = new RateLimiter(-1, 1, Map.of(PLAN, 10.0), nanoClock::get);
+        rateLimiter.acquire(PLAN);
+        expectThrows(RejectedExecutionException.class, () -> rateLimiter.acquire(PLAN));
+
+        // Other execution plans are not limited
+        for (int i = 0; i < 100; i++) {
+            rateLimiter.acquire("other-plan");
+        }
+        assertEquals(101, rateLimiter.getStats().getAdmittedCount());
+        assertEquals(1, rateLimiter.getStats().getShedCount());
+    }
+
+    public void testThrottledCalls() {
+        RateLimiter rateLimiter = new RateLimiter(10, -1, Map.of(), nanoClock::get);
+        AmazonServiceException throttlingException = new AmazonServiceException("Rate exceeded");
+        throttlingException.setStatusCode(429);
+        rateLimiter.onFailure(PLAN, new RuntimeException("Exception executing request.", throttlingException));
+        AmazonServiceException validationException = new AmazonServiceException("Invalid request");
+        validationException.setStatusCode(400);
+        rateLimiter.onFailure(PLAN, new RuntimeException("Exception executing request.", validationException));
+        rateLimiter.onFailure(PLAN, new RuntimeException("Exception executing request."));
+        assertEquals(1, rateLimiter.getStats().getThrottledCount());
+    }
+
+    public void testParseTargetRates() {
+        assertEquals(Map.of(PLAN, 5.0, "other-plan", 0.5), RateLimiter.parseTargetRates(List.of(PLAN + "=5", "other-plan = 0.5")));
+        expectThrows(IllegalArgumentException.class, () -> RateLimiter.parseTargetRates(List.of(PLAN)));
+        expectThrows(IllegalArgumentException.class, () -> RateLimiter.parseTargetRates(List.of(PLAN + "=fast")));
+        expectThrows(IllegalArgumentException.class, () -> RateLimiter.parseTargetRates(List.of(PLAN + "=0")));
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.client;
+
+import com.amazonaws.AmazonServiceException;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RemoteCallGuardTests extends OpenSearchTestCase {
+    private static final String TARGET = "https://kendra-ranking.us-west-2.api.aws/rescore-execution-plans/plan/rescore";
+    private static final RuntimeException SERVICE_FAILURE = new RuntimeException("Exception executing request.");
+
+    private final AtomicLong nanoClock = new AtomicLong();
+
+    public void testBreakerOpensOnFailureRate() {
+        RemoteCallGuard guard = buildGuard(-1, TimeValue.MINUS_ONE);
+        for (int i = 0; i < 4; i++) {
+            RemoteCallGuard.Permit permit = guard.acquire(TARGET);
+            if (i % 2 == 0) {
+                permit.onSuccess();
+            } else {
+                permit.onFailure(SERVICE_FAILURE);
+            }
+        }
+        expectThrows(RejectedExecutionException.class, () -> guard.acquire(TARGET));
+        assertEquals("open", guard.getStats().getCircuitBreakers().get(TARGET).getState());
+        assertEquals(1, guard.getStats().getShortCircuitedCount());
+
+        // Other endpoints are not affected
+        guard.acquire("https://other-endpoint").onSuccess();
+    }
+
+    public void testBreakerIgnoresInvalidRequests() {
+        RemoteCallGuard guard = buildGuard(-1, TimeValue.MINUS_ONE);
+        AmazonServiceException validationException = new AmazonServiceException("Invalid request");
+        validationException.setStatusCode(400);
+        for (int i = 0; i < 10; i++) {
+            guard.acquire(TARGET).onFailure(new RuntimeException("Exception executing request.", validationException));
+        }
+        assertEquals("closed", guard.getStats().getCircuitBreakers().get(TARGET).getState());
+
+        AmazonServiceException throttlingException = new AmazonServiceException("Rate exceeded");
+        throttlingException.setStatusCode(429);
+        assertTrue(RemoteCallGuard.isRemoteFailure(throttlingException));
+    }
+
+    public void testBreakerCountsFailuresByErrorType() {
+        // Kendra throttles with a 400
+        AmazonServiceException throttlingException = new AmazonServiceException("Rate exceeded");
+        throttlingException.setStatusCode(400);
+        throttlingException.setErrorCode("ThrottlingException");
+        throttlingException.setErrorType(AmazonServiceException.ErrorType.Client);
+        assertTrue(RemoteCallGuard.isRemoteFailure(new RuntimeException("Exception executing request.", throttlingException)));
+
+        AmazonServiceException serviceException = new AmazonServiceException("Internal failure");
+        serviceException.setStatusCode(400);
+        serviceException.setErrorType(AmazonServiceException.ErrorType.Service);
+        assertTrue(RemoteCallGuard.isRemoteFailure(serviceException));
+
+        AmazonServiceException clientException = new AmazonServiceException("Not found");
+        clientException.setStatusCode(404);
+        clientException.setErrorCode("ResourceNotFoundException");
+        clientException.setErrorType(AmazonServiceException.ErrorType.Client);
+        assertFalse(RemoteCallGuard.isRemoteFailure(clientException));
+
+        RemoteCallGuard guard = buildGuard(-1, TimeValue.MINUS_ONE);
+        for (int i = 0; i < 4; i++) {
+            guard.acquire(TARGET).onFailure(new RuntimeException("Exception executing request.", throttlingException));
+        }
+        assertEquals("open", guard.getStats().getCircuitBreakers().get(TARGET).getState());
+    }
+
+    public void testBreakerOpensOnLatencyPercentile() {
+        RemoteCallGuard guard = buildGuard(-1, TimeValue.timeValueMillis(100));
+        for (int i = 0; i < 3; i++) {
+            RemoteCallGuard.Permit permit = guard.acquire(TARGET);
+            nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+            permit.onSuccess();
+        }
+        assertEquals("closed", guard.getStats().getCircuitBreakers().get(TARGET).getState());
+
+        // One slow call out of four is more than 10% of calls above the threshold at the 90th percentile
+        RemoteCallGuard.Permit permit = guard.acquire(TARGET);
+        nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(150));
+        permit.onSuccess();
+        assertEquals("open", guard.getStats().getCircuitBreakers().get(TARGET).getState());
+        assertEquals(1, guard.getStats().getCircuitBreakers().get(TARGET).getSlowCallCount());
+    }
+
+    public void testHalfOpenProbe() {
+        RemoteCallGuard guard = buildGuard(-1, TimeValue.MINUS_ONE);
+        tripBreaker(guard);
+        expectThrows(RejectedExecutionException.class, () -> guard.acquire(TARGET));
+
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        RemoteCallGuard.Permit probe = guard.acquire(TARGET);
+        assertEquals("half_open", guard.getStats().getCircuitBreakers().get(TARGET).getState());
+        // Only one probe at a time
+        expectThrows(RejectedExecutionException.class, () -> guard.acquire(TARGET));
+
+        // A failed probe opens the breaker again
+        probe.onFailure(SERVICE_FAILURE);
+        assertEquals("open", guard.getStats().getCircuitBreakers().get(TARGET).getState());
+        expectThrows(RejectedExecutionException.class, () -> guard.acquire(TARGET));
+
+        // A successful probe closes it
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        guard.acquire(TARGET).onSuccess();
+        assertEquals("closed", guard.getStats().getCircuitBreakers().get(TARGET).getState());
+        assertEquals(0, guard.getStats().getCircuitBreakers().get(TARGET).getCallCount());
+        assertEquals(2, guard.getStats().getCircuitBreakers().get(TARGET).getOpenedCount());
+        guard.acquire(TARGET).onSuccess();
+    }
+
+    public void testHalfOpenIgnoresCallsStartedBeforeOpening() {
+        RemoteCallGuard guard = buildGuard(-1, TimeValue.MINUS_ONE);
+        RemoteCallGuard.Permit straggler = guard.acquire(TARGET);
+        RemoteCallGuard.Permit otherStraggler = guard.acquire(TARGET);
+        tripBreaker(guard);
+
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        RemoteCallGuard.Permit probe = guard.acquire(TARGET);
+        // Only the probe decides whether the breaker closes or opens again
+        straggler.onSuccess();
+        assertEquals("half_open", guard.getStats().getCircuitBreakers().get(TARGET).getState());
+        expectThrows(RejectedExecutionException.class, () -> guard.acquire(TARGET));
+        otherStraggler.onFailure(SERVICE_FAILURE);
+        assertEquals("half_open", guard.getStats().getCircuitBreakers().get(TARGET).getState());
+        assertEquals(1, guard.getStats().getCircuitBreakers().get(TARGET).getOpenedCount());
+
+        probe.onSuccess();
+        assertEquals("closed", guard.getStats().getCircuitBreakers().get(TARGET).getState());
+    }
+
+    public void testCancelledCallsDoNotTripBreaker() {
+        RemoteCallGuard guard = buildGuard(-1, TimeValue.timeValueMillis(100));
+        for (int i = 0; i < 3; i++) {
+            guard.acquire(TARGET).onCancel();
+        }
+        assertEquals("closed", guard.getStats().getCircuitBreakers().get(TARGET).getState());
+        assertEquals(0, guard.getStats().getCircuitBreakers().get(TARGET).getFailureCount());
+
+        tripBreaker(guard);
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        // A probe cancelled before it was slow tells nothing about the endpoint, so another probe is let through
+        guard.acquire(TARGET).onCancel();
+        assertEquals("half_open", guard.getStats().getCircuitBreakers().get(TARGET).getState());
+        RemoteCallGuard.Permit probe = guard.acquire(TARGET);
+
+        // A probe cancelled once it was slow opens the breaker again
+        nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(150));
+        probe.onCancel();
+        assertEquals("open", guard.getStats().getCircuitBreakers().get(TARGET).getState());
+    }
+
+    public void testBulkheadCapsCallsInFlight() {
+        RemoteCallGuard guard = buildGuard(2, TimeValue.MINUS_ONE);
+        RemoteCallGuard.Permit first = guard.acquire(TARGET);
+        RemoteCallGuard.Permit second = guard.acquire("https://other-endpoint");
+        assertEquals(2, guard.getStats().getInFlightCount());
+        expectThrows(RejectedExecutionException.class, () -> guard.acquire(TARGET));
+        assertEquals(1, guard.getStats().getBulkheadRejectedCount());
+
+        first.onSuccess();
+        // Completing a permit twice releases it once
+        first.onSuccess();
+        assertEquals(1, guard.getStats().getInFlightCount());
+        guard.acquire(TARGET);
+        expectThrows(RejectedExecutionException.class, () -> guard.acquire(TARGET));
+        second.onFailure(SERVICE_FAILURE);
+        assertEquals(1, guard.getStats().getInFlightCount());
+    }
+
+    private void tripBreaker(RemoteCallGuard guard) {
+        for (int i = 0; i < 4; i++) {
+            guard.acquire(TARGET).onFailure(SERVICE_FAILURE);
+        }
+    }
+
+    private RemoteCallGuard buildGuard(int maxConcurrentCalls, TimeValue latencyThreshold) {
+        return new RemoteCallGuard("Kendra Intelligent Ranking", maxConcurrentCalls, true, 10, 4, 0.5, latencyThreshold,
+                0.9, TimeValue.timeValueSeconds(30), nanoClock::get);
+    }
+}
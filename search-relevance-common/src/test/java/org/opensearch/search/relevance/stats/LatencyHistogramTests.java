@@ -0,0 +1,49 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.stats;
+
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+public class LatencyHistogramTests extends OpenSearchTestCase {
+
+    public void testBuckets() {
+        assertEquals(0, LatencyHistogram.bucket(0));
+        assertEquals(0, LatencyHistogram.bucket(TimeUnit.MILLISECONDS.toNanos(1)));
+        assertEquals(1, LatencyHistogram.bucket(TimeUnit.MILLISECONDS.toNanos(1) + 1));
+        assertEquals(6, LatencyHistogram.bucket(TimeUnit.MILLISECONDS.toNanos(75)));
+        assertEquals(LatencyHistogram.BUCKET_BOUNDS_MILLIS.length, LatencyHistogram.bucket(Long.MAX_VALUE));
+    }
+
+    public void testRecordAndAdd() throws IOException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(500));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(75));
+        histogram.record(TimeUnit.SECONDS.toNanos(30));
+        LatencyHistogram.Stats stats = histogram.getStats();
+        assertEquals(3, stats.getCount());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(500) + TimeUnit.MILLISECONDS.toNanos(75) + TimeUnit.SECONDS.toNanos(30),
+                stats.getTotalNanos());
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        stats.writeTo(out);
+        LatencyHistogram.Stats deserialized = new LatencyHistogram.Stats(out.bytes().streamInput());
+        assertArrayEquals(stats.getBucketCounts(), deserialized.getBucketCounts());
+        assertEquals(stats.getTotalNanos(), deserialized.getTotalNanos());
+
+        LatencyHistogram.Stats sum = stats.add(deserialized);
+        assertEquals(6, sum.getCount());
+        assertEquals(2, sum.getBucketCounts()[0]);
+        assertEquals(2, sum.getBucketCounts()[6]);
+        assertEquals(2, sum.getBucketCounts()[LatencyHistogram.BUCKET_BOUNDS_MILLIS.length]);
+        assertEquals(2 * stats.getTotalNanos(), sum.getTotalNanos());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * The OpenSearch Contributors require contributions made to
+ * this file be licensed under the Apache-2.0 license or a
+ * compatible open source license.
+ */
+package org.opensearch.search.relevance.stats;
+
+import org.opensearch.Version;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.common.xcontent.XContentHelper;
+import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.common.xcontent.support.XContentMapValues;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class SearchRelevanceStatsTests extends OpenSearchTestCase {
+    private static final String TRANSFORMER = "kendra_intelligent_ranking";
+    private static final String PROCESSOR = "kendra_ranking";
+
+    public void testNodeStatsSerialization() throws IOException {
+        SearchRelevanceStats stats = buildStats();
+        DiscoveryNode node = new DiscoveryNode("node-1", buildNewFakeTransportAddress(), Version.CURRENT);
+        SearchRelevanceNodeStats nodeStats = stats.getNodeStats(node);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        nodeStats.writeTo(out);
+        SearchRelevanceNodeStats deserialized = new SearchRelevanceNodeStats(out.bytes().streamInput());
+
+        assertEquals(node, deserialized.getNode());
+        RerankerMetrics.Stats transformerStats = deserialized.getTransformers().get(TRANSFORMER);
+        assertEquals(2, transformerStats.getRequestCount());
+        assertEquals(1, transformerStats.getErrorCount());
+        assertEquals(1, transformerStats.getFallbackCount());
+        assertEquals(2, transformerStats.getTotalLatency().getCount());
+        assertEquals(1, transformerStats.getPreprocessingLatency().getCount());
+        assertEquals(1, transformerStats.getRemoteCallLatency().getCount());
+        assertEquals(1, transformerStats.getPostprocessingLatency().getCount());
+        assertEquals(1024, transformerStats.getRequestSizeInBytes());
+        assertEquals(256, transformerStats.getResponseSizeInBytes());
+        assertEquals(1, deserialized.getProcessors().get(PROCESSOR).getRequestCount());
+        assertEquals(Map.of("shed_count", 3), deserialized.getComponents().get("test_component"));
+    }
+
+    public void testResponseAddsUpNodes() throws IOException {
+        SearchRelevanceStats stats = buildStats();
+        SearchRelevanceNodeStats node1Stats = stats.getNodeStats(
+                new DiscoveryNode("node-1", buildNewFakeTransportAddress(), Version.CURRENT));
+        SearchRelevanceNodeStats node2Stats = stats.getNodeStats(
+                new DiscoveryNode("node-2", buildNewFakeTransportAddress(), Version.CURRENT));
+        SearchRelevanceStatsResponse response = new SearchRelevanceStatsResponse(new ClusterName("test"),
+                List.of(node1Stats, node2Stats), Collections.emptyList());
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        response.writeTo(out);
+        SearchRelevanceStatsResponse deserialized = new SearchRelevanceStatsResponse(out.bytes().streamInput());
+        assertEquals(2, deserialized.getNodes().size());
+        assertEquals(4, deserialized.getTransformers().get(TRANSFORMER).getRequestCount());
+        assertEquals(2, deserialized.getProcessors().get(PROCESSOR).getRequestCount());
+
+        Map<String, Object> map = XContentHelper.convertToMap(
+                XContentHelper.toXContent(deserialized, XContentType.JSON, false), false, XContentType.JSON).v2();
+        assertEquals(4, XContentMapValues.extractValue("all.transformers." + TRANSFORMER + ".request_count", map));
+        assertEquals(2, XContentMapValues.extractValue("all.transformers." + TRANSFORMER + ".error_count", map));
+        assertEquals(2, XContentMapValues.extractValue(
+                "all.transformers." + TRANSFORMER + ".latency.remote_call.count", map));
+        assertEquals(2048, XContentMapValues.extractValue(
+                "all.transformers." + TRANSFORMER + ".payload.request_size_in_bytes", map));
+        assertEquals(2, XContentMapValues.extractValue(
+                "all.transformers." + TRANSFORMER + ".latency.total.buckets.100ms", map));
+        assertEquals(1, XContentMapValues.extractValue("nodes.node-1.processors." + PROCESSOR + ".request_count", map));
+        assertEquals(3, XContentMapValues.extractValue("nodes.node-2.components.test_component.shed_count", map));
+    }
+
+    private static SearchRelevanceStats buildStats() {
+        SearchRelevanceStats stats = new SearchRelevanceStats();
+        RerankerMetrics transformerMetrics = stats.getTransformerMetrics(TRANSFORMER);
+        assertSame(transformerMetrics, stats.getTransformerMetrics(TRANSFORMER));
+        transformerMetrics.recordPreprocessing(TimeUnit.MILLISECONDS.toNanos(3));
+        transformerMetrics.recordRemoteCall(TimeUnit.MILLISECONDS.toNanos(80));
+        transformerMetrics.recordPostprocessing(TimeUnit.MILLISECONDS.toNanos(1));
+        transformerMetrics.recordRequestSize(1024);
+        transformerMetrics.recordResponseSize(256);
+        transformerMetrics.onRequest(TimeUnit.MILLISECONDS.toNanos(84));
+        transformerMetrics.onFallback();
+        transformerMetrics.onError();
+        transformerMetrics.onRequest(TimeUnit.MILLISECONDS.toNanos(5));
+        stats.getProcessorMetrics(PROCESSOR).onRequest(TimeUnit.MILLISECONDS.toNanos(20));
+        stats.addComponent(() -> (builder, params) -> builder.startObject("test_component").field("shed_count", 3).endObject());
+        return stats;
+    }
+}